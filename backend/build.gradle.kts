@@ -19,6 +19,9 @@ dependencies {
   annotationProcessor("org.projectlombok:lombok:1.18.34")
   testCompileOnly("org.projectlombok:lombok:1.18.34")
   testAnnotationProcessor("org.projectlombok:lombok:1.18.34")
+  // javax.annotation.meta.When, referenced by Spring's @Nullable on the DataSource/JDBC types
+  // that common/db wraps; without it javac warns "unknown enum constant When.MAYBE"
+  compileOnly("com.google.code.findbugs:jsr305:3.0.2")
   implementation("org.springframework.boot:spring-boot-starter-web")
   implementation("org.springframework.boot:spring-boot-starter-security")
   implementation("org.springframework.boot:spring-boot-starter-validation")
@@ -33,6 +36,9 @@ dependencies {
   // Kafka
   implementation("org.springframework.kafka:spring-kafka")
 
+  // In-process caches
+  implementation("com.github.ben-manes.caffeine:caffeine")
+
   // AWS DynamoDB v2
 
   // OpenAPI
@@ -49,10 +55,121 @@ dependencies {
 }
 
 tasks.test {
-  useJUnitPlatform()
+  useJUnitPlatform { excludeTags("benchmark") }
   testLogging {
     showStandardStreams = true   // <-- печатать stdout/stderr
     events("FAILED", "SKIPPED", "PASSED")
     exceptionFormat = org.gradle.api.tasks.testing.logging.TestExceptionFormat.FULL
   }
 }
+
+// ./gradlew :backend:bootRun -PvirtualThreads
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+  if (project.hasProperty("virtualThreads")) {
+    systemProperty("spring.profiles.active", "virtual-threads")
+    jvmArgs("-Djdk.tracePinnedThreads=short")
+  }
+}
+
+// Fast startup (see README "Startup"):
+//   ./gradlew :backend:cdsArchive -PfastStartup   # needs DB_URL/KAFKA_BOOTSTRAP like bootRun
+// -PfastStartup applies Spring AOT: processAot evaluates the bean definitions once, at build time,
+// for the profiles in -PaotProfiles (default fast-startup), and the generated code is used when
+// the app runs with -Dspring.aot.enabled=true. extractApp unpacks the boot jar (CDS needs plain
+// jars) and cdsArchive records the classes loaded by a training run that refreshes the context and
+// exits, into build/cds/application.jsa.
+val fastStartup = project.hasProperty("fastStartup")
+val aotProfiles = (findProperty("aotProfiles") as String?) ?: "fast-startup"
+if (fastStartup) {
+  apply(plugin = "org.springframework.boot.aot")
+  tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    args("--spring.profiles.active=$aotProfiles")
+  }
+}
+
+val cdsDir = layout.buildDirectory.dir("cds")
+val javaBin = javaToolchains.launcherFor(java.toolchain).map { it.executablePath.asFile.path }
+val extractedJar = cdsDir.map { it.file("app/" + tasks.bootJar.get().archiveFileName.get()) }
+
+val extractApp = tasks.register<Exec>("extractApp") {
+  description = "Extracts the boot jar into build/cds/app."
+  group = "build"
+  dependsOn(tasks.bootJar)
+  doFirst {
+    commandLine(
+      javaBin.get(), "-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.path,
+      "extract", "--force", "--destination", cdsDir.get().dir("app").asFile.path)
+  }
+}
+
+tasks.register<Exec>("cdsArchive") {
+  description = "Records an AppCDS archive from a training run of the extracted application."
+  group = "build"
+  dependsOn(extractApp)
+  doFirst {
+    val aot = if (fastStartup) listOf("-Dspring.aot.enabled=true") else emptyList()
+    commandLine(
+      listOf(javaBin.get(), "-XX:ArchiveClassesAtExit=" + cdsDir.get().file("application.jsa"))
+        + aot
+        + listOf(
+          "-Dspring.context.exit=onRefresh", "-Dspring.profiles.active=$aotProfiles",
+          "-jar", extractedJar.get().asFile.path))
+  }
+}
+
+// Testcontainers load comparisons (need Docker), excluded from `test`:
+//   ./gradlew :backend:threadModeBenchmark [-Dbench.clients=400 -Dbench.seconds=20]
+//   ./gradlew :backend:loggingBenchmark
+//   ./gradlew :backend:startupBenchmark -PfastStartup [-Dbench.startup.runs=5]
+//   ./gradlew :backend:warmupBenchmark [-Dbench.warmup.runs=3]
+//   ./gradlew :backend:sfBatchBenchmark [-Dbench.sfBatch.p99BudgetMs=50]
+//   ./gradlew :backend:shardScalingBenchmark [-Dbench.shards.clients=64 -Dbench.shards.batch=16]
+//   ./gradlew :backend:singleFlightBenchmark
+fun registerBenchmark(name: String, testClass: String, text: String) =
+  tasks.register<Test>(name) {
+    description = text
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform { includeTags("benchmark") }
+    filter { includeTestsMatching("*$testClass") }
+    jvmArgs("-Djdk.tracePinnedThreads=short")
+    System.getProperties().filterKeys { it.toString().startsWith("bench.") }
+      .forEach { (k, v) -> systemProperty(k.toString(), v) }
+    testLogging { showStandardStreams = true }
+    outputs.upToDateWhen { false }
+  }
+
+registerBenchmark(
+  "threadModeBenchmark", "ThreadModeBenchmark",
+  "Compares throughput and p99 of platform-thread and virtual-thread modes.")
+registerBenchmark(
+  "loggingBenchmark", "LoggingBenchmark",
+  "Compares request latency with logging off, synchronous and asynchronous.")
+registerBenchmark(
+  "sfBatchBenchmark", "SfBatchBenchmark",
+  "Compares DB commits/sec and p99 of single and batched SF submit reservations.")
+registerBenchmark(
+  "shardScalingBenchmark", "ShardScalingBenchmark",
+  "Compares SF reservation throughput with 1, 2 and 4 idempotency shards.")
+registerBenchmark(
+  "singleFlightBenchmark", "SingleFlightBenchmark",
+  "Compares DB calls/sec of hot course and user lookups with and without single-flight.")
+registerBenchmark(
+  "startupBenchmark", "StartupBenchmark",
+  "Compares startup and time to first request of the default and fast-startup launches.")
+  .configure {
+    dependsOn(extractApp)
+    systemProperty("bench.startup.bootJar", tasks.bootJar.get().archiveFile.get().asFile.path)
+    systemProperty("bench.startup.extractedJar", extractedJar.get().asFile.path)
+    systemProperty("bench.startup.java", javaBin.get())
+    systemProperty("bench.startup.aot", fastStartup)
+  }
+registerBenchmark(
+  "warmupBenchmark", "WarmupBenchmark",
+  "Compares the latency of the first requests with and without the pre-readiness warm-up.")
+  .configure {
+    dependsOn(tasks.bootJar)
+    systemProperty("bench.startup.bootJar", tasks.bootJar.get().archiveFile.get().asFile.path)
+    systemProperty("bench.startup.java", javaBin.get())
+  }
@@ -2,9 +2,11 @@ package com.example.ui_kafka_sf;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /** UiKafkaSfApplication is part of the application's domain layer. */
 @SpringBootApplication
+@EnableScheduling
 public class UiKafkaSfApplication {
 
   /** Performs a unit of domain logic; see README for the surrounding flow. */
@@ -17,7 +17,9 @@ import org.springframework.web.bind.annotation.*;
 public class AdminUserController {
 
   private final UserRepository users;
+  private final UserCache userCache;
   private final PasswordEncoder encoder;
+  private final TokenRevocations revocations;
 
   /** Performs a unit of domain logic; see README for the surrounding flow. */
   public record UserView(String username, Role role) {
@@ -36,16 +38,28 @@ public class AdminUserController {
     return users.findAll().stream().map(UserView::from).toList();
   }
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /** Sets a new password and revokes every token issued to the user so far. */
   @PutMapping("/{username}/password")
   public ResponseEntity<?> changePassword(
       @PathVariable String username, @RequestBody ChangePasswordReq req) {
-    var u = users.findByUsername(username).orElse(null);
+    var u = userCache.findByUsername(username).orElse(null);
     if (u == null) {
       return ResponseEntity.notFound().build();
     }
     u.setPasswordHash(encoder.encode(req.newPassword()));
     users.save(u);
+    userCache.invalidate(username);
+    revocations.revokeUser(username);
+    return ResponseEntity.ok().build();
+  }
+
+  /** Forced logout: revokes every token issued to the user so far. */
+  @PostMapping("/{username}/logout")
+  public ResponseEntity<?> logout(@PathVariable String username) {
+    if (userCache.findByUsername(username).isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    revocations.revokeUser(username);
     return ResponseEntity.ok().build();
   }
 }
@@ -1,5 +1,9 @@
 package com.example.ui_kafka_sf.auth;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -18,6 +22,17 @@ public class AppProperties {
   private Jwt jwt = new Jwt();
   private Kafka kafka = new Kafka();
   private Aws aws = new Aws();
+  private CourseExpiry courseExpiry = new CourseExpiry();
+  private UserCache userCache = new UserCache();
+  private DbMetrics dbMetrics = new DbMetrics();
+  private Jfr jfr = new Jfr();
+  private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+  private Warmup warmup = new Warmup();
+  private SfBatch sfBatch = new SfBatch();
+  private SfShards sfShards = new SfShards();
+  private SfAnalytics sfAnalytics = new SfAnalytics();
+  private SingleFlight singleFlight = new SingleFlight();
+  private Idempotency idempotency = new Idempotency();
 
   @Data
   public static class Jwt {
@@ -32,6 +47,247 @@ public class AppProperties {
 
     /** Topic for user registration events */
     private String usersTopic = "users.registered";
+
+    /** Topic for course lifecycle events (e.g. EXPIRED) */
+    private String courseLifecycleTopic = "course.lifecycle";
+
+    /** Compacted topic with the latest state of every course (tombstone on delete) */
+    private String courseChangesTopic = "course.changes";
+
+    /**
+     * CourseView stops serving (callers fall back to Postgres) when it is further behind the course
+     * change topic than this, or has not heard from its consumer for as long
+     */
+    private long courseViewMaxStalenessMs = 5000;
+
+    /** Topic broadcasting user cache invalidations to all instances */
+    private String userInvalidationTopic = "users.invalidate";
+
+    /** Compacted topic with revoked tokens and per-user revocation watermarks */
+    private String tokenRevocationTopic = "auth.revocations";
+
+    /** How long a revocation waits for the broker's ack before its request fails with 503 */
+    private long tokenRevocationAckTimeoutMs = 5000;
+
+    /** Retry tiers and dead-letter topic of {@code UserRegistrationConsumer} */
+    private Retry registrationRetry = new Retry();
+  }
+
+  @Data
+  public static class Retry {
+    /** Deliveries including the first; {@code attempts - 1} retry topics */
+    private int attempts = 4;
+
+    private long initialDelayMs = 1000;
+    private double multiplier = 4;
+    private long maxDelayMs = 60_000;
+  }
+
+  @Data
+  public static class UserCache {
+    private boolean enabled = true;
+    private long maxSize = 100_000;
+    private long ttlSeconds = 300;
+
+    /** TTL for "no such user" entries; short, so a missed invalidation heals quickly */
+    private long negativeTtlSeconds = 30;
+  }
+
+  @Data
+  public static class CourseExpiry {
+    private boolean enabled = true;
+
+    /** Timing-wheel tick, i.e. expiry precision */
+    private long tickMs = 1000;
+
+    /** Slots per wheel level */
+    private int wheelSize = 60;
+
+    /** How far ahead deadlines are loaded into memory */
+    private int horizonMinutes = 60;
+
+    /** Max ids per batched UPDATE */
+    private int batchSize = 500;
+  }
+
+  @Data
+  public static class DbMetrics {
+    /** Wraps the DataSource to time every JDBC statement; off means no proxy at all */
+    private boolean enabled = false;
+
+    /** Statements at or above this are logged on the sql.slow logger */
+    private long slowQueryThresholdMs = 200;
+
+    /** Distinct normalized statements kept for /actuator/sqlstats */
+    private int maxTrackedStatements = 500;
+  }
+
+  @Data
+  public static class ConcurrencyLimit {
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 500;
+
+    /** Sampling window: at least this long and at least windowMinSamples requests */
+    private long windowMs = 250;
+
+    private int windowMinSamples = 10;
+
+    /** Share of each new estimate blended into the limit per window */
+    private double smoothing = 0.2;
+
+    /** Latency may exceed the long-term baseline by this factor before the limit shrinks */
+    private double rttTolerance = 1.5;
+
+    /** Extra permits for ROLE_ADMIN, as a fraction of the current limit */
+    private double adminHeadroom = 0.5;
+  }
+
+  @Data
+  public static class Warmup {
+    /** Runs the warm-up steps before readiness reports ACCEPTING_TRAFFIC */
+    private boolean enabled = true;
+
+    /** Synthetic iterations of each CPU-bound step (JWT, SF key, course mapping) */
+    private int iterations = 2000;
+
+    /** Users loaded into UserCache from Postgres */
+    private int userCachePrimeSize = 1000;
+
+    /** Courses read from Postgres through the DTO mapping */
+    private int coursePrimeSize = 500;
+
+    /** Remaining steps are skipped after this; readiness never waits longer */
+    private long maxDurationMs = 30_000;
+  }
+
+  @Data
+  public static class SfBatch {
+    /** Coalesces concurrent SF submits into one reservation statement per batch */
+    private boolean enabled = true;
+
+    /** How long a batch stays open after its first submission */
+    private long windowMicros = 1000;
+
+    /** A batch is flushed early once it holds this many submissions */
+    private int maxBatchSize = 64;
+
+    /** Threads flushing batches, i.e. reservation statements in flight at once */
+    private int flushers = 2;
+
+    /** Submissions waiting for a flusher; beyond it callers reserve on their own thread */
+    private int queueCapacity = 10_000;
+  }
+
+  @Data
+  public static class SfShards {
+    /** Reserves SF idempotency keys on the shards below instead of the primary datasource */
+    private boolean enabled = false;
+
+    /** Shard datasources by name; the name, not the URL, fixes a shard's place on the ring */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    /** Shards owning keys; empty means all of {@code shards} */
+    private List<String> ring = new ArrayList<>();
+
+    /** Ring before the current resharding; while set, reservations check both owners */
+    private List<String> previousRing = new ArrayList<>();
+
+    /** Points per shard on the ring; more means an evener split */
+    private int virtualNodes = 128;
+
+    private long healthCheckIntervalMs = 5000;
+
+    /** Rows per copy statement of the resharding migration */
+    private int migrationBatchSize = 1000;
+  }
+
+  @Data
+  public static class SfAnalytics {
+    /** Feeds SF submit outcomes into the streaming sketches behind /api/admin/sf-analytics */
+    private boolean enabled = true;
+
+    /** Length of the sliding window the figures cover */
+    private long windowSeconds = 3600;
+
+    /** Buckets per window; the window slides in steps of windowSeconds / buckets */
+    private int buckets = 12;
+
+    /** HyperLogLog registers = 2^precision; relative error 1.04 / sqrt(2^precision) */
+    private int hllPrecision = 12;
+
+    /** Count-Min counters per row; overcount at most e / width of the window's total */
+    private int cmsWidth = 1024;
+
+    /** Count-Min rows; the bound above fails with probability e^-depth */
+    private int cmsDepth = 4;
+
+    /** Heavy hitters tracked per dimension */
+    private int topK = 10;
+
+    /** How often heavy-hitter counts and their gauges are re-estimated */
+    private long refreshIntervalMs = 15000;
+  }
+
+  @Data
+  public static class SingleFlight {
+    /** Coalesces concurrent identical course and user lookups into one DB call */
+    private boolean enabled = true;
+  }
+
+  @Data
+  public static class Idempotency {
+    /** Honors the {@code Idempotency-Key} header on the write endpoints */
+    private boolean enabled = true;
+
+    /** How long a stored response is replayed for its key */
+    private long ttlSeconds = 86400;
+
+    /** An original still unfinished after this is presumed dead; its key can be taken over */
+    private long leaseMs = 30000;
+
+    /** How long a duplicate waits for its in-flight original before answering 409 */
+    private long waitTimeoutMs = 10000;
+
+    /** Larger responses are not stored; their key is released instead */
+    private int maxResponseBytes = 65536;
+
+    /** Keyed requests with a larger body are refused with 413; the body is buffered to hash it */
+    private int maxRequestBytes = 65536;
+
+    /** Completed responses kept in memory on each instance */
+    private int nearCacheSize = 10000;
+
+    /** How often expired keys are deleted */
+    private long purgeIntervalMs = 60000;
+  }
+
+  @Data
+  public static class Shard {
+    private String url;
+    private String username;
+    private String password;
+    private int poolSize = 10;
+    private long acquireTimeoutMs = 2000;
+  }
+
+  @Data
+  public static class Jfr {
+    /** Starts the in-process continuous recording (profile "jfr") */
+    private boolean enabled = false;
+
+    /** JDK settings the recording starts from: "default" (production) or "profile" */
+    private String settings = "default";
+
+    private long maxAgeMinutes = 30;
+    private long maxSizeMb = 256;
+
+    /** Domain events shorter than this are not recorded */
+    private long eventThresholdMs = 0;
+
+    /** Window returned by /actuator/jfr when no minutes parameter is given */
+    private int dumpMinutes = 5;
   }
 
   @Data
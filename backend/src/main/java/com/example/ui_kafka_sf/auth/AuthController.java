@@ -33,6 +33,13 @@ public class AuthController {
     return authService.login(req);
   }
 
+  /** Revokes the presented token (delegates to {@link AuthService#logout}). */
+  @PostMapping("/logout")
+  public ResponseEntity<?> logout(
+      @RequestHeader(value = "Authorization", required = false) String authorization) {
+    return authService.logout(authorization);
+  }
+
   /**
    * Returns a minimal view of the current security context (delegates to {@link AuthService#me}).
    */
@@ -0,0 +1,43 @@
+package com.example.ui_kafka_sf.auth;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/** Topics used by the auth domain. */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class AuthKafkaConfig {
+
+  /** Invalidations are only useful for a TTL's worth of time, so keep retention short. */
+  @Bean
+  NewTopic userInvalidationTopic(AppProperties props) {
+    return TopicBuilder.name(props.getKafka().getUserInvalidationTopic())
+        .partitions(1)
+        .replicas(1)
+        .config("retention.ms", "3600000")
+        .build();
+  }
+
+  /**
+   * Compacted to the latest revocation per user or token; a revocation only matters until the
+   * tokens it covers expire, so records older than a token TTL (plus slack) are deleted.
+   */
+  @Bean
+  NewTopic tokenRevocationTopic(AppProperties props) {
+    long retentionMs = (props.getJwt().getTtlMinutes() + 10) * 60_000L;
+    return TopicBuilder.name(props.getKafka().getTokenRevocationTopic())
+        .partitions(1)
+        .replicas(1)
+        .config("cleanup.policy", "compact,delete")
+        .config("retention.ms", String.valueOf(retentionMs))
+        .config("min.cleanable.dirty.ratio", "0.01")
+        .build();
+  }
+}
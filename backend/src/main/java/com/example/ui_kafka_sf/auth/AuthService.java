@@ -7,11 +7,12 @@ import com.example.ui_kafka_sf.auth.dto.RegisterReq;
 import com.example.ui_kafka_sf.auth.dto.TokenResp;
 import com.example.ui_kafka_sf.auth.dto.UserRegisteredEvent;
 import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.core.Authentication;
@@ -29,10 +30,12 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
   private final UserRepository users;
+  private final UserCache userCache;
   private final PasswordEncoder encoder;
   private final JwtUtil jwt;
   private final KafkaTemplate<String, Object> kafka;
   private final AppProperties props;
+  private final TokenRevocations revocations;
 
   /**
    * Registers a new user account.
@@ -40,7 +43,8 @@ public class AuthService {
    * <p>Returns 200 OK on success; 400 with {@code error=user_exists} on duplicate.
    */
   public ResponseEntity<?> register(@Valid RegisterReq req) {
-    var existing = users.findByUsername(req.username());
+    // a cached hit is authoritative for "exists"; a cached miss may be stale, so the insert decides
+    var existing = userCache.findByUsername(req.username());
     if (existing.isPresent())
       return ResponseEntity.badRequest().body(of("error", "user_exists"));
 
@@ -50,7 +54,7 @@ public class AuthService {
     u.setPasswordHash(encoder.encode(req.password()));
     u.setRole(req.role());
 
-    // save User to DB
+    // insert-only: never overwrites an account created since the cache said "absent"
     if (!saveUserToDB(u))
       return ResponseEntity.badRequest().body(of("error", "user_exists"));
 
@@ -66,7 +70,7 @@ public class AuthService {
    * <p>Returns 200 OK with {@link TokenResp}; 401 with {@code error=invalid_credentials} otherwise.
    */
   public ResponseEntity<?> login(@Valid LoginReq req) {
-    var u = users.findByUsername(req.username());
+    var u = userCache.findByUsername(req.username());
     if (u.isEmpty() || !encoder.matches(req.password(), u.get().getPasswordHash()))
       return ResponseEntity.status(401).body(of("error", "invalid_credentials"));
     var pair = jwt.issue(u.get().getUsername(), u.get().getRole().name());
@@ -75,6 +79,28 @@ public class AuthService {
             pair.token(), pair.expiresInSec(), u.get().getUsername(), u.get().getRole().name()));
   }
 
+  /**
+   * Revokes the bearer token of the request until it expires.
+   *
+   * <p>{@code /api/auth/**} bypasses the JWT filter, so the token is verified here. Returns 204 No
+   * Content; 401 with {@code error=invalid_token} if it is missing or invalid. A token without
+   * {@code jti} (issued before tokens had one) cannot be revoked on its own, so every token of its
+   * user is.
+   */
+  public ResponseEntity<?> logout(String authorization) {
+    if (authorization == null || !authorization.startsWith("Bearer "))
+      return ResponseEntity.status(401).body(of("error", "invalid_token"));
+    Claims claims;
+    try {
+      claims = jwt.parse(authorization.substring(7));
+    } catch (JwtException | IllegalArgumentException e) {
+      return ResponseEntity.status(401).body(of("error", "invalid_token"));
+    }
+    if (claims.getId() == null) revocations.revokeUser(claims.getSubject());
+    else revocations.revokeToken(claims.getSubject(), claims.getId(), claims.getExpiration());
+    return ResponseEntity.noContent().build();
+  }
+
   /** Returns a minimal view of the current security context. */
   public Map<String, Object> me(Authentication auth) {
     var roles =
@@ -86,14 +112,17 @@ public class AuthService {
 
   // -- HELPER METHODS
 
-  /** Persists the user; returns false on duplicate (unique constraint race). */
+  /**
+   * Inserts the user; returns false if the username is already taken. Either way the cached entry
+   * is dropped: on success every instance's negative entry, on a duplicate the stale local one.
+   */
   private boolean saveUserToDB(User u) {
-    try {
-      users.save(u);
-      return true;
-    } catch (DataIntegrityViolationException dup) {
+    if (!users.insertIfAbsent(u)) {
+      userCache.evictLocal(u.getUsername());
       return false;
     }
+    userCache.invalidate(u.getUsername());
+    return true;
   }
 
   /**
@@ -0,0 +1,38 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import com.example.ui_kafka_sf.common.startup.Warmup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms JWT issue/verify (key derivation, HMAC, Base64url and JSON claim codecs) with synthetic
+ * tokens and primes {@link UserCache} with up to {@code app.warmup.user-cache-prime-size} users
+ * from Postgres, so the first authenticated requests hit a warm cache.
+ */
+@Component
+@RequiredArgsConstructor
+class AuthWarmup implements Warmup {
+
+  private final JwtUtil jwt;
+  private final UserRepository users;
+  private final UserCache userCache;
+  private final AppProperties props;
+
+  @Override
+  public String name() {
+    return "auth";
+  }
+
+  @Override
+  public void warmUp(Budget budget) {
+    for (int i = 0; budget.more(i); i++) {
+      var token = jwt.issue("warmup-" + i, Role.values()[i % Role.values().length].name());
+      jwt.parse(token.token());
+    }
+    int prime = props.getWarmup().getUserCachePrimeSize();
+    if (prime > 0 && !budget.exhausted())
+      userCache.prime(() -> users.findAll(PageRequest.of(0, prime)));
+  }
+}
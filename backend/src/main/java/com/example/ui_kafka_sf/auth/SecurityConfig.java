@@ -1,14 +1,14 @@
 package com.example.ui_kafka_sf.auth;
 
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import com.example.ui_kafka_sf.common.jfr.JfrPasswordEncoder;
+import com.example.ui_kafka_sf.common.jfr.JwtVerifyEvent;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -39,10 +39,11 @@ import org.springframework.web.filter.OncePerRequestFilter;
 public class SecurityConfig {
 
   private final AppProperties props;
+  private final TokenRevocations revocations;
 
   @Bean
   PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new JfrPasswordEncoder(new BCryptPasswordEncoder());
   }
 
   @Bean
@@ -54,7 +55,9 @@ public class SecurityConfig {
 
     http.authorizeHttpRequests(
         auth ->
-            auth.requestMatchers(
+            auth.requestMatchers("/actuator/jfr", "/actuator/jfr/**")
+                .hasRole("ADMIN")
+                .requestMatchers(
                     "/api/auth/**", "/v3/api-docs/**", "/swagger-ui/**", "/actuator/**")
                 .permitAll()
                 .requestMatchers("/api/admin/**")
@@ -64,7 +67,8 @@ public class SecurityConfig {
                 .anyRequest()
                 .authenticated());
 
-    http.addFilterBefore(new JwtFilter(props), UsernamePasswordAuthenticationFilter.class);
+    http.addFilterBefore(
+        new JwtFilter(props, revocations), UsernamePasswordAuthenticationFilter.class);
     return http.build();
   }
 
@@ -80,11 +84,14 @@ public class SecurityConfig {
     return source;
   }
 
+  /** Authenticates bearer tokens; revoked ones ({@link TokenRevocations}) stay anonymous. */
   static class JwtFilter extends OncePerRequestFilter {
-    private final AppProperties props;
+    private final JwtUtil jwt;
+    private final TokenRevocations revocations;
 
-    JwtFilter(AppProperties props) {
-      this.props = props;
+    JwtFilter(AppProperties props, TokenRevocations revocations) {
+      this.jwt = new JwtUtil(props);
+      this.revocations = revocations;
     }
 
     @Override
@@ -97,7 +104,7 @@ public class SecurityConfig {
           || uri.startsWith("/api/auth")
           || uri.startsWith("/swagger")
           || uri.startsWith("/v3/api-docs")
-          || uri.startsWith("/actuator")) {
+          || (uri.startsWith("/actuator") && !uri.startsWith("/actuator/jfr"))) {
         filterChain.doFilter(request, response);
         return;
       }
@@ -105,11 +112,14 @@ public class SecurityConfig {
       String hdr = request.getHeader("Authorization");
       if (hdr != null && hdr.startsWith("Bearer ")) {
         var token = hdr.substring(7);
+        var jfr = JwtVerifyEvent.start();
+        String subject = null;
+        String outcome = "invalid";
         try {
-          var key = Keys.hmacShaKeyFor(props.getJwt().getSecret().getBytes(StandardCharsets.UTF_8));
-          var parsed = Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-          Claims claims = parsed.getPayload();
+          Claims claims = jwt.parse(token);
           String username = claims.getSubject();
+          subject = username;
+          outcome = "no_role";
           String roleFromToken = null;
           Object roleClaim = claims.get("role");
           if (roleClaim instanceof String s && StringUtils.hasText(s)) {
@@ -122,7 +132,9 @@ public class SecurityConfig {
               roleFromToken = s0.trim();
             }
           }
-          if (StringUtils.hasText(username) && StringUtils.hasText(roleFromToken)) {
+          if (revocations.isRevoked(username, claims.getId(), JwtUtil.issuedAt(claims))) {
+            outcome = "revoked";
+          } else if (StringUtils.hasText(username) && StringUtils.hasText(roleFromToken)) {
 
             String authority =
                 roleFromToken.startsWith("ROLE_") ? roleFromToken : "ROLE_" + roleFromToken;
@@ -131,8 +143,11 @@ public class SecurityConfig {
                 new UsernamePasswordAuthenticationToken(
                     username, null, List.of(new SimpleGrantedAuthority(authority)));
             SecurityContextHolder.getContext().setAuthentication(auth);
+            outcome = "authenticated";
           }
         } catch (Exception ignored) {
+        } finally {
+          jfr.finish(subject, outcome);
         }
       }
       filterChain.doFilter(request, response);
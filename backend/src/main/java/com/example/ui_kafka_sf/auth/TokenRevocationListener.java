@@ -0,0 +1,73 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.dto.TokenRevokedEvent;
+import com.example.ui_kafka_sf.common.startup.Warmup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays the token revocation topic into {@link TokenRevocations} and then follows it.
+ *
+ * <p>Every instance needs every revocation, so all partitions are assigned manually from offset 0
+ * (as for {@code CourseView}). As a {@link Warmup} step, it holds readiness until the replay has
+ * caught up, within the warm-up budget, so a fresh instance does not take traffic while it still
+ * accepts revoked tokens.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class TokenRevocationListener implements Warmup {
+
+  static final String LISTENER_ID = "token-revocations";
+
+  private final TokenRevocations revocations;
+
+  private volatile boolean ready;
+
+  @KafkaListener(
+      id = LISTENER_ID,
+      groupId = "token-revocations",
+      topicPartitions =
+          @org.springframework.kafka.annotation.TopicPartition(
+              topic = "${app.kafka.token-revocation-topic}",
+              partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+      properties = {"auto.offset.reset=earliest"})
+  public void onRevoked(ConsumerRecord<String, TokenRevokedEvent> rec, Consumer<?, ?> consumer) {
+    revocations.apply(rec.value());
+    if (!ready) {
+      var tp = new TopicPartition(rec.topic(), rec.partition());
+      if (consumer.currentLag(tp).orElse(1) == 0) ready = true;
+    }
+  }
+
+  /** An idle poll means there is nothing left to replay (covers an empty topic). */
+  @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+  public void onIdle(ListenerContainerIdleEvent event) {
+    ready = true;
+  }
+
+  @Override
+  public String name() {
+    return "token-revocations";
+  }
+
+  @Override
+  public void warmUp(Budget budget) throws InterruptedException {
+    while (!ready && !budget.exhausted()) Thread.sleep(50);
+    if (!ready) log.warn("token revocations not replayed within the warm-up budget");
+  }
+}
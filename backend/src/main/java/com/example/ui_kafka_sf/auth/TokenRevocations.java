@@ -0,0 +1,178 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.dto.TokenRevokedEvent;
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.KafkaSfException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revoked JWTs, checked by {@code SecurityConfig.JwtFilter} on every request without a database
+ * lookup.
+ *
+ * <p>Two in-memory maps:
+ *
+ * <ul>
+ *   <li><b>Watermarks</b> (username → epoch millisecond): every token of the user issued before it
+ *       is revoked. Set on password reset and forced logout. Tokens carry their issue time to the
+ *       millisecond ({@code JwtUtil.ISSUED_AT_MILLIS}), so a token issued right after the
+ *       revocation, e.g. by logging in with the new password, is valid. Older tokens only have
+ *       {@code iat} in seconds and count as issued at the start of that second.
+ *   <li><b>Denylist</b> (jti → token expiry): single tokens, revoked by logout.
+ * </ul>
+ *
+ * <p>{@link #isRevoked} is two {@link ConcurrentHashMap#get} calls: O(1) and lock-free. Entries are
+ * dropped once every token they apply to has expired, so the maps hold at most one token TTL's
+ * worth of revocations.
+ *
+ * <p>Every revocation is applied locally and published to {@code
+ * app.kafka.token-revocation-topic}, keyed by user or jti. The topic is compacted and keeps records
+ * for one token TTL; every instance replays it on startup before it reports ready ({@link
+ * TokenRevocationListener}). Unlike the user cache invalidations, publishing is not best-effort:
+ * the revoking request waits up to {@code app.kafka.token-revocation-ack-timeout-ms} for the
+ * broker's ack and fails with {@code 503 kafka_unavailable} without it, since the revocation would
+ * otherwise only hold on this instance. It is applied here either way, and repeating it is
+ * harmless, so the caller can retry.
+ *
+ * <p>Metrics: {@code auth.revocation.entries{kind=user|token}} and {@code
+ * auth.revocation.rejected}.
+ */
+@Slf4j
+@Component
+public class TokenRevocations {
+
+  private final Map<String, Long> watermarks = new ConcurrentHashMap<>();
+  private final Map<String, Long> denied = new ConcurrentHashMap<>();
+  private final KafkaTemplate<String, Object> kafka;
+  private final AppProperties props;
+  private final LongSupplier clock;
+  private final Counter rejected;
+
+  @Autowired
+  public TokenRevocations(
+      KafkaTemplate<String, Object> kafka, AppProperties props, MeterRegistry meters) {
+    this(kafka, props, meters, System::currentTimeMillis);
+  }
+
+  TokenRevocations(
+      KafkaTemplate<String, Object> kafka,
+      AppProperties props,
+      MeterRegistry meters,
+      LongSupplier clock) {
+    this.kafka = kafka;
+    this.props = props;
+    this.clock = clock;
+    this.rejected = Counter.builder("auth.revocation.rejected").register(meters);
+    Gauge.builder("auth.revocation.entries", watermarks, Map::size)
+        .tag("kind", "user")
+        .register(meters);
+    Gauge.builder("auth.revocation.entries", denied, Map::size)
+        .tag("kind", "token")
+        .register(meters);
+  }
+
+  /**
+   * {@code true} if the token with these claims was revoked. A token without {@code iat} counts as
+   * issued before any watermark.
+   */
+  public boolean isRevoked(String username, String jti, Date issuedAt) {
+    var watermark = username == null ? null : watermarks.get(username);
+    boolean revoked =
+        (watermark != null && (issuedAt == null || issuedAt.getTime() < watermark))
+            || (jti != null && denied.containsKey(jti));
+    if (revoked) rejected.increment();
+    return revoked;
+  }
+
+  /**
+   * Revokes every token of {@code username} issued so far, here and on every other instance.
+   *
+   * @return the watermark (epoch millisecond); tokens issued before it are rejected
+   * @throws KafkaSfException {@code KAFKA_UNAVAILABLE} if the revocation was not acked in time
+   */
+  public long revokeUser(String username) {
+    // tokens issued in the millisecond of the revocation may predate it
+    long watermark = clock.getAsLong() + 1;
+    long watermarkSecond = Math.ceilDiv(watermark, 1000);
+    var evt =
+        new TokenRevokedEvent(
+            username, null, watermarkSecond, watermarkSecond + ttlSeconds(), watermark);
+    apply(evt);
+    publish("user:" + username, evt);
+    return watermark;
+  }
+
+  /**
+   * Revokes the single token {@code jti}, which expires at {@code expiresAt}.
+   *
+   * @throws KafkaSfException {@code KAFKA_UNAVAILABLE} if the revocation was not acked in time
+   */
+  public void revokeToken(String username, String jti, Date expiresAt) {
+    long expiry = expiresAt == null ? nowSecond() + ttlSeconds() : expiresAt.getTime() / 1000;
+    var evt = new TokenRevokedEvent(username, jti, 0, expiry);
+    apply(evt);
+    publish("jti:" + jti, evt);
+  }
+
+  /** Applies a revocation, local or from the topic; stale ones are ignored. */
+  void apply(TokenRevokedEvent evt) {
+    if (evt == null || evt.expiresAtEpochSecond() <= nowSecond()) return;
+    if (evt.jti() != null) denied.merge(evt.jti(), evt.expiresAtEpochSecond(), Math::max);
+    else if (evt.username() != null)
+      watermarks.merge(evt.username(), evt.watermarkMillis(), Math::max);
+  }
+
+  /** Drops entries that no longer apply to any unexpired token. */
+  @Scheduled(fixedDelay = 60_000)
+  public void prune() {
+    long now = nowSecond();
+    long nowMillis = clock.getAsLong();
+    long ttlMillis = ttlSeconds() * 1000;
+    // tokens issued before the watermark expire by watermark + ttl at the latest
+    watermarks.values().removeIf(w -> w + ttlMillis <= nowMillis);
+    denied.values().removeIf(exp -> exp <= now);
+  }
+
+  int size() {
+    return watermarks.size() + denied.size();
+  }
+
+  private void publish(String key, TokenRevokedEvent evt) {
+    var topic = props.getKafka().getTokenRevocationTopic();
+    if (kafka == null || topic == null || topic.isBlank()) return;
+    try {
+      kafka
+          .send(topic, key, evt)
+          .get(props.getKafka().getTokenRevocationAckTimeoutMs(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw notPublished(key, e);
+    } catch (Exception e) {
+      throw notPublished(key, e);
+    }
+  }
+
+  private static KafkaSfException notPublished(String key, Exception e) {
+    log.warn("token revocation {} not published", key, e);
+    return new KafkaSfException(Errors.KAFKA_UNAVAILABLE, "token revocation not published");
+  }
+
+  private long nowSecond() {
+    return clock.getAsLong() / 1000;
+  }
+
+  private long ttlSeconds() {
+    return props.getJwt().getTtlMinutes() * 60L;
+  }
+}
@@ -0,0 +1,168 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.dto.UserInvalidatedEvent;
+import com.example.ui_kafka_sf.common.flight.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Near cache of {@link User} by username in front of {@link UserRepository}.
+ *
+ * <p>What this improves:
+ *
+ * <ul>
+ *   <li><b>Login/registration without a DB round-trip:</b> hits are served from a bounded,
+ *       TTL-evicting in-process cache ({@code app.user-cache.*}).
+ *   <li><b>Negative caching:</b> unknown usernames are remembered for a shorter TTL, so repeated
+ *       failed logins for non-existent users do not reach Postgres either.
+ *   <li><b>Cross-instance invalidation:</b> {@link #invalidate} evicts locally and broadcasts a
+ *       {@link UserInvalidatedEvent} on {@code app.kafka.user-invalidation-topic}; every instance
+ *       evicts on receipt ({@link UserInvalidationListener}). The TTL bounds staleness if a
+ *       broadcast is lost.
+ *   <li><b>Coalesced loads:</b> concurrent lookups of the same username share one {@link
+ *       UserRepository#findByUsername} call ({@link SingleFlight} {@code user.byUsername}, {@code
+ *       app.single-flight.enabled}), with the cache on or off. The query runs outside the cache:
+ *       a load inside Caffeine's compute would hold its lock, and pin the carrier of a virtual
+ *       thread, for the whole round-trip. A load that an invalidation overtook is returned but
+ *       not cached.
+ * </ul>
+ *
+ * <p>Entries are immutable snapshots; every read returns a fresh detached {@link User}, so callers
+ * may mutate and save it without affecting other threads.
+ *
+ * <p>Callers must {@link #invalidate} after any write that changes a user's password or role, or
+ * creates a user. Metrics: {@code cache.gets}, {@code cache.evictions}, {@code cache.size} tagged
+ * {@code cache=users}.
+ */
+@Component
+public class UserCache {
+
+  private record Snapshot(String username, String passwordHash, Role role) {
+    User toUser() {
+      return new User(username, passwordHash, role);
+    }
+  }
+
+  private final UserRepository users;
+  private final KafkaTemplate<String, Object> kafka;
+  private final AppProperties props;
+  private final Cache<String, Optional<Snapshot>> cache;
+  private final SingleFlight<String, Optional<Snapshot>> loads;
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public UserCache(
+      UserRepository users,
+      KafkaTemplate<String, Object> kafka,
+      AppProperties props,
+      MeterRegistry meters) {
+    this.users = users;
+    this.kafka = kafka;
+    this.props = props;
+    var cfg = props.getUserCache();
+    var positiveTtl = Duration.ofSeconds(cfg.getTtlSeconds()).toNanos();
+    var negativeTtl = Duration.ofSeconds(cfg.getNegativeTtlSeconds()).toNanos();
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(cfg.getMaxSize())
+            .expireAfter(
+                new Expiry<String, Optional<Snapshot>>() {
+                  @Override
+                  public long expireAfterCreate(String k, Optional<Snapshot> v, long now) {
+                    return v.isPresent() ? positiveTtl : negativeTtl;
+                  }
+
+                  @Override
+                  public long expireAfterUpdate(
+                      String k, Optional<Snapshot> v, long now, long current) {
+                    return expireAfterCreate(k, v, now);
+                  }
+
+                  @Override
+                  public long expireAfterRead(
+                      String k, Optional<Snapshot> v, long now, long current) {
+                    return current;
+                  }
+                })
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meters, cache, "users");
+    this.loads =
+        new SingleFlight<>("user.byUsername", props.getSingleFlight().isEnabled(), meters);
+  }
+
+  /** Cached equivalent of {@link UserRepository#findByUsername}. */
+  public Optional<User> findByUsername(String username) {
+    if (username == null) return Optional.empty();
+    if (!props.getUserCache().isEnabled()) return load(username).map(Snapshot::toUser);
+    var cached = cache.getIfPresent(username);
+    if (cached != null) return cached.map(Snapshot::toUser);
+    long generation = invalidations.get();
+    var loaded = load(username);
+    cacheIfCurrent(username, loaded, generation);
+    return loaded.map(Snapshot::toUser);
+  }
+
+  /**
+   * Loads the users {@code query} finds into this instance's cache (startup priming, no
+   * broadcast), guarded like any other load: users invalidated while it ran are left out.
+   */
+  void prime(Supplier<? extends Iterable<User>> query) {
+    if (!props.getUserCache().isEnabled()) return;
+    long generation = invalidations.get();
+    for (var u : query.get())
+      cacheIfCurrent(
+          u.getUsername(),
+          Optional.of(new Snapshot(u.getUsername(), u.getPasswordHash(), u.getRole())),
+          generation);
+  }
+
+  /** Evicts {@code username} here and on every other instance (best-effort broadcast). */
+  public void invalidate(String username) {
+    evictLocal(username);
+    var topic = props.getKafka().getUserInvalidationTopic();
+    if (kafka == null || topic == null || topic.isBlank()) return;
+    try {
+      kafka.send(
+          topic, username, new UserInvalidatedEvent(username, System.currentTimeMillis()));
+    } catch (Exception ignore) {
+      // TTL bounds staleness on other instances
+    }
+  }
+
+  /** Evicts {@code username} from this instance only. */
+  void evictLocal(String username) {
+    if (username == null) return;
+    // a lookup already in flight may have read the row before the write
+    invalidations.incrementAndGet();
+    loads.forget(username);
+    cache.invalidate(username);
+  }
+
+  /**
+   * Caches what was read at {@code generation} unless some invalidation came since, which may be
+   * for a write the read missed. Checked under the entry's lock, which {@link #evictLocal} takes
+   * after counting, so a stale snapshot is either not put or evicted right after.
+   */
+  private void cacheIfCurrent(String username, Optional<Snapshot> loaded, long generation) {
+    cache.asMap().compute(username, (k, v) -> invalidations.get() == generation ? loaded : v);
+  }
+
+  // snapshots, not entities, are shared between the callers of one flight
+  private Optional<Snapshot> load(String username) {
+    return loads.get(
+        username,
+        () ->
+            users
+                .findByUsername(username)
+                .map(u -> new Snapshot(u.getUsername(), u.getPasswordHash(), u.getRole())));
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.dto.UserInvalidatedEvent;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link UserInvalidatedEvent}s from other instances to the local {@link UserCache}.
+ *
+ * <p>Every instance must see every invalidation, so partitions are assigned manually (no consumer
+ * group balancing) and consumption starts at the end: the cache is empty at startup, so older
+ * invalidations are irrelevant.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class UserInvalidationListener implements ConsumerSeekAware {
+
+  private final UserCache cache;
+
+  @KafkaListener(
+      id = "user-invalidation",
+      groupId = "user-invalidation",
+      topicPartitions =
+          @org.springframework.kafka.annotation.TopicPartition(
+              topic = "${app.kafka.user-invalidation-topic}",
+              partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")))
+  public void onInvalidated(UserInvalidatedEvent evt) {
+    if (evt != null) cache.evictLocal(evt.username());
+  }
+
+  @Override
+  public void onPartitionsAssigned(
+      Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+    callback.seekToEnd(assignments.keySet());
+  }
+}
@@ -1,16 +1,39 @@
 package com.example.ui_kafka_sf.auth;
 
 import com.example.ui_kafka_sf.auth.dto.UserRegisteredEvent;
+import com.example.ui_kafka_sf.common.kafka.RetryTierMetrics;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
-/** Kafka consumer that reacts to {@link UserRegisteredEvent} messages. */
+/**
+ * Kafka consumer that reacts to {@link UserRegisteredEvent} messages.
+ *
+ * <p>Failures do not block the partition: the record is forwarded to {@code <topic>-retry-<delay>}
+ * topics with exponential backoff ({@code app.kafka.registration-retry.*}) and finally to {@code
+ * <topic>-dlt}, where it waits for {@link UserRegistrationDltController} to inspect or replay it.
+ * Records that can never succeed (deserialization or conversion failures) skip the retry tiers.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class UserRegistrationConsumer {
 
+  static final String LISTENER = "user-registration";
+  static final String DLT_SUFFIX = "-dlt";
+
   private final UserRepository users;
+  private final UserCache userCache;
+  private final AppProperties props;
+  private final RetryTierMetrics retries;
 
   /**
    * Handles {@link UserRegisteredEvent} and performs an idempotent user upsert.
@@ -19,7 +42,7 @@ public class UserRegistrationConsumer {
    *
    * <ol>
    *   <li>Validate payload (ignore when event or username is null).
-   *   <li>{@code findByUsername}:
+   *   <li>{@code findByUsername} (through {@link UserCache}):
    *       <ul>
    *         <li>If present → no-op (user already exists).
    *         <li>If absent → create a minimal {@link User} with role from the event and a
@@ -29,10 +52,44 @@ public class UserRegistrationConsumer {
    *
    * <p>Side effects: writes to the users table on first-seen usernames.
    */
-  @KafkaListener(topics = "${app.kafka.topic}")
-  public void onUserRegistered(UserRegisteredEvent evt) {
+  @RetryableTopic(
+      attempts = "${app.kafka.registration-retry.attempts:4}",
+      backoff =
+          @Backoff(
+              delayExpression = "${app.kafka.registration-retry.initial-delay-ms:1000}",
+              multiplierExpression = "${app.kafka.registration-retry.multiplier:4}",
+              maxDelayExpression = "${app.kafka.registration-retry.max-delay-ms:60000}"),
+      dltTopicSuffix = DLT_SUFFIX,
+      dltStrategy = DltStrategy.FAIL_ON_ERROR,
+      numPartitions = "1",
+      replicationFactor = "1")
+  @KafkaListener(topics = "${app.kafka.topic}", filter = UserRegistrationFilter.BEAN_NAME)
+  public void onUserRegistered(
+      UserRegisteredEvent evt, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+    try {
+      upsert(evt);
+      retries.attempt(LISTENER, props.getKafka().getTopic(), topic, true);
+    } catch (RuntimeException e) {
+      retries.attempt(LISTENER, props.getKafka().getTopic(), topic, false);
+      throw e;
+    }
+  }
+
+  /** The record stays in the DLT; this only makes its arrival visible. */
+  @DltHandler
+  public void onDeadLetter(ConsumerRecord<?, ?> record) {
+    retries.deadLettered(LISTENER);
+    log.warn(
+        "user registration dead-lettered: topic={} partition={} offset={} key={}",
+        record.topic(),
+        record.partition(),
+        record.offset(),
+        record.key());
+  }
+
+  private void upsert(UserRegisteredEvent evt) {
     if (evt == null || evt.username() == null) return;
-    users
+    userCache
         .findByUsername(evt.username())
         .ifPresentOrElse(
             u -> {
@@ -43,7 +100,8 @@ public class UserRegistrationConsumer {
               u.setUsername(evt.username());
               u.setPasswordHash("<external>");
               u.setRole(evt.role());
-              users.save(u);
+              if (users.insertIfAbsent(u)) userCache.invalidate(u.getUsername());
+              else userCache.evictLocal(u.getUsername());
             });
   }
 }
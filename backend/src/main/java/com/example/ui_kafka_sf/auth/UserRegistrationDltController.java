@@ -0,0 +1,51 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.common.kafka.DeadLetterReplayer;
+import com.example.ui_kafka_sf.common.kafka.DeadLetterReplayer.DeadLetter;
+import com.example.ui_kafka_sf.common.kafka.DeadLetterReplayer.ReplayResult;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin view of the user registration dead-letter topic ({@code <app.kafka.topic>-dlt}).
+ *
+ * <p>{@code GET} lists records not replayed yet; {@code POST /replay} sends the next batch back to
+ * its original topic. Replay progress is the committed offset of a dedicated consumer group, so it
+ * survives restarts and is shared by all instances.
+ */
+@RestController
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@RequestMapping("/api/admin/dlt/user-registration")
+@RequiredArgsConstructor
+public class UserRegistrationDltController {
+
+  static final String REPLAY_GROUP = "user-registration-dlt-replay";
+  private static final int MAX_BATCH = 1000;
+
+  private final DeadLetterReplayer replayer;
+  private final AppProperties props;
+
+  @GetMapping
+  public List<DeadLetter> pending(@RequestParam(defaultValue = "50") int limit) {
+    return replayer.peek(dltTopic(), REPLAY_GROUP, clamp(limit));
+  }
+
+  @PostMapping("/replay")
+  public ReplayResult replay(@RequestParam(defaultValue = "100") int batchSize) throws Exception {
+    return replayer.replay(dltTopic(), REPLAY_GROUP, props.getKafka().getTopic(), clamp(batchSize));
+  }
+
+  private String dltTopic() {
+    return props.getKafka().getTopic() + UserRegistrationConsumer.DLT_SUFFIX;
+  }
+
+  private static int clamp(int n) {
+    return Math.max(1, Math.min(n, MAX_BATCH));
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.dto.UserRegisteredEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets only {@link UserRegisteredEvent} records reach {@link UserRegistrationConsumer}.
+ *
+ * <p>{@code app.kafka.topic} also carries {@code SfEvent}s (and could carry tombstones); those are
+ * valid records for other consumers, not failures, so they are skipped here instead of travelling
+ * through the retry topics into the DLT. Records whose value failed to deserialize are kept: they
+ * are poison and belong in the DLT.
+ */
+@Component(UserRegistrationFilter.BEAN_NAME)
+public class UserRegistrationFilter implements RecordFilterStrategy<Object, Object> {
+
+  static final String BEAN_NAME = "userRegistrationFilter";
+
+  @Override
+  public boolean filter(ConsumerRecord<Object, Object> r) {
+    if (r.value() == null)
+      return r.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) == null;
+    return !(r.value() instanceof UserRegisteredEvent);
+  }
+}
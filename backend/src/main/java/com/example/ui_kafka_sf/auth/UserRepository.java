@@ -1,6 +1,10 @@
 package com.example.ui_kafka_sf.auth;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 /** UserRepository models application users and related authentication/authorization types. */
@@ -8,4 +12,27 @@ public interface UserRepository extends JpaRepository<User, String> {
   default Optional<User> findByUsername(String username) {
     return findById(username);
   }
+
+  /**
+   * Creates {@code u} unless its username is taken; returns false on a duplicate.
+   *
+   * <p>Use this rather than {@link #save} to create users: the id is assigned, so {@code save}
+   * merges and would overwrite an existing account's password and role.
+   */
+  default boolean insertIfAbsent(User u) {
+    return insertRow(u.getUsername(), u.getPasswordHash(), u.getRole().name()) == 1;
+  }
+
+  @Modifying
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          "insert into app_user (username, password_hash, role)"
+              + " values (:username, :passwordHash, :role)"
+              + " on conflict (username) do nothing")
+  int insertRow(
+      @Param("username") String username,
+      @Param("passwordHash") String passwordHash,
+      @Param("role") String role);
 }
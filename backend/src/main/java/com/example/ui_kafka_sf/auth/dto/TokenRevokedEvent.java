@@ -0,0 +1,31 @@
+package com.example.ui_kafka_sf.auth.dto;
+
+/**
+ * A revocation on the compacted token revocation topic (see {@code TokenRevocations}).
+ *
+ * <p>With {@code jti == null} every token of {@code username} issued before {@code
+ * issuedBeforeEpochMilli} is revoked; otherwise only the token with that {@code jti}. {@code
+ * expiresAtEpochSecond} is when no token the entry applies to can still be valid, so it can be
+ * dropped.
+ *
+ * <p>{@code issuedBeforeEpochSecond} is the same watermark rounded up to a whole second, the only
+ * one records written before millisecond watermarks carry; readers use {@link #watermarkMillis()}.
+ */
+public record TokenRevokedEvent(
+    String username,
+    String jti,
+    long issuedBeforeEpochSecond,
+    long expiresAtEpochSecond,
+    long issuedBeforeEpochMilli) {
+
+  /** A revocation as written before millisecond watermarks. */
+  public TokenRevokedEvent(
+      String username, String jti, long issuedBeforeEpochSecond, long expiresAtEpochSecond) {
+    this(username, jti, issuedBeforeEpochSecond, expiresAtEpochSecond, 0);
+  }
+
+  /** The user watermark in epoch milliseconds. */
+  public long watermarkMillis() {
+    return issuedBeforeEpochMilli > 0 ? issuedBeforeEpochMilli : issuedBeforeEpochSecond * 1000;
+  }
+}
@@ -0,0 +1,4 @@
+package com.example.ui_kafka_sf.auth.dto;
+
+/** Broadcast so every instance drops its cached copy of a user (see {@code UserCache}). */
+public record UserInvalidatedEvent(String username, long occurredAtEpochMillis) {}
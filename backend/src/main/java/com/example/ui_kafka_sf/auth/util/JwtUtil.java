@@ -1,16 +1,21 @@
 package com.example.ui_kafka_sf.auth.util;
 
 import com.example.ui_kafka_sf.auth.AppProperties;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 import org.springframework.stereotype.Component;
 
 /** JwtUtil is part of the application's domain layer. */
 @Component
 public class JwtUtil {
+  /** Issue time in epoch milliseconds; {@code iat} only has seconds. */
+  public static final String ISSUED_AT_MILLIS = "iat_ms";
+
   private final AppProperties props;
 
   public JwtUtil(AppProperties props) {
@@ -20,7 +25,7 @@ public class JwtUtil {
   /** Performs a unit of domain logic; see README for the surrounding flow. */
   public record Pair(String token, long expiresInSec) {}
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /** Issues a token with a random {@code jti}, so it can be revoked on its own. */
   public Pair issue(String username, String role) {
     var key = Keys.hmacShaKeyFor(props.getJwt().getSecret().getBytes(StandardCharsets.UTF_8));
     long ttlSec = props.getJwt().getTtlMinutes() * 60L;
@@ -28,12 +33,29 @@ public class JwtUtil {
     var exp = now.plusSeconds(ttlSec);
     var token =
         Jwts.builder()
+            .id(UUID.randomUUID().toString())
             .subject(username)
             .claim("role", role)
             .issuedAt(Date.from(now))
+            .claim(ISSUED_AT_MILLIS, now.toEpochMilli())
             .expiration(Date.from(exp))
             .signWith(key)
             .compact();
     return new Pair(token, ttlSec);
   }
+
+  /**
+   * When the token was issued, to the millisecond if it carries {@link #ISSUED_AT_MILLIS}; tokens
+   * issued before that claim existed fall back to {@code iat}. {@code null} without either.
+   */
+  public static Date issuedAt(Claims claims) {
+    if (claims.get(ISSUED_AT_MILLIS) instanceof Number ms) return new Date(ms.longValue());
+    return claims.getIssuedAt();
+  }
+
+  /** Verifies the signature and expiry of {@code token} and returns its claims. */
+  public Claims parse(String token) {
+    var key = Keys.hmacShaKeyFor(props.getJwt().getSecret().getBytes(StandardCharsets.UTF_8));
+    return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+  }
 }
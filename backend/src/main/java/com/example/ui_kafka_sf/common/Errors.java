@@ -7,6 +7,16 @@ public enum Errors {
   INVALID_CREDENTIALS(HttpStatus.UNAUTHORIZED, "invalid_credentials"),
   FORBIDDEN_SELF_REGISTER_ADMIN(HttpStatus.BAD_REQUEST, "forbidden_self_register_admin"),
   VALIDATION_FAILED(HttpStatus.BAD_REQUEST, "validation_failed"),
+  CONCURRENT_MODIFICATION(HttpStatus.CONFLICT, "concurrent_modification"),
+  DUPLICATE_COURSE(HttpStatus.CONFLICT, "duplicate_course"),
+  PRECONDITION_FAILED(HttpStatus.PRECONDITION_FAILED, "precondition_failed"),
+  DB_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "db_unavailable"),
+  KAFKA_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "kafka_unavailable"),
+  TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "too_many_requests"),
+  INVALID_IDEMPOTENCY_KEY(HttpStatus.BAD_REQUEST, "invalid_idempotency_key"),
+  IDEMPOTENCY_KEY_IN_PROGRESS(HttpStatus.CONFLICT, "idempotency_key_in_progress"),
+  IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "idempotency_key_reused"),
+  PAYLOAD_TOO_LARGE(HttpStatus.PAYLOAD_TOO_LARGE, "payload_too_large"),
   UNKNOWN(HttpStatus.INTERNAL_SERVER_ERROR, "unknown_error");
 
   public final HttpStatus status;
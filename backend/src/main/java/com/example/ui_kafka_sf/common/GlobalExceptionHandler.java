@@ -1,5 +1,8 @@
 package com.example.ui_kafka_sf.common;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -19,6 +22,20 @@ public class GlobalExceptionHandler {
         .body(Map.of("error", e.code, "message", ex.getMessage()));
   }
 
+  /** Maps a lost optimistic-lock race (stale {@code @Version}) to 409. */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<?> handleOptimisticLock(OptimisticLockingFailureException ex) {
+    var e = Errors.CONCURRENT_MODIFICATION;
+    return ResponseEntity.status(e.status).body(Map.of("error", e.code));
+  }
+
+  /** Connection pool exhausted (acquire timeout): shed load with 503 rather than 500. */
+  @ExceptionHandler({CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class})
+  public ResponseEntity<?> handleDbUnavailable(Exception ex) {
+    var e = Errors.DB_UNAVAILABLE;
+    return ResponseEntity.status(e.status).body(Map.of("error", e.code));
+  }
+
   /** Performs a unit of domain logic; see README for the surrounding flow. */
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<?> handleValidation(MethodArgumentNotValidException ex) {
@@ -0,0 +1,33 @@
+package com.example.ui_kafka_sf.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The write endpoints that get cross-cutting protection (concurrency limit, {@code
+ * Idempotency-Key}), with their metric group names.
+ */
+public enum WriteEndpoint {
+  /** {@code POST /api/sf/submit} */
+  SF_SUBMIT("sf.submit"),
+  /** {@code POST /api/auth/register} */
+  AUTH_REGISTER("auth.register"),
+  /** {@code POST/PUT/PATCH/DELETE /api/course/**} */
+  COURSE_WRITE("course.write");
+
+  public final String group;
+
+  WriteEndpoint(String group) {
+    this.group = group;
+  }
+
+  /** The endpoint {@code request} targets, or {@code null} for anything else. */
+  public static WriteEndpoint of(HttpServletRequest request) {
+    var method = request.getMethod();
+    if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) return null;
+    var uri = request.getRequestURI();
+    if ("POST".equals(method) && uri.equals("/api/sf/submit")) return SF_SUBMIT;
+    if ("POST".equals(method) && uri.equals("/api/auth/register")) return AUTH_REGISTER;
+    if (uri.equals("/api/course") || uri.startsWith("/api/course/")) return COURSE_WRITE;
+    return null;
+  }
+}
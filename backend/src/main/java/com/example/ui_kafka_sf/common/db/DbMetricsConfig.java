@@ -0,0 +1,46 @@
+package com.example.ui_kafka_sf.common.db;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC statement instrumentation, enabled with {@code app.db-metrics.enabled=true}.
+ *
+ * <p>When disabled none of these beans exist and the pool's {@link DataSource} is used as-is, so
+ * there is no per-statement cost. Per-repository-method timers ({@code
+ * spring.data.repository.invocations}) and Hikari pool metrics ({@code hikaricp.connections.*})
+ * come from Boot's actuator auto-configuration and are controlled by {@code management.metrics.*}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.db-metrics", name = "enabled", havingValue = "true")
+public class DbMetricsConfig {
+
+  @Bean
+  SqlStatementStats sqlStatementStats(MeterRegistry meters, AppProperties props) {
+    return new SqlStatementStats(meters, props);
+  }
+
+  @Bean
+  SqlStatsEndpoint sqlStatsEndpoint(SqlStatementStats stats) {
+    return new SqlStatsEndpoint(stats);
+  }
+
+  /** Static and lazily resolving, so the post-processor does not pull beans in early. */
+  @Bean
+  static BeanPostProcessor instrumentDataSource(ObjectProvider<SqlStatementStats> stats) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource ds && !(bean instanceof InstrumentedDataSource))
+          return new InstrumentedDataSource(ds, stats.getObject());
+        return bean;
+      }
+    };
+  }
+}
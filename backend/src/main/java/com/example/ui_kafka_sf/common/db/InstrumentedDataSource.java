@@ -0,0 +1,182 @@
+package com.example.ui_kafka_sf.common.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Wraps connections, statements and result sets in JDK proxies that time every {@code execute*}
+ * call and report it to {@link SqlStatementStats}.
+ *
+ * <p>Rows are the update count for DML and the number of {@code next()} hits for queries; a query
+ * is therefore reported when its result set is closed (Hibernate always closes them). Execution
+ * time is the {@code execute*} call only, not result-set iteration. The bind count is the highest
+ * parameter index set before execution.
+ *
+ * <p>{@link #unwrap} still reaches the pool (via {@link DelegatingDataSource}), so Boot's Hikari
+ * metrics binding is unaffected.
+ */
+final class InstrumentedDataSource extends DelegatingDataSource {
+
+  private final SqlStatementStats stats;
+
+  InstrumentedDataSource(DataSource target, SqlStatementStats stats) {
+    super(target);
+    this.stats = stats;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return wrap(Connection.class, new ConnectionHandler(super.getConnection()));
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return wrap(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+    return (T)
+        Proxy.newProxyInstance(
+            InstrumentedDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+  }
+
+  private static Object invoke(Object proxy, Object target, Method m, Object[] args)
+      throws Throwable {
+    // proxies compare by identity; delegating equals would make a proxy unequal to itself
+    if (m.getName().equals("equals") && m.getParameterCount() == 1) return proxy == args[0];
+    try {
+      return m.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private final class ConnectionHandler implements InvocationHandler {
+    private final Connection target;
+
+    ConnectionHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+      var result = InstrumentedDataSource.invoke(proxy, target, m, args);
+      return switch (m.getName()) {
+        case "prepareStatement" ->
+            wrap(
+                PreparedStatement.class,
+                new StatementHandler((Statement) result, (String) args[0]));
+        case "prepareCall" ->
+            wrap(
+                CallableStatement.class,
+                new StatementHandler((Statement) result, (String) args[0]));
+        case "createStatement" ->
+            wrap(Statement.class, new StatementHandler((Statement) result, null));
+        default -> result;
+      };
+    }
+  }
+
+  private final class StatementHandler implements InvocationHandler {
+    private final Statement target;
+    private final String preparedSql;
+    private int binds;
+
+    StatementHandler(Statement target, String preparedSql) {
+      this.target = target;
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+      var name = m.getName();
+      if (!name.startsWith("execute")) {
+        if (name.startsWith("set") && args != null && args.length >= 2
+            && args[0] instanceof Integer i) binds = Math.max(binds, i);
+        return InstrumentedDataSource.invoke(proxy, target, m, args);
+      }
+
+      var sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+      long start = System.nanoTime();
+      Object result;
+      try {
+        result = InstrumentedDataSource.invoke(proxy, target, m, args);
+      } catch (Throwable t) {
+        stats.record(sql, System.nanoTime() - start, -1, binds, false);
+        throw t;
+      }
+      long nanos = System.nanoTime() - start;
+
+      switch (result) {
+        case ResultSet rs -> {
+          return wrap(ResultSet.class, new ResultSetHandler(rs, sql, nanos, binds));
+        }
+        case Integer n -> stats.record(sql, nanos, n, binds, true);
+        case Long n -> stats.record(sql, nanos, n, binds, true);
+        case int[] counts -> stats.record(sql, nanos, sum(counts), binds, true);
+        case long[] counts -> stats.record(sql, nanos, sum(counts), binds, true);
+        case Boolean hasResultSet ->
+            stats.record(sql, nanos, hasResultSet ? -1 : target.getUpdateCount(), binds, true);
+        default -> stats.record(sql, nanos, -1, binds, true);
+      }
+      return result;
+    }
+  }
+
+  private final class ResultSetHandler implements InvocationHandler {
+    private final ResultSet target;
+    private final String sql;
+    private final long nanos;
+    private final int binds;
+    private long rows;
+    private boolean reported;
+
+    ResultSetHandler(ResultSet target, String sql, long nanos, int binds) {
+      this.target = target;
+      this.sql = sql;
+      this.nanos = nanos;
+      this.binds = binds;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+      var result = InstrumentedDataSource.invoke(proxy, target, m, args);
+      switch (m.getName()) {
+        case "next" -> {
+          if ((Boolean) result) rows++;
+        }
+        case "close" -> {
+          if (!reported) {
+            reported = true;
+            stats.record(sql, nanos, rows, binds, true);
+          }
+        }
+        default -> {}
+      }
+      return result;
+    }
+  }
+
+  private static long sum(int[] counts) {
+    long total = 0;
+    for (int c : counts) if (c > 0) total += c;
+    return total;
+  }
+
+  private static long sum(long[] counts) {
+    long total = 0;
+    for (long c : counts) if (c > 0) total += c;
+    return total;
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.ui_kafka_sf.common.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces SQL to a stable shape for aggregation: literals become {@code ?}, {@code IN (?, ?, ...)}
+ * lists collapse to {@code IN (?)} and whitespace is squeezed. Results are memoized, since
+ * Hibernate issues the same few statement strings over and over.
+ */
+final class SqlNormalizer {
+
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+  private static final Pattern IN_LIST =
+      Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final int MAX_MEMOIZED = 2_000;
+
+  private final Map<String, String> memo = new ConcurrentHashMap<>();
+
+  String normalize(String sql) {
+    if (sql == null) return "<unknown>";
+    var cached = memo.get(sql);
+    if (cached != null) return cached;
+    var normalized = normalizeUncached(sql);
+    if (memo.size() < MAX_MEMOIZED) memo.put(sql, normalized);
+    return normalized;
+  }
+
+  static String normalizeUncached(String sql) {
+    var s = STRING_LITERAL.matcher(sql.strip()).replaceAll("?");
+    s = NUMBER.matcher(s).replaceAll("?");
+    s = IN_LIST.matcher(s).replaceAll("in (?)");
+    return WHITESPACE.matcher(s).replaceAll(" ");
+  }
+
+  /** Low-cardinality statement kind for metric tags: select, insert, update, delete or other. */
+  static String operation(String normalized) {
+    int end = normalized.indexOf(' ');
+    var first = (end < 0 ? normalized : normalized.substring(0, end)).toLowerCase();
+    return switch (first) {
+      case "select", "with" -> "select";
+      case "insert", "update", "delete" -> first;
+      default -> "other";
+    };
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.ui_kafka_sf.common.db;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Aggregates JDBC statement executions reported by {@link InstrumentedDataSource}.
+ *
+ * <ul>
+ *   <li>{@code db.statement{op, outcome}} timer — one series per statement kind, not per SQL text.
+ *   <li>Per normalized statement totals (count, time, rows, errors) for {@link SqlStatsEndpoint};
+ *       at most {@code app.db-metrics.max-tracked-statements} distinct shapes, the rest are folded
+ *       into {@code <other>}.
+ *   <li>Statements slower than {@code app.db-metrics.slow-query-threshold-ms} are logged on the
+ *       {@code sql.slow} logger with their normalized SQL, bind count and row count.
+ * </ul>
+ */
+@Slf4j(topic = "sql.slow")
+public class SqlStatementStats {
+
+  static final String OTHER = "<other>";
+
+  /** Snapshot row returned by the actuator endpoint. */
+  public record Row(
+      String sql,
+      long count,
+      long errors,
+      long rows,
+      double totalMs,
+      double meanMs,
+      double maxMs) {}
+
+  private static final class Totals {
+    final LongAdder count = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder rows = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+    final AtomicLong maxNanos = new AtomicLong();
+  }
+
+  private final MeterRegistry meters;
+  private final SqlNormalizer normalizer = new SqlNormalizer();
+  private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  private final long slowNanos;
+  private final int maxTracked;
+
+  public SqlStatementStats(MeterRegistry meters, AppProperties props) {
+    this.meters = meters;
+    this.slowNanos = TimeUnit.MILLISECONDS.toNanos(props.getDbMetrics().getSlowQueryThresholdMs());
+    this.maxTracked = props.getDbMetrics().getMaxTrackedStatements();
+  }
+
+  /**
+   * Records one execution.
+   *
+   * @param rows affected or fetched rows; {@code -1} when unknown
+   * @param binds number of bound parameters (highest index set)
+   */
+  void record(String sql, long nanos, long rows, int binds, boolean success) {
+    var normalized = normalizer.normalize(sql);
+    var op = SqlNormalizer.operation(normalized);
+    var outcome = success ? "success" : "error";
+    timers
+        .computeIfAbsent(
+            op + '|' + outcome,
+            k ->
+                Timer.builder("db.statement")
+                    .tag("op", op)
+                    .tag("outcome", outcome)
+                    .register(meters))
+        .record(nanos, TimeUnit.NANOSECONDS);
+
+    var key = totals.containsKey(normalized) || totals.size() < maxTracked ? normalized : OTHER;
+    var t = totals.computeIfAbsent(key, k -> new Totals());
+    t.count.increment();
+    t.nanos.add(nanos);
+    if (rows > 0) t.rows.add(rows);
+    if (!success) t.errors.increment();
+    t.maxNanos.accumulateAndGet(nanos, Math::max);
+
+    if (nanos >= slowNanos) {
+      log.warn(
+          "slow statement {} ms, rows={}, binds={}, success={}: {}",
+          TimeUnit.NANOSECONDS.toMillis(nanos),
+          rows,
+          binds,
+          success,
+          normalized);
+    }
+  }
+
+  /** Top {@code limit} statements by total execution time. */
+  public List<Row> top(int limit) {
+    return totals.entrySet().stream()
+        .map(
+            e -> {
+              var t = e.getValue();
+              long count = t.count.sum();
+              double totalMs = t.nanos.sum() / 1e6;
+              return new Row(
+                  e.getKey(),
+                  count,
+                  t.errors.sum(),
+                  t.rows.sum(),
+                  totalMs,
+                  count == 0 ? 0 : totalMs / count,
+                  t.maxNanos.get() / 1e6);
+            })
+        .sorted(Comparator.comparingDouble(Row::totalMs).reversed())
+        .limit(Math.max(0, limit))
+        .toList();
+  }
+
+  public void reset() {
+    totals.clear();
+  }
+}
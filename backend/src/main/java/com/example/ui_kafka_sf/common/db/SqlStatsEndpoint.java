@@ -0,0 +1,29 @@
+package com.example.ui_kafka_sf.common.db;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@code GET /actuator/sqlstats?limit=N} — top-N normalized statements by total time since start
+ * (or the last {@code DELETE /actuator/sqlstats}).
+ */
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+
+  private final SqlStatementStats stats;
+
+  @ReadOperation
+  public List<SqlStatementStats.Row> top(@Nullable Integer limit) {
+    return stats.top(limit == null ? 20 : limit);
+  }
+
+  @DeleteOperation
+  public void reset() {
+    stats.reset();
+  }
+}
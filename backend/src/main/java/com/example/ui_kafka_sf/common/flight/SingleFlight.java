@@ -0,0 +1,127 @@
+package com.example.ui_kafka_sf.common.flight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing ("single flight"): concurrent {@link #get} calls for the same key share one
+ * call of the loader. The first caller (the leader) runs it on its own thread; callers arriving
+ * while it runs wait for its result or exception. Nothing is kept afterwards, so every call that
+ * starts after a load has finished triggers a new one.
+ *
+ * <p>A follower may get a result older than its own call: the load it joins can have read the
+ * database before the follower arrived, and the key stays in flight until the loader returns. For
+ * a caller that has just written the key, that can be a state from before its write. Writers
+ * therefore call {@link #forget} once the write has committed; calls starting after that never
+ * join a load that began before it.
+ *
+ * <p>The loader never runs inside a map lock ({@code computeIfAbsent}) and followers wait on a
+ * {@link CompletableFuture}, so a virtual thread unmounts while it waits instead of pinning its
+ * carrier; platform threads simply block.
+ *
+ * <p>Results are shared between threads: they must be immutable (DTOs, records, snapshots), not
+ * JPA entities.
+ *
+ * <p>Metrics, tagged {@code flight=<name>}: {@code singleflight.calls{role=leader|follower}},
+ * {@code singleflight.inflight} (loads running) and {@code singleflight.coalescing.ratio}
+ * (followers / calls since start; use {@code rate()} on the counters for a windowed ratio).
+ *
+ * @param <K> key type (with value equality)
+ * @param <V> result type
+ */
+public final class SingleFlight<K, V> {
+
+  private final boolean enabled;
+  private final Map<K, CompletableFuture<V>> inflight = new ConcurrentHashMap<>();
+  private final Counter leaders;
+  private final Counter followers;
+
+  /** With {@code enabled=false} every call runs its own loader, with the same metrics. */
+  public SingleFlight(String name, boolean enabled, MeterRegistry meters) {
+    this.enabled = enabled;
+    this.leaders = counter(meters, name, "leader");
+    this.followers = counter(meters, name, "follower");
+    Gauge.builder("singleflight.inflight", inflight, Map::size)
+        .tag("flight", name)
+        .register(meters);
+    Gauge.builder("singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+        .tag("flight", name)
+        .register(meters);
+  }
+
+  /** A result, and whether it came from a load another caller started ({@code joined}). */
+  public record Result<V>(V value, boolean joined) {}
+
+  /** Result of {@code loader}, or of the identical call already in flight for {@code key}. */
+  public V get(K key, Supplier<V> loader) {
+    return call(key, loader).value();
+  }
+
+  /** {@link #get}, telling a follower's result from the leader's. */
+  public Result<V> call(K key, Supplier<V> loader) {
+    if (!enabled) {
+      leaders.increment();
+      return new Result<>(loader.get(), false);
+    }
+    var mine = new CompletableFuture<V>();
+    var leader = inflight.putIfAbsent(key, mine);
+    if (leader != null) {
+      followers.increment();
+      return new Result<>(await(leader), true);
+    }
+    leaders.increment();
+    V value;
+    try {
+      value = loader.get();
+    } catch (RuntimeException | Error e) {
+      inflight.remove(key, mine);
+      mine.completeExceptionally(e);
+      throw e;
+    }
+    inflight.remove(key, mine);
+    mine.complete(value);
+    return new Result<>(value, false);
+  }
+
+  /**
+   * Detaches the load in flight for {@code key}, if any: callers already waiting still get its
+   * result, later calls start a new load. Call after a committed write to {@code key}.
+   */
+  public void forget(K key) {
+    inflight.remove(key);
+  }
+
+  /** {@link #forget} for every key, when a write's keys are not all known. */
+  public void forgetAll() {
+    inflight.clear();
+  }
+
+  double coalescingRatio() {
+    double total = leaders.count() + followers.count();
+    return total == 0 ? 0 : followers.count() / total;
+  }
+
+  private static <V> V await(CompletableFuture<V> leader) {
+    try {
+      return leader.join();
+    } catch (CompletionException e) {
+      // rethrow the leader's own exception, so callers map it exactly as the leader does
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      if (e.getCause() instanceof Error cause) throw cause;
+      throw e;
+    }
+  }
+
+  private static Counter counter(MeterRegistry meters, String name, String role) {
+    return Counter.builder("singleflight.calls")
+        .tag("flight", name)
+        .tag("role", role)
+        .register(meters);
+  }
+}
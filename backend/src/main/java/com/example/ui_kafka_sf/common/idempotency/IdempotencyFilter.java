@@ -0,0 +1,511 @@
+package com.example.ui_kafka_sf.common.idempotency;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.WriteEndpoint;
+import com.example.ui_kafka_sf.common.flight.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * {@code Idempotency-Key} support for the write endpoints ({@link WriteEndpoint}): a request
+ * carrying a key runs once, and every retry with the same key gets the stored response back,
+ * byte for byte, with {@code Idempotent-Replayed: true}, without running again.
+ *
+ * <ul>
+ *   <li>Keys are scoped to the caller (username, or anonymous) and must be 1–255 visible ASCII
+ *       characters, else {@code 400 invalid_idempotency_key}. A key reused for another method,
+ *       path or request body gets {@code 422 idempotency_key_reused}; the body is compared by its
+ *       SHA-256, so two anonymous clients that happen to pick the same key for different
+ *       registrations are told apart instead of one getting the other's response. To hash it,
+ *       the body is buffered; one over {@code max-request-bytes} gets {@code 413
+ *       payload_too_large}.
+ *   <li>The first request reserves the key in {@code http_idempotency} ({@link
+ *       IdempotentResponses#reserve}), runs, and stores status, the headers the endpoint set and
+ *       the body for {@code app.idempotency.ttl-seconds}. 5xx, 429 and responses over {@code
+ *       max-response-bytes} are not stored; the key is released and the next retry runs again.
+ *   <li>Duplicates arriving while the original runs on this instance wait for it ({@link
+ *       SingleFlight}); when it runs on another instance they poll the row. After {@code
+ *       wait-timeout-ms} they get {@code 409 idempotency_key_in_progress} with {@code Retry-After:
+ *       1}. An original that died keeps its key for at most {@code lease-ms}.
+ *   <li>Completed responses are also kept in a near cache ({@code near-cache-size}), so hot retries
+ *       do not touch the database.
+ * </ul>
+ *
+ * <p>Runs after the Spring Security chain, so the caller is known, and before {@code
+ * ConcurrencyLimitFilter}, so a replay takes no permit.
+ *
+ * <p>Metrics: {@code idempotency.requests{group, outcome=executed|replayed|in_progress|reused|
+ * invalid|too_large|not_stored}} and {@code idempotency.replays{group, source=local|db|inflight}}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@ConditionalOnProperty(
+    prefix = "app.idempotency",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String KEY_HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final long POLL_INTERVAL_MS = 50;
+  private static final int PURGE_BATCH = 1000;
+
+  private enum Kind {
+    EXECUTED,
+    REPLAYED,
+    IN_PROGRESS,
+    REUSED
+  }
+
+  /**
+   * What resolving a key produced. For {@code EXECUTED}, {@code response} is what the request
+   * returned and {@code stored} whether it can be replayed.
+   */
+  private record Outcome(Kind kind, IdempotentResponse response, String source, boolean stored) {}
+
+  /** Carries a checked exception of the filter chain through {@link SingleFlight}. */
+  private static final class ChainFailure extends RuntimeException {
+    ChainFailure(Exception cause) {
+      super(cause);
+    }
+  }
+
+  private static final class Meters {
+    final Map<String, Counter> requests = new HashMap<>();
+    final Map<String, Counter> replays = new HashMap<>();
+
+    Meters(String group, MeterRegistry meters) {
+      for (var outcome :
+          List.of(
+              "executed",
+              "replayed",
+              "in_progress",
+              "reused",
+              "invalid",
+              "too_large",
+              "not_stored"))
+        requests.put(
+            outcome,
+            Counter.builder("idempotency.requests")
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(meters));
+      for (var source : List.of("local", "db", "inflight"))
+        replays.put(
+            source,
+            Counter.builder("idempotency.replays")
+                .tag("group", group)
+                .tag("source", source)
+                .register(meters));
+    }
+  }
+
+  private final IdempotentResponses store;
+  private final AppProperties.Idempotency cfg;
+  private final SingleFlight<String, Outcome> inflight;
+  private final Cache<String, IdempotentResponse> completed;
+  private final Map<WriteEndpoint, Meters> meters = new EnumMap<>(WriteEndpoint.class);
+
+  public IdempotencyFilter(IdempotentResponses store, AppProperties props, MeterRegistry meters) {
+    this.store = store;
+    this.cfg = props.getIdempotency();
+    this.inflight = new SingleFlight<>("idempotency", true, meters);
+    this.completed =
+        Caffeine.newBuilder()
+            .maximumSize(cfg.getNearCacheSize())
+            .expireAfter(
+                new Expiry<String, IdempotentResponse>() {
+                  @Override
+                  public long expireAfterCreate(String id, IdempotentResponse r, long now) {
+                    return Math.max(0, Duration.between(Instant.now(), r.expiresAt()).toNanos());
+                  }
+
+                  @Override
+                  public long expireAfterUpdate(
+                      String id, IdempotentResponse r, long now, long remaining) {
+                    return expireAfterCreate(id, r, now);
+                  }
+
+                  @Override
+                  public long expireAfterRead(
+                      String id, IdempotentResponse r, long now, long remaining) {
+                    return remaining;
+                  }
+                })
+            .build();
+    for (var endpoint : WriteEndpoint.values())
+      this.meters.put(endpoint, new Meters(endpoint.group, meters));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    var endpoint = WriteEndpoint.of(request);
+    var key = request.getHeader(KEY_HEADER);
+    if (endpoint == null || key == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+    var m = meters.get(endpoint);
+    if (!validKey(key)) {
+      m.requests.get("invalid").increment();
+      error(response, Errors.INVALID_IDEMPOTENCY_KEY);
+      return;
+    }
+
+    // usernames may contain spaces, keys may not: the last space separates them
+    var id = owner() + " " + key;
+    var method = request.getMethod();
+    var path = request.getRequestURI();
+    var buffered = BufferedRequest.read(request, cfg.getMaxRequestBytes());
+    if (buffered == null) {
+      m.requests.get("too_large").increment();
+      error(response, Errors.PAYLOAD_TOO_LARGE);
+      return;
+    }
+    var hash = buffered.hash();
+    // only the same request waits here; a reused key is told apart by the store
+    var flight = id + "\n" + method + " " + path + "\n" + hash;
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cfg.getWaitTimeoutMs());
+    while (true) {
+      var wrapper = new ContentCachingResponseWrapper(response);
+      var ran = new boolean[1];
+      Outcome outcome;
+      try {
+        outcome =
+            inflight.get(
+                flight,
+                () -> {
+                  ran[0] = true;
+                  return resolve(id, method, path, hash, deadline, buffered, wrapper, chain);
+                });
+      } catch (ChainFailure f) {
+        // the original failed and released the key: a duplicate runs it again
+        if (!ran[0]) continue;
+        if (f.getCause() instanceof IOException e) throw e;
+        if (f.getCause() instanceof ServletException e) throw e;
+        throw (RuntimeException) f.getCause();
+      } catch (DataAccessException | TransactionException e) {
+        log.warn("idempotency store unavailable for {} {}", method, path, e);
+        error(response, Errors.DB_UNAVAILABLE);
+        return;
+      }
+
+      switch (outcome.kind()) {
+        case EXECUTED -> {
+          if (ran[0]) {
+            wrapper.copyBodyToResponse();
+            m.requests.get(outcome.stored() ? "executed" : "not_stored").increment();
+            return;
+          }
+          // a duplicate of a response that was not stored runs again, unless out of time
+          if (!outcome.stored() && System.nanoTime() - deadline < 0) continue;
+          replay(response, outcome.response());
+          m.requests.get("replayed").increment();
+          m.replays.get("inflight").increment();
+        }
+        case REPLAYED -> {
+          replay(response, outcome.response());
+          m.requests.get("replayed").increment();
+          m.replays.get(outcome.source()).increment();
+        }
+        case IN_PROGRESS -> {
+          m.requests.get("in_progress").increment();
+          response.setHeader("Retry-After", "1");
+          error(response, Errors.IDEMPOTENCY_KEY_IN_PROGRESS);
+        }
+        case REUSED -> {
+          m.requests.get("reused").increment();
+          error(response, Errors.IDEMPOTENCY_KEY_REUSED);
+        }
+      }
+      return;
+    }
+  }
+
+  /** Drops expired keys in batches, so the table holds about one TTL of traffic. */
+  @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+  public void purgeExpired() {
+    try {
+      int deleted;
+      do {
+        deleted = store.purgeExpired(PURGE_BATCH);
+      } while (deleted == PURGE_BATCH);
+    } catch (DataAccessException | TransactionException e) {
+      log.warn("idempotency purge failed", e);
+    }
+  }
+
+  /** Replays a known response, runs the request if the key is ours, or waits for its owner. */
+  private Outcome resolve(
+      String id,
+      String method,
+      String path,
+      String hash,
+      long deadline,
+      BufferedRequest request,
+      ContentCachingResponseWrapper wrapper,
+      FilterChain chain) {
+    while (true) {
+      var cached = completed.getIfPresent(id);
+      if (cached != null) return replayOf(cached, method, path, hash, "local");
+      if (store.reserve(id, method, path, hash, cfg.getLeaseMs(), cfg.getTtlSeconds()))
+        return execute(id, request, wrapper, chain);
+
+      var existing = store.find(id).orElse(null);
+      if (existing != null && existing.completed()) {
+        completed.put(id, existing);
+        return replayOf(existing, method, path, hash, "db");
+      }
+      if (existing != null && !existing.matches(method, path, hash))
+        return new Outcome(Kind.REUSED, null, null, false);
+      // in flight on another instance (or released/expired in between: reserve again)
+      if (System.nanoTime() - deadline >= 0)
+        return new Outcome(Kind.IN_PROGRESS, null, null, false);
+      try {
+        Thread.sleep(POLL_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new Outcome(Kind.IN_PROGRESS, null, null, false);
+      }
+    }
+  }
+
+  private static Outcome replayOf(
+      IdempotentResponse r, String method, String path, String hash, String source) {
+    return r.matches(method, path, hash)
+        ? new Outcome(Kind.REPLAYED, r, source, true)
+        : new Outcome(Kind.REUSED, null, null, false);
+  }
+
+  /** Runs the request into {@code wrapper} and stores its response if it can be replayed. */
+  private Outcome execute(
+      String id,
+      BufferedRequest request,
+      ContentCachingResponseWrapper wrapper,
+      FilterChain chain) {
+    var before = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    before.addAll(wrapper.getHeaderNames());
+    try {
+      chain.doFilter(request, wrapper);
+    } catch (IOException | ServletException | RuntimeException e) {
+      releaseQuietly(id);
+      throw new ChainFailure(e);
+    } catch (Error e) {
+      releaseQuietly(id);
+      throw e;
+    }
+
+    int status = wrapper.getStatus();
+    var body = wrapper.getContentAsByteArray();
+    var headers = encodeHeaders(wrapper, before);
+    var expiresAt = Instant.now().plusSeconds(cfg.getTtlSeconds());
+    var response =
+        new IdempotentResponse(
+            request.getMethod(),
+            request.getRequestURI(),
+            request.hash(),
+            status,
+            headers,
+            body,
+            expiresAt);
+    if (status >= 500 || status == 429 || body.length > cfg.getMaxResponseBytes()) {
+      releaseQuietly(id);
+      return new Outcome(Kind.EXECUTED, response, null, false);
+    }
+    try {
+      store.complete(id, status, headers, body, cfg.getTtlSeconds());
+    } catch (RuntimeException e) {
+      // the work is done; the client gets its response, a retry may run it again
+      log.warn("could not store idempotent response for {}", request.getRequestURI(), e);
+      releaseQuietly(id);
+      return new Outcome(Kind.EXECUTED, response, null, false);
+    }
+    completed.put(id, response);
+    return new Outcome(Kind.EXECUTED, response, null, true);
+  }
+
+  private void releaseQuietly(String id) {
+    try {
+      store.release(id);
+    } catch (RuntimeException e) {
+      // the lease runs out instead
+      log.warn("could not release idempotency key", e);
+    }
+  }
+
+  private static void replay(HttpServletResponse response, IdempotentResponse r)
+      throws IOException {
+    response.setStatus(r.status());
+    var seen = new HashSet<String>();
+    for (var line : r.headers().split("\n")) {
+      int colon = line.indexOf(": ");
+      if (colon <= 0) continue;
+      var name = line.substring(0, colon);
+      var value = line.substring(colon + 2);
+      if (name.equalsIgnoreCase("Content-Type")) response.setContentType(value);
+      else if (seen.add(name.toLowerCase(Locale.ROOT))) response.setHeader(name, value);
+      else response.addHeader(name, value);
+    }
+    response.setHeader(REPLAYED_HEADER, "true");
+    response.setContentLength(r.body().length);
+    response.getOutputStream().write(r.body());
+  }
+
+  /** Headers the endpoint added (not set before it), one {@code Name: value} line per value. */
+  private static String encodeHeaders(HttpServletResponse response, Set<String> before) {
+    var sb = new StringBuilder();
+    if (response.getContentType() != null)
+      sb.append("Content-Type: ").append(response.getContentType()).append('\n');
+    for (var name : new LinkedHashSet<>(response.getHeaderNames())) {
+      if (name.equalsIgnoreCase("Content-Type") || name.equalsIgnoreCase("Content-Length"))
+        continue;
+      // e.g. X-Trace-Id belongs to the request being answered, not to the original
+      if (before.contains(name)) continue;
+      for (var v : response.getHeaders(name)) sb.append(name).append(": ").append(v).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static boolean validKey(String key) {
+    if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) return false;
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c < 0x21 || c > 0x7e) return false;
+    }
+    return true;
+  }
+
+  private static String owner() {
+    var auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken)
+      return "";
+    return auth.getName();
+  }
+
+  /** The request with its body read up front, so it can be hashed and still read by the chain. */
+  private static final class BufferedRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    private BufferedRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    /** The buffered request, or {@code null} if its body is over {@code maxBytes}. */
+    static BufferedRequest read(HttpServletRequest request, int maxBytes) throws IOException {
+      if (request.getContentLengthLong() > maxBytes) return null;
+      // chunked bodies have no length up front: read one byte past the limit to tell
+      var body = request.getInputStream().readNBytes(maxBytes + 1);
+      return body.length > maxBytes ? null : new BufferedRequest(request, body);
+    }
+
+    String hash() {
+      try {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      var in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        /** The body is already here: it can all be read now, then it has all been read. */
+        @Override
+        public void setReadListener(ReadListener listener) {
+          try {
+            if (!isFinished()) listener.onDataAvailable();
+            if (isFinished()) listener.onAllDataRead();
+          } catch (IOException | RuntimeException e) {
+            listener.onError(e);
+          }
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      var charset = getCharacterEncoding() == null ? "UTF-8" : getCharacterEncoding();
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+  }
+
+  private static void error(HttpServletResponse response, Errors error) throws IOException {
+    var body = ("{\"error\":\"" + error.code + "\"}").getBytes(StandardCharsets.UTF_8);
+    response.setStatus(error.status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+}
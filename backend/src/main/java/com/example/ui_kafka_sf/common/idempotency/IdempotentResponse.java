@@ -0,0 +1,33 @@
+package com.example.ui_kafka_sf.common.idempotency;
+
+import java.time.Instant;
+
+/**
+ * The stored state of one {@code Idempotency-Key}: the request it was first used for and, once that
+ * request has finished, its response.
+ *
+ * @param requestHash hex SHA-256 of the request body; {@code null} on rows stored before bodies
+ *     were compared
+ * @param status response status; {@code 0} while the original request is in flight
+ * @param headers response headers the endpoint set, one {@code Name: value} per line
+ */
+public record IdempotentResponse(
+    String method,
+    String path,
+    String requestHash,
+    int status,
+    String headers,
+    byte[] body,
+    Instant expiresAt) {
+
+  public boolean completed() {
+    return status != 0;
+  }
+
+  /** {@code true} if the key was first used for this endpoint with this body. */
+  public boolean matches(String method, String path, String requestHash) {
+    return this.method.equals(method)
+        && this.path.equals(path)
+        && (this.requestHash == null || this.requestHash.equals(requestHash));
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.ui_kafka_sf.common.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One {@code Idempotency-Key}, scoped to its caller: {@code id} is {@code "<username> <key>"}
+ * ({@code " <key>"} for anonymous requests). The response body is stored as raw bytes.
+ */
+@Entity
+@Table(name = "http_idempotency")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotentResponseEntity {
+
+  @Id
+  @Column(nullable = false, updatable = false, columnDefinition = "text")
+  private String id;
+
+  @Column(nullable = false, length = 8)
+  private String method;
+
+  @Column(nullable = false, columnDefinition = "text")
+  private String path;
+
+  /** Hex SHA-256 of the request body */
+  @Column(name = "request_hash", length = 64)
+  private String requestHash;
+
+  /** {@code null} while the original request is in flight */
+  @Column(name = "response_status")
+  private Integer responseStatus;
+
+  @Column(name = "response_headers", columnDefinition = "text")
+  private String responseHeaders;
+
+  @Column(name = "response_body")
+  private byte[] responseBody;
+
+  /** An unfinished reservation can be taken over after this */
+  @Column(name = "locked_until", nullable = false)
+  private Instant lockedUntil;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  IdempotentResponse toResponse() {
+    return new IdempotentResponse(
+        method,
+        path,
+        requestHash,
+        responseStatus == null ? 0 : responseStatus,
+        responseHeaders == null ? "" : responseHeaders,
+        responseBody == null ? new byte[0] : responseBody,
+        expiresAt);
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.ui_kafka_sf.common.idempotency;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link IdempotentResponses} on Postgres ({@code http_idempotency}). A reservation is a single
+ * {@code INSERT ... ON CONFLICT DO UPDATE ... WHERE} statement, so two instances can never both own
+ * a key; leases and expiry are set and checked in SQL, against the database clock.
+ */
+public interface IdempotentResponseRepository
+    extends JpaRepository<IdempotentResponseEntity, String>, IdempotentResponses {
+
+  @Override
+  default boolean reserve(
+      String id, String method, String path, String requestHash, long leaseMs, long ttlSeconds) {
+    return !reserveRow(id, method, path, requestHash, leaseMs, ttlSeconds).isEmpty();
+  }
+
+  /** Returns {@code [id]} if the row was inserted or taken over, empty otherwise. */
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          "insert into http_idempotency"
+              + " (id, method, path, request_hash, locked_until, expires_at, created_at)"
+              + " values (:id, :method, :path, :requestHash,"
+              + " now() + cast(:leaseMs as bigint) * interval '1 millisecond',"
+              + " now() + cast(:ttlSeconds as bigint) * interval '1 second', now())"
+              + " on conflict (id) do update set method = excluded.method,"
+              + " path = excluded.path, request_hash = excluded.request_hash,"
+              + " response_status = null, response_headers = null,"
+              + " response_body = null, locked_until = excluded.locked_until,"
+              + " expires_at = excluded.expires_at, created_at = excluded.created_at"
+              + " where http_idempotency.expires_at < now()"
+              + " or (http_idempotency.response_status is null"
+              + " and http_idempotency.locked_until < now())"
+              + " returning id")
+  List<String> reserveRow(
+      @Param("id") String id,
+      @Param("method") String method,
+      @Param("path") String path,
+      @Param("requestHash") String requestHash,
+      @Param("leaseMs") long leaseMs,
+      @Param("ttlSeconds") long ttlSeconds);
+
+  @Override
+  default Optional<IdempotentResponse> find(String id) {
+    return findUnexpired(id).map(IdempotentResponseEntity::toResponse);
+  }
+
+  @Query(
+      nativeQuery = true,
+      value = "select * from http_idempotency where id = :id and expires_at > now()")
+  Optional<IdempotentResponseEntity> findUnexpired(@Param("id") String id);
+
+  @Override
+  @Modifying
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          "update http_idempotency set response_status = :status,"
+              + " response_headers = :headers, response_body = :body,"
+              + " expires_at = now() + cast(:ttlSeconds as bigint) * interval '1 second'"
+              + " where id = :id")
+  void complete(
+      @Param("id") String id,
+      @Param("status") int status,
+      @Param("headers") String headers,
+      @Param("body") byte[] body,
+      @Param("ttlSeconds") long ttlSeconds);
+
+  @Override
+  @Modifying
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value = "delete from http_idempotency where id = :id and response_status is null")
+  void release(@Param("id") String id);
+
+  @Override
+  @Modifying
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          "delete from http_idempotency where id in"
+              + " (select id from http_idempotency where expires_at < now() limit :limit)")
+  int purgeExpired(@Param("limit") int limit);
+}
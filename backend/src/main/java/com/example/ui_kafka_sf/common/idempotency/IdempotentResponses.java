@@ -0,0 +1,29 @@
+package com.example.ui_kafka_sf.common.idempotency;
+
+import java.util.Optional;
+
+/** Storage of {@code Idempotency-Key} reservations and their responses, shared by all instances. */
+public interface IdempotentResponses {
+
+  /**
+   * Reserves {@code id} for a request to {@code method path} with a body hashing to {@code
+   * requestHash}: inserts it, or takes over a row whose TTL has passed or whose original gave up
+   * (in flight past its lease).
+   *
+   * @return {@code true} if the caller now owns the key and must run the request
+   */
+  boolean reserve(
+      String id, String method, String path, String requestHash, long leaseMs, long ttlSeconds);
+
+  /** The key's state, unless absent or expired. */
+  Optional<IdempotentResponse> find(String id);
+
+  /** Stores the response of the reserved request; it is replayed for {@code ttlSeconds}. */
+  void complete(String id, int status, String headers, byte[] body, long ttlSeconds);
+
+  /** Drops an unfinished reservation, so the next request with the key runs again. */
+  void release(String id);
+
+  /** Deletes up to {@code limit} expired rows; returns how many. */
+  int purgeExpired(int limit);
+}
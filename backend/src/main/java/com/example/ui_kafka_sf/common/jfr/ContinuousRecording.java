@@ -0,0 +1,57 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process, always-on flight recording (profile {@code jfr}, i.e. {@code app.jfr.enabled=true}).
+ *
+ * <p>Starts from the JDK's {@code default} settings (the ones meant for production, roughly 1%
+ * overhead) plus the {@link DomainEvents}, and keeps a rolling on-disk window bounded by {@code
+ * app.jfr.max-age-minutes} and {@code app.jfr.max-size-mb}. {@link JfrDumpEndpoint} cuts the last
+ * minutes out of it on demand.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true")
+public class ContinuousRecording {
+
+  static final String NAME = "ui-kafka-sf-continuous";
+
+  private final AppProperties props;
+  private Recording recording;
+
+  @PostConstruct
+  void start() throws IOException, ParseException {
+    var cfg = props.getJfr();
+    recording = new Recording(Configuration.getConfiguration(cfg.getSettings()));
+    recording.setName(NAME);
+    recording.setToDisk(true);
+    recording.setMaxAge(Duration.ofMinutes(cfg.getMaxAgeMinutes()));
+    recording.setMaxSize(cfg.getMaxSizeMb() * 1024 * 1024);
+    for (var type : DomainEvents.ALL)
+      recording.enable(type).withThreshold(Duration.ofMillis(cfg.getEventThresholdMs()));
+    recording.start();
+    log.info(
+        "JFR continuous recording started (settings={}, maxAge={}m, maxSize={}MB)",
+        cfg.getSettings(),
+        cfg.getMaxAgeMinutes(),
+        cfg.getMaxSizeMb());
+  }
+
+  @PreDestroy
+  void stop() {
+    if (recording != null) recording.close();
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A course read served by {@code CourseController}. */
+@Name("ui_kafka_sf.CourseQuery")
+@Label("Course Query")
+@Category({"ui_kafka_sf", "Course"})
+public class CourseQueryEvent extends Event {
+
+  @Label("Query")
+  @Description("all, byId or byInstructor")
+  String query;
+
+  @Label("Argument")
+  String argument;
+
+  @Label("Source")
+  @Description("db, coalesced (joined another caller's db query) or view")
+  String source;
+
+  @Label("Results")
+  int results;
+
+  public static CourseQueryEvent start(String query, String argument) {
+    var e = new CourseQueryEvent();
+    e.query = query;
+    e.argument = argument;
+    e.begin();
+    return e;
+  }
+
+  public void finish(String source, int results) {
+    end();
+    if (shouldCommit()) {
+      this.source = source;
+      this.results = results;
+      commit();
+    }
+  }
+}
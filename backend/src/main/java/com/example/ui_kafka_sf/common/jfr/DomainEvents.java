@@ -0,0 +1,18 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import java.util.List;
+import jdk.jfr.Event;
+
+/** The application's custom JFR event types, for recordings that enable them explicitly. */
+public final class DomainEvents {
+
+  public static final List<Class<? extends Event>> ALL =
+      List.of(
+          IdempotencyReserveEvent.class,
+          KafkaPublishEvent.class,
+          JwtVerifyEvent.class,
+          PasswordHashEvent.class,
+          CourseQueryEvent.class);
+
+  private DomainEvents() {}
+}
@@ -0,0 +1,49 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The reservation of one SF key, alone ({@code tryReserveFirstSend}) or as part of a batch
+ * ({@code SfSubmitBatcher}); keys reserved together share the duration of their statement.
+ */
+@Name("ui_kafka_sf.IdempotencyReserve")
+@Label("Idempotency Reservation")
+@Category({"ui_kafka_sf", "SF"})
+@Description("INSERT-based first-send reservation of an SF submission key")
+public class IdempotencyReserveEvent extends Event {
+
+  @Label("Key Hash")
+  String keyHash;
+
+  @Label("Outcome")
+  @Description("first, duplicate or error")
+  String outcome;
+
+  @Label("Batch Size")
+  @Description("Keys reserved together with this one, itself included")
+  int batchSize;
+
+  public static IdempotencyReserveEvent start(String keyHash) {
+    return start(keyHash, 1);
+  }
+
+  public static IdempotencyReserveEvent start(String keyHash, int batchSize) {
+    var e = new IdempotencyReserveEvent();
+    e.keyHash = keyHash;
+    e.batchSize = batchSize;
+    e.begin();
+    return e;
+  }
+
+  public void finish(String outcome) {
+    end();
+    if (shouldCommit()) {
+      this.outcome = outcome;
+      commit();
+    }
+  }
+}
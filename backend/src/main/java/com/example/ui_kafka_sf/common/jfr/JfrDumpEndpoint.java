@@ -0,0 +1,83 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import jdk.jfr.FlightRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/jfr?minutes=N} — the last {@code N} minutes (default {@code
+ * app.jfr.dump-minutes}) of whatever the JVM is recording, as a {@code .jfr} file. Works with
+ * {@link ContinuousRecording} or with a recording started by {@code -XX:StartFlightRecording};
+ * 404 when nothing is being recorded. Restricted to {@code ROLE_ADMIN} in {@code SecurityConfig}.
+ *
+ * <p>The data comes from a snapshot, so running recordings are not disturbed. The cut is at chunk
+ * granularity and may include slightly more than asked for.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrDumpEndpoint {
+
+  private final AppProperties props;
+
+  @ReadOperation(produces = "application/octet-stream")
+  public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) throws IOException {
+    int window = minutes == null ? props.getJfr().getDumpMinutes() : minutes;
+    if (window <= 0) return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+    var file = dumpTo(Duration.ofMinutes(window));
+    return file == null
+        ? new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND)
+        : new WebEndpointResponse<>(new TemporaryFileResource(file), WebEndpointResponse.STATUS_OK);
+  }
+
+  /** Writes the last {@code window} of recorded data to a temp file; {@code null} if none. */
+  static Path dumpTo(Duration window) throws IOException {
+    if (!FlightRecorder.isAvailable() || !FlightRecorder.isInitialized()) return null;
+    try (var snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+      if (snapshot.getSize() == 0) return null;
+      var end = Instant.now();
+      try (var in = snapshot.getStream(end.minus(window), end)) {
+        if (in == null) return null;
+        var file = Files.createTempFile("ui-kafka-sf-", ".jfr");
+        Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+      }
+    }
+  }
+
+  /** Deletes the dump once the response body has been streamed. */
+  private static final class TemporaryFileResource extends FileSystemResource {
+    TemporaryFileResource(Path file) {
+      super(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return new FilterInputStream(super.getInputStream()) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            Files.deleteIfExists(getFile().toPath());
+          }
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import io.micrometer.observation.Observation;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+
+/**
+ * {@link KafkaTemplate} that records a {@link KafkaPublishEvent} for every send; all {@code send}
+ * overloads funnel through {@link #doSend}.
+ */
+public class JfrKafkaTemplate<K, V> extends KafkaTemplate<K, V> {
+
+  public JfrKafkaTemplate(ProducerFactory<K, V> producerFactory) {
+    super(producerFactory);
+  }
+
+  @Override
+  protected CompletableFuture<SendResult<K, V>> doSend(
+      ProducerRecord<K, V> record, Observation observation) {
+    var jfr = KafkaPublishEvent.start(record.topic(), record.key());
+    if (!jfr.isEnabled()) return super.doSend(record, observation);
+    CompletableFuture<SendResult<K, V>> future;
+    try {
+      future = super.doSend(record, observation);
+    } catch (RuntimeException e) {
+      jfr.finish(false, -1, -1);
+      throw e;
+    }
+    return future.whenComplete(
+        (result, ex) -> {
+          var md = result == null ? null : result.getRecordMetadata();
+          jfr.finish(ex == null, md == null ? -1 : md.partition(), md == null ? -1 : md.offset());
+        });
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** Delegating {@link PasswordEncoder} that records a {@link PasswordHashEvent} per call. */
+@RequiredArgsConstructor
+public class JfrPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    var jfr = PasswordHashEvent.start("encode");
+    try {
+      return delegate.encode(rawPassword);
+    } finally {
+      jfr.finish(false);
+    }
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    var jfr = PasswordHashEvent.start("matches");
+    boolean matched = false;
+    try {
+      matched = delegate.matches(rawPassword, encodedPassword);
+      return matched;
+    } finally {
+      jfr.finish(matched);
+    }
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Signature check and claim extraction of a bearer token in the JWT filter. */
+@Name("ui_kafka_sf.JwtVerify")
+@Label("JWT Verification")
+@Category({"ui_kafka_sf", "Security"})
+public class JwtVerifyEvent extends Event {
+
+  @Label("Subject")
+  String subject;
+
+  @Label("Outcome")
+  @Description("authenticated, no_role, revoked or invalid")
+  String outcome;
+
+  public static JwtVerifyEvent start() {
+    var e = new JwtVerifyEvent();
+    e.begin();
+    return e;
+  }
+
+  public void finish(String subject, String outcome) {
+    end();
+    if (shouldCommit()) {
+      this.subject = subject;
+      this.outcome = outcome;
+      commit();
+    }
+  }
+}
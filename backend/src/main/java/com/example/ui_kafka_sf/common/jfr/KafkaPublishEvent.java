@@ -0,0 +1,51 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One {@code KafkaTemplate} send, from the call to the broker acknowledgement. Committed on the
+ * producer's callback thread.
+ */
+@Name("ui_kafka_sf.KafkaPublish")
+@Label("Kafka Publish")
+@Category({"ui_kafka_sf", "Kafka"})
+@Description("Send-to-ack of a record published by the application")
+public class KafkaPublishEvent extends Event {
+
+  @Label("Topic")
+  String topic;
+
+  @Label("Key")
+  String key;
+
+  @Label("Partition")
+  int partition = -1;
+
+  @Label("Offset")
+  long offset = -1;
+
+  @Label("Success")
+  boolean success;
+
+  public static KafkaPublishEvent start(String topic, Object key) {
+    var e = new KafkaPublishEvent();
+    e.topic = topic;
+    e.key = key == null ? null : key.toString();
+    e.begin();
+    return e;
+  }
+
+  public void finish(boolean success, int partition, long offset) {
+    end();
+    if (shouldCommit()) {
+      this.success = success;
+      this.partition = partition;
+      this.offset = offset;
+      commit();
+    }
+  }
+}
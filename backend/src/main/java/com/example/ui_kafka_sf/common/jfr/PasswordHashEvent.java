@@ -0,0 +1,36 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A BCrypt {@code encode} or {@code matches} call; by design the slowest CPU work per request. */
+@Name("ui_kafka_sf.PasswordHash")
+@Label("Password Hash")
+@Category({"ui_kafka_sf", "Security"})
+public class PasswordHashEvent extends Event {
+
+  @Label("Operation")
+  @Description("encode or matches")
+  String operation;
+
+  @Label("Matched")
+  boolean matched;
+
+  public static PasswordHashEvent start(String operation) {
+    var e = new PasswordHashEvent();
+    e.operation = operation;
+    e.begin();
+    return e;
+  }
+
+  public void finish(boolean matched) {
+    end();
+    if (shouldCommit()) {
+      this.matched = matched;
+      commit();
+    }
+  }
+}
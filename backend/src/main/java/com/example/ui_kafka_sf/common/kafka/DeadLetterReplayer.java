@@ -0,0 +1,174 @@
+package com.example.ui_kafka_sf.common.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicBeanNames;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+/**
+ * Inspects and replays a dead-letter topic.
+ *
+ * <p>Progress is tracked by a dedicated consumer group per DLT ({@code replayGroup}): {@link
+ * #peek} shows the records that group has not replayed yet, {@link #replay} republishes the next
+ * batch to each record's original topic (raw key, value and headers, minus the {@code kafka_dlt-*}
+ * / retry bookkeeping headers) and commits only after every send was acknowledged. A replayed record
+ * that fails again goes through the retry tiers and lands in the DLT anew.
+ *
+ * <p>Records are read as bytes, so poison values are shown and replayed untouched. Operations are
+ * serialized; they are admin actions, not a hot path.
+ */
+@Service
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class DeadLetterReplayer {
+
+  /** One dead-lettered record, as shown to an operator. */
+  public record DeadLetter(
+      int partition,
+      long offset,
+      long timestamp,
+      String key,
+      String originalTopic,
+      String exception,
+      String exceptionMessage,
+      String value) {}
+
+  public record ReplayResult(int replayed, long remaining) {}
+
+  private static final Duration POLL = Duration.ofMillis(500);
+  private static final int MAX_EMPTY_POLLS = 3;
+
+  private final ConsumerFactory<?, ?> consumers;
+  private final KafkaTemplate<Object, Object> producer;
+
+  public DeadLetterReplayer(
+      ConsumerFactory<?, ?> consumers,
+      @Qualifier(RetryTopicBeanNames.DEFAULT_KAFKA_TEMPLATE_BEAN_NAME)
+          KafkaTemplate<Object, Object> producer) {
+    this.consumers = consumers;
+    this.producer = producer;
+  }
+
+  /** Up to {@code limit} records {@code replayGroup} has not replayed yet, oldest first. */
+  public synchronized List<DeadLetter> peek(String dltTopic, String replayGroup, int limit) {
+    try (var consumer = open(replayGroup, limit)) {
+      if (!assignAll(consumer, dltTopic)) return List.of();
+      return poll(consumer, limit).stream().map(DeadLetterReplayer::describe).toList();
+    }
+  }
+
+  /** Replays the next {@code batchSize} records; {@code fallbackTopic} if no original is known. */
+  public synchronized ReplayResult replay(
+      String dltTopic, String replayGroup, String fallbackTopic, int batchSize) throws Exception {
+    try (var consumer = open(replayGroup, batchSize)) {
+      if (!assignAll(consumer, dltTopic)) return new ReplayResult(0, 0);
+      var batch = poll(consumer, batchSize);
+
+      var sends = new ArrayList<CompletableFuture<?>>(batch.size());
+      var commit = new HashMap<TopicPartition, OffsetAndMetadata>();
+      for (var r : batch) {
+        var target = headerString(r, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        var out =
+            new ProducerRecord<Object, Object>(
+                target != null ? target : fallbackTopic, null, r.key(), r.value());
+        for (Header h : r.headers())
+          if (!h.key().startsWith("kafka_dlt-") && !h.key().startsWith("retry_topic-"))
+            out.headers().add(h);
+        sends.add(producer.send(out));
+        commit.put(
+            new TopicPartition(r.topic(), r.partition()), new OffsetAndMetadata(r.offset() + 1));
+      }
+      CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+      if (!commit.isEmpty()) consumer.commitSync(commit);
+      return new ReplayResult(batch.size(), remaining(consumer));
+    }
+  }
+
+  // -- helpers
+
+  @SuppressWarnings("unchecked")
+  private Consumer<byte[], byte[]> open(String group, int maxRecords) {
+    var overrides = new Properties();
+    overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+    overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+    overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, maxRecords));
+    return (Consumer<byte[], byte[]>) consumers.createConsumer(group, "dlt-admin", null, overrides);
+  }
+
+  private static boolean assignAll(Consumer<byte[], byte[]> consumer, String topic) {
+    var partitions = consumer.partitionsFor(topic);
+    if (partitions == null || partitions.isEmpty()) return false;
+    consumer.assign(
+        partitions.stream().map(p -> new TopicPartition(p.topic(), p.partition())).toList());
+    return true;
+  }
+
+  private static List<ConsumerRecord<byte[], byte[]>> poll(
+      Consumer<byte[], byte[]> consumer, int limit) {
+    var out = new ArrayList<ConsumerRecord<byte[], byte[]>>();
+    int empty = 0;
+    while (out.size() < limit && empty < MAX_EMPTY_POLLS) {
+      var records = consumer.poll(POLL);
+      if (records.isEmpty()) empty++;
+      for (var r : records) {
+        if (out.size() == limit) break;
+        out.add(r);
+      }
+    }
+    // rewind past anything fetched beyond the limit, so commits stay exact
+    Map<TopicPartition, Long> next = new HashMap<>();
+    for (var r : out) next.put(new TopicPartition(r.topic(), r.partition()), r.offset() + 1);
+    next.forEach(consumer::seek);
+    return out;
+  }
+
+  private static long remaining(Consumer<byte[], byte[]> consumer) {
+    var assignment = consumer.assignment();
+    long remaining = 0;
+    for (var e : consumer.endOffsets(assignment).entrySet())
+      remaining += Math.max(0, e.getValue() - consumer.position(e.getKey()));
+    return remaining;
+  }
+
+  private static DeadLetter describe(ConsumerRecord<byte[], byte[]> r) {
+    return new DeadLetter(
+        r.partition(),
+        r.offset(),
+        r.timestamp(),
+        r.key() == null ? null : new String(r.key(), StandardCharsets.UTF_8),
+        headerString(r, KafkaHeaders.DLT_ORIGINAL_TOPIC),
+        headerString(r, KafkaHeaders.DLT_EXCEPTION_FQCN),
+        headerString(r, KafkaHeaders.DLT_EXCEPTION_MESSAGE),
+        r.value() == null ? null : new String(r.value(), StandardCharsets.UTF_8));
+  }
+
+  private static String headerString(ConsumerRecord<?, ?> r, String name) {
+    var h = r.headers().lastHeader(name);
+    return h == null ? null : new String(h.value(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.ui_kafka_sf.common.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outcome counters for listeners with retry topics.
+ *
+ * <ul>
+ *   <li>{@code kafka.listener.attempts{listener, tier, outcome=success|failure}} — {@code tier} is
+ *       {@code main} for the listener's own topic and the retry topic's suffix otherwise (e.g.
+ *       {@code retry-4000}).
+ *   <li>{@code kafka.listener.dead_letters{listener}} — records that reached the DLT.
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryTierMetrics {
+
+  private final MeterRegistry meters;
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public void attempt(String listener, String mainTopic, String receivedTopic, boolean success) {
+    var tier = tier(mainTopic, receivedTopic);
+    var outcome = success ? "success" : "failure";
+    counters
+        .computeIfAbsent(
+            listener + '|' + tier + '|' + outcome,
+            k ->
+                Counter.builder("kafka.listener.attempts")
+                    .tag("listener", listener)
+                    .tag("tier", tier)
+                    .tag("outcome", outcome)
+                    .register(meters))
+        .increment();
+  }
+
+  public void deadLettered(String listener) {
+    counters
+        .computeIfAbsent(
+            listener + "|dlt",
+            k ->
+                Counter.builder("kafka.listener.dead_letters")
+                    .tag("listener", listener)
+                    .register(meters))
+        .increment();
+  }
+
+  static String tier(String mainTopic, String receivedTopic) {
+    if (receivedTopic == null || receivedTopic.equals(mainTopic)) return "main";
+    if (receivedTopic.startsWith(mainTopic + "-"))
+      return receivedTopic.substring(mainTopic.length() + 1);
+    return receivedTopic;
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.ui_kafka_sf.common.kafka;
+
+import com.example.ui_kafka_sf.common.jfr.JfrKafkaTemplate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicBeanNames;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Producer used to forward failed records to retry and dead-letter topics (picked up by
+ * {@code @RetryableTopic} under its default bean name) and by {@link DeadLetterReplayer}.
+ *
+ * <p>Unlike the application's {@code kafkaTemplate} it writes {@code byte[]} as-is: a record that
+ * failed deserialization reaches the recoverer as its raw bytes, and a JSON serializer would turn
+ * those into a base64 string. Everything else is JSON, as on the main topics.
+ */
+@Configuration
+public class RetryTopicConfig {
+
+  @Value("${spring.kafka.bootstrap-servers}")
+  private String bootstrap;
+
+  @Bean(name = RetryTopicBeanNames.DEFAULT_KAFKA_TEMPLATE_BEAN_NAME)
+  public KafkaTemplate<Object, Object> retryTopicKafkaTemplate() {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    return new JfrKafkaTemplate<>(
+        new DefaultKafkaProducerFactory<>(
+            props, bytesOr(new StringSerializer()), bytesOr(new JsonSerializer<>())));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Serializer<Object> bytesOr(Serializer<?> fallback) {
+    Map<Class<?>, Serializer<?>> byType = new LinkedHashMap<>();
+    byType.put(byte[].class, new ByteArraySerializer());
+    byType.put(Object.class, fallback);
+    return (Serializer) new DelegatingByTypeSerializer(byType, true);
+  }
+}
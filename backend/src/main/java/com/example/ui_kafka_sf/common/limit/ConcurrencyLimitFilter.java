@@ -0,0 +1,150 @@
+package com.example.ui_kafka_sf.common.limit;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.WriteEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Adaptive concurrency limit for the write endpoints ({@link WriteEndpoint}), one {@link
+ * GradientLimit} per group:
+ *
+ * <ul>
+ *   <li>{@code sf.submit} — {@code POST /api/sf/submit}
+ *   <li>{@code auth.register} — {@code POST /api/auth/register}
+ *   <li>{@code course.write} — {@code POST/PUT/PATCH/DELETE /api/course/**}
+ * </ul>
+ *
+ * Requests over the group's current limit are answered immediately with {@code 429
+ * too_many_requests} and {@code Retry-After: 1} instead of queueing in Tomcat. {@code ROLE_ADMIN}
+ * requests get {@code app.concurrency-limit.admin-headroom} extra permits on top of the limit, so
+ * they still get through while regular traffic is being shed.
+ *
+ * <p>Runs after the Spring Security chain (default filter order), so the caller's roles are known.
+ * Only successful and 4xx responses feed the latency samples: fast-failing 5xx would look like
+ * spare capacity.
+ *
+ * <p>Metrics: {@code concurrency.limit{group}}, {@code concurrency.inflight{group}} and {@code
+ * concurrency.rejected{group, priority=user|admin}}.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "app.concurrency-limit",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final byte[] REJECTED_BODY =
+      ("{\"error\":\"" + Errors.TOO_MANY_REQUESTS.code + "\"}").getBytes(StandardCharsets.UTF_8);
+
+  private static final class Group {
+    final GradientLimit limit;
+    final AtomicInteger inflight = new AtomicInteger();
+    final Counter rejectedUser;
+    final Counter rejectedAdmin;
+
+    Group(String name, AppProperties.ConcurrencyLimit cfg, MeterRegistry meters) {
+      this.limit =
+          new GradientLimit(
+              cfg.getInitialLimit(),
+              cfg.getMinLimit(),
+              cfg.getMaxLimit(),
+              cfg.getSmoothing(),
+              cfg.getRttTolerance(),
+              cfg.getWindowMs() * 1_000_000L,
+              cfg.getWindowMinSamples(),
+              System.nanoTime());
+      Gauge.builder("concurrency.limit", limit, GradientLimit::limit)
+          .tag("group", name)
+          .register(meters);
+      Gauge.builder("concurrency.inflight", inflight, AtomicInteger::get)
+          .tag("group", name)
+          .register(meters);
+      this.rejectedUser = rejected(meters, name, "user");
+      this.rejectedAdmin = rejected(meters, name, "admin");
+    }
+
+    private static Counter rejected(MeterRegistry meters, String group, String priority) {
+      return Counter.builder("concurrency.rejected")
+          .tag("group", group)
+          .tag("priority", priority)
+          .register(meters);
+    }
+  }
+
+  private final Map<WriteEndpoint, Group> groups = new EnumMap<>(WriteEndpoint.class);
+  private final double adminHeadroom;
+
+  public ConcurrencyLimitFilter(AppProperties props, MeterRegistry meters) {
+    var cfg = props.getConcurrencyLimit();
+    for (var endpoint : WriteEndpoint.values())
+      groups.put(endpoint, new Group(endpoint.group, cfg, meters));
+    this.adminHeadroom = cfg.getAdminHeadroom();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    var endpoint = WriteEndpoint.of(request);
+    if (endpoint == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    var group = groups.get(endpoint);
+    boolean admin = isAdmin();
+    int limit = group.limit.limit();
+    int allowed = admin ? limit + (int) Math.ceil(limit * adminHeadroom) : limit;
+    int inflight = group.inflight.incrementAndGet();
+    if (inflight > allowed) {
+      group.inflight.decrementAndGet();
+      (admin ? group.rejectedAdmin : group.rejectedUser).increment();
+      reject(response);
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      group.inflight.decrementAndGet();
+      if (response.getStatus() < 500) {
+        long now = System.nanoTime();
+        group.limit.onSample(now, now - start, inflight);
+      }
+    }
+  }
+
+  private static boolean isAdmin() {
+    var auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null) return false;
+    for (var a : auth.getAuthorities()) if ("ROLE_ADMIN".equals(a.getAuthority())) return true;
+    return false;
+  }
+
+  private static void reject(HttpServletResponse response) throws IOException {
+    response.setStatus(Errors.TOO_MANY_REQUESTS.status.value());
+    response.setHeader("Retry-After", "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(REJECTED_BODY.length);
+    response.getOutputStream().write(REJECTED_BODY);
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.ui_kafka_sf.common.limit;
+
+/**
+ * Gradient-style adaptive concurrency limit (after Netflix {@code Gradient2Limit}).
+ *
+ * <p>Request latencies are averaged over sampling windows ({@code windowNanos}, at least {@code
+ * windowMinSamples} requests). Each window compares its average ({@code shortRtt}) with a slow
+ * exponential average of past windows ({@code longRtt}, the "no-queueing" baseline):
+ *
+ * <pre>
+ * gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1.0)
+ * next     = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + next * smoothing
+ * </pre>
+ *
+ * While latency stays within {@code tolerance} of the baseline the gradient is 1 and the limit
+ * grows by its square root (the allowed queue); once requests start queueing the gradient drops
+ * below 1 and the limit shrinks until latency recovers. Windows in which fewer than half the
+ * permits were used do not move the limit: the load, not the limit, was the bottleneck.
+ *
+ * <p>{@link #limit()} is a volatile read for the hot path; {@link #onSample} is synchronized.
+ */
+final class GradientLimit {
+
+  /** Windows averaged into the long-term baseline. */
+  private static final int LONG_WINDOW = 600;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double smoothing;
+  private final double tolerance;
+  private final long windowNanos;
+  private final int windowMinSamples;
+
+  private volatile int limit;
+  private double estimate;
+  private double longRtt;
+
+  private long windowStart;
+  private double windowSum;
+  private int windowCount;
+  private int windowMaxInflight;
+
+  GradientLimit(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double smoothing,
+      double tolerance,
+      long windowNanos,
+      int windowMinSamples,
+      long nowNanos) {
+    if (minLimit < 1 || maxLimit < minLimit)
+      throw new IllegalArgumentException("bad limit bounds");
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.smoothing = smoothing;
+    this.tolerance = tolerance;
+    this.windowNanos = windowNanos;
+    this.windowMinSamples = windowMinSamples;
+    this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.limit = (int) estimate;
+    this.windowStart = nowNanos;
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  /** Records one completed request that ran with {@code inflight} requests in flight. */
+  synchronized void onSample(long nowNanos, long rttNanos, int inflight) {
+    windowSum += rttNanos;
+    windowCount++;
+    windowMaxInflight = Math.max(windowMaxInflight, inflight);
+    if (windowCount < windowMinSamples || nowNanos - windowStart < windowNanos) return;
+
+    double shortRtt = windowSum / windowCount;
+    int peakInflight = windowMaxInflight;
+    windowStart = nowNanos;
+    windowSum = 0;
+    windowCount = 0;
+    windowMaxInflight = 0;
+    update(shortRtt, peakInflight);
+  }
+
+  private void update(double shortRtt, int inflight) {
+    if (longRtt == 0) longRtt = shortRtt;
+    else longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+    // latency stepped down for good (e.g. cache warmed up): let the baseline follow quickly
+    if (longRtt / shortRtt > 2) longRtt *= 0.95;
+
+    if (inflight < estimate / 2) return;
+
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+    double next = estimate * gradient + Math.sqrt(estimate);
+    estimate = estimate * (1 - smoothing) + next * smoothing;
+    estimate = Math.max(minLimit, Math.min(maxLimit, estimate));
+    limit = (int) estimate;
+  }
+}
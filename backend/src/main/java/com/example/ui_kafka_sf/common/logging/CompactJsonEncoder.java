@@ -0,0 +1,72 @@
+package com.example.ui_kafka_sf.common.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One JSON object per line:
+ *
+ * <pre>
+ * {"ts":"...","level":"INFO","logger":"...","thread":"...","traceId":"...","msg":"..."}
+ * </pre>
+ *
+ * plus {@code "exc"} with the stack trace when there is one; {@code traceId} is omitted outside a
+ * request or record. No MDC dump, caller data or context properties: those are what make
+ * logback's stock {@code JsonEncoder} lines several times longer.
+ * Runs on the async appender's worker thread, off the request path.
+ */
+public class CompactJsonEncoder extends EncoderBase<ILoggingEvent> {
+
+  @Override
+  public byte[] headerBytes() {
+    return null;
+  }
+
+  @Override
+  public byte[] encode(ILoggingEvent event) {
+    var sb = new StringBuilder(256);
+    sb.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.getTimeStamp())).append('"');
+    sb.append(",\"level\":\"").append(event.getLevel()).append('"');
+    field(sb, "logger", event.getLoggerName());
+    field(sb, "thread", event.getThreadName());
+    var trace = event.getMDCPropertyMap().get(TraceIdFilter.MDC_KEY);
+    if (trace != null) field(sb, "traceId", trace);
+    field(sb, "msg", event.getFormattedMessage());
+    if (event.getThrowableProxy() != null)
+      field(sb, "exc", ThrowableProxyUtil.asString(event.getThrowableProxy()));
+    sb.append("}\n");
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public byte[] footerBytes() {
+    return null;
+  }
+
+  private static void field(StringBuilder sb, String name, String value) {
+    sb.append(",\"").append(name).append("\":");
+    if (value == null) {
+      sb.append("null");
+      return;
+    }
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> sb.append("\\\"");
+        case '\\' -> sb.append("\\\\");
+        case '\n' -> sb.append("\\n");
+        case '\r' -> sb.append("\\r");
+        case '\t' -> sb.append("\\t");
+        default -> {
+          if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+          else sb.append(c);
+        }
+      }
+    }
+    sb.append('"');
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.ui_kafka_sf.common.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the logging pipeline configured in {@code logback-spring.xml}:
+ *
+ * <ul>
+ *   <li>{@code logging.async.queue.depth} / {@code logging.async.queue.capacity} — events waiting
+ *       in the {@link MeteredAsyncAppender} queue, and its size.
+ *   <li>{@code logging.async.discarded} — below-WARN events dropped because the queue was near
+ *       full.
+ *   <li>{@code logging.sampled.denied} — events suppressed by the {@link SamplingTurboFilter}.
+ * </ul>
+ *
+ * Appenders and filters are looked up by type, so a configuration without them (e.g. the {@code
+ * log-sync} profile) simply registers nothing.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext ctx)) return;
+
+    var root = ctx.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+    root.iteratorForAppenders()
+        .forEachRemaining(
+            a -> {
+              if (!(a instanceof MeteredAsyncAppender async)) return;
+              Gauge.builder(
+                      "logging.async.queue.depth",
+                      async,
+                      MeteredAsyncAppender::getNumberOfElementsInQueue)
+                  .tag("appender", async.getName())
+                  .register(registry);
+              Gauge.builder(
+                      "logging.async.queue.capacity", async, MeteredAsyncAppender::getQueueSize)
+                  .tag("appender", async.getName())
+                  .register(registry);
+              FunctionCounter.builder(
+                      "logging.async.discarded", async, MeteredAsyncAppender::getDiscardedCount)
+                  .tag("appender", async.getName())
+                  .register(registry);
+            });
+
+    for (var f : ctx.getTurboFilterList()) {
+      if (f instanceof SamplingTurboFilter sampling)
+        FunctionCounter.builder(
+                "logging.sampled.denied", sampling, SamplingTurboFilter::deniedTotal)
+            .register(registry);
+    }
+  }
+}
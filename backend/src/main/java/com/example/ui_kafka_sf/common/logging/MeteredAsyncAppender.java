@@ -0,0 +1,29 @@
+package com.example.ui_kafka_sf.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts what it throws away.
+ *
+ * <p>Policy (configured in {@code logback-spring.xml}): a bounded queue; once fewer than {@code
+ * discardingThreshold} slots are free, TRACE/DEBUG/INFO events are dropped and counted here, while
+ * WARN and ERROR still wait for a slot ({@code neverBlock=false}) so they are never lost.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+  private final LongAdder discarded = new LongAdder();
+
+  @Override
+  protected boolean isDiscardable(ILoggingEvent event) {
+    // only consulted while the queue is below the discarding threshold
+    boolean discard = super.isDiscardable(event);
+    if (discard) discarded.increment();
+    return discard;
+  }
+
+  public long getDiscardedCount() {
+    return discarded.sum();
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.ui_kafka_sf.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Marker;
+
+/**
+ * Per-logger rate limit for chatty categories: loggers under one of the configured {@code
+ * <prefix>}es may emit at most {@code permitsPerSecond} events at or below {@code maxLevel}
+ * (default DEBUG) per one-second window; the rest are denied before the event is even built.
+ *
+ * <p>Levels above {@code maxLevel} and loggers outside the prefixes are never sampled. Denials are
+ * counted for {@link LoggingMetrics}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+  private static final class Window {
+    volatile long second;
+    final AtomicInteger used = new AtomicInteger();
+    final LongAdder denied = new LongAdder();
+  }
+
+  /** Placeholder for loggers that are not sampled, so the prefix scan runs once per logger. */
+  private static final Window NOT_SAMPLED = new Window();
+
+  private final List<String> prefixes = new ArrayList<>();
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+  private int permitsPerSecond = 20;
+  private Level maxLevel = Level.DEBUG;
+
+  public void addPrefix(String prefix) {
+    prefixes.add(prefix);
+  }
+
+  public void setPermitsPerSecond(int permitsPerSecond) {
+    this.permitsPerSecond = permitsPerSecond;
+  }
+
+  public void setMaxLevel(String level) {
+    this.maxLevel = Level.toLevel(level, Level.DEBUG);
+  }
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    if (!isStarted() || level == null || level.toInt() > maxLevel.toInt())
+      return FilterReply.NEUTRAL;
+    // disabled levels are rejected by the logger anyway; don't spend permits on them
+    if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) return FilterReply.NEUTRAL;
+
+    var w = windows.computeIfAbsent(logger.getName(), this::windowFor);
+    if (w == NOT_SAMPLED) return FilterReply.NEUTRAL;
+
+    // fixed one-second window; a racing reset may let a few extra events through
+    long now = System.currentTimeMillis() / 1000;
+    if (w.second != now) {
+      w.second = now;
+      w.used.set(0);
+    }
+    if (w.used.incrementAndGet() <= permitsPerSecond) return FilterReply.NEUTRAL;
+    w.denied.increment();
+    return FilterReply.DENY;
+  }
+
+  private Window windowFor(String loggerName) {
+    for (var p : prefixes) if (loggerName.startsWith(p)) return new Window();
+    return NOT_SAMPLED;
+  }
+
+  /** Events denied so far across all sampled loggers. */
+  public long deniedTotal() {
+    long total = 0;
+    for (var w : windows.values()) total += w.denied.sum();
+    return total;
+  }
+}
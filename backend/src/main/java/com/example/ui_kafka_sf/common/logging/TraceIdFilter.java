@@ -0,0 +1,47 @@
+package com.example.ui_kafka_sf.common.logging;
+
+import com.example.ui_kafka_sf.sf.SfHeaders;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Puts the request's {@link SfHeaders#TRACE_ID} (or a new one, if it has none or not a {@link
+ * SfHeaders#validTraceId valid} one) into the MDC under {@value
+ * #MDC_KEY} for the duration of the request, so every log line it produces carries it, and echoes
+ * it on the response.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceIdFilter extends OncePerRequestFilter {
+
+  public static final String MDC_KEY = "traceId";
+
+  /** Trace id of the current request or record, or a fresh one outside of either. */
+  public static String currentOrNew() {
+    var current = MDC.get(MDC_KEY);
+    return current != null ? current : UUID.randomUUID().toString();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    var trace = SfHeaders.traceIdOrNew(request.getHeader(SfHeaders.TRACE_ID));
+    MDC.put(MDC_KEY, trace);
+    response.setHeader(SfHeaders.TRACE_ID, trace);
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      MDC.remove(MDC_KEY);
+    }
+  }
+}
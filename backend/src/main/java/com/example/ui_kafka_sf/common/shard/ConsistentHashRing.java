@@ -0,0 +1,96 @@
+package com.example.ui_kafka_sf.common.shard;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Immutable consistent-hash ring: each node owns {@code virtualNodes} points, a key belongs to the
+ * first point at or after its position (wrapping around).
+ *
+ * <p>Adding or removing one node of N moves about 1/N of the keys, and only to or from that node;
+ * the rest keep their owner. Lookups are a binary search over a sorted {@code long[]}.
+ *
+ * @param <T> node type
+ */
+public final class ConsistentHashRing<T> {
+
+  private final long[] points;
+  private final Object[] owners;
+  private final List<T> nodes;
+
+  /**
+   * @param nodes distinct nodes
+   * @param names stable node names; point positions derive from {@code name#i} only, so the same
+   *     name always owns the same arcs regardless of the other nodes
+   */
+  public ConsistentHashRing(List<T> nodes, Function<T, String> names, int virtualNodes) {
+    if (nodes.isEmpty()) throw new IllegalArgumentException("a ring needs at least one node");
+    int vnodes = Math.max(1, virtualNodes);
+    var byPoint = new TreeMap<Long, T>();
+    // deterministic tie-break between nodes colliding on a point: lowest name wins
+    var ordered = nodes.stream().sorted(Comparator.comparing(names)).toList();
+    for (var node : ordered)
+      for (int i = 0; i < vnodes; i++)
+        byPoint.putIfAbsent(position(names.apply(node) + "#" + i), node);
+    this.points = byPoint.keySet().stream().mapToLong(Long::longValue).toArray();
+    this.owners = byPoint.values().toArray();
+    this.nodes = List.copyOf(nodes);
+  }
+
+  public List<T> nodes() {
+    return nodes;
+  }
+
+  /** Owner of a ring position, e.g. {@link #hexPosition} of a key hash. */
+  @SuppressWarnings("unchecked")
+  public T owner(long position) {
+    int i = Arrays.binarySearch(points, position);
+    if (i < 0) i = -i - 1;
+    return (T) owners[i == points.length ? 0 : i];
+  }
+
+  /** Share of the ring owned by each node (sums to 1), for diagnostics. */
+  @SuppressWarnings("unchecked")
+  public Map<T, Double> shares() {
+    var shares = new LinkedHashMap<T, Double>();
+    for (var n : nodes) shares.put(n, 0.0);
+    for (int i = 0; i < points.length; i++) {
+      // the arc ending at point i; the subtraction wraps, so read it as unsigned
+      long arc = points[i] - points[i == 0 ? points.length - 1 : i - 1];
+      double size = points.length == 1 ? 0x1p64 : unsigned(arc);
+      shares.merge((T) owners[i], size / 0x1p64, Double::sum);
+    }
+    return shares;
+  }
+
+  /**
+   * Position of a hex-encoded hash (e.g. a SHA-256 key hash): its first 16 hex digits. Cheaper than
+   * rehashing an already uniform value.
+   */
+  public static long hexPosition(String hexHash) {
+    return Long.parseUnsignedLong(hexHash.substring(0, 16), 16);
+  }
+
+  /** Position of an arbitrary string: the first 8 bytes of its SHA-256. */
+  public static long position(String s) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static double unsigned(long v) {
+    return v >= 0 ? v : v + 0x1p64;
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.ui_kafka_sf.common.sketch;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Count-Min sketch (Cormode and Muthukrishnan): {@code depth} rows of {@code width}
+ * counters, an item adds to one counter per row and its count is the minimum of those counters.
+ *
+ * <p>Estimates never undercount. With {@code N} the total added, an estimate exceeds the true
+ * count by more than {@link #epsilon()} {@code · N} ({@code e / width}) with probability at most
+ * {@link #delta()} ({@code e^-depth}). Memory is {@code 8 · depth · width} bytes regardless of
+ * the number of distinct items.
+ *
+ * <p>Rows are indexed by double hashing of one 64-bit hash ({@code h1 + i · h2}, Kirsch and
+ * Mitzenmacher), so callers hash once.
+ */
+public final class CountMinSketch {
+
+  private final int depth;
+  private final int width;
+  private final AtomicLongArray counters;
+
+  public CountMinSketch(int depth, int width) {
+    if (depth < 1 || width < 1) throw new IllegalArgumentException("depth and width must be > 0");
+    this.depth = depth;
+    this.width = width;
+    this.counters = new AtomicLongArray(depth * width);
+  }
+
+  /** Adds {@code count} occurrences of an item by its 64-bit hash (e.g. {@link Hash64#of}). */
+  public void add(long hash, long count) {
+    long h2 = Hash64.mix(hash) | 1;
+    for (int row = 0; row < depth; row++) counters.addAndGet(index(row, hash, h2), count);
+  }
+
+  public long estimate(long hash) {
+    return estimate(List.of(this), hash);
+  }
+
+  /**
+   * Count of an item over all of {@code sketches} (same shape): per row the counters are summed
+   * across sketches, then the minimum row is taken, which is tighter than summing per-sketch
+   * minimums and keeps the bound above with {@code N} the total over all sketches.
+   */
+  public static long estimate(List<CountMinSketch> sketches, long hash) {
+    if (sketches.isEmpty()) return 0;
+    var first = sketches.get(0);
+    long h2 = Hash64.mix(hash) | 1;
+    long min = Long.MAX_VALUE;
+    for (int row = 0; row < first.depth; row++) {
+      int i = first.index(row, hash, h2);
+      long sum = 0;
+      for (var s : sketches) sum += s.counters.get(i);
+      min = Math.min(min, sum);
+    }
+    return min;
+  }
+
+  public void clear() {
+    for (int i = 0; i < counters.length(); i++) counters.set(i, 0);
+  }
+
+  public double epsilon() {
+    return Math.E / width;
+  }
+
+  public double delta() {
+    return Math.exp(-depth);
+  }
+
+  public long sizeBytes() {
+    return 8L * counters.length();
+  }
+
+  private int index(int row, long h1, long h2) {
+    return row * width + (int) Long.remainderUnsigned(h1 + row * h2, width);
+  }
+}
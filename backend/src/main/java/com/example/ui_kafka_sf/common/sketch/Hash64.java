@@ -0,0 +1,26 @@
+package com.example.ui_kafka_sf.common.sketch;
+
+/** 64-bit hashing for the sketches: FNV-1a over the chars, finished with MurmurHash3's mixer. */
+public final class Hash64 {
+
+  private Hash64() {}
+
+  public static long of(CharSequence s) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h ^= s.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return mix(h);
+  }
+
+  /** MurmurHash3 {@code fmix64}: every input bit affects every output bit. */
+  public static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
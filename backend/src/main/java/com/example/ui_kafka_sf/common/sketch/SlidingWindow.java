@@ -0,0 +1,82 @@
+package com.example.ui_kafka_sf.common.sketch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A time window over a ring of {@code buckets} preallocated bucket objects (sketches, counters),
+ * each covering {@code window / buckets}.
+ *
+ * <p>{@link #current} returns the bucket for now, clearing it first if it still holds an older
+ * period; {@link #live} returns the buckets of the last {@code buckets} periods, which the caller
+ * merges. So the window slides in steps of one bucket and covers between {@code window - window /
+ * buckets} and {@code window}. Nothing is allocated after construction, so memory stays fixed.
+ *
+ * <p>Updates are lock-free except at a bucket boundary: the first thread of a new period claims the
+ * bucket (CAS on its period), clears it and only then publishes the period, while other threads of
+ * that period spin for the few microseconds the clear takes. No update of the new period is lost
+ * to the clear.
+ *
+ * @param <T> bucket type
+ */
+public final class SlidingWindow<T> {
+
+  private final long bucketMillis;
+  private final List<T> buckets;
+  private final AtomicLongArray periods;
+  private final Consumer<T> clear;
+
+  public SlidingWindow(Duration window, int buckets, Supplier<T> factory, Consumer<T> clear) {
+    if (buckets < 1) throw new IllegalArgumentException("buckets must be > 0");
+    this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+    this.buckets = new ArrayList<>(buckets);
+    for (int i = 0; i < buckets; i++) this.buckets.add(factory.get());
+    // 0: never used, older than any real period
+    this.periods = new AtomicLongArray(buckets);
+    this.clear = clear;
+  }
+
+  /** Bucket to update at {@code nowMillis}. */
+  public T current(long nowMillis) {
+    long period = nowMillis / bucketMillis;
+    int i = (int) Math.floorMod(period, (long) buckets.size());
+    var bucket = buckets.get(i);
+    while (true) {
+      long seen = periods.get(i);
+      // a negative period (~p) marks a bucket being cleared for period p
+      if (seen < 0) Thread.onSpinWait();
+      // a later period: the clock stepped back; count it there rather than wait
+      else if (seen >= period) return bucket;
+      else if (periods.compareAndSet(i, seen, ~period)) {
+        clear.accept(bucket);
+        periods.set(i, period);
+        return bucket;
+      }
+    }
+  }
+
+  /** Buckets updated within the window ending at {@code nowMillis}. */
+  public List<T> live(long nowMillis) {
+    long period = nowMillis / bucketMillis;
+    var live = new ArrayList<T>(buckets.size());
+    for (int i = 0; i < buckets.size(); i++) {
+      long p = periods.get(i);
+      // a bucket being cleared is left out, as it will be empty
+      if (p > period - buckets.size()) live.add(buckets.get(i));
+    }
+    return live;
+  }
+
+  /** Every bucket, live or not, e.g. to add up their sizes. */
+  public List<T> all() {
+    return buckets;
+  }
+
+  public Duration window() {
+    return Duration.ofMillis(bucketMillis * buckets.size());
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.ui_kafka_sf.common.sketch;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Heavy-hitter candidates for a frequency sketch: the {@code k} items with the highest estimates
+ * offered so far.
+ *
+ * <p>Offering an item that is already a candidate, or whose estimate does not beat the smallest
+ * candidate, is a map update or a volatile read; only admitting a new candidate (and evicting the
+ * smallest) takes the lock. Estimates of a windowed sketch also go down, so {@link #refresh}
+ * re-reads them periodically and drops candidates that fell to zero.
+ */
+public final class TopK {
+
+  public record Entry(String item, long count) {}
+
+  private final int k;
+  private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+  private volatile long floor;
+
+  public TopK(int k) {
+    if (k < 1) throw new IllegalArgumentException("k must be > 0");
+    this.k = k;
+  }
+
+  /** Offers an item with its current estimate. */
+  public void offer(String item, long estimate) {
+    if (candidates.computeIfPresent(item, (i, e) -> estimate) != null) return;
+    if (estimate > floor || candidates.size() < k) admit(item, estimate);
+  }
+
+  private synchronized void admit(String item, long estimate) {
+    if (candidates.size() >= k && estimate <= floor) return;
+    candidates.put(item, estimate);
+    if (candidates.size() > k) candidates.remove(smallest().getKey());
+    updateFloor();
+  }
+
+  /** Re-estimates every candidate; candidates estimated at zero are dropped. */
+  public synchronized void refresh(ToLongFunction<String> estimator) {
+    for (var item : List.copyOf(candidates.keySet())) {
+      long estimate = estimator.applyAsLong(item);
+      if (estimate <= 0) candidates.remove(item);
+      else candidates.put(item, estimate);
+    }
+    updateFloor();
+  }
+
+  /** Candidates by descending estimate. */
+  public List<Entry> top() {
+    return candidates.entrySet().stream()
+        .map(e -> new Entry(e.getKey(), e.getValue()))
+        .sorted(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::item))
+        .toList();
+  }
+
+  public int capacity() {
+    return k;
+  }
+
+  private Map.Entry<String, Long> smallest() {
+    return candidates.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow();
+  }
+
+  private void updateFloor() {
+    floor = candidates.size() < k ? 0 : smallest().getValue();
+  }
+}
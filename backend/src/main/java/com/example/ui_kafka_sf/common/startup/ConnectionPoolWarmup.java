@@ -0,0 +1,50 @@
+package com.example.ui_kafka_sf.common.startup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens the Hikari pool up to {@code maximum-pool-size} so the first burst of requests does not
+ * queue behind TCP + TLS + auth handshakes. Runs first: the other steps read from Postgres.
+ *
+ * <p>Connections are borrowed together (forcing the pool to grow), validated and returned; with
+ * Hikari's default {@code minimum-idle = maximum-pool-size} they stay open afterwards. One is
+ * left free meanwhile, for schedulers and listeners already starting up: holding the whole pool
+ * would block them for up to {@code connection-timeout}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+class ConnectionPoolWarmup implements Warmup {
+
+  private final DataSource dataSource;
+
+  @Override
+  public String name() {
+    return "connection-pool";
+  }
+
+  @Override
+  public void warmUp(Budget budget) throws Exception {
+    int size =
+        dataSource.isWrapperFor(HikariDataSource.class)
+            ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() - 1)
+            : 1;
+    var held = new ArrayList<Connection>(size);
+    try {
+      for (int i = 0; i < size && !budget.exhausted(); i++) {
+        var c = dataSource.getConnection();
+        held.add(c);
+        c.isValid(1);
+      }
+    } finally {
+      for (var c : held) c.close();
+    }
+  }
+}
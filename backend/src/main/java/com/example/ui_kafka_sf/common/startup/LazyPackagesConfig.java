@@ -0,0 +1,52 @@
+package com.example.ui_kafka_sf.common.startup;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Marks beans declared in {@code app.startup.lazy-packages} as lazy, so optional infrastructure
+ * (springdoc in the {@code fast-startup} profile) is created on first use instead of during
+ * startup.
+ *
+ * <p>Unlike {@code spring.main.lazy-initialization} this leaves the application's own beans eager:
+ * the request path stays warm and misconfiguration still fails at startup. A bean is matched by
+ * its class or, for {@code @Bean} methods, by the declaring configuration class. Beans that another
+ * eager bean depends on (e.g. {@code WebMvcConfigurer}s) are still created early.
+ *
+ * <p>Under Spring AOT the lazy flags are captured at build time, so the property has to be set for
+ * the profiles given to {@code processAot}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyPackagesConfig {
+
+  @Bean
+  static BeanFactoryPostProcessor lazyPackages(Environment env) {
+    List<String> packages =
+        Binder.get(env)
+            .bind("app.startup.lazy-packages", Bindable.listOf(String.class))
+            .orElse(List.of());
+    return beanFactory -> {
+      if (packages.isEmpty()) return;
+      for (var name : beanFactory.getBeanDefinitionNames()) {
+        var bd = beanFactory.getBeanDefinition(name);
+        if (bd.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) continue;
+        var origin = origin(bd);
+        if (origin != null && packages.stream().anyMatch(p -> origin.startsWith(p + ".")))
+          bd.setLazyInit(true);
+      }
+    };
+  }
+
+  private static String origin(BeanDefinition bd) {
+    if (bd instanceof AnnotatedBeanDefinition abd && abd.getFactoryMethodMetadata() != null)
+      return abd.getFactoryMethodMetadata().getDeclaringClassName();
+    return bd.getBeanClassName();
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.ui_kafka_sf.common.startup;
+
+/**
+ * A step of the pre-readiness warm-up run by {@link WarmupRunner}: exercises a hot path with
+ * synthetic or primed data so the first real requests do not pay for class loading, JIT, pool
+ * connects and cache misses.
+ *
+ * <p>Steps must be side-effect free towards the outside world (no Kafka publishes, no writes) and
+ * should stop early once {@link Budget#exhausted()} turns true.
+ */
+public interface Warmup {
+
+  /** Short name for logs and the {@code startup.warmup} timer. */
+  String name();
+
+  void warmUp(Budget budget) throws Exception;
+
+  /** Iterations per step and the deadline shared by all steps. */
+  record Budget(int iterations, long deadlineNanos) {
+
+    public boolean exhausted() {
+      return System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /** {@code true} while iteration {@code i} is within both the count and the deadline. */
+    public boolean more(int i) {
+      return i < iterations && ((i & 63) != 0 || !exhausted());
+    }
+  }
+}
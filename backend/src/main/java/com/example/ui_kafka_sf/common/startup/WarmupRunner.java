@@ -0,0 +1,76 @@
+package com.example.ui_kafka_sf.common.startup;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs every {@link Warmup} bean (in {@code @Order}) before the application reports ready.
+ *
+ * <p>Application runners execute after the context has started and before Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} answers 503 for
+ * the duration of the warm-up and a load balancer keeps traffic away. A failing step is logged and
+ * skipped, and {@code app.warmup.max-duration-ms} bounds the whole phase: warm-up can delay
+ * readiness, never prevent it.
+ *
+ * <p>Each step's duration is recorded once in {@code startup.warmup{step}} ({@code step=total} for
+ * the phase).
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(
+    prefix = "app.warmup",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@RequiredArgsConstructor
+public class WarmupRunner implements ApplicationRunner {
+
+  private final List<Warmup> steps;
+  private final AppProperties props;
+  private final MeterRegistry meters;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    var cfg = props.getWarmup();
+    long start = System.nanoTime();
+    var budget =
+        new Warmup.Budget(
+            cfg.getIterations(), start + TimeUnit.MILLISECONDS.toNanos(cfg.getMaxDurationMs()));
+    for (var step : steps) {
+      if (budget.exhausted()) {
+        log.warn("warm-up budget exhausted, skipping {}", step.name());
+        continue;
+      }
+      long t0 = System.nanoTime();
+      try {
+        step.warmUp(budget);
+      } catch (Exception e) {
+        log.warn("warm-up step {} failed: {}", step.name(), e.toString());
+      }
+      record(step.name(), System.nanoTime() - t0);
+    }
+    long total = System.nanoTime() - start;
+    record("total", total);
+    log.info("warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(total));
+  }
+
+  private void record(String step, long nanos) {
+    Timer.builder("startup.warmup")
+        .tag("step", step)
+        .register(meters)
+        .record(nanos, TimeUnit.NANOSECONDS);
+    log.debug("warm-up step {} took {} ms", step, TimeUnit.NANOSECONDS.toMillis(nanos));
+  }
+}
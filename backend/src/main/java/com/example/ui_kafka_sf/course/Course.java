@@ -3,10 +3,20 @@ package com.example.ui_kafka_sf.course;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
-/** Course belongs to the Course domain (entity/repository/DTO for course operations). */
+/**
+ * Course belongs to the Course domain (entity/repository/DTO for course operations).
+ *
+ * <p>{@link DynamicUpdate} makes Hibernate emit an {@code UPDATE} that only sets the columns whose
+ * values actually changed, so touching {@code started} does not rewrite a large {@code
+ * description}. {@link #version} enables optimistic locking: concurrent writers based on the same
+ * snapshot cannot silently overwrite each other.
+ */
 @Entity
-@Table(name = "course")
+@DynamicUpdate
+@Table(name = "course", indexes = @Index(name = "idx_course_expired", columnList = "expired"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,7 +47,20 @@ public class Course {
 
   @Builder.Default private boolean started = false;
 
+  /** Flipped to {@code EXPIRED} by {@link CourseExpiryScheduler} once {@link #expired} passes. */
+  @Enumerated(EnumType.STRING)
+  @ColumnDefault("'OPEN'")
+  @Column(nullable = false, length = 16)
+  @Builder.Default
+  private CourseState state = CourseState.OPEN;
+
   /** Instructor user id (username or external id) */
   @Column(name = "instructor_id")
   private String instructorId;
+
+  /** Optimistic-lock version; {@code null} until the entity is first persisted. */
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private Long version;
 }
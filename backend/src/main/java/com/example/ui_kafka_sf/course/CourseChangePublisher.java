@@ -0,0 +1,182 @@
+package com.example.ui_kafka_sf.course;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards committed {@link CourseChangedEvent}s to the compacted {@code
+ * app.kafka.course-changes-topic}.
+ *
+ * <p>Records are keyed by course id and carry the full {@link CourseDto}; a delete is a tombstone
+ * ({@code null} value), so compaction keeps exactly the latest state of every live course and the
+ * topic doubles as a replayable snapshot (see {@link CourseView}). Every record carries the course
+ * version in the {@value #VERSION_HEADER} header, tombstones the version deleted, so readers can
+ * drop changes that reach the topic out of order.
+ *
+ * <p>The HTTP write does not wait for the broker, but a change is not dropped either, since
+ * nothing else would ever republish it:
+ *
+ * <ul>
+ *   <li>Once a send is acked, the course is read again. If the database has moved on meanwhile,
+ *       e.g. another instance's newer version reached the topic first, the committed state is
+ *       published again, so the last record of every course is its current state.
+ *   <li>A failed send is retried with the then committed state, backing off from 1s to 60s, for
+ *       {@value #MAX_ATTEMPTS} attempts; after that the change is logged and counted as lost.
+ * </ul>
+ *
+ * <p>Metrics: {@code course.changes.sends{outcome=acked|failed|republished|lost}}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CourseChangePublisher {
+
+  static final String VERSION_HEADER = "course-version";
+
+  static final int MAX_ATTEMPTS = 10;
+  private static final long MAX_BACKOFF_MS = 60_000;
+
+  private final KafkaTemplate<String, Object> kafka;
+  private final CourseRepository repo;
+  private final AppProperties props;
+  private final ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor();
+  private final Counter acked;
+  private final Counter failed;
+  private final Counter republished;
+  private final Counter lost;
+  private final long initialBackoffMs;
+
+  @Autowired
+  public CourseChangePublisher(
+      KafkaTemplate<String, Object> kafka,
+      CourseRepository repo,
+      AppProperties props,
+      MeterRegistry meters) {
+    this(kafka, repo, props, meters, 1000);
+  }
+
+  CourseChangePublisher(
+      KafkaTemplate<String, Object> kafka,
+      CourseRepository repo,
+      AppProperties props,
+      MeterRegistry meters,
+      long initialBackoffMs) {
+    this.initialBackoffMs = initialBackoffMs;
+    this.kafka = kafka;
+    this.repo = repo;
+    this.props = props;
+    this.acked = sends("acked", meters);
+    this.failed = sends("failed", meters);
+    this.republished = sends("republished", meters);
+    this.lost = sends("lost", meters);
+  }
+
+  /** Publishes the committed state; does not affect the HTTP flow. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent evt) {
+    publish(evt, 1);
+  }
+
+  @PreDestroy
+  void close() {
+    // pending retries go down with the instance
+    callbacks.shutdownNow();
+  }
+
+  private void publish(CourseChangedEvent evt, int attempt) {
+    var topic = props.getKafka().getCourseChangesTopic();
+    if (topic == null || topic.isBlank()) return;
+    CompletableFuture<?> sent;
+    try {
+      sent = kafka.send(record(topic, evt));
+    } catch (Exception e) {
+      sent = CompletableFuture.failedFuture(e);
+    }
+    // off the producer's I/O thread: the follow-up reads the database
+    sent.whenCompleteAsync(
+        (r, e) -> {
+          if (e == null) {
+            acked.increment();
+            republishIfChanged(evt, attempt);
+            return;
+          }
+          failed.increment();
+          if (attempt >= MAX_ATTEMPTS) {
+            lost.increment();
+            log.error("course change {} not published after {} attempts", evt.id(), attempt, e);
+            return;
+          }
+          long backoff = Math.min(MAX_BACKOFF_MS, initialBackoffMs << Math.min(attempt - 1, 16));
+          log.warn("course change {} not published, retrying in {} ms", evt.id(), backoff, e);
+          CompletableFuture.runAsync(
+              () -> republishCurrent(evt, attempt + 1),
+              CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS, callbacks));
+        },
+        callbacks);
+  }
+
+  /** After an ack: publishes again if what was sent is no longer the committed state. */
+  private void republishIfChanged(CourseChangedEvent sent, int attempt) {
+    try {
+      var current = repo.findById(sent.id()).map(CourseController::toDto).orElse(null);
+      boolean same =
+          sent.after() == null
+              ? current == null
+              : current != null && Objects.equals(current.version(), sent.after().version());
+      if (same || attempt >= MAX_ATTEMPTS) return;
+      republished.increment();
+      publish(changeOf(sent, current), attempt + 1);
+    } catch (RuntimeException e) {
+      log.warn("could not check course {} after publishing it", sent.id(), e);
+    }
+  }
+
+  private void republishCurrent(CourseChangedEvent failed, int attempt) {
+    CourseChangedEvent evt;
+    try {
+      evt = changeOf(failed, repo.findById(failed.id()).map(CourseController::toDto).orElse(null));
+    } catch (RuntimeException e) {
+      // the database is down too: retry what was committed back then
+      evt = failed;
+    }
+    publish(evt, attempt);
+  }
+
+  private static CourseChangedEvent changeOf(CourseChangedEvent sent, CourseDto current) {
+    if (current != null) return new CourseChangedEvent(sent.id(), current);
+    // deleted since: the version deleted is not known here, the tombstone deletes whatever it is
+    return CourseChangedEvent.deleted(sent.id(), sent.after() == null ? sent.version() : null);
+  }
+
+  private static ProducerRecord<String, Object> record(String topic, CourseChangedEvent evt) {
+    var record = new ProducerRecord<String, Object>(topic, evt.id(), evt.after());
+    if (evt.version() != null)
+      record
+          .headers()
+          .add(VERSION_HEADER, evt.version().toString().getBytes(StandardCharsets.US_ASCII));
+    return record;
+  }
+
+  private static Counter sends(String outcome, MeterRegistry meters) {
+    return Counter.builder("course.changes.sends").tag("outcome", outcome).register(meters);
+  }
+}
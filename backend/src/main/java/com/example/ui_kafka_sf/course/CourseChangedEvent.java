@@ -0,0 +1,21 @@
+package com.example.ui_kafka_sf.course;
+
+/**
+ * In-process notification published by {@link CourseController} after a course write.
+ *
+ * <p>{@code after} is the committed state, or {@code null} when the course was deleted. Listeners
+ * use {@code @TransactionalEventListener} so they only observe committed changes. {@code version}
+ * is the version written, or the one deleted ({@code null} if unknown).
+ */
+public record CourseChangedEvent(String id, CourseDto after, Long version) {
+
+  /** A change whose version is the one of {@code after}. */
+  public CourseChangedEvent(String id, CourseDto after) {
+    this(id, after, after == null ? null : after.version());
+  }
+
+  /** The course at {@code version} was deleted. */
+  public static CourseChangedEvent deleted(String id, Long version) {
+    return new CourseChangedEvent(id, null, version);
+  }
+}
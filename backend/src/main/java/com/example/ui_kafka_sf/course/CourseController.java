@@ -1,22 +1,43 @@
 package com.example.ui_kafka_sf.course;
 
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.KafkaSfException;
+import com.example.ui_kafka_sf.common.jfr.CourseQueryEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.URI;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-/** CourseController provides CRUD endpoints for courses and an instructor-scoped listing. */
+/**
+ * CourseController provides CRUD endpoints for courses and an instructor-scoped listing.
+ *
+ * <p>Responses carry an {@code ETag} with the entity version. {@code PUT}, {@code PATCH} and
+ * {@code DELETE} honour {@code If-Match} (412 on mismatch); concurrent writes that slip past the
+ * precondition are still caught by the {@code @Version} check at flush time (409).
+ */
 @RestController
 @RequestMapping("/api/course")
 @RequiredArgsConstructor
 public class CourseController {
 
   private final CourseRepository repo;
+  private final ObjectMapper mapper;
+  private final ApplicationEventPublisher events;
+  private final ObjectProvider<CourseView> view;
+  private final CourseReads reads;
 
-  private static CourseDto toDto(Course c) {
+  static CourseDto toDto(Course c) {
     return new CourseDto(
         c.getId(),
         c.getCode(),
@@ -26,7 +47,29 @@ public class CourseController {
         c.getYear(),
         c.getExpired(),
         c.isStarted(),
-        c.getInstructorId());
+        c.getInstructorId(),
+        c.getState(),
+        c.getVersion());
+  }
+
+  private static String etag(Course c) {
+    return "\"" + c.getVersion() + "\"";
+  }
+
+  private static String etag(CourseDto c) {
+    return "\"" + c.version() + "\"";
+  }
+
+  // If-Match is optional; when present, one of the listed tags (or "*") must match the version
+  private static void checkIfMatch(String ifMatch, Course c) {
+    if (ifMatch == null || ifMatch.isBlank()) return;
+    var current = etag(c);
+    for (var tag : ifMatch.split(",")) {
+      var t = tag.trim();
+      if (t.equals("*") || t.equals(current) || t.equals("W/" + current)) return;
+    }
+    throw new KafkaSfException(
+        Errors.PRECONDITION_FAILED, "If-Match does not match current version " + current);
   }
 
   private static void apply(CourseDto dto, Course c) {
@@ -40,52 +83,129 @@ public class CourseController {
     c.setInstructorId(dto.instructorId());
   }
 
+  // re-open an expired course whose deadline was moved into the future (or cleared);
+  // the opposite transition is left to CourseExpiryScheduler
+  private static void reconcileState(Course c) {
+    if (c.getState() == CourseState.EXPIRED
+        && (c.getExpired() == null || c.getExpired().isAfter(OffsetDateTime.now()))) {
+      c.setState(CourseState.OPEN);
+    }
+  }
+
+  private CourseDto changed(Course saved) {
+    var dto = toDto(saved);
+    events.publishEvent(new CourseChangedEvent(saved.getId(), dto));
+    return dto;
+  }
+
   /** Performs a unit of domain logic; see README for the surrounding flow. */
   @GetMapping
   public List<CourseDto> all() {
-    return repo.findAll().stream().map(CourseController::toDto).toList();
+    var jfr = CourseQueryEvent.start("all", null);
+    var out = repo.findAll().stream().map(CourseController::toDto).toList();
+    jfr.finish("db", out.size());
+    return out;
   }
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /** Concurrent reads of the same course share one query ({@link CourseReads}). */
   @GetMapping("/{id}")
   public ResponseEntity<CourseDto> get(@PathVariable String id) {
-    return repo.findById(id)
-        .map(c -> ResponseEntity.ok(toDto(c)))
+    var jfr = CourseQueryEvent.start("byId", id);
+    var read = reads.byId(id);
+    var found = read.value();
+    jfr.finish(read.joined() ? "coalesced" : "db", found.isPresent() ? 1 : 0);
+    return found
+        .map(c -> ResponseEntity.ok().eTag(etag(c)).body(c))
         .orElse(ResponseEntity.notFound().build());
   }
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /**
+   * Served from {@link CourseView} once it has caught up; falls back to Postgres otherwise, where
+   * concurrent reads for the same instructor share one query ({@link CourseReads}).
+   */
   @GetMapping("/by_instructor/{instructorId}")
   public List<CourseDto> byInstructor(@PathVariable String instructorId) {
-    return repo.findByInstructorId(instructorId).stream().map(CourseController::toDto).toList();
+    var jfr = CourseQueryEvent.start("byInstructor", instructorId);
+    var v = view.getIfAvailable();
+    if (v != null && v.isReady()) {
+      var out = v.byInstructor(instructorId);
+      jfr.finish("view", out.size());
+      return out;
+    }
+    var read = reads.byInstructor(instructorId);
+    jfr.finish(read.joined() ? "coalesced" : "db", read.value().size());
+    return read.value();
   }
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /** Creates a course; a client-supplied id that already exists is answered 409. */
   @PostMapping
   public ResponseEntity<CourseDto> create(@RequestBody CourseDto dto) {
     var c = new Course();
     c.setId((dto.id() == null || dto.id().isBlank()) ? UUID.randomUUID().toString() : dto.id());
     apply(dto, c);
-    var saved = repo.save(c);
-    return ResponseEntity.created(URI.create("/api/course/" + saved.getId())).body(toDto(saved));
+    Course saved;
+    try {
+      saved = repo.save(c);
+    } catch (DataIntegrityViolationException e) {
+      // the insert hit the primary key; any other constraint stays a 500
+      if (!repo.existsById(c.getId())) throw e;
+      throw new KafkaSfException(Errors.DUPLICATE_COURSE, "course " + c.getId() + " exists");
+    }
+    return ResponseEntity.created(URI.create("/api/course/" + saved.getId()))
+        .eTag(etag(saved))
+        .body(changed(saved));
   }
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /** Replaces all mutable fields; only columns whose values changed are written. */
   @PutMapping("/{id}")
-  public ResponseEntity<CourseDto> update(@PathVariable String id, @RequestBody CourseDto dto) {
+  @Transactional
+  public ResponseEntity<CourseDto> update(
+      @PathVariable String id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody CourseDto dto) {
     Optional<Course> existing = repo.findById(id);
     if (existing.isEmpty()) return ResponseEntity.notFound().build();
     var c = existing.get();
+    checkIfMatch(ifMatch, c);
     apply(dto, c);
-    var saved = repo.save(c);
-    return ResponseEntity.ok(toDto(saved));
+    reconcileState(c);
+    var saved = repo.saveAndFlush(c);
+    return ResponseEntity.ok().eTag(etag(saved)).body(changed(saved));
+  }
+
+  /**
+   * Applies a JSON Merge Patch: only members present in the body are changed (see {@link
+   * CoursePatch}).
+   */
+  @PatchMapping(
+      value = "/{id}",
+      consumes = {"application/merge-patch+json", "application/json"})
+  @Transactional
+  public ResponseEntity<CourseDto> patch(
+      @PathVariable String id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody JsonNode patch) {
+    Optional<Course> existing = repo.findById(id);
+    if (existing.isEmpty()) return ResponseEntity.notFound().build();
+    var c = existing.get();
+    checkIfMatch(ifMatch, c);
+    CoursePatch.apply(patch, c, mapper);
+    reconcileState(c);
+    var saved = repo.saveAndFlush(c);
+    return ResponseEntity.ok().eTag(etag(saved)).body(changed(saved));
   }
 
   /** Performs a unit of domain logic; see README for the surrounding flow. */
   @DeleteMapping("/{id}")
-  public ResponseEntity<?> delete(@PathVariable String id) {
-    if (!repo.existsById(id)) return ResponseEntity.notFound().build();
-    repo.deleteById(id);
+  @Transactional
+  public ResponseEntity<?> delete(
+      @PathVariable String id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    Optional<Course> existing = repo.findById(id);
+    if (existing.isEmpty()) return ResponseEntity.notFound().build();
+    checkIfMatch(ifMatch, existing.get());
+    repo.delete(existing.get());
+    events.publishEvent(CourseChangedEvent.deleted(id, existing.get().getVersion()));
     return ResponseEntity.noContent().build();
   }
 }
@@ -12,4 +12,6 @@ public record CourseDto(
     String year,
     OffsetDateTime expired,
     boolean started,
-    String instructorId) {}
+    String instructorId,
+    CourseState state,
+    Long version) {}
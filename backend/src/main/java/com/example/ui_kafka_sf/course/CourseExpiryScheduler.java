@@ -0,0 +1,173 @@
+package com.example.ui_kafka_sf.course;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Flips courses to {@link CourseState#EXPIRED} when {@link Course#getExpired()} passes.
+ *
+ * <p>How it works:
+ *
+ * <ul>
+ *   <li>Only deadlines within {@code app.course-expiry.horizon-minutes} are held in memory, in a
+ *       {@link TimingWheel}. The window is extended ahead of time with a range query on {@code
+ *       idx_course_expired}; the table is never fully scanned.
+ *   <li>{@link CourseController} writes arrive as {@link CourseChangedEvent}s after commit and
+ *       reschedule or cancel the single affected course.
+ *   <li>Each tick collects due ids and flips them with batched {@link
+ *       CourseRepository#expireDue} calls; every id actually flipped is published to {@code
+ *       app.kafka.course-lifecycle-topic} (best-effort) and re-announced as a {@link
+ *       CourseChangedEvent}.
+ * </ul>
+ *
+ * <p>Several instances may run this concurrently: the guarded {@code UPDATE ... RETURNING} hands
+ * each transition to exactly one of them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "app.course-expiry",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CourseExpiryScheduler {
+
+  private final CourseRepository repo;
+  private final KafkaTemplate<String, Object> kafka;
+  private final AppProperties props;
+  private final ApplicationEventPublisher events;
+  private final TimingWheel<String> wheel;
+  private final Counter expiredCounter;
+
+  private volatile boolean ready;
+  private volatile long loadedUntil;
+
+  public CourseExpiryScheduler(
+      CourseRepository repo,
+      KafkaTemplate<String, Object> kafka,
+      AppProperties props,
+      ApplicationEventPublisher events,
+      MeterRegistry meters) {
+    this.repo = repo;
+    this.kafka = kafka;
+    this.props = props;
+    this.events = events;
+    var cfg = props.getCourseExpiry();
+    this.wheel = new TimingWheel<>(cfg.getTickMs(), cfg.getWheelSize(), System.currentTimeMillis());
+    this.expiredCounter = meters.counter("course.expiry.expired");
+    Gauge.builder("course.expiry.scheduled", wheel, TimingWheel::size).register(meters);
+  }
+
+  /** Catches up on deadlines missed while no instance was running, then loads the first window. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    long now = System.currentTimeMillis();
+    loadedUntil = now;
+    repo.findOpenExpiredBy(toOffset(now)).forEach(v -> wheel.schedule(v.getId(), now));
+    loadWindow(now);
+    ready = true;
+  }
+
+  /** Advances the wheel and expires whatever became due. */
+  @Scheduled(fixedDelayString = "${app.course-expiry.tick-ms:1000}")
+  public void tick() {
+    if (!ready) return;
+    long now = System.currentTimeMillis();
+    if (now + horizonMillis() / 2 >= loadedUntil) loadWindow(now);
+
+    List<String> due = new ArrayList<>();
+    wheel.advance(now, due::add);
+    if (!due.isEmpty()) expire(due, now);
+  }
+
+  /** Reschedules or cancels a single course after a committed API write. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent evt) {
+    var c = evt.after();
+    if (c == null || c.state() != CourseState.OPEN || c.expired() == null) {
+      wheel.cancel(evt.id());
+      return;
+    }
+    long deadline = c.expired().toInstant().toEpochMilli();
+    if (deadline <= loadedUntil) wheel.schedule(evt.id(), deadline);
+    else wheel.cancel(evt.id()); // picked up later by loadWindow
+  }
+
+  // -- HELPER METHODS
+
+  private void loadWindow(long now) {
+    long from = loadedUntil;
+    long to = now + horizonMillis();
+    // advance the watermark first so writes racing with the query are scheduled by
+    // onCourseChanged; scheduleIfAbsent keeps their (newer) deadline over the query's snapshot
+    loadedUntil = to;
+    try {
+      for (var v : repo.findOpenExpiringBetween(toOffset(from), toOffset(to))) {
+        wheel.scheduleIfAbsent(v.getId(), v.getExpired().toInstant().toEpochMilli());
+      }
+    } catch (DataAccessException e) {
+      loadedUntil = from;
+      log.warn("course expiry window load failed; will retry", e);
+    }
+  }
+
+  private void expire(List<String> due, long now) {
+    int batchSize = Math.max(1, props.getCourseExpiry().getBatchSize());
+    for (int i = 0; i < due.size(); i += batchSize) {
+      var batch = due.subList(i, Math.min(due.size(), i + batchSize));
+      List<String> flipped;
+      try {
+        flipped = repo.expireDue(batch, toOffset(now));
+      } catch (DataAccessException e) {
+        log.warn("course expiry batch failed; retrying next tick", e);
+        batch.forEach(id -> wheel.scheduleIfAbsent(id, now));
+        continue;
+      }
+      expiredCounter.increment(flipped.size());
+      flipped.forEach(id -> publish(id, now));
+      if (!flipped.isEmpty()) {
+        // let change listeners (e.g. the course change topic) see the new state
+        repo.findAllById(flipped)
+            .forEach(
+                c ->
+                    events.publishEvent(
+                        new CourseChangedEvent(c.getId(), CourseController.toDto(c))));
+      }
+    }
+  }
+
+  private void publish(String courseId, long now) {
+    var topic = props.getKafka().getCourseLifecycleTopic();
+    if (topic == null || topic.isBlank()) return;
+    try {
+      kafka.send(topic, courseId, new CourseLifecycleEvent(courseId, CourseState.EXPIRED, now));
+    } catch (Exception ignore) {
+      // best-effort, like the other producers
+    }
+  }
+
+  private long horizonMillis() {
+    return props.getCourseExpiry().getHorizonMinutes() * 60_000L;
+  }
+
+  private static OffsetDateTime toOffset(long epochMillis) {
+    return Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.ui_kafka_sf.course;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/** Topics used by the Course domain. */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CourseKafkaConfig {
+
+  @Bean
+  NewTopic courseLifecycleTopic(AppProperties props) {
+    return TopicBuilder.name(props.getKafka().getCourseLifecycleTopic())
+        .partitions(1)
+        .replicas(1)
+        .build();
+  }
+
+  /** Compacted: keeps the latest state per course id; deletes are tombstones. */
+  @Bean
+  NewTopic courseChangesTopic(AppProperties props) {
+    return TopicBuilder.name(props.getKafka().getCourseChangesTopic())
+        .partitions(1)
+        .replicas(1)
+        .config("cleanup.policy", "compact")
+        .config("min.cleanable.dirty.ratio", "0.01")
+        .build();
+  }
+}
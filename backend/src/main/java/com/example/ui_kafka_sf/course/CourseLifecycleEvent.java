@@ -0,0 +1,4 @@
+package com.example.ui_kafka_sf.course;
+
+/** Kafka event published when a course changes lifecycle state (keyed by course id). */
+public record CourseLifecycleEvent(String courseId, CourseState state, long occurredAtEpochMillis) {}
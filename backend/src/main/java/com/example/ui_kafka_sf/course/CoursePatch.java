@@ -0,0 +1,72 @@
+package com.example.ui_kafka_sf.course;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7386) document to a {@link Course}.
+ *
+ * <p>Only the members present in the document are touched: an absent member leaves the column
+ * as-is, an explicit {@code null} clears it. Combined with {@code @DynamicUpdate} on {@link
+ * Course}, the resulting SQL only sets the columns the client actually changed.
+ *
+ * <p>{@code id} and {@code version} are not patchable; concurrency is expressed via {@code
+ * If-Match}. Unknown members and type mismatches raise {@link IllegalArgumentException} (mapped to
+ * 400 by the global handler).
+ */
+final class CoursePatch {
+
+  private CoursePatch() {}
+
+  static void apply(JsonNode patch, Course c, ObjectMapper mapper) {
+    if (patch == null || !patch.isObject())
+      throw new IllegalArgumentException("patch document must be a JSON object");
+
+    Iterator<Map.Entry<String, JsonNode>> it = patch.fields();
+    while (it.hasNext()) {
+      var e = it.next();
+      var v = e.getValue();
+      switch (e.getKey()) {
+        case "code" -> c.setCode(requiredText("code", v));
+        case "name" -> c.setName(requiredText("name", v));
+        case "description" -> c.setDescription(text("description", v));
+        case "term" -> c.setTerm(convert("term", v, Term.class, mapper));
+        case "year" -> c.setYear(text("year", v));
+        case "expired" -> c.setExpired(convert("expired", v, OffsetDateTime.class, mapper));
+        case "started" -> {
+          if (!v.isBoolean()) throw new IllegalArgumentException("started must be a boolean");
+          c.setStarted(v.booleanValue());
+        }
+        case "instructorId" -> c.setInstructorId(text("instructorId", v));
+        case "id", "version" ->
+            throw new IllegalArgumentException(e.getKey() + " is not patchable");
+        default -> throw new IllegalArgumentException("unknown field: " + e.getKey());
+      }
+    }
+  }
+
+  // asText() would turn {} and [] into "" and 2025 into "2025": only JSON strings are accepted
+  private static String text(String field, JsonNode v) {
+    if (v.isNull()) return null;
+    if (!v.isTextual()) throw new IllegalArgumentException(field + " must be a string");
+    return v.textValue();
+  }
+
+  private static String requiredText(String field, JsonNode v) {
+    if (v.isNull()) throw new IllegalArgumentException(field + " must not be null");
+    return text(field, v);
+  }
+
+  private static <T> T convert(String field, JsonNode v, Class<T> type, ObjectMapper mapper) {
+    if (v.isNull()) return null;
+    try {
+      return mapper.treeToValue(v, type);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalArgumentException("invalid value for " + field);
+    }
+  }
+}
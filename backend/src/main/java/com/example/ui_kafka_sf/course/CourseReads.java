@@ -0,0 +1,57 @@
+package com.example.ui_kafka_sf.course;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.flight.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Hot course reads from Postgres, coalesced with {@link SingleFlight} ({@code
+ * app.single-flight.enabled}): when a course launches and hundreds of students ask for the same
+ * course or instructor at once, one query runs and every caller gets its result. Results are
+ * mapped to {@link CourseDto} before they are shared, never the entities.
+ *
+ * <p>A committed write on this instance detaches the loads in flight ({@link SingleFlight#forget}),
+ * so a GET following a PATCH never joins a query that read the course before the PATCH and returns
+ * its old {@code ETag}. The event does not name the previous instructor, so every {@code
+ * byInstructor} load is detached. Writes on other instances are not seen; there the window is one
+ * query long, and the write's own response carries the new {@code ETag}.
+ *
+ * <p>Flights {@code course.byId} and {@code course.byInstructor}. Results say whether the caller
+ * joined another caller's query ({@link SingleFlight.Result#joined}).
+ */
+@Component
+class CourseReads {
+
+  private final CourseRepository repo;
+  private final SingleFlight<String, Optional<CourseDto>> byId;
+  private final SingleFlight<String, List<CourseDto>> byInstructor;
+
+  CourseReads(CourseRepository repo, AppProperties props, MeterRegistry meters) {
+    this.repo = repo;
+    boolean enabled = props.getSingleFlight().isEnabled();
+    this.byId = new SingleFlight<>("course.byId", enabled, meters);
+    this.byInstructor = new SingleFlight<>("course.byInstructor", enabled, meters);
+  }
+
+  SingleFlight.Result<Optional<CourseDto>> byId(String id) {
+    return byId.call(id, () -> repo.findById(id).map(CourseController::toDto));
+  }
+
+  /** Runs on the writing thread right after commit, before the write's response goes out. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent evt) {
+    byId.forget(evt.id());
+    byInstructor.forgetAll();
+  }
+
+  SingleFlight.Result<List<CourseDto>> byInstructor(String instructorId) {
+    return byInstructor.call(
+        instructorId,
+        () ->
+            repo.findByInstructorId(instructorId).stream().map(CourseController::toDto).toList());
+  }
+}
@@ -1,9 +1,58 @@
 package com.example.ui_kafka_sf.course;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /** CourseRepository belongs to the Course domain (entity/repository/DTO for course operations). */
 public interface CourseRepository extends JpaRepository<Course, String> {
   List<Course> findByInstructorId(String instructorId);
+
+  /** Id and deadline of a course pending expiry. */
+  interface ExpiryView {
+    String getId();
+
+    OffsetDateTime getExpired();
+  }
+
+  /**
+   * Open courses whose deadline falls in {@code (from, to]}; a range scan on {@code
+   * idx_course_expired}, never a full-table scan.
+   */
+  @Query(
+      "select c.id as id, c.expired as expired from Course c"
+          + " where c.expired > :from and c.expired <= :to"
+          + " and c.state = com.example.ui_kafka_sf.course.CourseState.OPEN")
+  List<ExpiryView> findOpenExpiringBetween(
+      @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+  /** Open courses already past their deadline (startup catch-up). */
+  @Query(
+      "select c.id as id, c.expired as expired from Course c"
+          + " where c.expired <= :now"
+          + " and c.state = com.example.ui_kafka_sf.course.CourseState.OPEN")
+  List<ExpiryView> findOpenExpiredBy(@Param("now") OffsetDateTime now);
+
+  /**
+   * Flips the given courses to {@code EXPIRED} in one statement and returns the ids that were
+   * actually flipped.
+   *
+   * <p>The {@code state}/{@code expired} guard makes the call idempotent and safe across instances:
+   * a course that was re-opened, re-dated or already expired by another node is left alone, so
+   * each transition is reported exactly once. {@code version} is bumped to keep optimistic locking
+   * coherent with concurrent API edits. Only {@code state} changes: {@code started} records whether
+   * the course ever ran and is kept.
+   */
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          "update course set state = 'EXPIRED', version = version + 1"
+              + " where id in (:ids) and state = 'OPEN' and expired <= :now"
+              + " returning id")
+  List<String> expireDue(@Param("ids") Collection<String> ids, @Param("now") OffsetDateTime now);
 }
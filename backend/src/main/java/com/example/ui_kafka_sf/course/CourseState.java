@@ -0,0 +1,7 @@
+package com.example.ui_kafka_sf.course;
+
+/** Server-managed course lifecycle state, driven by {@link Course#getExpired()}. */
+public enum CourseState {
+  OPEN,
+  EXPIRED
+}
@@ -0,0 +1,241 @@
+package com.example.ui_kafka_sf.course;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory materialized view of courses grouped by instructor, fed by the compacted course change
+ * topic (see {@link CourseChangePublisher}).
+ *
+ * <p>How it works:
+ *
+ * <ul>
+ *   <li>Every instance is assigned all partitions from offset 0 on startup, so the view is rebuilt
+ *       from the topic without touching Postgres. Until it has caught up ({@link #isReady()}),
+ *       callers fall back to the database.
+ *   <li>After that it serves only while it is fresh: consumer lag (end offset − position) is read
+ *       on every record and every idle poll. Once the view is further behind than {@code
+ *       app.kafka.course-view-max-staleness-ms}, or the consumer has gone quiet for that long
+ *       (stalled or stopped), {@link #isReady()} turns {@code false} until it catches up again.
+ *   <li>A single listener thread writes; the per-instructor lists are immutable and replaced
+ *       wholesale on every change (copy-on-write), so readers get a consistent list with one
+ *       lock-free map lookup.
+ *   <li>The view is eventually consistent: a write becomes visible once its record is consumed.
+ *   <li>Changes can reach the topic out of order (two instances commit v2 and v3, and v3 is sent
+ *       first), so each is applied only if it is newer than what the view holds for the course, by
+ *       {@code CourseDto.version} ({@link CourseChangePublisher#VERSION_HEADER} for tombstones). A
+ *       delete leaves a marker with the deleted version, so an older upsert arriving after it does
+ *       not bring the course back; an upsert sent after the tombstone is the id being created
+ *       again and is applied whatever its version.
+ * </ul>
+ *
+ * <p>Metrics: {@code course.view.propagation} (record timestamp → applied), {@code
+ * course.view.lag} (records not yet applied), {@code course.view.staleness.seconds} (see {@link
+ * #stalenessMillis}), {@code course.view.ready}, {@code course.view.size} and {@code
+ * course.view.stale} (out-of-order records dropped).
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "app.kafka",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CourseView {
+
+  static final String LISTENER_ID = "course-view";
+
+  /** Reordered records arrive within seconds of each other; markers of older deletes are dropped */
+  static final long DELETE_MARKER_RETENTION_MS = 3_600_000;
+
+  /** The last change applied to a course; {@code deleted} for a delete marker. */
+  private record Applied(long version, long timestamp, boolean deleted) {}
+
+  private final Map<String, CourseDto> byId = new ConcurrentHashMap<>();
+  private final Map<String, List<CourseDto>> byInstructor = new ConcurrentHashMap<>();
+  /** Only touched on the listener thread */
+  private final Map<String, Applied> applied = new HashMap<>();
+  private final Map<org.apache.kafka.common.TopicPartition, Long> lag = new ConcurrentHashMap<>();
+  private final Timer propagation;
+  private final Counter stale;
+  private final LongSupplier clock;
+  private final long maxStalenessMs;
+
+  private volatile boolean replayed;
+  private volatile long lastAppliedRecordMillis;
+  /** Last record or idle poll: the consumer is alive and {@link #lag} is current */
+  private volatile long lastPolledMillis;
+
+  @Autowired
+  public CourseView(AppProperties props, MeterRegistry meters) {
+    this(props.getKafka().getCourseViewMaxStalenessMs(), meters, System::currentTimeMillis);
+  }
+
+  CourseView(long maxStalenessMs, MeterRegistry meters, LongSupplier clock) {
+    this.maxStalenessMs = maxStalenessMs;
+    this.clock = clock;
+    this.propagation =
+        Timer.builder("course.view.propagation").publishPercentileHistogram().register(meters);
+    this.stale = Counter.builder("course.view.stale").register(meters);
+    Gauge.builder("course.view.ready", this, v -> v.isReady() ? 1 : 0).register(meters);
+    Gauge.builder("course.view.size", byId, Map::size).register(meters);
+    Gauge.builder("course.view.lag", this, CourseView::lag).register(meters);
+    Gauge.builder(
+            "course.view.staleness.seconds",
+            this,
+            v -> v.stalenessMillis(v.clock.getAsLong()) / 1000.0)
+        .register(meters);
+  }
+
+  /**
+   * {@code true} once the view has replayed the topic, and only while it keeps up with it; callers
+   * fall back to the database otherwise.
+   */
+  public boolean isReady() {
+    return replayed && stalenessMillis(clock.getAsLong()) <= maxStalenessMs;
+  }
+
+  /** Courses of an instructor; an immutable snapshot, never {@code null}. */
+  public List<CourseDto> byInstructor(String instructorId) {
+    return byInstructor.getOrDefault(instructorId, List.of());
+  }
+
+  // manual assignment of every partition from offset 0: each instance needs the whole topic
+  @KafkaListener(
+      id = LISTENER_ID,
+      groupId = "course-view",
+      topicPartitions =
+          @TopicPartition(
+              topic = "${app.kafka.course-changes-topic}",
+              partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+      properties = {"auto.offset.reset=earliest"})
+  public void onChange(ConsumerRecord<String, CourseDto> rec, Consumer<?, ?> consumer) {
+    apply(rec.key(), rec.value(), versionOf(rec), rec.timestamp());
+    long now = clock.getAsLong();
+    lastAppliedRecordMillis = rec.timestamp();
+    propagation.record(Duration.ofMillis(Math.max(0, now - rec.timestamp())));
+    var tp = new org.apache.kafka.common.TopicPartition(rec.topic(), rec.partition());
+    // unknown until the first fetch response: count as behind
+    long behind = consumer.currentLag(tp).orElse(1);
+    lag.put(tp, behind);
+    lastPolledMillis = now;
+    if (!replayed && lag() == 0) replayed = true;
+  }
+
+  /**
+   * An idle poll means there is nothing left to apply (covers an empty topic); on the consumer
+   * thread, so the consumer can be asked for its lag.
+   */
+  @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+  public void onIdle(ListenerContainerIdleEvent event) {
+    var consumer = event.getConsumer();
+    for (var tp : event.getTopicPartitions()) lag.put(tp, consumer.currentLag(tp).orElse(0));
+    lastPolledMillis = clock.getAsLong();
+    if (lag() == 0) replayed = true;
+    long horizon = lastAppliedRecordMillis - DELETE_MARKER_RETENTION_MS;
+    applied.values().removeIf(a -> a.deleted() && a.timestamp() < horizon);
+  }
+
+  // -- HELPER METHODS
+
+  /**
+   * Applies one upsert ({@code after != null}) or delete of {@code version}, sent at {@code
+   * timestamp}, unless the view already holds a newer change; only called from the listener
+   * thread.
+   */
+  void apply(String id, CourseDto after, long version, long timestamp) {
+    var prev = applied.get(id);
+    if (prev != null && !supersedes(prev, after != null, version, timestamp)) {
+      stale.increment();
+      return;
+    }
+    applied.put(
+        id,
+        after != null || prev == null || !prev.deleted()
+            ? new Applied(version, timestamp, after == null)
+            : new Applied(
+                Math.max(version, prev.version()), Math.max(timestamp, prev.timestamp()), true));
+    var before = after == null ? byId.remove(id) : byId.put(id, after);
+    if (before != null && before.instructorId() != null) {
+      byInstructor.computeIfPresent(before.instructorId(), (k, list) -> without(list, id));
+    }
+    if (after != null && after.instructorId() != null) {
+      byInstructor.compute(after.instructorId(), (k, list) -> with(list, after));
+    }
+  }
+
+  private static boolean supersedes(
+      Applied prev, boolean upsert, long version, long timestamp) {
+    if (!prev.deleted()) return upsert ? version > prev.version() : version >= prev.version();
+    // after a delete: an upsert from before it is stale, one sent later created the id again
+    return !upsert || version > prev.version() || timestamp > prev.timestamp();
+  }
+
+  /** The record's version; a tombstone without one deletes whatever the view holds. */
+  private static long versionOf(ConsumerRecord<String, CourseDto> rec) {
+    var header = rec.headers().lastHeader(CourseChangePublisher.VERSION_HEADER);
+    if (header != null) {
+      try {
+        return Long.parseLong(new String(header.value(), StandardCharsets.US_ASCII));
+      } catch (NumberFormatException ignore) {
+        // fall through
+      }
+    }
+    if (rec.value() == null) return Long.MAX_VALUE;
+    return rec.value().version() == null ? 0 : rec.value().version();
+  }
+
+  private static List<CourseDto> without(List<CourseDto> list, String id) {
+    var copy = new ArrayList<CourseDto>(list.size());
+    for (var c : list) if (!c.id().equals(id)) copy.add(c);
+    return copy.isEmpty() ? null : List.copyOf(copy);
+  }
+
+  private static List<CourseDto> with(Collection<CourseDto> list, CourseDto dto) {
+    var copy = new ArrayList<CourseDto>(list == null ? 1 : list.size() + 1);
+    if (list != null) for (var c : list) if (!c.id().equals(dto.id())) copy.add(c);
+    copy.add(dto);
+    return List.copyOf(copy);
+  }
+
+  /** Records on the topic not yet applied, as of the last record or idle poll. */
+  long lag() {
+    long total = 0;
+    for (long l : lag.values()) total += l;
+    return total;
+  }
+
+  /**
+   * How far behind the topic the view may be: nothing while caught up (an idle topic is fresh),
+   * otherwise the age of the last applied record (writes still being applied from a backlog count
+   * as stale); at least the time since the consumer last polled, so a stalled or stopped consumer
+   * goes stale too.
+   */
+  long stalenessMillis(long now) {
+    long polled = lastPolledMillis;
+    if (polled == 0) return 0;
+    long quiet = Math.max(0, now - polled);
+    return lag() == 0 ? quiet : Math.max(quiet, Math.max(0, now - lastAppliedRecordMillis));
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.ui_kafka_sf.course;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.startup.Warmup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the course read path: a page of real courses is loaded from Postgres (Hibernate query plan
+ * and entity hydration), and synthetic courses go through {@link CourseController#toDto} and JSON
+ * encoding.
+ */
+@Component
+@RequiredArgsConstructor
+class CourseWarmup implements Warmup {
+
+  private final CourseRepository repo;
+  private final ObjectMapper mapper;
+  private final AppProperties props;
+
+  @Override
+  public String name() {
+    return "course";
+  }
+
+  @Override
+  public void warmUp(Budget budget) throws Exception {
+    int prime = props.getWarmup().getCoursePrimeSize();
+    if (prime > 0) {
+      var page = repo.findAll(PageRequest.of(0, prime)).stream().map(CourseController::toDto);
+      mapper.writeValueAsBytes(page.toList());
+    }
+    var c =
+        Course.builder()
+            .code("WARM-UP")
+            .name("Warm-up course")
+            .term(Term.values()[0])
+            .year("2025")
+            .expired(OffsetDateTime.now().plusDays(30))
+            .instructorId("warmup")
+            .build();
+    for (int i = 0; budget.more(i); i++) {
+      c.setId("warmup-" + i);
+      mapper.writeValueAsBytes(CourseController.toDto(c));
+    }
+  }
+}
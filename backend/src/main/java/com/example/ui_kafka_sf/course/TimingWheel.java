@@ -0,0 +1,129 @@
+package com.example.ui_kafka_sf.course;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel keyed by {@code K}.
+ *
+ * <p>Level {@code i} has {@code wheelSize} slots of {@code tickMs * wheelSize^i} millis each; a
+ * deadline is stored on the lowest level whose span still covers it and cascades one level down
+ * whenever the cursor enters its slot. Scheduling and cancelling are O(1), advancing is O(expired
+ * + cascaded), and memory is proportional to the number of scheduled keys — independent of how far
+ * in the future they are.
+ *
+ * <p>Cancellation and rescheduling are lazy: the authoritative deadline per key lives in {@link
+ * #deadlines}, and slot entries that no longer match it are dropped when their slot is processed.
+ *
+ * <p>Deadlines fire at most one tick late and never early. All methods are synchronized; the wheel
+ * is touched by one ticker thread and by occasional reschedules from request threads.
+ */
+final class TimingWheel<K> {
+
+  private record Entry<K>(K key, long deadline) {}
+
+  private final long tickMs;
+  private final int wheelSize;
+  private final List<List<ArrayDeque<Entry<K>>>> levels = new ArrayList<>();
+  private final Map<K, Long> deadlines = new HashMap<>();
+  private final ArrayDeque<Entry<K>> overdue = new ArrayDeque<>();
+
+  /** Start of the next level-0 slot to process; always a multiple of {@link #tickMs}. */
+  private long cursor;
+
+  TimingWheel(long tickMs, int wheelSize, long nowMillis) {
+    if (tickMs <= 0 || wheelSize < 2) throw new IllegalArgumentException("bad wheel geometry");
+    this.tickMs = tickMs;
+    this.wheelSize = wheelSize;
+    this.cursor = nowMillis - Math.floorMod(nowMillis, tickMs);
+  }
+
+  /** Schedules (or reschedules) {@code key}; past deadlines fire on the next {@link #advance}. */
+  synchronized void schedule(K key, long deadlineMillis) {
+    deadlines.put(key, deadlineMillis);
+    place(new Entry<>(key, deadlineMillis));
+  }
+
+  /** Schedules {@code key} only if it is not already scheduled. */
+  synchronized void scheduleIfAbsent(K key, long deadlineMillis) {
+    if (!deadlines.containsKey(key)) schedule(key, deadlineMillis);
+  }
+
+  synchronized void cancel(K key) {
+    deadlines.remove(key);
+  }
+
+  synchronized int size() {
+    return deadlines.size();
+  }
+
+  /** Processes every slot that has fully elapsed by {@code nowMillis}, emitting expired keys. */
+  synchronized void advance(long nowMillis, Consumer<K> expired) {
+    drain(overdue, expired);
+    while (cursor + tickMs <= nowMillis) {
+      for (int level = levels.size() - 1; level >= 1; level--) {
+        long span = levelTick(level);
+        if (cursor % span == 0) {
+          var slot = slot(level, cursor / span);
+          var cascaded = new ArrayList<>(slot);
+          slot.clear();
+          cascaded.forEach(this::place);
+        }
+      }
+      if (!levels.isEmpty()) drain(slot(0, cursor / tickMs), expired);
+      drain(overdue, expired);
+      cursor += tickMs;
+    }
+  }
+
+  private void drain(ArrayDeque<Entry<K>> queue, Consumer<K> expired) {
+    Entry<K> e;
+    while ((e = queue.poll()) != null) {
+      if (isLive(e)) {
+        deadlines.remove(e.key());
+        expired.accept(e.key());
+      }
+    }
+  }
+
+  private boolean isLive(Entry<K> e) {
+    Long current = deadlines.get(e.key());
+    return current != null && current == e.deadline();
+  }
+
+  private void place(Entry<K> e) {
+    if (!isLive(e)) return;
+    long d = e.deadline();
+    if (d < cursor) {
+      overdue.add(e);
+      return;
+    }
+    for (int level = 0; ; level++) {
+      long tick = levelTick(level);
+      long slotIdx = d / tick;
+      if (slotIdx < cursor / tick + wheelSize) {
+        slot(level, slotIdx).add(e);
+        return;
+      }
+    }
+  }
+
+  private long levelTick(int level) {
+    long t = tickMs;
+    for (int i = 0; i < level; i++) t = Math.multiplyExact(t, wheelSize);
+    return t;
+  }
+
+  private ArrayDeque<Entry<K>> slot(int level, long slotIdx) {
+    while (levels.size() <= level) {
+      var slots = new ArrayList<ArrayDeque<Entry<K>>>(wheelSize);
+      for (int i = 0; i < wheelSize; i++) slots.add(new ArrayDeque<>());
+      levels.add(slots);
+    }
+    return levels.get(level).get((int) Math.floorMod(slotIdx, (long) wheelSize));
+  }
+}
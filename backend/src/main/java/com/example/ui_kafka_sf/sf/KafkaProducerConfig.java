@@ -1,5 +1,6 @@
 package com.example.ui_kafka_sf.sf;
 
+import com.example.ui_kafka_sf.common.jfr.JfrKafkaTemplate;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -33,9 +34,9 @@ public class KafkaProducerConfig {
     return new DefaultKafkaProducerFactory<>(props);
   }
 
-  /** Performs a unit of domain logic; see README for the surrounding flow. */
+  /** Every send is recorded as a {@code KafkaPublishEvent} when JFR has it enabled. */
   @Bean
   public KafkaTemplate<String, Object> kafkaTemplate() {
-    return new KafkaTemplate<>(producerFactory());
+    return new JfrKafkaTemplate<>(producerFactory());
   }
 }
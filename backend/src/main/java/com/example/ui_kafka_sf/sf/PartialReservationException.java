@@ -0,0 +1,46 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.KafkaSfException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SfReservations#reserveFirstSends} could reserve only part of a batch, e.g. one shard of
+ * several failed. The outcome is per key: {@link #firstSends()} were reserved and must be published
+ * like any other first send; every key in {@link #failures()} was not reserved and failed with the
+ * exception given for it. Keys in neither were duplicates.
+ *
+ * <p>As a {@link KafkaSfException} it carries the error of the first failure, for callers that
+ * reserve a single key.
+ */
+public class PartialReservationException extends KafkaSfException {
+
+  private final List<String> firstSends;
+  private final Map<String, RuntimeException> failures;
+
+  public PartialReservationException(
+      List<String> firstSends, Map<String, RuntimeException> failures) {
+    super(errorOf(failures), failures.size() + " sf keys not reserved: " + first(failures));
+    this.firstSends = List.copyOf(firstSends);
+    this.failures = Map.copyOf(failures);
+  }
+
+  /** Keys that were new and are now reserved. */
+  public List<String> firstSends() {
+    return firstSends;
+  }
+
+  /** Keys that could not be reserved, with the failure of each. */
+  public Map<String, RuntimeException> failures() {
+    return failures;
+  }
+
+  private static RuntimeException first(Map<String, RuntimeException> failures) {
+    return failures.values().iterator().next();
+  }
+
+  private static Errors errorOf(Map<String, RuntimeException> failures) {
+    return first(failures) instanceof KafkaSfException e ? e.getError() : Errors.UNKNOWN;
+  }
+}
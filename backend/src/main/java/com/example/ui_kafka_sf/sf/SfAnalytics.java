@@ -0,0 +1,219 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.sketch.CountMinSketch;
+import com.example.ui_kafka_sf.common.sketch.Hash64;
+import com.example.ui_kafka_sf.common.sketch.HyperLogLog;
+import com.example.ui_kafka_sf.common.sketch.SlidingWindow;
+import com.example.ui_kafka_sf.common.sketch.TopK;
+import com.example.ui_kafka_sf.common.shard.ConsistentHashRing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Real-time figures on SF submit outcomes over a sliding window ({@code app.sf-analytics}, the last
+ * hour by default), in fixed memory and without touching {@code sf_idempotency}:
+ *
+ * <ul>
+ *   <li>distinct emails — {@link HyperLogLog}, relative standard error {@code 1.04 /
+ *       sqrt(2^hll-precision)} (1.6%);
+ *   <li>{@code queued} and {@code duplicate_ignored} counts and the duplicate ratio — exact per
+ *       bucket;
+ *   <li>heaviest duplicate email domains and key hashes — {@link CountMinSketch} with {@link
+ *       TopK} candidates; a count is never under the true count, and with probability {@code 1 -
+ *       e^-cms-depth} over it by at most {@code e / cms-width} of the window's duplicates.
+ * </ul>
+ *
+ * <p>Every sketch lives in a {@link SlidingWindow} of {@code buckets} preallocated buckets, so the
+ * footprint ({@link Snapshot#memoryBytes()}, ~1 MB with the defaults) does not grow with traffic
+ * and the window moves in steps of {@code window-seconds / buckets}. Recording is lock-free: a CAS
+ * per HyperLogLog register and atomic adds per Count-Min row.
+ *
+ * <p>Served on {@code GET /api/admin/sf-analytics}; gauges {@code sf.analytics.distinct.emails},
+ * {@code sf.analytics.submits{outcome}}, {@code sf.analytics.duplicate.ratio}, {@code
+ * sf.analytics.duplicate.domain{domain}} (top-K, refreshed every {@code refresh-interval-ms}) and
+ * {@code sf.analytics.memory}.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "app.sf-analytics",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class SfAnalytics {
+
+  public record Bounds(
+      double distinctRelativeError,
+      double heavyHitterOvercountFraction,
+      double heavyHitterConfidence) {}
+
+  public record Snapshot(
+      long windowSeconds,
+      long distinctEmails,
+      long queued,
+      long duplicates,
+      double duplicateRatio,
+      List<TopK.Entry> topDuplicateDomains,
+      List<TopK.Entry> topDuplicateKeys,
+      Bounds bounds,
+      long memoryBytes) {}
+
+  private final LongSupplier clock;
+  private final SlidingWindow<HyperLogLog> emails;
+  private final SlidingWindow<LongAdder> queued;
+  private final SlidingWindow<LongAdder> duplicates;
+  private final SlidingWindow<CountMinSketch> duplicateDomains;
+  private final SlidingWindow<CountMinSketch> duplicateKeys;
+  private final TopK topDomains;
+  private final TopK topKeys;
+  private final MultiGauge domainGauge;
+
+  @Autowired
+  public SfAnalytics(AppProperties props, MeterRegistry meters) {
+    this(props.getSfAnalytics(), meters, System::currentTimeMillis);
+  }
+
+  SfAnalytics(AppProperties.SfAnalytics cfg, MeterRegistry meters, LongSupplier clock) {
+    this.clock = clock;
+    var window = Duration.ofSeconds(cfg.getWindowSeconds());
+    int buckets = cfg.getBuckets();
+    this.emails =
+        new SlidingWindow<>(
+            window, buckets, () -> new HyperLogLog(cfg.getHllPrecision()), HyperLogLog::clear);
+    this.queued = new SlidingWindow<>(window, buckets, LongAdder::new, LongAdder::reset);
+    this.duplicates = new SlidingWindow<>(window, buckets, LongAdder::new, LongAdder::reset);
+    this.duplicateDomains =
+        new SlidingWindow<>(
+            window,
+            buckets,
+            () -> new CountMinSketch(cfg.getCmsDepth(), cfg.getCmsWidth()),
+            CountMinSketch::clear);
+    this.duplicateKeys =
+        new SlidingWindow<>(
+            window,
+            buckets,
+            () -> new CountMinSketch(cfg.getCmsDepth(), cfg.getCmsWidth()),
+            CountMinSketch::clear);
+    this.topDomains = new TopK(cfg.getTopK());
+    this.topKeys = new TopK(cfg.getTopK());
+
+    Gauge.builder("sf.analytics.distinct.emails", this, SfAnalytics::distinctEmails)
+        .description("Distinct submitter emails in the window (HyperLogLog estimate)")
+        .register(meters);
+    Gauge.builder("sf.analytics.submits", this, a -> sum(a.queued))
+        .tag("outcome", "queued")
+        .register(meters);
+    Gauge.builder("sf.analytics.submits", this, a -> sum(a.duplicates))
+        .tag("outcome", "duplicate_ignored")
+        .register(meters);
+    Gauge.builder("sf.analytics.duplicate.ratio", this, SfAnalytics::duplicateRatio)
+        .register(meters);
+    Gauge.builder("sf.analytics.memory", this, SfAnalytics::memoryBytes)
+        .baseUnit("bytes")
+        .register(meters);
+    this.domainGauge = MultiGauge.builder("sf.analytics.duplicate.domain").register(meters);
+  }
+
+  /** Records one reserved submission; {@code keyHash} is the idempotency key. */
+  void record(String email, String keyHash, boolean firstTime) {
+    long now = clock.getAsLong();
+    var normalized = email.trim().toLowerCase(Locale.ROOT);
+    emails.current(now).add(Hash64.of(normalized));
+    if (firstTime) {
+      queued.current(now).increment();
+      return;
+    }
+    duplicates.current(now).increment();
+
+    var domain = domain(normalized);
+    long domainHash = Hash64.of(domain);
+    duplicateDomains.current(now).add(domainHash, 1);
+    topDomains.offer(domain, CountMinSketch.estimate(duplicateDomains.live(now), domainHash));
+
+    // key hashes are SHA-256 hex already, no need to hash them again
+    long keyPosition = ConsistentHashRing.hexPosition(keyHash);
+    duplicateKeys.current(now).add(keyPosition, 1);
+    topKeys.offer(keyHash, CountMinSketch.estimate(duplicateKeys.live(now), keyPosition));
+  }
+
+  public Snapshot snapshot() {
+    long now = clock.getAsLong();
+    var domains = duplicateDomains.live(now);
+    var keys = duplicateKeys.live(now);
+    var anyCms = duplicateDomains.all().get(0);
+    return new Snapshot(
+        emails.window().toSeconds(),
+        distinctEmails(),
+        sum(queued),
+        sum(duplicates),
+        duplicateRatio(),
+        reestimate(topDomains, d -> CountMinSketch.estimate(domains, Hash64.of(d))),
+        reestimate(
+            topKeys, k -> CountMinSketch.estimate(keys, ConsistentHashRing.hexPosition(k))),
+        new Bounds(
+            emails.all().get(0).relativeError(), anyCms.epsilon(), 1 - anyCms.delta()),
+        memoryBytes());
+  }
+
+  /** Re-reads heavy-hitter counts, which drop as buckets leave the window, and the domain gauge. */
+  @Scheduled(fixedDelayString = "${app.sf-analytics.refresh-interval-ms:15000}")
+  public void refresh() {
+    long now = clock.getAsLong();
+    var domains = duplicateDomains.live(now);
+    var keys = duplicateKeys.live(now);
+    topDomains.refresh(d -> CountMinSketch.estimate(domains, Hash64.of(d)));
+    topKeys.refresh(k -> CountMinSketch.estimate(keys, ConsistentHashRing.hexPosition(k)));
+    domainGauge.register(
+        topDomains.top().stream()
+            .<MultiGauge.Row<?>>map(e -> MultiGauge.Row.of(Tags.of("domain", e.item()), e.count()))
+            .toList(),
+        true);
+  }
+
+  long distinctEmails() {
+    return HyperLogLog.estimate(emails.live(clock.getAsLong()));
+  }
+
+  double duplicateRatio() {
+    long q = sum(queued);
+    long d = sum(duplicates);
+    return q + d == 0 ? 0 : (double) d / (q + d);
+  }
+
+  long memoryBytes() {
+    long bytes = 0;
+    for (var h : emails.all()) bytes += h.sizeBytes();
+    for (var c : duplicateDomains.all()) bytes += c.sizeBytes();
+    for (var c : duplicateKeys.all()) bytes += c.sizeBytes();
+    return bytes;
+  }
+
+  private long sum(SlidingWindow<LongAdder> counter) {
+    long total = 0;
+    for (var bucket : counter.live(clock.getAsLong())) total += bucket.sum();
+    return total;
+  }
+
+  private static List<TopK.Entry> reestimate(
+      TopK top, ToLongFunction<String> estimator) {
+    top.refresh(estimator);
+    return top.top();
+  }
+
+  private static String domain(String email) {
+    int at = email.lastIndexOf('@');
+    return at < 0 || at == email.length() - 1 ? "(none)" : email.substring(at + 1);
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.ui_kafka_sf.sf;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin view of {@link SfAnalytics}: distinct emails, queued vs duplicate counts and the heaviest
+ * duplicate domains and keys over the sliding window, with the sketches' error bounds.
+ */
+@RestController
+@ConditionalOnProperty(
+    prefix = "app.sf-analytics",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@RequestMapping("/api/admin/sf-analytics")
+@RequiredArgsConstructor
+public class SfAnalyticsController {
+
+  private final SfAnalytics analytics;
+
+  @GetMapping
+  public SfAnalytics.Snapshot snapshot() {
+    return analytics.snapshot();
+  }
+}
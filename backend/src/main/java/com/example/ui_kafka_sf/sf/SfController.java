@@ -1,16 +1,16 @@
 package com.example.ui_kafka_sf.sf;
 
-import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.logging.TraceIdFilter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
 
 /** Accepts SF-style submissions and publishes first-time ones to Kafka. */
 @RestController
@@ -18,25 +18,49 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SfController {
 
-  private final KafkaTemplate<String, Object> kafka;
-  private final AppProperties props;
-  private final SfIdempotencyRepository idemRepo;
+  private final SfReservations reservations;
+  private final SfPublisher publisher;
+  private final SfLatencyMetrics metrics;
+  private final Optional<SfSubmitBatcher> batcher;
+  private final Optional<SfAnalytics> analytics;
 
-  /** Returns {"status":"queued"} or {"status":"duplicate_ignored"} */
+  /**
+   * Returns {"status":"queued"} or {"status":"duplicate_ignored"}.
+   *
+   * <p>The record carries {@link SfHeaders#TRACE_ID} (the caller's if valid, or a new one) and
+   * {@link SfHeaders#ACCEPTED_AT}; the trace id is echoed on the response. Stage latencies go to
+   * {@link SfLatencyMetrics}.
+   *
+   * <p>With {@code app.sf-batch.enabled} (default) the reservation and publish are done by {@link
+   * SfSubmitBatcher} together with concurrent submits; the response is the same.
+   *
+   * <p>Outcomes feed {@link SfAnalytics} ({@code GET /api/admin/sf-analytics}).
+   */
   @PostMapping("/submit")
-  public ResponseEntity<?> submit(@Valid @RequestBody SfEvent event) {
-    var hash =
-        sha256(
-            event.email()
-                + "|"
-                + nullToEmpty(event.fullName())
-                + "|"
-                + nullToEmpty(event.message()));
-    boolean firstTime = idemRepo.tryReserveFirstSend(event.email(), hash);
-    if (!firstTime) return ResponseEntity.ok(Map.of("status", "duplicate_ignored"));
-
-    kafka.send(props.getKafka().getTopic(), event.email(), event);
-    return ResponseEntity.ok(Map.of("status", "queued"));
+  public ResponseEntity<?> submit(
+      @Valid @RequestBody SfEvent event,
+      @RequestHeader(value = SfHeaders.TRACE_ID, required = false) String traceId) {
+    long acceptedAt = System.currentTimeMillis();
+    long start = System.nanoTime();
+    var trace = SfHeaders.validTraceId(traceId) ? traceId : TraceIdFilter.currentOrNew();
+
+    var hash = keyHash(event);
+    boolean firstTime =
+        batcher.isPresent()
+            ? batcher.get().submit(event, hash, trace, acceptedAt, start)
+            : reservations.tryReserveFirstSend(event.email(), hash);
+    metrics.reserved(firstTime, System.nanoTime() - start);
+    analytics.ifPresent(a -> a.record(event.email(), hash, firstTime));
+    // the batcher has already handed its winners to the producer
+    if (firstTime && batcher.isEmpty()) publisher.publish(event, trace, acceptedAt, start);
+    var status = firstTime ? "queued" : "duplicate_ignored";
+    return ResponseEntity.ok().header(SfHeaders.TRACE_ID, trace).body(Map.of("status", status));
+  }
+
+  /** Stable idempotency key: SHA-256 of {@code email|fullName|message} ({@code null} → ""). */
+  static String keyHash(SfEvent event) {
+    return sha256(
+        event.email() + "|" + nullToEmpty(event.fullName()) + "|" + nullToEmpty(event.message()));
   }
 
   // normalize null to empty for stable hashing
@@ -0,0 +1,37 @@
+package com.example.ui_kafka_sf.sf;
+
+import java.util.UUID;
+
+/** Header names shared by the SF HTTP endpoint and the Kafka records it produces. */
+public final class SfHeaders {
+
+  /** Correlates one submission across HTTP, Kafka and consumers; echoed on the response. */
+  public static final String TRACE_ID = "X-Trace-Id";
+
+  /** Epoch millis at which the HTTP request was accepted (decimal string). */
+  public static final String ACCEPTED_AT = "X-Accepted-At";
+
+  /** Longest client-supplied {@link #TRACE_ID} that is kept. */
+  public static final int MAX_TRACE_ID_LENGTH = 64;
+
+  private SfHeaders() {}
+
+  /**
+   * Whether a client's {@link #TRACE_ID} can be used as is: 1–{@value #MAX_TRACE_ID_LENGTH}
+   * visible ASCII characters. Anything else would end up verbatim in logs, Kafka headers and the
+   * response.
+   */
+  public static boolean validTraceId(String header) {
+    if (header == null || header.isEmpty() || header.length() > MAX_TRACE_ID_LENGTH) return false;
+    for (int i = 0; i < header.length(); i++) {
+      char c = header.charAt(i);
+      if (c < 0x21 || c > 0x7e) return false;
+    }
+    return true;
+  }
+
+  /** The client's {@link #TRACE_ID} if {@link #validTraceId valid}, else a new one. */
+  public static String traceIdOrNew(String header) {
+    return validTraceId(header) ? header : UUID.randomUUID().toString();
+  }
+}
@@ -1,7 +1,11 @@
 package com.example.ui_kafka_sf.sf;
 
+import com.example.ui_kafka_sf.common.jfr.IdempotencyReserveEvent;
+import java.util.List;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -29,7 +33,8 @@ import org.springframework.transaction.annotation.Transactional;
  *   <li>(Optional) add a retention job to purge old rows to cap storage.</li>
  * </ul>
  */
-public interface SfIdempotencyRepository extends JpaRepository<SfIdempotencyEntity, String> {
+public interface SfIdempotencyRepository
+    extends JpaRepository<SfIdempotencyEntity, String>, SfReservations {
 
   /**
    * Attempts to reserve a "first send" for the given logical submission key.
@@ -52,14 +57,43 @@ public interface SfIdempotencyRepository extends JpaRepository<SfIdempotencyEnti
    * @param keyHash stable, collision-resistant hash that identifies the logical submission
    * @return {@code true} if the reservation is new (first send), {@code false} if duplicate
    */
+  @Override
   @Transactional
   default boolean tryReserveFirstSend(String email, String keyHash) {
+    var jfr = IdempotencyReserveEvent.start(keyHash);
+    String outcome = "error";
     try {
       var e = SfIdempotencyEntity.builder().keyHash(keyHash).email(email).build();
       save(e);
+      outcome = "first";
       return true;
     } catch (DataIntegrityViolationException duplicate) {
+      outcome = "duplicate";
       return false;
+    } finally {
+      jfr.finish(outcome);
     }
   }
+
+  /**
+   * Batched form of {@link #tryReserveFirstSend}: reserves all pairs with one multi-row {@code
+   * INSERT ... ON CONFLICT DO NOTHING} (one statement, one commit) and returns the key hashes that
+   * were inserted, i.e. the first sends. Keys already present are left out; a key repeated within
+   * the batch is inserted (and returned) once.
+   *
+   * @param keyHashes key hashes, parallel to {@code emails}
+   * @param emails sender of each key
+   */
+  @Override
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          "insert into sf_idempotency (key_hash, email, created_at)"
+              + " select k, e, now()"
+              + " from unnest(cast(:keys as varchar[]), cast(:emails as varchar[])) as t(k, e)"
+              + " on conflict (key_hash) do nothing"
+              + " returning key_hash")
+  List<String> reserveFirstSends(
+      @Param("keys") String[] keyHashes, @Param("emails") String[] emails);
 }
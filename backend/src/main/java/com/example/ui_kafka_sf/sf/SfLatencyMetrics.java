@@ -0,0 +1,94 @@
+package com.example.ui_kafka_sf.sf;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.example.ui_kafka_sf.common.logging.TraceIdFilter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.MDC;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-stage latency of an SF submission, from HTTP accept to consumer receive.
+ *
+ * <ul>
+ *   <li>{@code sf.submit.reserve{outcome=queued|duplicate_ignored}} — idempotency reservation
+ *       (batched: including the wait for the batch, see {@link SfSubmitBatcher}).
+ *   <li>{@code sf.submit.enqueue} — {@code KafkaTemplate.send} returning (serialization, metadata,
+ *       accumulator append).
+ *   <li>{@code sf.submit.ack{result=success|failure}} — accept → broker acknowledgement ({@code
+ *       acks=all}), from the send future.
+ *   <li>{@code sf.submit.consume} — accept → record received by a listener on this service
+ *       (wall-clock, from the {@link SfHeaders#ACCEPTED_AT} header).
+ * </ul>
+ *
+ * <p>SLO buckets come from {@code management.metrics.distribution.slo.sf.submit} and are exported
+ * as Prometheus histograms on {@code /actuator/prometheus}.
+ *
+ * <p>Registered as the listener containers' {@link RecordInterceptor}, so any consumer of SF
+ * records is measured at receive time without touching listener code. It also puts the record's
+ * {@link SfHeaders#TRACE_ID} into the MDC while the listener runs, so consumer log lines carry the
+ * same trace id as the HTTP request that produced the record.
+ */
+@Component
+public class SfLatencyMetrics implements RecordInterceptor<Object, Object> {
+
+  private final Timer reserveQueued;
+  private final Timer reserveDuplicate;
+  private final Timer enqueue;
+  private final Timer ackSuccess;
+  private final Timer ackFailure;
+  private final Timer consume;
+
+  public SfLatencyMetrics(MeterRegistry meters) {
+    this.reserveQueued = timer(meters, "sf.submit.reserve", "outcome", "queued");
+    this.reserveDuplicate = timer(meters, "sf.submit.reserve", "outcome", "duplicate_ignored");
+    this.enqueue = Timer.builder("sf.submit.enqueue").register(meters);
+    this.ackSuccess = timer(meters, "sf.submit.ack", "result", "success");
+    this.ackFailure = timer(meters, "sf.submit.ack", "result", "failure");
+    this.consume = Timer.builder("sf.submit.consume").register(meters);
+  }
+
+  void reserved(boolean firstTime, long nanos) {
+    (firstTime ? reserveQueued : reserveDuplicate).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  void enqueued(long nanos) {
+    enqueue.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  void acked(boolean success, long nanos) {
+    (success ? ackSuccess : ackFailure).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public ConsumerRecord<Object, Object> intercept(
+      ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+    var trace = record.headers().lastHeader(SfHeaders.TRACE_ID);
+    if (trace != null)
+      MDC.put(TraceIdFilter.MDC_KEY, new String(trace.value(), StandardCharsets.UTF_8));
+    var h = record.headers().lastHeader(SfHeaders.ACCEPTED_AT);
+    if (h != null) {
+      try {
+        long acceptedAt = Long.parseLong(new String(h.value(), StandardCharsets.US_ASCII));
+        long lag = System.currentTimeMillis() - acceptedAt;
+        if (lag >= 0) consume.record(lag, TimeUnit.MILLISECONDS);
+      } catch (NumberFormatException ignore) {
+        // foreign header value; not ours to measure
+      }
+    }
+    return record;
+  }
+
+  @Override
+  public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+    MDC.remove(TraceIdFilter.MDC_KEY);
+  }
+
+  private static Timer timer(MeterRegistry meters, String name, String tag, String value) {
+    return Timer.builder(name).tag(tag, value).register(meters);
+  }
+}
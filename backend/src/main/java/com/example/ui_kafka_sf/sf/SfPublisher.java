@@ -0,0 +1,39 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import java.nio.charset.StandardCharsets;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a reserved SF submission to {@code app.kafka.topic}, keyed by email, with {@link
+ * SfHeaders#TRACE_ID} and {@link SfHeaders#ACCEPTED_AT}. Best-effort: the send is not awaited and
+ * its outcome only feeds {@code sf.submit.ack}.
+ */
+@Component
+@RequiredArgsConstructor
+class SfPublisher {
+
+  private final KafkaTemplate<String, Object> kafka;
+  private final AppProperties props;
+  private final SfLatencyMetrics metrics;
+
+  /**
+   * @param start {@link System#nanoTime()} at which the request was accepted
+   */
+  void publish(SfEvent event, String traceId, long acceptedAt, long start) {
+    long sending = System.nanoTime();
+    var record =
+        new ProducerRecord<String, Object>(props.getKafka().getTopic(), event.email(), event);
+    record.headers().add(SfHeaders.TRACE_ID, traceId.getBytes(StandardCharsets.UTF_8));
+    record
+        .headers()
+        .add(SfHeaders.ACCEPTED_AT, Long.toString(acceptedAt).getBytes(StandardCharsets.US_ASCII));
+    kafka
+        .send(record)
+        .whenComplete((result, ex) -> metrics.acked(ex == null, System.nanoTime() - start));
+    metrics.enqueued(System.nanoTime() - sending);
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records in the primary database where SF keys are reserved: {@code primary} ({@link
+ * SfIdempotencyRepository}) or {@code shards} ({@link ShardedIdempotencyStore}).
+ *
+ * <p>sf-service only reserves on the primary database. Next to a sharded backend the two would each
+ * see a key as new and publish the same submission twice, so sf-service reads this row at startup
+ * and refuses to start while it says {@code shards}. It is written before the application serves,
+ * so a backend turning sharding on marks it before taking its first submission; an sf-service
+ * already running must be stopped first.
+ */
+@Slf4j
+@Component
+public class SfReservationHome {
+
+  public static final String PRIMARY = "primary";
+  public static final String SHARDS = "shards";
+
+  static final String SCHEMA =
+      "create table if not exists sf_reservation_home ("
+          + "id smallint primary key,"
+          + " home varchar(16) not null,"
+          + " updated_at timestamp(6) with time zone not null)";
+
+  private static final String SET =
+      "insert into sf_reservation_home (id, home, updated_at) values (1, ?, now())"
+          + " on conflict (id) do update"
+          + " set home = excluded.home, updated_at = excluded.updated_at";
+
+  public SfReservationHome(DataSource dataSource, AppProperties props) {
+    var home = props.getSfShards().isEnabled() ? SHARDS : PRIMARY;
+    try (var c = dataSource.getConnection();
+        var st = c.createStatement();
+        var ps = c.prepareStatement(SET)) {
+      st.execute(SCHEMA);
+      ps.setString(1, home);
+      ps.executeUpdate();
+    } catch (SQLException e) {
+      // without the mark, an sf-service started later would not know it must not run
+      if (SHARDS.equals(home))
+        throw new IllegalStateException("could not record sf reservations on shards", e);
+      log.warn("could not record sf reservation home {}", home, e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.ui_kafka_sf.sf;
+
+import java.util.List;
+
+/**
+ * First-send reservation of SF idempotency keys. {@link SfIdempotencyRepository} reserves on the
+ * primary datasource; {@link ShardedIdempotencyStore} (when {@code app.sf-shards.enabled}) spreads
+ * the keys over several Postgres instances.
+ */
+public interface SfReservations {
+
+  /** {@code true} if {@code keyHash} was not reserved before, i.e. this is the first send. */
+  boolean tryReserveFirstSend(String email, String keyHash);
+
+  /**
+   * Reserves all keys at once and returns those that were new. A key repeated within the batch is
+   * returned at most once.
+   *
+   * @param keyHashes key hashes, parallel to {@code emails}
+   * @throws PartialReservationException if only some keys could be reserved; it lists the winners
+   *     and the failed keys
+   */
+  List<String> reserveFirstSends(String[] keyHashes, String[] emails);
+}
@@ -0,0 +1,23 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * With {@code app.sf-shards.enabled=true}, SF reservations go to {@link ShardedIdempotencyStore}
+ * instead of {@link SfIdempotencyRepository} on the primary datasource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sf-shards", name = "enabled", havingValue = "true")
+public class SfShardConfig {
+
+  @Bean(destroyMethod = "close")
+  @Primary
+  ShardedIdempotencyStore shardedIdempotencyStore(AppProperties props, MeterRegistry meters) {
+    return new ShardedIdempotencyStore(props.getSfShards(), meters);
+  }
+}
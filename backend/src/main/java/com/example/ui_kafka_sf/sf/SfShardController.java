@@ -0,0 +1,29 @@
+package com.example.ui_kafka_sf.sf;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin view of the SF idempotency shards: ring, previous ring, health, key share per shard and
+ * resharding migration progress. {@code POST /migrate} starts (or reports) the copy of moved keys.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "app.sf-shards", name = "enabled", havingValue = "true")
+@RequestMapping("/api/admin/sf-shards")
+@RequiredArgsConstructor
+public class SfShardController {
+
+  private final ShardedIdempotencyStore store;
+
+  @GetMapping
+  public ShardedIdempotencyStore.Status status() {
+    return store.status();
+  }
+
+  @PostMapping("/migrate")
+  public ResponseEntity<ShardedIdempotencyStore.Migration> migrate() {
+    return ResponseEntity.accepted().body(store.startMigration());
+  }
+}
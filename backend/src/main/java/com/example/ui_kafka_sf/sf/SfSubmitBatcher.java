@@ -0,0 +1,230 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.jfr.IdempotencyReserveEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces concurrent {@code POST /api/sf/submit} calls into one idempotency reservation per
+ * batch.
+ *
+ * <p>How it works:
+ *
+ * <ul>
+ *   <li>The request thread queues its submission and blocks on its own future.
+ *   <li>A flusher takes the first queued submission and keeps collecting until {@code
+ *       app.sf-batch.window-micros} have passed since it was queued or {@code max-batch-size} is
+ *       reached.
+ *   <li>The batch is reserved with {@link SfReservations#reserveFirstSends}: one {@code INSERT ...
+ *       ON CONFLICT DO NOTHING RETURNING} and one commit (per shard, when sharded). The winners are
+ *       handed to {@link SfPublisher} together, so the producer can put them in the same record
+ *       batch, and only then is each caller's future completed with its own outcome.
+ *   <li>Identical submissions in the same batch: the first one wins, the others are duplicates,
+ *       exactly as if they had been reserved one after the other.
+ *   <li>A failed reservation fails every caller in the batch with the same exception (e.g. pool
+ *       timeout → 503 {@code db_unavailable}). Nothing of the batch is published. A partial one
+ *       ({@link PartialReservationException}, one shard of several failed) fails only the callers
+ *       whose keys failed; the rest complete as usual.
+ * </ul>
+ *
+ * <p>When the queue is full, or before start/after stop, a caller reserves a batch of one on its
+ * own thread, so the batcher never rejects work.
+ *
+ * <p>Metrics: {@code sf.batch.size} (submissions per reservation statement), {@code
+ * sf.submit.batch.wait} (queued → flush start, the latency batching adds), {@code sf.batch.flush}
+ * (statement + hand-off to the producer, one per DB commit) and {@code sf.batch.queue.depth}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "app.sf-batch",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class SfSubmitBatcher implements SmartLifecycle {
+
+  /** One caller's submission; {@code queuedAt} is {@link System#nanoTime()}. */
+  record Submission(
+      SfEvent event,
+      String keyHash,
+      String traceId,
+      long acceptedAt,
+      long start,
+      long queuedAt,
+      CompletableFuture<Boolean> reserved) {}
+
+  private final SfReservations reservations;
+  private final SfPublisher publisher;
+  private final AppProperties.SfBatch cfg;
+  private final BlockingQueue<Submission> queue;
+  private final DistributionSummary batchSize;
+  private final Timer batchWait;
+  private final Timer batchFlush;
+  private final List<Thread> flushers = new ArrayList<>();
+
+  private volatile boolean running;
+
+  public SfSubmitBatcher(
+      SfReservations reservations,
+      SfPublisher publisher,
+      AppProperties props,
+      MeterRegistry meters) {
+    this.reservations = reservations;
+    this.publisher = publisher;
+    this.cfg = props.getSfBatch();
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, cfg.getQueueCapacity()));
+    this.batchSize =
+        DistributionSummary.builder("sf.batch.size")
+            .baseUnit("submissions")
+            .publishPercentileHistogram()
+            .maximumExpectedValue((double) Math.max(1, cfg.getMaxBatchSize()))
+            .register(meters);
+    this.batchWait = Timer.builder("sf.submit.batch.wait").register(meters);
+    this.batchFlush = Timer.builder("sf.batch.flush").register(meters);
+    Gauge.builder("sf.batch.queue.depth", queue, BlockingQueue::size).register(meters);
+  }
+
+  /**
+   * Reserves the submission as part of the next batch, publishes it if it is the first send, and
+   * returns whether it was.
+   *
+   * @param start {@link System#nanoTime()} at which the request was accepted
+   */
+  public boolean submit(
+      SfEvent event, String keyHash, String traceId, long acceptedAt, long start) {
+    var reserved = new CompletableFuture<Boolean>();
+    var s = new Submission(event, keyHash, traceId, acceptedAt, start, System.nanoTime(), reserved);
+    if (!running || !queue.offer(s)) flush(List.of(s));
+    // raced with stop(): the flushers may have drained and exited before our offer
+    else if (!running && queue.remove(s)) flush(List.of(s));
+    try {
+      return s.reserved().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    }
+  }
+
+  // -- flushers
+
+  private void run() {
+    var batch = new ArrayList<Submission>(cfg.getMaxBatchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        var first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        long closesAt = first.queuedAt() + TimeUnit.MICROSECONDS.toNanos(cfg.getWindowMicros());
+        while (batch.size() < cfg.getMaxBatchSize()) {
+          long wait = closesAt - System.nanoTime();
+          var next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) break;
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        // not interrupted by stop(); on JVM exit, flush what we hold
+      }
+      if (!batch.isEmpty()) flush(batch);
+      batch.clear();
+    }
+  }
+
+  /** Reserves, publishes the winners, then completes every caller. Never throws. */
+  void flush(List<Submission> batch) {
+    long flushStart = System.nanoTime();
+    for (var s : batch) batchWait.record(flushStart - s.queuedAt(), TimeUnit.NANOSECONDS);
+    batchSize.record(batch.size());
+
+    var keys = new String[batch.size()];
+    var emails = new String[batch.size()];
+    var jfr = new IdempotencyReserveEvent[batch.size()];
+    for (int i = 0; i < batch.size(); i++) {
+      keys[i] = batch.get(i).keyHash();
+      emails[i] = batch.get(i).event().email();
+      jfr[i] = IdempotencyReserveEvent.start(keys[i], batch.size());
+    }
+    HashSet<String> inserted;
+    Map<String, RuntimeException> failed = Map.of();
+    try {
+      inserted = new HashSet<>(reservations.reserveFirstSends(keys, emails));
+    } catch (PartialReservationException e) {
+      inserted = new HashSet<>(e.firstSends());
+      failed = e.failures();
+    } catch (RuntimeException e) {
+      for (var event : jfr) event.finish("error");
+      for (var s : batch) s.reserved().completeExceptionally(e);
+      batchFlush.record(System.nanoTime() - flushStart, TimeUnit.NANOSECONDS);
+      return;
+    }
+
+    // remove() hands each inserted key to the first submission carrying it
+    var first = new boolean[batch.size()];
+    for (int i = 0; i < batch.size(); i++) {
+      first[i] = inserted.remove(keys[i]);
+      jfr[i].finish(failed.containsKey(keys[i]) ? "error" : first[i] ? "first" : "duplicate");
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      if (!first[i]) continue;
+      var s = batch.get(i);
+      try {
+        publisher.publish(s.event(), s.traceId(), s.acceptedAt(), s.start());
+      } catch (RuntimeException e) {
+        // best-effort, as for a single submit: the reservation stands
+        log.warn("sf publish failed for {}", s.event().email(), e);
+      }
+    }
+    batchFlush.record(System.nanoTime() - flushStart, TimeUnit.NANOSECONDS);
+    for (int i = 0; i < batch.size(); i++) {
+      var failure = failed.get(batch.get(i).keyHash());
+      if (failure != null) batch.get(i).reserved().completeExceptionally(failure);
+      else batch.get(i).reserved().complete(first[i]);
+    }
+  }
+
+  // -- lifecycle
+
+  @Override
+  public synchronized void start() {
+    if (running) return;
+    running = true;
+    for (int i = 0; i < Math.max(1, cfg.getFlushers()); i++)
+      flushers.add(Thread.ofPlatform().name("sf-batch-" + i).daemon().start(this::run));
+  }
+
+  /** Stops accepting into the queue; flushers drain what is queued before exiting. */
+  @Override
+  public synchronized void stop() {
+    if (!running) return;
+    running = false;
+    for (var t : flushers) {
+      try {
+        t.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    flushers.clear();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
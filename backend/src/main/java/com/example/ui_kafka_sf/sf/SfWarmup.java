@@ -0,0 +1,30 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.common.startup.Warmup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the SF submit path that runs before the database: request body decoding and the SHA-256
+ * key derivation ({@link SfController#keyHash}). Nothing is reserved or published.
+ */
+@Component
+@RequiredArgsConstructor
+class SfWarmup implements Warmup {
+
+  private final ObjectMapper mapper;
+
+  @Override
+  public String name() {
+    return "sf";
+  }
+
+  @Override
+  public void warmUp(Budget budget) throws Exception {
+    for (int i = 0; budget.more(i); i++) {
+      var json = mapper.writeValueAsBytes(new SfEvent("Warm Up", "warmup" + i + "@local", "m" + i));
+      SfController.keyHash(mapper.readValue(json, SfEvent.class));
+    }
+  }
+}
@@ -0,0 +1,429 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.KafkaSfException;
+import com.example.ui_kafka_sf.common.jfr.IdempotencyReserveEvent;
+import com.example.ui_kafka_sf.common.shard.ConsistentHashRing;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * {@link SfReservations} spread over several Postgres instances ({@code app.sf-shards}).
+ *
+ * <p>How it works:
+ *
+ * <ul>
+ *   <li>Each key hash is routed by a {@link ConsistentHashRing} with {@code virtual-nodes} points
+ *       per shard; a batch is split by owner and the per-shard statements run in parallel. Every
+ *       shard has its own Hikari pool ({@code hikaricp.*{pool=sf-shard-<name>}}).
+ *   <li>A health check ({@code health-check-interval-ms}) marks shards up or down. Keys owned by a
+ *       down shard fail fast with 503 {@code db_unavailable}; they are never rerouted, since
+ *       another shard cannot know whether the key was reserved before.
+ *   <li>Shards of a batch succeed or fail on their own: if one fails, the keys won on the others
+ *       stand and {@link PartialReservationException} tells the caller which keys failed, so only
+ *       submissions routed to the failed shard get its error.
+ * </ul>
+ *
+ * <p>Online resharding: list the new owners in {@code ring} and the old ones in {@code
+ * previous-ring} on every instance. A key whose owner changed is inserted at its new owner and then
+ * at its previous owner, which decides: only a key new to both is a first send. The previous owner
+ * serializes against instances still running the old ring, and the copy at the new owner is already
+ * in place. {@link #startMigration()} copies the remaining moved keys in the background; once it is
+ * {@code done}, drop {@code previous-ring}.
+ */
+@Slf4j
+public class ShardedIdempotencyStore implements SfReservations, AutoCloseable {
+
+  static final String SCHEMA =
+      "create table if not exists sf_idempotency ("
+          + "key_hash varchar(128) primary key,"
+          + " email varchar(320) not null,"
+          + " created_at timestamp(6) with time zone not null)";
+
+  private static final String RESERVE =
+      "insert into sf_idempotency (key_hash, email, created_at)"
+          + " select k, e, now()"
+          + " from unnest(cast(? as varchar[]), cast(? as varchar[])) as t(k, e)"
+          + " on conflict (key_hash) do nothing"
+          + " returning key_hash";
+
+  private static final String COPY =
+      "insert into sf_idempotency (key_hash, email, created_at)"
+          + " select k, e, cast(c as timestamptz)"
+          + " from unnest(cast(? as varchar[]), cast(? as varchar[]), cast(? as varchar[]))"
+          + " as t(k, e, c)"
+          + " on conflict (key_hash) do nothing";
+
+  private static final String RELEASE =
+      "delete from sf_idempotency where key_hash = any(cast(? as varchar[]))";
+
+  private static final String SCAN =
+      "select key_hash, email, created_at from sf_idempotency"
+          + " where key_hash > ? order by key_hash limit ?";
+
+  /** One Postgres instance with its pool. */
+  static final class Shard {
+    final String name;
+    final HikariDataSource dataSource;
+    final Timer reserve;
+    final Counter migrated;
+    volatile boolean up;
+
+    Shard(String name, HikariDataSource dataSource, MeterRegistry meters) {
+      this.name = name;
+      this.dataSource = dataSource;
+      this.reserve = Timer.builder("sf.shard.reserve").tag("shard", name).register(meters);
+      this.migrated = Counter.builder("sf.shard.migrated").tag("shard", name).register(meters);
+      Gauge.builder("sf.shard.up", this, s -> s.up ? 1 : 0).tag("shard", name).register(meters);
+    }
+  }
+
+  public record Migration(String state, Map<String, Long> scanned, Map<String, Long> copied) {}
+
+  public record Status(
+      List<String> ring,
+      List<String> previousRing,
+      Map<String, Boolean> up,
+      Map<String, Double> shares,
+      Migration migration) {}
+
+  private final Map<String, Shard> shards = new LinkedHashMap<>();
+  private final ConsistentHashRing<Shard> ring;
+  private final ConsistentHashRing<Shard> previousRing;
+  private final int migrationBatchSize;
+  private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+
+  private volatile String migrationState = "idle";
+  private final Map<String, AtomicLong> scanned = new LinkedHashMap<>();
+  private final Map<String, AtomicLong> copied = new LinkedHashMap<>();
+
+  public ShardedIdempotencyStore(AppProperties.SfShards cfg, MeterRegistry meters) {
+    var ringNames = cfg.getRing().isEmpty() ? List.copyOf(cfg.getShards().keySet()) : cfg.getRing();
+    var used = new LinkedHashSet<>(ringNames);
+    used.addAll(cfg.getPreviousRing());
+    for (var name : used) {
+      var shard = cfg.getShards().get(name);
+      if (shard == null) throw new IllegalArgumentException("unknown sf shard: " + name);
+      shards.put(name, new Shard(name, dataSource(name, shard, meters), meters));
+      scanned.put(name, new AtomicLong());
+      copied.put(name, new AtomicLong());
+    }
+    this.ring = ring(ringNames, cfg.getVirtualNodes());
+    this.previousRing =
+        cfg.getPreviousRing().isEmpty() ? null : ring(cfg.getPreviousRing(), cfg.getVirtualNodes());
+    this.migrationBatchSize = Math.max(1, cfg.getMigrationBatchSize());
+    checkHealth();
+  }
+
+  @Override
+  public boolean tryReserveFirstSend(String email, String keyHash) {
+    var jfr = IdempotencyReserveEvent.start(keyHash);
+    String outcome = "error";
+    try {
+      boolean first = !reserveFirstSends(new String[] {keyHash}, new String[] {email}).isEmpty();
+      outcome = first ? "first" : "duplicate";
+      return first;
+    } finally {
+      jfr.finish(outcome);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Shards are independent: if some fail, the keys won on the others stay reserved and are
+   * reported with the failures in a {@link PartialReservationException}.
+   */
+  @Override
+  public List<String> reserveFirstSends(String[] keyHashes, String[] emails) {
+    var batches = new LinkedHashMap<Shard, Map<String, String>>();
+    for (int i = 0; i < keyHashes.length; i++)
+      batches
+          .computeIfAbsent(owner(ring, keyHashes[i]), s -> new LinkedHashMap<>())
+          .putIfAbsent(keyHashes[i], emails[i]);
+    if (batches.size() == 1) {
+      var only = batches.entrySet().iterator().next();
+      return reserveOn(only.getKey(), only.getValue());
+    }
+
+    var futures = new LinkedHashMap<Shard, Future<List<String>>>();
+    batches.forEach((shard, b) -> futures.put(shard, fanOut.submit(() -> reserveOn(shard, b))));
+    var won = new ArrayList<String>();
+    var failures = new LinkedHashMap<String, RuntimeException>();
+    for (var f : futures.entrySet()) {
+      RuntimeException failure;
+      try {
+        won.addAll(f.getValue().get());
+        continue;
+      } catch (ExecutionException e) {
+        failure = unchecked(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = new KafkaSfException(Errors.UNKNOWN, "interrupted");
+      }
+      for (var key : batches.get(f.getKey()).keySet()) failures.put(key, failure);
+    }
+    if (failures.isEmpty()) return won;
+    throw new PartialReservationException(won, failures);
+  }
+
+  /** Reserves {@code owner}'s keys; while resharding, moved keys also need their old owner. */
+  private List<String> reserveOn(Shard owner, Map<String, String> batch) {
+    var inserted = insert(owner, batch);
+    if (previousRing == null || inserted.isEmpty()) return inserted;
+
+    var won = new ArrayList<String>();
+    var moved = new LinkedHashMap<Shard, Map<String, String>>();
+    for (var key : inserted) {
+      var previous = owner(previousRing, key);
+      if (previous == owner) won.add(key);
+      else moved.computeIfAbsent(previous, s -> new LinkedHashMap<>()).put(key, batch.get(key));
+    }
+    var heldBefore = new HashSet<String>();
+    var confirmed = new LinkedHashMap<Shard, List<String>>();
+    try {
+      for (var m : moved.entrySet()) {
+        var firstAtPrevious = insert(m.getKey(), m.getValue());
+        confirmed.put(m.getKey(), firstAtPrevious);
+        won.addAll(firstAtPrevious);
+        heldBefore.addAll(m.getValue().keySet());
+        firstAtPrevious.forEach(heldBefore::remove);
+      }
+      return won;
+    } catch (RuntimeException e) {
+      // undo what this call created; keys the previous owner already held keep their new copy
+      confirmed.forEach(this::release);
+      var created = new ArrayList<>(inserted);
+      created.removeAll(heldBefore);
+      release(owner, created);
+      throw e;
+    }
+  }
+
+  // -- JDBC
+
+  private List<String> insert(Shard shard, Map<String, String> batch) {
+    requireUp(shard);
+    long start = System.nanoTime();
+    try (var c = shard.dataSource.getConnection();
+        var ps = c.prepareStatement(RESERVE)) {
+      ps.setArray(1, c.createArrayOf("varchar", batch.keySet().toArray()));
+      ps.setArray(2, c.createArrayOf("varchar", batch.values().toArray()));
+      var won = new ArrayList<String>(batch.size());
+      try (var rs = ps.executeQuery()) {
+        while (rs.next()) won.add(rs.getString(1));
+      }
+      return won;
+    } catch (SQLException e) {
+      throw failed(shard, e);
+    } finally {
+      shard.reserve.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void release(Shard shard, Collection<String> keys) {
+    if (keys.isEmpty()) return;
+    try (var c = shard.dataSource.getConnection();
+        var ps = c.prepareStatement(RELEASE)) {
+      ps.setArray(1, c.createArrayOf("varchar", keys.toArray()));
+      ps.executeUpdate();
+    } catch (SQLException e) {
+      log.error("could not release {} sf keys on shard {}", keys.size(), shard.name, e);
+    }
+  }
+
+  private static RuntimeException failed(Shard shard, SQLException e) {
+    if (e instanceof SQLTransientConnectionException)
+      return new KafkaSfException(Errors.DB_UNAVAILABLE, "sf shard " + shard.name + ": " + e);
+    return new KafkaSfException(Errors.UNKNOWN, "sf shard " + shard.name + ": " + e);
+  }
+
+  private static void requireUp(Shard shard) {
+    if (!shard.up)
+      throw new KafkaSfException(Errors.DB_UNAVAILABLE, "sf shard " + shard.name + " is down");
+  }
+
+  // -- health
+
+  /** Probes every shard; a shard coming up gets the table created if it is missing. */
+  @Scheduled(fixedDelayString = "${app.sf-shards.health-check-interval-ms:5000}")
+  public void checkHealth() {
+    for (var shard : shards.values()) {
+      boolean up;
+      try (var c = shard.dataSource.getConnection();
+          var st = c.createStatement()) {
+        if (!shard.up) st.execute(SCHEMA);
+        up = c.isValid(1);
+      } catch (SQLException e) {
+        up = false;
+      }
+      if (up != shard.up) log.warn("sf shard {} is {}", shard.name, up ? "up" : "down");
+      shard.up = up;
+    }
+  }
+
+  // -- resharding
+
+  /** Starts copying moved keys from their previous to their new owners, unless already running. */
+  public synchronized Migration startMigration() {
+    if (previousRing == null)
+      throw new IllegalArgumentException("no resharding in progress (app.sf-shards.previous-ring)");
+    if (!"running".equals(migrationState)) {
+      migrationState = "running";
+      scanned.values().forEach(v -> v.set(0));
+      copied.values().forEach(v -> v.set(0));
+      Thread.ofVirtual().name("sf-shard-migration").start(this::migrate);
+    }
+    return migration();
+  }
+
+  /** Scans every previous owner in key order and copies rows whose owner changed. */
+  private void migrate() {
+    try {
+      for (var source : previousRing.nodes()) {
+        String after = "";
+        while (true) {
+          var rows = scan(source, after);
+          if (rows.isEmpty()) break;
+          scanned.get(source.name).addAndGet(rows.size());
+          var byOwner = new LinkedHashMap<Shard, List<String[]>>();
+          for (var row : rows) {
+            var owner = owner(ring, row[0]);
+            if (owner != source) byOwner.computeIfAbsent(owner, s -> new ArrayList<>()).add(row);
+          }
+          byOwner.forEach(this::copy);
+          after = rows.get(rows.size() - 1)[0];
+        }
+      }
+      migrationState = "done";
+      log.info("sf shard migration done: copied {}", migration().copied());
+    } catch (RuntimeException e) {
+      migrationState = "failed";
+      log.error("sf shard migration failed; starting it again rescans from the beginning", e);
+    }
+  }
+
+  private List<String[]> scan(Shard shard, String after) {
+    requireUp(shard);
+    try (var c = shard.dataSource.getConnection();
+        var ps = c.prepareStatement(SCAN)) {
+      ps.setString(1, after);
+      ps.setInt(2, migrationBatchSize);
+      var rows = new ArrayList<String[]>();
+      try (var rs = ps.executeQuery()) {
+        while (rs.next())
+          rows.add(
+              new String[] {
+                rs.getString(1), rs.getString(2), rs.getTimestamp(3).toInstant().toString()
+              });
+      }
+      return rows;
+    } catch (SQLException e) {
+      throw failed(shard, e);
+    }
+  }
+
+  private void copy(Shard target, List<String[]> rows) {
+    requireUp(target);
+    try (var c = target.dataSource.getConnection();
+        var ps = c.prepareStatement(COPY)) {
+      for (int col = 0; col < 3; col++) {
+        var values = new Object[rows.size()];
+        for (int i = 0; i < rows.size(); i++) values[i] = rows.get(i)[col];
+        ps.setArray(col + 1, c.createArrayOf("varchar", values));
+      }
+      int n = ps.executeUpdate();
+      copied.get(target.name).addAndGet(n);
+      target.migrated.increment(n);
+    } catch (SQLException e) {
+      throw failed(target, e);
+    }
+  }
+
+  // -- status
+
+  public Status status() {
+    var up = new LinkedHashMap<String, Boolean>();
+    shards.values().forEach(s -> up.put(s.name, s.up));
+    var shares = new LinkedHashMap<String, Double>();
+    ring.shares().forEach((s, share) -> shares.put(s.name, share));
+    return new Status(
+        names(ring),
+        previousRing == null ? List.of() : names(previousRing),
+        up,
+        shares,
+        migration());
+  }
+
+  private Migration migration() {
+    var s = new HashMap<String, Long>();
+    var c = new HashMap<String, Long>();
+    scanned.forEach((k, v) -> s.put(k, v.get()));
+    copied.forEach((k, v) -> c.put(k, v.get()));
+    return new Migration(migrationState, s, c);
+  }
+
+  @Override
+  public void close() {
+    fanOut.close();
+    shards.values().forEach(s -> s.dataSource.close());
+  }
+
+  // -- helpers
+
+  private ConsistentHashRing<Shard> ring(List<String> names, int virtualNodes) {
+    return new ConsistentHashRing<>(
+        names.stream().map(shards::get).toList(), s -> s.name, virtualNodes);
+  }
+
+  private static Shard owner(ConsistentHashRing<Shard> ring, String keyHash) {
+    return ring.owner(ConsistentHashRing.hexPosition(keyHash));
+  }
+
+  private static List<String> names(ConsistentHashRing<Shard> ring) {
+    return ring.nodes().stream().map(s -> s.name).toList();
+  }
+
+  private static RuntimeException unchecked(Throwable t) {
+    return t instanceof RuntimeException r ? r : new KafkaSfException(Errors.UNKNOWN, t.toString());
+  }
+
+  private static HikariDataSource dataSource(
+      String name, AppProperties.Shard shard, MeterRegistry meters) {
+    var hikari = new HikariConfig();
+    hikari.setPoolName("sf-shard-" + name);
+    hikari.setJdbcUrl(shard.getUrl());
+    hikari.setUsername(shard.getUsername());
+    hikari.setPassword(shard.getPassword());
+    hikari.setMaximumPoolSize(shard.getPoolSize());
+    hikari.setConnectionTimeout(shard.getAcquireTimeoutMs());
+    // a shard that is down at startup must not keep the application from starting
+    hikari.setInitializationFailTimeout(-1);
+    hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters));
+    return new HikariDataSource(hikari);
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.ui_kafka_sf.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.ui_kafka_sf.auth.dto.TokenRevokedEvent;
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import com.example.ui_kafka_sf.common.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class TokenRevocationsTest {
+
+  private static final long SECOND = 1_000;
+  private static final long TTL = 120 * 60 * SECOND;
+
+  private final AtomicLong now = new AtomicLong(1_700_000_000_500L);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final TokenRevocations revocations =
+      new TokenRevocations(null, new AppProperties(), meters, now::get);
+
+  @Test
+  void watermark_revokes_tokens_issued_up_to_the_revocation() {
+    var before = new Date(now.get() - 10 * SECOND);
+    var sameMillisecond = new Date(now.get());
+
+    long watermark = revocations.revokeUser("alice");
+
+    assertThat(watermark).isEqualTo(1_700_000_000_501L);
+    assertThat(revocations.isRevoked("alice", "j1", before)).isTrue();
+    assertThat(revocations.isRevoked("alice", "j2", sameMillisecond)).isTrue();
+    // logging in again right away, still in the same second
+    assertThat(revocations.isRevoked("alice", "j3", new Date(now.get() + 1))).isFalse();
+    assertThat(revocations.isRevoked("alice", "j4", null)).isTrue();
+    assertThat(revocations.isRevoked("bob", "j5", before)).isFalse();
+    assertThat(meters.get("auth.revocation.rejected").counter().count()).isEqualTo(3);
+  }
+
+  @Test
+  void tokens_are_checked_to_the_millisecond() {
+    var props = new AppProperties();
+    props.getJwt().setSecret("0123456789_0123456789_0123456789_01");
+    var jwt = new JwtUtil(props);
+    long before = System.currentTimeMillis();
+    var claims = jwt.parse(jwt.issue("alice", "STUDENT").token());
+    long after = System.currentTimeMillis();
+    var issuedAt = JwtUtil.issuedAt(claims);
+
+    assertThat(issuedAt.getTime()).isBetween(before, after);
+    assertThat(claims.getIssuedAt().getTime()).isEqualTo(issuedAt.getTime() / SECOND * SECOND);
+  }
+
+  @Test
+  void denylist_revokes_single_tokens() {
+    var iat = new Date(now.get());
+    revocations.revokeToken("alice", "j1", new Date(now.get() + TTL));
+
+    assertThat(revocations.isRevoked("alice", "j1", iat)).isTrue();
+    assertThat(revocations.isRevoked("alice", "j2", iat)).isFalse();
+    assertThat(revocations.isRevoked("alice", null, iat)).isFalse();
+  }
+
+  @Test
+  void replayed_revocations_keep_the_latest_watermark_and_skip_expired_ones() {
+    long nowSec = now.get() / SECOND;
+    revocations.apply(new TokenRevokedEvent("alice", null, nowSec - 100, nowSec + 100));
+    revocations.apply(new TokenRevokedEvent("alice", null, nowSec - 200, nowSec + 50));
+    revocations.apply(new TokenRevokedEvent("bob", null, nowSec - 100, nowSec - 1));
+    revocations.apply(new TokenRevokedEvent("carol", "old", 0, nowSec));
+
+    assertThat(revocations.isRevoked("alice", null, new Date((nowSec - 150) * SECOND))).isTrue();
+    assertThat(revocations.isRevoked("alice", null, new Date((nowSec - 50) * SECOND))).isFalse();
+    assertThat(revocations.isRevoked("bob", null, new Date((nowSec - 150) * SECOND))).isFalse();
+    assertThat(revocations.isRevoked("carol", "old", new Date())).isFalse();
+
+    // millisecond watermarks win over the rounded-up second older readers use
+    long nowMs = now.get();
+    revocations.apply(new TokenRevokedEvent("dave", null, nowSec + 1, nowSec + 100, nowMs));
+    assertThat(revocations.isRevoked("dave", null, new Date(nowMs - 1))).isTrue();
+    assertThat(revocations.isRevoked("dave", null, new Date(nowMs))).isFalse();
+  }
+
+  @Test
+  void prune_drops_entries_once_every_covered_token_has_expired() {
+    revocations.revokeUser("alice");
+    revocations.revokeToken("bob", "j1", new Date(now.get() + 60 * SECOND));
+    assertThat(revocations.size()).isEqualTo(2);
+    assertThat(meters.get("auth.revocation.entries").tag("kind", "token").gauge().value())
+        .isEqualTo(1);
+
+    now.addAndGet(61 * SECOND);
+    revocations.prune();
+    assertThat(revocations.size()).isEqualTo(1);
+
+    // the last token issued before the watermark expires one TTL after it
+    now.addAndGet(TTL);
+    revocations.prune();
+    assertThat(revocations.size()).isZero();
+  }
+
+  @Test
+  void a_revocation_the_broker_did_not_ack_fails_the_request() throws Exception {
+    @SuppressWarnings("unchecked")
+    KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+    var props = new AppProperties();
+    props.getKafka().setTokenRevocationAckTimeoutMs(50);
+    var publishing = new TokenRevocations(kafka, props, meters, now::get);
+    var users = mock(UserCache.class);
+    when(users.findByUsername(anyString()))
+        .thenAnswer(inv -> Optional.of(new User(inv.getArgument(0), "hash", Role.STUDENT)));
+    var mvc =
+        MockMvcBuilders.standaloneSetup(
+                new AdminUserController(
+                    mock(UserRepository.class), users, mock(PasswordEncoder.class), publishing))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    when(kafka.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new TimeoutException("no leader")));
+    mvc.perform(post("/api/admin/users/alice/logout"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.error").value("kafka_unavailable"));
+
+    // never acked
+    when(kafka.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+    mvc.perform(post("/api/admin/users/bob/logout")).andExpect(status().isServiceUnavailable());
+
+    // this instance holds the revocation anyway, and a retry that is acked succeeds
+    assertThat(publishing.isRevoked("alice", "j1", new Date(now.get()))).isTrue();
+    when(kafka.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    mvc.perform(post("/api/admin/users/alice/logout")).andExpect(status().isOk());
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.ui_kafka_sf.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.dto.UserInvalidatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+class UserCacheTest {
+
+  private final UserRepository users = mock(UserRepository.class);
+
+  @SuppressWarnings("unchecked")
+  private final KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+
+  private final UserCache cache =
+      new UserCache(users, kafka, new AppProperties(), new SimpleMeterRegistry());
+
+  @Test
+  void unknown_usernames_are_cached_until_invalidated() {
+    when(users.findByUsername("erin")).thenReturn(Optional.empty());
+    assertThat(cache.findByUsername("erin")).isEmpty();
+    assertThat(cache.findByUsername("erin")).isEmpty();
+    verify(users, times(1)).findByUsername("erin");
+
+    // created elsewhere: the writer invalidates here and broadcasts to every other instance
+    when(users.findByUsername("erin"))
+        .thenReturn(Optional.of(new User("erin", "hash", Role.STUDENT)));
+    cache.invalidate("erin");
+
+    assertThat(cache.findByUsername("erin")).map(User::getRole).contains(Role.STUDENT);
+    verify(kafka).send(eq("users.invalidate"), eq("erin"), any(UserInvalidatedEvent.class));
+  }
+
+  @Test
+  void a_received_invalidation_evicts_locally_without_rebroadcasting() {
+    when(users.findByUsername("erin")).thenReturn(Optional.empty());
+    assertThat(cache.findByUsername("erin")).isEmpty();
+    when(users.findByUsername("erin"))
+        .thenReturn(Optional.of(new User("erin", "hash", Role.STUDENT)));
+
+    new UserInvalidationListener(cache)
+        .onInvalidated(new UserInvalidatedEvent("erin", System.currentTimeMillis()));
+
+    assertThat(cache.findByUsername("erin")).isPresent();
+    verify(kafka, never()).send(anyString(), anyString(), any());
+  }
+
+  @Test
+  void a_load_overtaken_by_an_invalidation_is_not_cached() {
+    // the row is read, then the password changes and the invalidation arrives
+    when(users.findByUsername("erin"))
+        .thenAnswer(
+            inv -> {
+              cache.evictLocal("erin");
+              return Optional.of(new User("erin", "old", Role.STUDENT));
+            })
+        .thenReturn(Optional.of(new User("erin", "new", Role.STUDENT)));
+
+    assertThat(cache.findByUsername("erin").orElseThrow().getPasswordHash()).isEqualTo("old");
+    assertThat(cache.findByUsername("erin").orElseThrow().getPasswordHash()).isEqualTo("new");
+    assertThat(cache.findByUsername("erin").orElseThrow().getPasswordHash()).isEqualTo("new");
+    verify(users, times(2)).findByUsername("erin");
+  }
+
+  @Test
+  void priming_overtaken_by_an_invalidation_caches_nothing() {
+    cache.prime(
+        () -> {
+          cache.evictLocal("erin");
+          return List.of(new User("erin", "old", Role.STUDENT));
+        });
+    when(users.findByUsername("erin"))
+        .thenReturn(Optional.of(new User("erin", "new", Role.STUDENT)));
+
+    assertThat(cache.findByUsername("erin").orElseThrow().getPasswordHash()).isEqualTo("new");
+  }
+
+  @Test
+  void entries_are_detached_copies() {
+    when(users.findByUsername("erin"))
+        .thenReturn(Optional.of(new User("erin", "hash", Role.STUDENT)));
+    cache.findByUsername("erin").orElseThrow().setPasswordHash("changed");
+    assertThat(cache.findByUsername("erin").orElseThrow().getPasswordHash()).isEqualTo("hash");
+  }
+}
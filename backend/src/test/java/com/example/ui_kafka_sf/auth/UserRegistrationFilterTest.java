@@ -0,0 +1,42 @@
+package com.example.ui_kafka_sf.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ui_kafka_sf.auth.dto.UserRegisteredEvent;
+import com.example.ui_kafka_sf.sf.SfEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+/** {@code filter} answers "discard": only registrations and poison records reach the listener. */
+class UserRegistrationFilterTest {
+
+  private final UserRegistrationFilter filter = new UserRegistrationFilter();
+
+  private static ConsumerRecord<Object, Object> record(Object value) {
+    return new ConsumerRecord<>("sf.events", 0, 0L, "k", value);
+  }
+
+  @Test
+  void registrations_pass() {
+    var evt = new UserRegisteredEvent("alice", Role.STUDENT, 1L);
+    assertThat(filter.filter(record(evt))).isFalse();
+  }
+
+  @Test
+  void sf_events_sharing_the_topic_are_skipped() {
+    assertThat(filter.filter(record(new SfEvent("Alice A", "alice@example.com", "hi")))).isTrue();
+  }
+
+  @Test
+  void tombstones_are_skipped() {
+    assertThat(filter.filter(record(null))).isTrue();
+  }
+
+  @Test
+  void values_that_failed_to_deserialize_pass_on_to_the_dlt() {
+    var poison = record(null);
+    poison.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[] {1});
+    assertThat(filter.filter(poison)).isFalse();
+  }
+}
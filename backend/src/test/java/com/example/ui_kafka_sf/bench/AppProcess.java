@@ -0,0 +1,99 @@
+package com.example.ui_kafka_sf.bench;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * The application launched in its own JVM, for benchmarks that need a genuinely cold start (the
+ * in-process {@link BenchSupport#start} reuses the test JVM's loaded classes and JIT state).
+ *
+ * <p>Output goes to {@code log}; the process is wired to the given containers and listens on a
+ * free port.
+ */
+final class AppProcess implements AutoCloseable {
+
+  private static final Pattern STARTED = Pattern.compile("process running for ([0-9.]+)");
+
+  private final Process process;
+  private final int port;
+  private final Path log;
+
+  private AppProcess(Process process, int port, Path log) {
+    this.process = process;
+    this.port = port;
+    this.log = log;
+  }
+
+  /** {@code command} is the JVM and its options up to and including {@code -jar <jar>}. */
+  static AppProcess start(
+      List<String> command, Path log, PostgreSQLContainer<?> postgres, KafkaContainer kafka)
+      throws IOException {
+    int port;
+    try (var s = new ServerSocket(0)) {
+      port = s.getLocalPort();
+    }
+    var args = new ArrayList<>(command);
+    args.add("--server.port=" + port);
+    args.add("--spring.datasource.url=" + postgres.getJdbcUrl());
+    args.add("--spring.datasource.username=" + postgres.getUsername());
+    args.add("--spring.datasource.password=" + postgres.getPassword());
+    args.add("--spring.kafka.bootstrap-servers=" + kafka.getBootstrapServers());
+    args.add("--app.jwt.secret=0123456789_0123456789_0123456789_01");
+    var process =
+        new ProcessBuilder(args).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    return new AppProcess(process, port, log);
+  }
+
+  String base() {
+    return "http://localhost:" + port;
+  }
+
+  Path log() {
+    return log;
+  }
+
+  boolean isAlive() {
+    return process.isAlive();
+  }
+
+  int waitFor() throws InterruptedException {
+    return process.waitFor();
+  }
+
+  /** Startup time Spring Boot reported ("process running for"), {@code NaN} if not logged. */
+  double startedSeconds() throws IOException {
+    var m = logMatch(STARTED);
+    return m == null ? Double.NaN : Double.parseDouble(m);
+  }
+
+  /**
+   * First group of {@code pattern} in the log, or {@code null}; waits briefly, since the line may
+   * still be in flight when the app already answers requests.
+   */
+  String logMatch(Pattern pattern) throws IOException {
+    for (int i = 0; i < 100; i++) {
+      var m = pattern.matcher(Files.readString(log));
+      if (m.find()) return m.group(1);
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    process.destroy();
+    process.waitFor();
+  }
+}
@@ -0,0 +1,245 @@
+package com.example.ui_kafka_sf.bench;
+
+import com.example.ui_kafka_sf.UiKafkaSfApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * Shared harness for the {@code @Tag("benchmark")} classes: boots the application against
+ * Testcontainers, seeds a user and courses, and drives endpoints with closed-loop virtual-thread
+ * clients.
+ *
+ * <p>Closed-loop clients under-report tail latency once the server saturates (coordinated
+ * omission); numbers are for comparing configurations against each other, not absolute SLOs (use
+ * {@code :load-test:loadTest} for those).
+ */
+final class BenchSupport {
+
+  static final int CLIENTS = Integer.getInteger("bench.clients", 400);
+  static final int SECONDS = Integer.getInteger("bench.seconds", 20);
+  static final int WARMUP_SECONDS = Integer.getInteger("bench.warmupSeconds", 5);
+
+  record Result(String mode, String endpoint, double rps, double p50Ms, double p99Ms, long errors) {
+    @Override
+    public String toString() {
+      return String.format(
+          "%-16s %-22s %10.0f req/s  p50 %7.2f ms  p99 %8.2f ms  errors %d",
+          mode, endpoint, rps, p50Ms, p99Ms, errors);
+    }
+  }
+
+  /** A running application with a logged-in instructor and 50 seeded courses. */
+  record App(ConfigurableApplicationContext context, String base, String token)
+      implements AutoCloseable {
+    @Override
+    public void close() {
+      context.close();
+    }
+  }
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final HttpClient HTTP =
+      HttpClient.newBuilder()
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+
+  private BenchSupport() {}
+
+  static App start(
+      String mode,
+      String[] profiles,
+      Map<String, String> properties,
+      PostgreSQLContainer<?> postgres,
+      KafkaContainer kafka)
+      throws Exception {
+    var props = new HashMap<String, Object>();
+    props.put("server.port", "0");
+    props.put("spring.datasource.url", postgres.getJdbcUrl());
+    props.put("spring.datasource.username", postgres.getUsername());
+    props.put("spring.datasource.password", postgres.getPassword());
+    props.put("spring.kafka.bootstrap-servers", kafka.getBootstrapServers());
+    props.put("app.jwt.secret", "0123456789_0123456789_0123456789_01");
+    props.putAll(properties);
+    var context =
+        new SpringApplicationBuilder(UiKafkaSfApplication.class)
+            .profiles(profiles)
+            .properties(props)
+            .run();
+    try {
+      var base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      var token = login(base, mode);
+      seedCourses(base, token, mode);
+      return new App(context, base, token);
+    } catch (Exception e) {
+      context.close();
+      throw e;
+    }
+  }
+
+  /** {@code POST /api/sf/submit} with a unique payload per request (reserve + publish path). */
+  static LongFunction<HttpRequest> submit(App app, String mode) {
+    return i ->
+        post(
+            app.base() + "/api/sf/submit",
+            app.token(),
+            Map.of("fullName", "Bench User", "email", mode + "-" + i + "@bench.io"));
+  }
+
+  static LongFunction<HttpRequest> listCourses(App app) {
+    return i ->
+        HttpRequest.newBuilder(URI.create(app.base() + "/api/course"))
+            .header("Authorization", "Bearer " + app.token())
+            .GET()
+            .build();
+  }
+
+  /** {@code GET} of an authenticated path, the same one every time. */
+  static LongFunction<HttpRequest> get(App app, String path) {
+    return i ->
+        HttpRequest.newBuilder(URI.create(app.base() + path))
+            .header("Authorization", "Bearer " + app.token())
+            .GET()
+            .build();
+  }
+
+  /** {@code POST /api/auth/login} as the seeded instructor of {@code mode}. */
+  static LongFunction<HttpRequest> login(App app, String mode) {
+    var body = Map.of("username", "bench-" + mode, "password", "bench_pwd");
+    return i -> post(app.base() + "/api/auth/login", null, body);
+  }
+
+  /** Ids of the courses seeded by {@link #start}. */
+  @SuppressWarnings("unchecked")
+  static List<String> courseIds(App app) throws Exception {
+    var resp = HTTP.send(listCourses(app).apply(0), HttpResponse.BodyHandlers.ofString());
+    return ((List<Map<String, Object>>) JSON.readValue(resp.body(), List.class))
+        .stream().map(c -> (String) c.get("id")).toList();
+  }
+
+  static Result drive(String mode, String endpoint, LongFunction<HttpRequest> requests)
+      throws InterruptedException {
+    var seq = new AtomicLong();
+    var errors = new AtomicLong();
+    long warmupEnd = System.nanoTime() + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+    long end = warmupEnd + Duration.ofSeconds(SECONDS).toNanos();
+    var perClient = new long[CLIENTS][];
+    var counts = new int[CLIENTS];
+
+    var threads = new ArrayList<Thread>(CLIENTS);
+    for (int c = 0; c < CLIENTS; c++) {
+      final int client = c;
+      threads.add(
+          Thread.ofVirtual()
+              .start(
+                  () -> {
+                    var lat = new long[1 << 14];
+                    int n = 0;
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                      try {
+                        var resp =
+                            HTTP.send(
+                                requests.apply(seq.incrementAndGet()),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (resp.statusCode() >= 400) errors.incrementAndGet();
+                      } catch (Exception e) {
+                        errors.incrementAndGet();
+                      }
+                      if (now >= warmupEnd) {
+                        if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                        lat[n++] = System.nanoTime() - now;
+                      }
+                    }
+                    perClient[client] = lat;
+                    counts[client] = n;
+                  }));
+    }
+    for (var t : threads) t.join();
+
+    int total = 0;
+    for (int n : counts) total += n;
+    var all = new long[total];
+    int pos = 0;
+    for (int c = 0; c < CLIENTS; c++) {
+      System.arraycopy(perClient[c], 0, all, pos, counts[c]);
+      pos += counts[c];
+    }
+    Arrays.sort(all);
+    return new Result(
+        mode,
+        endpoint,
+        total / (double) SECONDS,
+        percentileMs(all, 0.50),
+        percentileMs(all, 0.99),
+        errors.get());
+  }
+
+  /** Prints the results and writes them to {@code build/reports/<fileName>}. */
+  static void report(String fileName, List<Result> results) throws Exception {
+    var report = new StringBuilder();
+    report.append("clients=").append(CLIENTS).append(" seconds=").append(SECONDS).append('\n');
+    results.forEach(r -> report.append(r).append('\n'));
+    System.out.print(report);
+    var out = Path.of("build", "reports", fileName);
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  private static double percentileMs(long[] sorted, double q) {
+    if (sorted.length == 0) return Double.NaN;
+    return sorted[(int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1)] / 1e6;
+  }
+
+  private static String login(String base, String mode) throws Exception {
+    var user = Map.of("username", "bench-" + mode, "password", "bench_pwd", "role", "INSTRUCTOR");
+    HTTP.send(post(base + "/api/auth/register", null, user), HttpResponse.BodyHandlers.discarding());
+    var resp =
+        HTTP.send(
+            post(
+                base + "/api/auth/login",
+                null,
+                Map.of("username", user.get("username"), "password", "bench_pwd")),
+            HttpResponse.BodyHandlers.ofString());
+    return (String) JSON.readValue(resp.body(), Map.class).get("token");
+  }
+
+  private static void seedCourses(String base, String token, String mode) throws Exception {
+    for (int i = 0; i < 50; i++) {
+      var course =
+          Map.of("code", mode + "-" + i, "name", "Course " + i, "instructorId", "bench-" + mode);
+      HTTP.send(post(base + "/api/course", token, course), HttpResponse.BodyHandlers.discarding());
+    }
+  }
+
+  private static HttpRequest post(String url, String token, Object body) {
+    try {
+      var b =
+          HttpRequest.newBuilder(URI.create(url))
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)));
+      if (token != null) b.header("Authorization", "Bearer " + token);
+      return b.build();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
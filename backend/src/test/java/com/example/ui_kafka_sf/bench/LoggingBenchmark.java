@@ -0,0 +1,56 @@
+package com.example.ui_kafka_sf.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * Request latency with logging off versus on, under the same load:
+ *
+ * <ul>
+ *   <li>{@code off} — {@code logging.level.root=OFF}, the floor.
+ *   <li>{@code sync-debug} — the old setup: synchronous console pattern ({@code log-sync}) with
+ *       {@code org.springframework.security=DEBUG}.
+ *   <li>{@code async-debug} — the async JSON pipeline with security DEBUG, i.e. sampling at work.
+ *   <li>{@code async} — the default: async JSON pipeline, security at INFO.
+ * </ul>
+ *
+ * Writes {@code build/reports/logging-benchmark.txt}. Run with {@code ./gradlew
+ * :backend:loggingBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class LoggingBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  private static final String SECURITY = "logging.level.org.springframework.security";
+
+  @Test
+  void compare_logging_on_and_off() throws Exception {
+    List<BenchSupport.Result> results = new ArrayList<>();
+    results.addAll(runMode("off", new String[0], Map.of("logging.level.root", "OFF")));
+    results.addAll(runMode("sync-debug", new String[] {"log-sync"}, Map.of(SECURITY, "DEBUG")));
+    results.addAll(runMode("async-debug", new String[0], Map.of(SECURITY, "DEBUG")));
+    results.addAll(runMode("async", new String[0], Map.of()));
+    BenchSupport.report("logging-benchmark.txt", results);
+  }
+
+  private List<BenchSupport.Result> runMode(
+      String mode, String[] profiles, Map<String, String> properties) throws Exception {
+    try (var app = BenchSupport.start(mode, profiles, properties, postgres, kafka)) {
+      return List.of(
+          BenchSupport.drive(mode, "GET /api/course", BenchSupport.listCourses(app)),
+          BenchSupport.drive(mode, "POST /api/sf/submit", BenchSupport.submit(app, mode)));
+    }
+  }
+}
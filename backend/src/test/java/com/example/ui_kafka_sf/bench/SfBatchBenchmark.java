@@ -0,0 +1,91 @@
+package com.example.ui_kafka_sf.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * {@code POST /api/sf/submit} with and without {@code SfSubmitBatcher} ({@code
+ * app.sf-batch.enabled}).
+ *
+ * <p>Drives unique submits with {@code bench.clients} closed-loop clients (see {@link
+ * BenchSupport}) and reads Postgres' committed transactions ({@code pg_stat_database.xact_commit})
+ * before and after, so the report shows DB commits/sec next to throughput and p50/p99. p99 is
+ * checked against {@code bench.sfBatch.p99BudgetMs} (50). Written to {@code
+ * build/reports/sf-batch-benchmark.txt}.
+ *
+ * <p>Run with {@code ./gradlew :backend:sfBatchBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class SfBatchBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  private static final double P99_BUDGET_MS =
+      Double.parseDouble(System.getProperty("bench.sfBatch.p99BudgetMs", "50"));
+
+  @Test
+  void compare_single_and_batched_reservations() throws Exception {
+    var lines = new ArrayList<String>();
+    for (var batched : new boolean[] {false, true}) {
+      var mode = batched ? "batched" : "single";
+      var props = Map.of("app.sf-batch.enabled", String.valueOf(batched));
+      try (var app = BenchSupport.start(mode, new String[0], props, postgres, kafka)) {
+        long before = commits();
+        long t0 = System.nanoTime();
+        var r = BenchSupport.drive(mode, "POST /api/sf/submit", BenchSupport.submit(app, mode));
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        double commitsPerSecond = (commits() - before) / seconds;
+        lines.add(
+            String.format(
+                "%s  %8.0f commits/s  %5.1f submits/commit  p99 %s budget %.0f ms",
+                r,
+                commitsPerSecond,
+                r.rps() / commitsPerSecond,
+                r.p99Ms() <= P99_BUDGET_MS ? "within" : "OVER",
+                P99_BUDGET_MS));
+      }
+    }
+
+    var report = new StringBuilder();
+    report
+        .append("clients=")
+        .append(BenchSupport.CLIENTS)
+        .append(" seconds=")
+        .append(BenchSupport.SECONDS)
+        .append('\n');
+    lines.forEach(l -> report.append(l).append('\n'));
+    System.out.print(report);
+    var out = Path.of("build", "reports", "sf-batch-benchmark.txt");
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  /** Transactions committed in the benchmark database so far (all sessions). */
+  private static long commits() throws Exception {
+    try (var c =
+            DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        var st = c.createStatement()) {
+      // statistics are flushed by each backend at most once per second
+      Thread.sleep(1_500);
+      var rs =
+          st.executeQuery(
+              "select xact_commit from pg_stat_database where datname = current_database()");
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.ui_kafka_sf.bench;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.sf.ShardedIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * {@code ShardedIdempotencyStore} reservation throughput with 1, 2 and 4 shards (one Postgres
+ * container each), called directly so the numbers are the idempotency store's alone.
+ *
+ * <p>{@code bench.shards.clients} (64) closed-loop clients reserve unique random key hashes, either
+ * one per call (unbatched submits) or {@code bench.shards.batch} (16) per call (as {@code
+ * SfSubmitBatcher} does under load, fanned out over the owning shards). Reports keys/sec, p50 and
+ * p99 per call to {@code build/reports/shard-scaling-benchmark.txt}. The containers share the
+ * host's CPUs and disk, so the scaling shown is a lower bound for shards on separate hosts.
+ *
+ * <p>Run with {@code ./gradlew :backend:shardScalingBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class ShardScalingBenchmark {
+
+  @Container static PostgreSQLContainer<?> s0 = new PostgreSQLContainer<>("postgres:16-alpine");
+  @Container static PostgreSQLContainer<?> s1 = new PostgreSQLContainer<>("postgres:16-alpine");
+  @Container static PostgreSQLContainer<?> s2 = new PostgreSQLContainer<>("postgres:16-alpine");
+  @Container static PostgreSQLContainer<?> s3 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  private static final int CLIENTS = Integer.getInteger("bench.shards.clients", 64);
+  private static final int BATCH = Integer.getInteger("bench.shards.batch", 16);
+
+  @Test
+  void compare_shard_counts() throws Exception {
+    var all = List.of(s0, s1, s2, s3);
+    var lines = new ArrayList<String>();
+    for (int batch : new int[] {1, BATCH}) {
+      for (int shards : new int[] {1, 2, 4}) {
+        try (var store = store(all.subList(0, shards))) {
+          lines.add(String.format("shards=%d batch=%-3d %s", shards, batch, drive(store, batch)));
+        }
+      }
+    }
+
+    var report = new StringBuilder();
+    report
+        .append("clients=")
+        .append(CLIENTS)
+        .append(" seconds=")
+        .append(BenchSupport.SECONDS)
+        .append('\n');
+    lines.forEach(l -> report.append(l).append('\n'));
+    System.out.print(report);
+    var out = Path.of("build", "reports", "shard-scaling-benchmark.txt");
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  /** Closed loop as in {@link BenchSupport#drive}, calling the store instead of the API. */
+  private static String drive(ShardedIdempotencyStore store, int batch) throws Exception {
+    var errors = new AtomicLong();
+    long warmupEnd =
+        System.nanoTime() + Duration.ofSeconds(BenchSupport.WARMUP_SECONDS).toNanos();
+    long end = warmupEnd + Duration.ofSeconds(BenchSupport.SECONDS).toNanos();
+    var perClient = new long[CLIENTS][];
+    var counts = new int[CLIENTS];
+
+    var threads = new ArrayList<Thread>(CLIENTS);
+    for (int c = 0; c < CLIENTS; c++) {
+      final int client = c;
+      threads.add(
+          Thread.ofVirtual()
+              .start(
+                  () -> {
+                    var lat = new long[1 << 14];
+                    int n = 0;
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                      var keys = randomKeys(batch);
+                      try {
+                        store.reserveFirstSends(keys, keys);
+                      } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                      }
+                      if (now >= warmupEnd) {
+                        if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                        lat[n++] = System.nanoTime() - now;
+                      }
+                    }
+                    perClient[client] = lat;
+                    counts[client] = n;
+                  }));
+    }
+    for (var t : threads) t.join();
+
+    int total = 0;
+    for (int n : counts) total += n;
+    var latencies = new long[total];
+    int pos = 0;
+    for (int c = 0; c < CLIENTS; c++) {
+      System.arraycopy(perClient[c], 0, latencies, pos, counts[c]);
+      pos += counts[c];
+    }
+    Arrays.sort(latencies);
+    return String.format(
+        "%10.0f keys/s  p50 %7.2f ms  p99 %8.2f ms  errors %d",
+        (double) total * batch / BenchSupport.SECONDS,
+        percentileMs(latencies, 0.50),
+        percentileMs(latencies, 0.99),
+        errors.get());
+  }
+
+  private static ShardedIdempotencyStore store(List<PostgreSQLContainer<?>> containers) {
+    var cfg = new AppProperties.SfShards();
+    cfg.setEnabled(true);
+    for (int i = 0; i < containers.size(); i++) {
+      var pg = containers.get(i);
+      var shard = new AppProperties.Shard();
+      shard.setUrl(pg.getJdbcUrl());
+      shard.setUsername(pg.getUsername());
+      shard.setPassword(pg.getPassword());
+      shard.setPoolSize(16);
+      cfg.getShards().put("s" + i, shard);
+    }
+    return new ShardedIdempotencyStore(cfg, new SimpleMeterRegistry());
+  }
+
+  /** Random 64-hex-digit key hashes; also used as the emails, which only need to fit. */
+  private static String[] randomKeys(int n) {
+    var keys = new String[n];
+    var bytes = new byte[32];
+    for (int i = 0; i < n; i++) {
+      ThreadLocalRandom.current().nextBytes(bytes);
+      keys[i] = HexFormat.of().formatHex(bytes);
+    }
+    return keys;
+  }
+
+  private static double percentileMs(long[] sorted, double q) {
+    if (sorted.length == 0) return 0;
+    return sorted[(int) Math.max(0, Math.ceil(q * sorted.length) - 1)] / 1e6;
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.ui_kafka_sf.bench;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * Thundering herd on one hot key, with and without single-flight ({@code
+ * app.single-flight.enabled}).
+ *
+ * <p>All {@code bench.clients} closed-loop clients (see {@link BenchSupport}) hit the same course,
+ * the same instructor's course list and the same user's login, one endpoint at a time. The user
+ * cache and the Kafka-fed course view are off ({@code app.user-cache.enabled=false}, {@code
+ * app.kafka.enabled=false}) so every read reaches a repository. The report shows repository calls
+ * per second ({@code spring.data.repository.invocations}), repository calls per request and the
+ * single-flight coalescing ratio next to throughput and p50/p99; DB figures span the whole run,
+ * warm-up included. Written to {@code
+ * build/reports/single-flight-benchmark.txt}.
+ *
+ * <p>Run with {@code ./gradlew :backend:singleFlightBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class SingleFlightBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  record Endpoint(
+      String name,
+      String flight,
+      String repository,
+      String method,
+      LongFunction<HttpRequest> requests) {}
+
+  @Test
+  void compare_herd_with_and_without_single_flight() throws Exception {
+    var lines = new ArrayList<String>();
+    for (var coalesced : new boolean[] {false, true}) {
+      var mode = coalesced ? "single-flight" : "direct";
+      var props =
+          Map.of(
+              "app.single-flight.enabled", String.valueOf(coalesced),
+              "app.user-cache.enabled", "false",
+              "app.kafka.enabled", "false");
+      try (var app = BenchSupport.start(mode, new String[0], props, postgres, kafka)) {
+        var meters = app.context().getBean(MeterRegistry.class);
+        var hot = BenchSupport.courseIds(app).get(0);
+        var endpoints =
+            List.of(
+                new Endpoint(
+                    "GET /api/course/{id}",
+                    "course.byId",
+                    "CourseRepository",
+                    "findById",
+                    BenchSupport.get(app, "/api/course/" + hot)),
+                new Endpoint(
+                    "GET by_instructor",
+                    "course.byInstructor",
+                    "CourseRepository",
+                    "findByInstructorId",
+                    BenchSupport.get(app, "/api/course/by_instructor/bench-" + mode)),
+                // the username is the user's id
+                new Endpoint(
+                    "POST /api/auth/login",
+                    "user.byUsername",
+                    "UserRepository",
+                    "findById",
+                    BenchSupport.login(app, mode)));
+        for (var endpoint : endpoints) {
+          double before = invocations(meters, endpoint);
+          long t0 = System.nanoTime();
+          var r = BenchSupport.drive(mode, endpoint.name(), endpoint.requests());
+          double seconds = (System.nanoTime() - t0) / 1e9;
+          double calls = invocations(meters, endpoint) - before;
+          var ratio = meters.find("singleflight.coalescing.ratio").tag("flight", endpoint.flight());
+          lines.add(
+              String.format(
+                  "%s  %8.0f db calls/s  %6.3f db calls/req  coalesced %5.1f%%",
+                  r,
+                  calls / seconds,
+                  calls / seconds / r.rps(),
+                  ratio.gauge() == null ? 0 : 100 * ratio.gauge().value()));
+        }
+      }
+    }
+
+    var report = new StringBuilder();
+    report
+        .append("clients=")
+        .append(BenchSupport.CLIENTS)
+        .append(" seconds=")
+        .append(BenchSupport.SECONDS)
+        .append('\n');
+    lines.forEach(l -> report.append(l).append('\n'));
+    System.out.print(report);
+    var out = Path.of("build", "reports", "single-flight-benchmark.txt");
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  /** Repository calls of one query method so far, successful or not. */
+  private static double invocations(MeterRegistry meters, Endpoint endpoint) {
+    return meters
+        .find("spring.data.repository.invocations")
+        .tag("repository", endpoint.repository())
+        .tag("method", endpoint.method())
+        .timers()
+        .stream()
+        .mapToDouble(Timer::count)
+        .sum();
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.ui_kafka_sf.bench;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * Cold-start comparison of separately launched JVMs:
+ *
+ * <ul>
+ *   <li>{@code default} — {@code java -jar} on the boot jar, default profile.
+ *   <li>{@code fast-profile} — the extracted jar with the {@code fast-startup} profile only.
+ *   <li>{@code fast} — additionally an AppCDS archive (recorded here by a training run) and, when
+ *       built with {@code -PfastStartup}, the Spring AOT bean definitions.
+ * </ul>
+ *
+ * Each mode is launched {@code bench.startup.runs} times; the medians of the startup time Spring
+ * reports ("process running for"), the time from launch to the first successful {@code POST
+ * /api/auth/register}, and that request's own latency are printed and written to {@code
+ * build/reports/startup-benchmark.txt}.
+ *
+ * <p>Run with {@code ./gradlew :backend:startupBenchmark -PfastStartup}; excluded from {@code
+ * test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class StartupBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  private static final int RUNS = Integer.getInteger("bench.startup.runs", 5);
+  private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+  private static final HttpClient HTTP =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+  record Sample(double startedSeconds, double firstRequestMs, double firstRequestLatencyMs) {}
+
+  @Test
+  void compare_default_and_fast_startup() throws Exception {
+    var java = System.getProperty("bench.startup.java", "java");
+    var bootJar = System.getProperty("bench.startup.bootJar");
+    var extractedJar = System.getProperty("bench.startup.extractedJar");
+    var aot = Boolean.getBoolean("bench.startup.aot");
+    var work = Files.createTempDirectory("startup-bench");
+    var archive = work.resolve("application.jsa");
+
+    var fastFlags = new ArrayList<String>();
+    if (aot) fastFlags.add("-Dspring.aot.enabled=true");
+    fastFlags.add("-Dspring.profiles.active=fast-startup");
+
+    var training = new ArrayList<>(List.of(java, "-XX:ArchiveClassesAtExit=" + archive));
+    training.addAll(fastFlags);
+    training.add("-Dspring.context.exit=onRefresh");
+    training.addAll(List.of("-jar", extractedJar));
+    try (var trainer = AppProcess.start(training, work.resolve("training.log"), postgres, kafka)) {
+      if (trainer.waitFor() != 0 || !Files.exists(archive))
+        throw new IllegalStateException("CDS training run failed, see " + work);
+    }
+
+    var fast = new ArrayList<>(List.of(java, "-XX:SharedArchiveFile=" + archive));
+    fast.addAll(fastFlags);
+    fast.addAll(List.of("-jar", extractedJar));
+
+    var report = new StringBuilder();
+    report.append("runs=").append(RUNS).append(" aot=").append(aot).append('\n');
+    report.append(measure("default", List.of(java, "-jar", bootJar), work));
+    report.append(
+        measure(
+            "fast-profile",
+            List.of(java, "-Dspring.profiles.active=fast-startup", "-jar", extractedJar),
+            work));
+    report.append(measure("fast", fast, work));
+
+    System.out.print(report);
+    var out = Path.of("build", "reports", "startup-benchmark.txt");
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  private String measure(String mode, List<String> command, Path work) throws Exception {
+    var samples = new ArrayList<Sample>();
+    for (int run = 0; run < RUNS; run++)
+      samples.add(launchAndProbe(command, work.resolve(mode + "-" + run + ".log"), mode + run));
+    return String.format(
+        "%-14s started %6.2f s  first request after %7.0f ms  first request latency %6.1f ms%n",
+        mode,
+        median(samples.stream().mapToDouble(Sample::startedSeconds).toArray()),
+        median(samples.stream().mapToDouble(Sample::firstRequestMs).toArray()),
+        median(samples.stream().mapToDouble(Sample::firstRequestLatencyMs).toArray()));
+  }
+
+  /** Launches the app and polls {@code /api/auth/register} until it answers 2xx. */
+  private Sample launchAndProbe(List<String> command, Path log, String user) throws Exception {
+    long t0 = System.nanoTime();
+    try (var app = AppProcess.start(command, log, postgres, kafka)) {
+      var register =
+          HttpRequest.newBuilder(URI.create(app.base() + "/api/auth/register"))
+              .header("Content-Type", "application/json")
+              .POST(
+                  HttpRequest.BodyPublishers.ofString(
+                      "{\"username\":\"startup-"
+                          + user
+                          + "\",\"password\":\"startup_pwd\",\"role\":\"STUDENT\"}"))
+              .build();
+      long deadline = t0 + START_TIMEOUT.toNanos();
+      while (System.nanoTime() < deadline) {
+        if (!app.isAlive()) throw new IllegalStateException("app exited, see " + log);
+        long sent = System.nanoTime();
+        try {
+          var resp = HTTP.send(register, HttpResponse.BodyHandlers.discarding());
+          long done = System.nanoTime();
+          if (resp.statusCode() / 100 == 2)
+            return new Sample(app.startedSeconds(), (done - t0) / 1e6, (done - sent) / 1e6);
+        } catch (ConnectException notListeningYet) {
+          // keep polling
+        }
+        Thread.sleep(5);
+      }
+      throw new IllegalStateException("no successful request within " + START_TIMEOUT);
+    }
+  }
+
+  private static double median(double[] values) {
+    Arrays.sort(values);
+    return values[values.length / 2];
+  }
+}
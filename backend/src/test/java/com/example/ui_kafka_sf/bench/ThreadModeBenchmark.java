@@ -0,0 +1,48 @@
+package com.example.ui_kafka_sf.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * Load comparison of the default (platform threads) and {@code virtual-threads} profiles.
+ *
+ * <p>Boots the application twice against the same Postgres and Kafka containers and drives {@code
+ * POST /api/sf/submit} (unique payloads, i.e. the reserve + publish path) and {@code GET
+ * /api/course} with {@code bench.clients} concurrent closed-loop clients for {@code bench.seconds}
+ * after a warm-up. Throughput, p50 and p99 are printed and written to {@code
+ * build/reports/thread-mode-benchmark.txt}.
+ *
+ * <p>Run with {@code ./gradlew :backend:threadModeBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class ThreadModeBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  @Test
+  void compare_platform_and_virtual_threads() throws Exception {
+    List<BenchSupport.Result> results = new ArrayList<>();
+    results.addAll(runMode("platform", new String[0]));
+    results.addAll(runMode("virtual-threads", new String[] {"virtual-threads"}));
+    BenchSupport.report("thread-mode-benchmark.txt", results);
+  }
+
+  private List<BenchSupport.Result> runMode(String mode, String[] profiles) throws Exception {
+    try (var app = BenchSupport.start(mode, profiles, Map.of(), postgres, kafka)) {
+      return List.of(
+          BenchSupport.drive(mode, "POST /api/sf/submit", BenchSupport.submit(app, mode)),
+          BenchSupport.drive(mode, "GET /api/course", BenchSupport.listCourses(app)));
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.example.ui_kafka_sf.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * First-traffic latency with and without the pre-readiness warm-up ({@code app.warmup.enabled}).
+ *
+ * <p>Each run launches the boot jar in a fresh JVM, waits for {@code /actuator/health/readiness}
+ * to report UP (what a load balancer would do), logs in, then sends the first {@code
+ * bench.warmup.requests} (1000) requests — alternating {@code GET /api/course} and unique {@code
+ * POST /api/sf/submit} — from {@code bench.warmup.clients} (8) concurrent clients. Medians over
+ * {@code bench.warmup.runs} (3) of time to ready, warm-up duration and p50/p99/max are printed and
+ * written to {@code build/reports/warmup-benchmark.txt}.
+ *
+ * <p>Run with {@code ./gradlew :backend:warmupBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class WarmupBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  private static final int RUNS = Integer.getInteger("bench.warmup.runs", 3);
+  private static final int REQUESTS = Integer.getInteger("bench.warmup.requests", 1000);
+  private static final int CLIENTS = Integer.getInteger("bench.warmup.clients", 8);
+  private static final Duration READY_TIMEOUT = Duration.ofSeconds(120);
+  private static final Pattern WARMUP = Pattern.compile("warm-up finished in ([0-9]+) ms");
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final HttpClient HTTP =
+      HttpClient.newBuilder()
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .connectTimeout(Duration.ofSeconds(1))
+          .build();
+
+  record Sample(double readyMs, double warmupMs, double p50Ms, double p99Ms, double maxMs) {}
+
+  @Test
+  void compare_with_and_without_warmup() throws Exception {
+    var java = System.getProperty("bench.startup.java", "java");
+    var bootJar = System.getProperty("bench.startup.bootJar");
+    var work = Files.createTempDirectory("warmup-bench");
+
+    var report = new StringBuilder();
+    report
+        .append("runs=")
+        .append(RUNS)
+        .append(" requests=")
+        .append(REQUESTS)
+        .append(" clients=")
+        .append(CLIENTS)
+        .append('\n');
+    for (var warmup : List.of(false, true)) {
+      var mode = warmup ? "warmup" : "no-warmup";
+      var command = List.of(java, "-jar", bootJar, "--app.warmup.enabled=" + warmup);
+      var samples = new ArrayList<Sample>();
+      for (int run = 0; run < RUNS; run++)
+        samples.add(firstTraffic(command, work.resolve(mode + "-" + run + ".log"), mode + run));
+      report.append(
+          String.format(
+              "%-10s ready after %6.0f ms  warm-up %5.0f ms  first %d: p50 %6.2f ms"
+                  + "  p99 %7.2f ms  max %7.2f ms%n",
+              mode,
+              median(samples, Sample::readyMs),
+              median(samples, Sample::warmupMs),
+              REQUESTS,
+              median(samples, Sample::p50Ms),
+              median(samples, Sample::p99Ms),
+              median(samples, Sample::maxMs)));
+    }
+
+    System.out.print(report);
+    var out = Path.of("build", "reports", "warmup-benchmark.txt");
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  private Sample firstTraffic(List<String> command, Path log, String user) throws Exception {
+    long t0 = System.nanoTime();
+    try (var app = AppProcess.start(command, log, postgres, kafka)) {
+      awaitReady(app, t0);
+      double readyMs = (System.nanoTime() - t0) / 1e6;
+      var warmup = app.logMatch(WARMUP);
+      var token = login(app.base(), "warmup-" + user);
+
+      var latencies = new long[REQUESTS];
+      var next = new AtomicInteger();
+      var clients = new ArrayList<Thread>(CLIENTS);
+      for (int c = 0; c < CLIENTS; c++)
+        clients.add(
+            Thread.ofVirtual()
+                .start(
+                    () -> {
+                      int i;
+                      while ((i = next.getAndIncrement()) < REQUESTS) {
+                        var request =
+                            i % 2 == 0
+                                ? get(app.base() + "/api/course", token)
+                                : post(
+                                    app.base() + "/api/sf/submit",
+                                    token,
+                                    Map.of(
+                                        "fullName", "Warm Up",
+                                        "email", user + "-" + i + "@bench.io"));
+                        long sent = System.nanoTime();
+                        try {
+                          HTTP.send(request, HttpResponse.BodyHandlers.discarding());
+                        } catch (Exception e) {
+                          // counted as its latency until failure
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                      }
+                    }));
+      for (var t : clients) t.join();
+
+      Arrays.sort(latencies);
+      return new Sample(
+          readyMs,
+          warmup == null ? 0 : Double.parseDouble(warmup),
+          percentileMs(latencies, 0.50),
+          percentileMs(latencies, 0.99),
+          latencies[latencies.length - 1] / 1e6);
+    }
+  }
+
+  private static void awaitReady(AppProcess app, long t0) throws Exception {
+    var readiness = HttpRequest.newBuilder(URI.create(app.base() + "/actuator/health/readiness"));
+    while (System.nanoTime() - t0 < READY_TIMEOUT.toNanos()) {
+      if (!app.isAlive()) throw new IllegalStateException("app exited, see " + app.log());
+      try {
+        var resp = HTTP.send(readiness.build(), HttpResponse.BodyHandlers.discarding());
+        if (resp.statusCode() == 200) return;
+      } catch (ConnectException notListeningYet) {
+        // keep polling
+      }
+      Thread.sleep(5);
+    }
+    throw new IllegalStateException("not ready within " + READY_TIMEOUT);
+  }
+
+  private static String login(String base, String username) throws Exception {
+    var user = Map.of("username", username, "password", "bench_pwd", "role", "INSTRUCTOR");
+    HTTP.send(post(base + "/api/auth/register", null, user), HttpResponse.BodyHandlers.discarding());
+    var resp =
+        HTTP.send(
+            post(
+                base + "/api/auth/login",
+                null,
+                Map.of("username", username, "password", "bench_pwd")),
+            HttpResponse.BodyHandlers.ofString());
+    return (String) JSON.readValue(resp.body(), Map.class).get("token");
+  }
+
+  private static HttpRequest get(String url, String token) {
+    return HttpRequest.newBuilder(URI.create(url))
+        .header("Authorization", "Bearer " + token)
+        .GET()
+        .build();
+  }
+
+  private static HttpRequest post(String url, String token, Object body) {
+    try {
+      var b =
+          HttpRequest.newBuilder(URI.create(url))
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)));
+      if (token != null) b.header("Authorization", "Bearer " + token);
+      return b.build();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static double percentileMs(long[] sorted, double q) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1)] / 1e6;
+  }
+
+  private static double median(List<Sample> samples, ToDoubleFunction<Sample> f) {
+    var values = samples.stream().mapToDouble(f).sorted().toArray();
+    return values[values.length / 2];
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.ui_kafka_sf.common.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlNormalizerTest {
+
+  @Test
+  void literals_and_in_lists_collapse_to_one_shape() {
+    var a =
+        SqlNormalizer.normalizeUncached(
+            "update course set state='EXPIRED'\n  where id in (?, ?, ?) and version = 3");
+    var b =
+        SqlNormalizer.normalizeUncached(
+            "update course set state='OPEN' where id in (?,?) and version = 17");
+
+    assertThat(a).isEqualTo("update course set state=? where id in (?) and version = ?");
+    assertThat(b).isEqualTo(a);
+  }
+
+  @Test
+  void identifiers_with_digits_are_kept() {
+    assertThat(SqlNormalizer.normalizeUncached("select c1_0.id from course c1_0 where c1_0.id=?"))
+        .isEqualTo("select c1_0.id from course c1_0 where c1_0.id=?");
+  }
+
+  @Test
+  void operation_is_low_cardinality() {
+    assertThat(SqlNormalizer.operation("SELECT 1")).isEqualTo("select");
+    assertThat(SqlNormalizer.operation("insert into t values (?)")).isEqualTo("insert");
+    assertThat(SqlNormalizer.operation("set time zone ?")).isEqualTo("other");
+  }
+}
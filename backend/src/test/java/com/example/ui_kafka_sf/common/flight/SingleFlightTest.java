@@ -0,0 +1,154 @@
+package com.example.ui_kafka_sf.common.flight;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private static final int CALLERS = 200;
+
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+  @Test
+  void concurrent_virtual_thread_callers_share_one_load() throws Exception {
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      herd(pool);
+    }
+  }
+
+  @Test
+  void concurrent_platform_thread_callers_share_one_load() throws Exception {
+    try (var pool = Executors.newFixedThreadPool(CALLERS)) {
+      herd(pool);
+    }
+  }
+
+  @Test
+  void the_leaders_exception_reaches_every_caller() throws Exception {
+    var flight = new SingleFlight<String, String>("test", true, meters);
+    var release = new CountDownLatch(1);
+    var loads = new AtomicInteger();
+    Supplier<String> failing =
+        () -> {
+          loads.incrementAndGet();
+          await(release);
+          throw new IllegalStateException("db down");
+        };
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      var calls = new ArrayList<Future<String>>();
+      for (int i = 0; i < 20; i++) calls.add(pool.submit(() -> flight.get("k", failing)));
+      awaitFollowers(19);
+      release.countDown();
+      for (var call : calls)
+        assertThatThrownBy(call::get).hasCauseInstanceOf(IllegalStateException.class);
+    }
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void nothing_is_cached_after_a_load_completes() {
+    var flight = new SingleFlight<String, Integer>("test", true, meters);
+    var loads = new AtomicInteger();
+    assertThat(flight.get("k", loads::incrementAndGet)).isEqualTo(1);
+    assertThat(flight.get("k", loads::incrementAndGet)).isEqualTo(2);
+    assertThat(meters.get("singleflight.inflight").gauge().value()).isZero();
+  }
+
+  @Test
+  void calls_after_forget_do_not_join_the_earlier_load() throws Exception {
+    var flight = new SingleFlight<String, String>("test", true, meters);
+    var readOld = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      var before =
+          pool.submit(
+              () ->
+                  flight.get(
+                      "k",
+                      () -> {
+                        readOld.countDown();
+                        await(release);
+                        return "v1";
+                      }));
+      readOld.await();
+      var joined = pool.submit(() -> flight.get("k", () -> "unused"));
+      awaitFollowers(1);
+
+      // the write of v2 commits while the v1 load is still running
+      flight.forget("k");
+      assertThat(flight.get("k", () -> "v2")).isEqualTo("v2");
+
+      release.countDown();
+      assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+      assertThat(joined.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+    }
+    assertThat(meters.get("singleflight.inflight").gauge().value()).isZero();
+  }
+
+  @Test
+  void disabled_runs_every_load() throws Exception {
+    var flight = new SingleFlight<String, Integer>("test", false, meters);
+    var loads = new AtomicInteger();
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 50; i++) pool.submit(() -> flight.get("k", loads::incrementAndGet));
+    }
+    assertThat(loads).hasValue(50);
+    assertThat(flight.coalescingRatio()).isZero();
+  }
+
+  /** CALLERS callers for one key while the leader's load is held: one load, one shared result. */
+  private void herd(ExecutorService pool) throws Exception {
+    var flight = new SingleFlight<String, List<String>>("test", true, meters);
+    var release = new CountDownLatch(1);
+    var loads = new AtomicInteger();
+    Supplier<List<String>> loader =
+        () -> {
+          loads.incrementAndGet();
+          await(release);
+          return List.of("course-1");
+        };
+
+    var calls = new ArrayList<Future<SingleFlight.Result<List<String>>>>();
+    for (int i = 0; i < CALLERS; i++) calls.add(pool.submit(() -> flight.call("hot", loader)));
+    awaitFollowers(CALLERS - 1);
+    release.countDown();
+
+    var first = calls.get(0).get(5, TimeUnit.SECONDS).value();
+    int joined = 0;
+    for (var call : calls) {
+      var result = call.get(5, TimeUnit.SECONDS);
+      assertThat(result.value()).isSameAs(first);
+      if (result.joined()) joined++;
+    }
+    assertThat(joined).isEqualTo(CALLERS - 1);
+    assertThat(loads).hasValue(1);
+    assertThat(flight.coalescingRatio()).isEqualTo((CALLERS - 1) / (double) CALLERS);
+  }
+
+  private void awaitFollowers(int n) throws InterruptedException {
+    var followers = meters.get("singleflight.calls").tag("role", "follower").counter();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (followers.count() < n && System.nanoTime() < deadline) Thread.sleep(5);
+    assertThat(followers.count()).isEqualTo(n);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
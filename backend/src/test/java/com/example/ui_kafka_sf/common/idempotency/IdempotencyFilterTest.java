@@ -0,0 +1,261 @@
+package com.example.ui_kafka_sf.common.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class IdempotencyFilterTest {
+
+  /** In-memory {@link IdempotentResponses}, shared by filters standing for separate instances. */
+  static class MemoryStore implements IdempotentResponses {
+    final Map<String, IdempotentResponse> rows = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized boolean reserve(
+        String id, String method, String path, String requestHash, long leaseMs, long ttlSeconds) {
+      if (rows.containsKey(id)) return false;
+      var expiresAt = Instant.now().plusSeconds(ttlSeconds);
+      rows.put(
+          id, new IdempotentResponse(method, path, requestHash, 0, "", new byte[0], expiresAt));
+      return true;
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String id) {
+      return Optional.ofNullable(rows.get(id));
+    }
+
+    @Override
+    public void complete(String id, int status, String headers, byte[] body, long ttlSeconds) {
+      rows.computeIfPresent(
+          id,
+          (k, r) ->
+              new IdempotentResponse(
+                  r.method(), r.path(), r.requestHash(), status, headers, body, r.expiresAt()));
+    }
+
+    @Override
+    public void release(String id) {
+      rows.computeIfPresent(id, (k, r) -> r.completed() ? r : null);
+    }
+
+    @Override
+    public int purgeExpired(int limit) {
+      return 0;
+    }
+  }
+
+  private static final String EMPTY_BODY_HASH =
+      "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+  private final MemoryStore store = new MemoryStore();
+  private final AtomicInteger runs = new AtomicInteger();
+  private final AppProperties props = new AppProperties();
+
+  private IdempotencyFilter newFilter() {
+    return new IdempotencyFilter(store, props, new SimpleMeterRegistry());
+  }
+
+  /** Counts runs and answers 201 with a body that differs on every run. */
+  private FilterChain endpoint(int status, long sleepMs) {
+    return (req, res) -> {
+      int run = runs.incrementAndGet();
+      sleep(sleepMs);
+      var http = (HttpServletResponse) res;
+      http.setStatus(status);
+      http.setHeader("Location", "/api/course/" + run);
+      http.setContentType("application/json");
+      http.getOutputStream().write(("{\"run\":" + run + "}").getBytes(StandardCharsets.UTF_8));
+    };
+  }
+
+  private static MockHttpServletResponse call(
+      IdempotencyFilter filter, FilterChain chain, String path, String key) throws Exception {
+    return call(filter, chain, path, key, "");
+  }
+
+  private static MockHttpServletResponse call(
+      IdempotencyFilter filter, FilterChain chain, String path, String key, String body)
+      throws Exception {
+    var request = new MockHttpServletRequest("POST", path);
+    if (key != null) request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    var response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  @Test
+  void a_retry_gets_the_stored_response_without_running_again() throws Exception {
+    var filter = newFilter();
+    var chain = endpoint(201, 0);
+    var first = call(filter, chain, "/api/course", "k1");
+    var local = call(filter, chain, "/api/course", "k1");
+    // another instance: not in its near cache, read from the store
+    var remote = call(newFilter(), chain, "/api/course", "k1");
+
+    assertThat(runs).hasValue(1);
+    assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    for (var replay : new MockHttpServletResponse[] {local, remote}) {
+      assertThat(replay.getStatus()).isEqualTo(201);
+      assertThat(replay.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+      assertThat(replay.getHeader("Location")).isEqualTo("/api/course/1");
+      assertThat(replay.getContentType()).isEqualTo("application/json");
+      assertThat(replay.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+  }
+
+  @Test
+  void concurrent_duplicates_wait_for_the_first_request() throws Exception {
+    var filter = newFilter();
+    var chain = endpoint(201, 200);
+    var responses = new ArrayList<Future<MockHttpServletResponse>>();
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 50; i++)
+        responses.add(pool.submit(() -> call(filter, chain, "/api/sf/submit", "dup")));
+    }
+    assertThat(runs).hasValue(1);
+    for (var r : responses) {
+      assertThat(r.get().getStatus()).isEqualTo(201);
+      assertThat(r.get().getContentAsString()).isEqualTo("{\"run\":1}");
+    }
+  }
+
+  @Test
+  void requests_without_a_key_are_not_deduplicated() throws Exception {
+    var filter = newFilter();
+    var chain = endpoint(201, 0);
+    call(filter, chain, "/api/course", null);
+    call(filter, chain, "/api/course", null);
+    assertThat(runs).hasValue(2);
+    assertThat(store.rows).isEmpty();
+  }
+
+  @Test
+  void server_errors_are_not_stored_so_a_retry_runs_again() throws Exception {
+    var filter = newFilter();
+    call(filter, endpoint(503, 0), "/api/course", "k2");
+    var retry = call(filter, endpoint(201, 0), "/api/course", "k2");
+    assertThat(runs).hasValue(2);
+    assertThat(retry.getStatus()).isEqualTo(201);
+    assertThat(retry.getContentAsString()).isEqualTo("{\"run\":2}");
+  }
+
+  @Test
+  void a_key_reused_on_another_endpoint_is_rejected() throws Exception {
+    var filter = newFilter();
+    var chain = endpoint(201, 0);
+    call(filter, chain, "/api/course", "k3");
+    var reused = call(filter, chain, "/api/sf/submit", "k3");
+    assertThat(reused.getStatus()).isEqualTo(422);
+    assertThat(reused.getContentAsString()).contains("idempotency_key_reused");
+    assertThat(runs).hasValue(1);
+  }
+
+  @Test
+  void a_key_reused_with_another_body_is_rejected() throws Exception {
+    var filter = newFilter();
+    // the chain still reads the body the filter hashed
+    FilterChain chain =
+        (req, res) -> {
+          runs.incrementAndGet();
+          ((HttpServletResponse) res).setStatus(201);
+          res.getOutputStream().write(req.getInputStream().readAllBytes());
+        };
+    var alice = call(filter, chain, "/api/auth/register", "k5", "{\"username\":\"alice\"}");
+    var retry = call(newFilter(), chain, "/api/auth/register", "k5", "{\"username\":\"alice\"}");
+    // another anonymous client that picked the same key
+    var bob = call(newFilter(), chain, "/api/auth/register", "k5", "{\"username\":\"bob\"}");
+
+    assertThat(alice.getContentAsString()).isEqualTo("{\"username\":\"alice\"}");
+    assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    assertThat(bob.getStatus()).isEqualTo(422);
+    assertThat(bob.getContentAsString()).contains("idempotency_key_reused");
+    assertThat(runs).hasValue(1);
+  }
+
+  @Test
+  void a_body_over_the_limit_is_refused_and_one_under_it_can_be_read_asynchronously()
+      throws Exception {
+    props.getIdempotency().setMaxRequestBytes(16);
+    var read = new ByteArrayOutputStream();
+    FilterChain chain =
+        (req, res) -> {
+          runs.incrementAndGet();
+          var in = req.getInputStream();
+          in.setReadListener(
+              new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                  while (in.isReady() && !in.isFinished()) read.write(in.read());
+                }
+
+                @Override
+                public void onAllDataRead() {
+                  ((HttpServletResponse) res).setStatus(201);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                  ((HttpServletResponse) res).setStatus(500);
+                }
+              });
+        };
+
+    var tooLarge = call(newFilter(), chain, "/api/course", "k7", "x".repeat(17));
+    assertThat(tooLarge.getStatus()).isEqualTo(413);
+    assertThat(tooLarge.getContentAsString()).contains("payload_too_large");
+    assertThat(runs).hasValue(0);
+
+    assertThat(call(newFilter(), chain, "/api/course", "k8", "x".repeat(16)).getStatus())
+        .isEqualTo(201);
+    assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("x".repeat(16));
+  }
+
+  @Test
+  void malformed_keys_are_rejected() throws Exception {
+    var filter = newFilter();
+    var chain = endpoint(201, 0);
+    assertThat(call(filter, chain, "/api/course", "has space").getStatus()).isEqualTo(400);
+    assertThat(call(filter, chain, "/api/course", "").getStatus()).isEqualTo(400);
+    assertThat(call(filter, chain, "/api/course", "x".repeat(256)).getStatus()).isEqualTo(400);
+    assertThat(runs).hasValue(0);
+  }
+
+  @Test
+  void a_key_in_flight_elsewhere_answers_409_after_the_wait_timeout() throws Exception {
+    props.getIdempotency().setWaitTimeoutMs(150);
+    // reserved by another instance that has not finished
+    store.reserve(" k4", "POST", "/api/course", EMPTY_BODY_HASH, 30_000, 60);
+    var response = call(newFilter(), endpoint(201, 0), "/api/course", "k4");
+    assertThat(response.getStatus()).isEqualTo(409);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(runs).hasValue(0);
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.ui_kafka_sf.common.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.sf.SfEvent;
+import com.example.ui_kafka_sf.sf.SfReservations;
+import com.example.ui_kafka_sf.sf.SfSubmitBatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Starts the continuous recording, drives each instrumented path, cuts a dump the way {@code
+ * /actuator/jfr} does and parses it back.
+ */
+class JfrDumpTest {
+
+  @Test
+  void dump_contains_domain_events() throws Exception {
+    var props = new AppProperties();
+    props.getJfr().setMaxAgeMinutes(5);
+    props.getJfr().setMaxSizeMb(16);
+    var recording = new ContinuousRecording(props);
+    recording.start();
+    try {
+      var encoder = new JfrPasswordEncoder(new BCryptPasswordEncoder(4));
+      assertThat(encoder.matches("pwd", encoder.encode("pwd"))).isTrue();
+
+      var kafka =
+          new JfrKafkaTemplate<String, String>(
+              new MockProducerFactory<>(
+                  () -> new MockProducer<>(true, new StringSerializer(), new StringSerializer())));
+      kafka.send("sf.events", "a@b.c", "{}").get();
+
+      // an already sent key: nothing to publish. Not started, the batcher reserves inline.
+      var reservations = mock(SfReservations.class);
+      when(reservations.reserveFirstSends(any(), any())).thenReturn(List.of());
+      var batcher = new SfSubmitBatcher(reservations, null, props, new SimpleMeterRegistry());
+      assertThat(batcher.submit(new SfEvent("Ann", "a@b.c", null), "hash", "t", 0, 0)).isFalse();
+
+      JwtVerifyEvent.start().finish("alice", "authenticated");
+      CourseQueryEvent.start("byInstructor", "i1").finish("view", 3);
+
+      var dump = JfrDumpEndpoint.dumpTo(Duration.ofMinutes(1));
+      assertThat(dump).isNotNull();
+      try {
+        var events = RecordingFile.readAllEvents(dump);
+        var names =
+            events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet());
+        assertThat(names)
+            .contains(
+                "ui_kafka_sf.IdempotencyReserve",
+                "ui_kafka_sf.KafkaPublish",
+                "ui_kafka_sf.JwtVerify",
+                "ui_kafka_sf.PasswordHash",
+                "ui_kafka_sf.CourseQuery");
+
+        var reserve = first(events, "ui_kafka_sf.IdempotencyReserve");
+        assertThat(reserve.getString("keyHash")).isEqualTo("hash");
+        assertThat(reserve.getString("outcome")).isEqualTo("duplicate");
+        assertThat(reserve.getInt("batchSize")).isEqualTo(1);
+        var publish = first(events, "ui_kafka_sf.KafkaPublish");
+        assertThat(publish.getString("topic")).isEqualTo("sf.events");
+        assertThat(publish.getBoolean("success")).isTrue();
+        assertThat(
+                events.stream()
+                    .filter(e -> e.getEventType().getName().equals("ui_kafka_sf.PasswordHash"))
+                    .map(e -> e.getString("operation")))
+            .contains("encode", "matches");
+      } finally {
+        Files.deleteIfExists(dump);
+      }
+    } finally {
+      recording.stop();
+    }
+  }
+
+  private static RecordedEvent first(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.ui_kafka_sf.common.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+class DeadLetterReplayerTest {
+
+  private static final String DLT = "sf.events-dlt";
+  private static final String GROUP = "sf.events-dlt-replay";
+  private static final TopicPartition TP = new TopicPartition(DLT, 0);
+  private static final String FAILURE = "java.lang.IllegalStateException";
+
+  /** Keeps its state after the replayer closes it, so commits can be inspected. */
+  private static final class DltConsumer extends MockConsumer<byte[], byte[]> {
+    DltConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+    }
+
+    @Override
+    public synchronized void close() {}
+  }
+
+  private final DltConsumer consumer = new DltConsumer();
+
+  @SuppressWarnings("unchecked")
+  private final KafkaTemplate<Object, Object> producer = mock(KafkaTemplate.class);
+
+  private final List<ProducerRecord<Object, Object>> sent = new CopyOnWriteArrayList<>();
+  private DeadLetterReplayer replayer;
+
+  @BeforeEach
+  void setUp() {
+    ConsumerFactory<?, ?> factory = mock(ConsumerFactory.class);
+    doReturn(consumer)
+        .when(factory)
+        .createConsumer(eq(GROUP), eq("dlt-admin"), isNull(), any(Properties.class));
+    replayer = new DeadLetterReplayer(factory, producer);
+    consumer.updatePartitions(DLT, List.of(new PartitionInfo(DLT, 0, null, null, null)));
+    consumer.updateBeginningOffsets(Map.of(TP, 0L));
+    acknowledgeSends();
+  }
+
+  private void acknowledgeSends() {
+    when(producer.send(any(ProducerRecord.class)))
+        .thenAnswer(
+            inv -> {
+              sent.add(inv.getArgument(0));
+              return CompletableFuture.completedFuture(null);
+            });
+  }
+
+  /** Dead-letters {@code values} at offsets 0.. ; the first one without an original topic. */
+  private void deadLettered(String... values) {
+    consumer.updateEndOffsets(Map.of(TP, (long) values.length));
+    consumer.schedulePollTask(
+        () -> {
+          for (int i = 0; i < values.length; i++) {
+            var r = new ConsumerRecord<>(DLT, 0, i, bytes("k" + i), bytes(values[i]));
+            if (i > 0) r.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes("sf.events"));
+            r.headers().add(KafkaHeaders.DLT_EXCEPTION_FQCN, bytes(FAILURE));
+            r.headers().add("retry_topic-attempts", new byte[] {3});
+            r.headers().add("b3", bytes("trace"));
+            consumer.addRecord(r);
+          }
+        });
+  }
+
+  private Long committed() {
+    var offsets = consumer.committed(Set.of(TP));
+    return offsets.get(TP) == null ? null : offsets.get(TP).offset();
+  }
+
+  @Test
+  void peek_shows_records_without_consuming_them() {
+    deadLettered("v0", "v1");
+    var letters = replayer.peek(DLT, GROUP, 10);
+
+    assertThat(letters)
+        .extracting(DeadLetterReplayer.DeadLetter::value)
+        .containsExactly("v0", "v1");
+    assertThat(letters.get(1).originalTopic()).isEqualTo("sf.events");
+    assertThat(letters.get(1).exception()).isEqualTo(FAILURE);
+    assertThat(committed()).isNull();
+  }
+
+  @Test
+  void replay_republishes_a_batch_without_dlt_headers_and_commits_it() throws Exception {
+    deadLettered("v0", "v1", "v2");
+    var result = replayer.replay(DLT, GROUP, "fallback", 2);
+
+    assertThat(result).isEqualTo(new DeadLetterReplayer.ReplayResult(2, 1));
+    assertThat(sent).extracting(ProducerRecord::topic).containsExactly("fallback", "sf.events");
+    assertThat(new String((byte[]) sent.get(1).value(), StandardCharsets.UTF_8)).isEqualTo("v1");
+    for (var out : sent) {
+      assertThat(out.headers().lastHeader("b3")).isNotNull();
+      assertThat(out.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN)).isNull();
+      assertThat(out.headers().lastHeader("retry_topic-attempts")).isNull();
+    }
+    assertThat(committed()).isEqualTo(2L);
+  }
+
+  @Test
+  void a_failed_send_commits_nothing() {
+    deadLettered("v0", "v1");
+    when(producer.send(any(ProducerRecord.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+    assertThatThrownBy(() -> replayer.replay(DLT, GROUP, "fallback", 10))
+        .hasRootCauseMessage("broker down");
+    assertThat(committed()).isNull();
+  }
+
+  @Test
+  void an_unknown_dlt_is_empty() throws Exception {
+    assertThat(replayer.peek("missing-dlt", GROUP, 10)).isEmpty();
+    assertThat(replayer.replay("missing-dlt", GROUP, "fallback", 10))
+        .isEqualTo(new DeadLetterReplayer.ReplayResult(0, 0));
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+}
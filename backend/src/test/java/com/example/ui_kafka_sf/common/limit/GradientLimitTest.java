@@ -0,0 +1,54 @@
+package com.example.ui_kafka_sf.common.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class GradientLimitTest {
+
+  private static final long MS = 1_000_000L;
+
+  private long now;
+
+  /** Feeds {@code windows} full windows of {@code samples} requests at {@code rttMs}. */
+  private void run(GradientLimit limit, int windows, double rttMs, boolean saturated) {
+    for (int w = 0; w < windows; w++) {
+      for (int i = 0; i < 10; i++) {
+        now += 10 * MS;
+        int inflight = saturated ? limit.limit() : 1;
+        limit.onSample(now, (long) (rttMs * MS), inflight);
+      }
+    }
+  }
+
+  private GradientLimit limit() {
+    return new GradientLimit(20, 4, 500, 0.2, 1.5, 100 * MS, 10, now);
+  }
+
+  @Test
+  void grows_while_latency_stays_at_baseline() {
+    var limit = limit();
+    run(limit, 50, 10, true);
+    assertThat(limit.limit()).isGreaterThan(40);
+  }
+
+  @Test
+  void shrinks_when_requests_start_queueing_and_respects_min() {
+    var limit = limit();
+    run(limit, 50, 10, true);
+    int grown = limit.limit();
+
+    run(limit, 20, 60, true);
+    assertThat(limit.limit()).isLessThan(grown / 2);
+
+    run(limit, 200, 500, true);
+    assertThat(limit.limit()).isGreaterThanOrEqualTo(4);
+  }
+
+  @Test
+  void application_limited_windows_do_not_move_the_limit() {
+    var limit = limit();
+    run(limit, 50, 10, false);
+    assertThat(limit.limit()).isEqualTo(20);
+  }
+}
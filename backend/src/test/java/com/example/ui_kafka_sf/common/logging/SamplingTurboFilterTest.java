@@ -0,0 +1,53 @@
+package com.example.ui_kafka_sf.common.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+class SamplingTurboFilterTest {
+
+  @Test
+  void limits_debug_per_logger_and_leaves_warn_alone() {
+    var ctx = new LoggerContext();
+    var filter = new SamplingTurboFilter();
+    filter.addPrefix("org.springframework.security");
+    filter.setPermitsPerSecond(3);
+    filter.start();
+
+    var chatty = ctx.getLogger("org.springframework.security.web.FilterChainProxy");
+    chatty.setLevel(Level.DEBUG);
+    var other = ctx.getLogger("com.example.ui_kafka_sf.sf.SfController");
+    other.setLevel(Level.DEBUG);
+
+    int allowed = 0;
+    for (int i = 0; i < 10; i++)
+      if (filter.decide(null, chatty, Level.DEBUG, "x", null, null) == FilterReply.NEUTRAL)
+        allowed++;
+
+    // a window boundary may fall inside the loop; at most two windows' worth get through
+    assertThat(allowed).isBetween(3, 6);
+    assertThat(filter.deniedTotal()).isEqualTo(10 - allowed);
+    assertThat(filter.decide(null, chatty, Level.WARN, "x", null, null))
+        .isEqualTo(FilterReply.NEUTRAL);
+    assertThat(filter.decide(null, other, Level.DEBUG, "x", null, null))
+        .isEqualTo(FilterReply.NEUTRAL);
+  }
+
+  @Test
+  void disabled_levels_do_not_consume_permits() {
+    var ctx = new LoggerContext();
+    var filter = new SamplingTurboFilter();
+    filter.addPrefix("org.hibernate.SQL");
+    filter.setPermitsPerSecond(1);
+    filter.start();
+
+    var sql = ctx.getLogger("org.hibernate.SQL");
+    sql.setLevel(Level.INFO);
+    for (int i = 0; i < 5; i++) filter.decide(null, sql, Level.DEBUG, "x", null, null);
+
+    assertThat(filter.deniedTotal()).isZero();
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.ui_kafka_sf.common.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+  private static final int KEYS = 100_000;
+
+  private static ConsistentHashRing<String> ring(String... nodes) {
+    return new ConsistentHashRing<>(List.of(nodes), Function.identity(), 128);
+  }
+
+  private static String owner(ConsistentHashRing<String> ring, int key) {
+    return ring.owner(ConsistentHashRing.position("key-" + key));
+  }
+
+  @Test
+  void spreads_keys_evenly_over_nodes() {
+    var ring = ring("a", "b", "c", "d");
+    var counts = new HashMap<String, Integer>();
+    for (int k = 0; k < KEYS; k++) counts.merge(owner(ring, k), 1, Integer::sum);
+
+    // 128 virtual nodes keep each share within ~15% of 1/N
+    assertThat(counts).hasSize(4);
+    counts.values().forEach(n -> assertThat(n).isBetween(KEYS * 85 / 400, KEYS * 115 / 400));
+    assertThat(ring.shares().values().stream().mapToDouble(Double::doubleValue).sum())
+        .isCloseTo(1.0, offset(1e-9));
+  }
+
+  @Test
+  void adding_a_node_only_moves_keys_to_it() {
+    var before = ring("a", "b", "c");
+    var after = ring("a", "b", "c", "d");
+    int moved = 0;
+    for (int k = 0; k < KEYS; k++) {
+      var was = owner(before, k);
+      var is = owner(after, k);
+      if (was.equals(is)) continue;
+      assertThat(is).isEqualTo("d");
+      moved++;
+    }
+    // about 1/4 of the keys
+    assertThat(moved).isBetween(KEYS * 18 / 100, KEYS * 32 / 100);
+  }
+
+  @Test
+  void ownership_does_not_depend_on_node_order() {
+    var one = ring("a", "b", "c");
+    var other = ring("c", "a", "b");
+    for (int k = 0; k < 1_000; k++) assertThat(owner(other, k)).isEqualTo(owner(one, k));
+  }
+
+  @Test
+  void positions_past_the_last_point_wrap_to_the_first() {
+    var ring = ring("a", "b");
+    // positions compare as signed longs, so the ring closes between MAX_VALUE and MIN_VALUE
+    assertThat(ring.owner(Long.MAX_VALUE)).isEqualTo(ring.owner(Long.MIN_VALUE));
+    assertThat(ConsistentHashRing.hexPosition("ffffffffffffffff00")).isEqualTo(-1L);
+  }
+
+  @Test
+  void a_single_node_owns_everything() {
+    var ring = ring("only");
+    assertThat(ring.shares()).containsOnlyKeys("only");
+    assertThat(ring.shares().get("only")).isCloseTo(1.0, offset(1e-9));
+    assertThat(owner(ring, 42)).isEqualTo("only");
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.ui_kafka_sf.common.sketch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+  @Test
+  void never_undercounts_and_overcounts_within_epsilon_n() {
+    var cms = new CountMinSketch(4, 1024);
+    int n = 0;
+    // a skewed stream: item i occurs 1 + 1000 / (i + 1) times
+    for (int i = 0; i < 5_000; i++)
+      for (int c = 0; c <= 1_000 / (i + 1); c++, n++) cms.add(Hash64.of("item-" + i), 1);
+
+    int over = 0;
+    for (int i = 0; i < 5_000; i++) {
+      long exact = 1 + 1_000 / (i + 1);
+      long estimate = cms.estimate(Hash64.of("item-" + i));
+      assertThat(estimate).isGreaterThanOrEqualTo(exact);
+      if (estimate - exact > cms.epsilon() * n) over++;
+    }
+    // the bound may fail for at most a delta (~1.8%) share of the items
+    assertThat(over).isLessThanOrEqualTo((int) (5_000 * cms.delta()));
+  }
+
+  @Test
+  void estimates_over_several_sketches_add_up() {
+    var a = new CountMinSketch(4, 256);
+    var b = new CountMinSketch(4, 256);
+    long hash = Hash64.of("spam.example");
+    a.add(hash, 30);
+    b.add(hash, 12);
+    assertThat(CountMinSketch.estimate(List.of(a, b), hash)).isGreaterThanOrEqualTo(42);
+    assertThat(CountMinSketch.estimate(List.of(), hash)).isZero();
+  }
+
+  @Test
+  void top_k_keeps_the_heavy_hitters() {
+    var cms = new CountMinSketch(4, 1024);
+    var top = new TopK(3);
+    // 3 heavy domains among 2000 light ones, interleaved
+    for (int i = 0; i < 2_000; i++) {
+      for (var item : List.of("light-" + i, "heavy-" + (i % 3))) {
+        long hash = Hash64.of(item);
+        cms.add(hash, item.startsWith("heavy") ? 5 : 1);
+        top.offer(item, cms.estimate(hash));
+      }
+    }
+    assertThat(top.top()).extracting(TopK.Entry::item)
+        .containsExactlyInAnyOrder("heavy-0", "heavy-1", "heavy-2");
+    assertThat(top.top().get(0).count()).isGreaterThanOrEqualTo(3_330);
+
+    // counts that drop to zero (e.g. a window moving on) leave the candidates
+    top.refresh(item -> item.equals("heavy-1") ? 7 : 0);
+    assertThat(top.top()).containsExactly(new TopK.Entry("heavy-1", 7));
+  }
+}
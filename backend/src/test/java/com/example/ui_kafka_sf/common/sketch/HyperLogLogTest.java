@@ -0,0 +1,60 @@
+package com.example.ui_kafka_sf.common.sketch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+  @Test
+  void estimates_within_the_error_bound_at_every_scale() {
+    var hll = new HyperLogLog(12);
+    int added = 0;
+    for (int target : new int[] {100, 1_000, 10_000, 100_000, 1_000_000}) {
+      for (; added < target; added++) hll.add(Hash64.of("user-" + added + "@example.com"));
+      // 3 standard errors (1.6% each at precision 12)
+      assertThat(hll.estimate()).as("n=%d", target).isCloseTo(target, withinPercentage(5));
+    }
+    assertThat(hll.sizeBytes()).isEqualTo(4 * 4096);
+  }
+
+  @Test
+  void duplicates_do_not_count() {
+    var hll = new HyperLogLog(12);
+    for (int round = 0; round < 20; round++)
+      for (int i = 0; i < 5_000; i++) hll.add(Hash64.of("user-" + i));
+    assertThat(hll.estimate()).isCloseTo(5_000, withinPercentage(5));
+  }
+
+  @Test
+  void union_of_sketches_counts_shared_items_once() {
+    var a = new HyperLogLog(12);
+    var b = new HyperLogLog(12);
+    IntStream.range(0, 30_000).forEach(i -> a.add(Hash64.of("k" + i)));
+    IntStream.range(20_000, 50_000).forEach(i -> b.add(Hash64.of("k" + i)));
+
+    assertThat(HyperLogLog.estimate(List.of(a, b))).isCloseTo(50_000, withinPercentage(5));
+    a.clear();
+    assertThat(a.estimate()).isZero();
+  }
+
+  @Test
+  void concurrent_adds_are_not_lost() throws Exception {
+    var hll = new HyperLogLog(12);
+    var threads =
+        IntStream.range(0, 8)
+            .mapToObj(
+                t ->
+                    Thread.ofPlatform()
+                        .start(
+                            () -> {
+                              for (int i = 0; i < 25_000; i++) hll.add(Hash64.of(t + "-" + i));
+                            }))
+            .toList();
+    for (var t : threads) t.join();
+    assertThat(hll.estimate()).isCloseTo(200_000, withinPercentage(5));
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.ui_kafka_sf.course;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+class CourseChangePublisherTest {
+
+  private final CourseRepository repo = mock(CourseRepository.class);
+
+  @SuppressWarnings("unchecked")
+  private final KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final List<ProducerRecord<String, Object>> sent = new CopyOnWriteArrayList<>();
+  private final CourseChangePublisher publisher =
+      new CourseChangePublisher(kafka, repo, new AppProperties(), meters, 1);
+
+  @AfterEach
+  void tearDown() {
+    publisher.close();
+  }
+
+  /** Records every send; the first {@code failures} fail. */
+  @SuppressWarnings("unchecked")
+  private void broker(int failures) {
+    when(kafka.send(any(ProducerRecord.class)))
+        .thenAnswer(
+            inv -> {
+              sent.add(inv.getArgument(0));
+              return sent.size() <= failures
+                  ? CompletableFuture.failedFuture(new TimeoutException("no leader"))
+                  : CompletableFuture.completedFuture(null);
+            });
+  }
+
+  private void committed(Long version) {
+    when(repo.findById("c1"))
+        .thenReturn(
+            Optional.ofNullable(
+                version == null
+                    ? null
+                    : Course.builder().id("c1").code("CS").name("n").version(version).build()));
+  }
+
+  private static CourseChangedEvent change(long version) {
+    var c = Course.builder().id("c1").code("CS").name("n").version(version).build();
+    return new CourseChangedEvent("c1", CourseController.toDto(c));
+  }
+
+  private double sends(String outcome) {
+    return meters.get("course.changes.sends").tag("outcome", outcome).counter().count();
+  }
+
+  private static Long version(ProducerRecord<String, Object> r) {
+    var h = r.headers().lastHeader(CourseChangePublisher.VERSION_HEADER);
+    return h == null ? null : Long.valueOf(new String(h.value(), StandardCharsets.US_ASCII));
+  }
+
+  private static void await(BooleanSupplier done) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 3_000;
+    while (!done.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  void a_failed_send_is_counted_and_retried_with_the_committed_state() throws Exception {
+    broker(2);
+    committed(3L);
+    publisher.onCourseChanged(change(2));
+
+    await(() -> sends("acked") == 1);
+    assertThat(sends("failed")).isEqualTo(2);
+    assertThat(sent).extracting(CourseChangePublisherTest::version).containsExactly(2L, 3L, 3L);
+  }
+
+  @Test
+  void a_send_overtaken_by_a_newer_version_is_followed_by_the_committed_state() throws Exception {
+    broker(0);
+    // v3 was committed (and sent by another instance) while v2 was in flight
+    committed(3L);
+    publisher.onCourseChanged(change(2));
+
+    await(() -> sends("acked") == 2);
+    assertThat(sends("republished")).isEqualTo(1);
+    assertThat(sent).extracting(CourseChangePublisherTest::version).containsExactly(2L, 3L);
+    assertThat(((CourseDto) sent.get(1).value()).version()).isEqualTo(3L);
+  }
+
+  @Test
+  void a_send_overtaken_by_a_delete_is_followed_by_a_tombstone() throws Exception {
+    broker(0);
+    committed(null);
+    publisher.onCourseChanged(change(2));
+
+    await(() -> sends("acked") == 2);
+    assertThat(sent.get(1).value()).isNull();
+    assertThat(sent.get(1).key()).isEqualTo("c1");
+  }
+
+  @Test
+  void a_change_that_keeps_failing_is_counted_as_lost() throws Exception {
+    broker(Integer.MAX_VALUE);
+    committed(2L);
+    when(repo.findById("c1")).thenThrow(new IllegalStateException("db down"));
+    publisher.onCourseChanged(change(2));
+
+    await(() -> sends("lost") == 1);
+    assertThat(sent).hasSize(CourseChangePublisher.MAX_ATTEMPTS);
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.ui_kafka_sf.course;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.ui_kafka_sf.common.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * {@code PATCH /api/course/{id}}: merge-patch validation, {@code If-Match} and version races;
+ * {@code POST /api/course} with an id already taken.
+ */
+class CourseControllerTest {
+
+  private final CourseRepository repo = mock(CourseRepository.class);
+  private Course course;
+  private MockMvc mvc;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    course = Course.builder().id("c1").code("CS-101").name("Intro").version(3L).build();
+    when(repo.findById("c1")).thenReturn(Optional.of(course));
+    // what the @Version check does on a successful flush
+    when(repo.saveAndFlush(any(Course.class)))
+        .thenAnswer(
+            inv -> {
+              Course c = inv.getArgument(0);
+              c.setVersion(c.getVersion() + 1);
+              return c;
+            });
+    var controller =
+        new CourseController(
+            repo,
+            new ObjectMapper().findAndRegisterModules(),
+            mock(ApplicationEventPublisher.class),
+            mock(ObjectProvider.class),
+            mock(CourseReads.class));
+    mvc =
+        MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  private ResultActions patchCourse(String body, String ifMatch) throws Exception {
+    var request = patch("/api/course/c1").contentType("application/merge-patch+json").content(body);
+    if (ifMatch != null) request.header(HttpHeaders.IF_MATCH, ifMatch);
+    return mvc.perform(request);
+  }
+
+  @Test
+  void matching_etag_applies_the_patch_and_returns_the_new_etag() throws Exception {
+    patchCourse("{\"name\":\"Intro to CS\",\"description\":null}", "\"3\"")
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+        .andExpect(jsonPath("$.name").value("Intro to CS"))
+        .andExpect(jsonPath("$.code").value("CS-101"));
+    assertThat(course.getName()).isEqualTo("Intro to CS");
+  }
+
+  @Test
+  void stale_etag_is_rejected_with_412_without_writing() throws Exception {
+    patchCourse("{\"name\":\"Intro to CS\"}", "\"2\"")
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(jsonPath("$.error").value("precondition_failed"));
+    verify(repo, never()).saveAndFlush(any());
+    assertThat(course.getName()).isEqualTo("Intro");
+  }
+
+  @Test
+  void missing_if_match_falls_back_to_the_version_check() throws Exception {
+    patchCourse("{\"name\":\"Intro to CS\"}", null)
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+  }
+
+  @Test
+  void a_version_race_lost_at_flush_is_answered_409() throws Exception {
+    when(repo.saveAndFlush(any(Course.class)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(Course.class, "c1"));
+    patchCourse("{\"name\":\"Intro to CS\"}", "\"3\"")
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.error").value("concurrent_modification"));
+  }
+
+  @Test
+  void creating_a_course_with_an_existing_id_is_answered_409() throws Exception {
+    when(repo.save(any(Course.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate key value (id)=(c1)"));
+    when(repo.existsById("c1")).thenReturn(true);
+    mvc.perform(
+            post("/api/course")
+                .contentType("application/json")
+                .content("{\"id\":\"c1\",\"code\":\"CS-102\",\"name\":\"Other\"}"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.error").value("duplicate_course"));
+  }
+
+  @Test
+  void non_string_values_for_text_fields_are_rejected_with_400() throws Exception {
+    for (var body :
+        new String[] {
+          "{\"name\":{}}", "{\"code\":[\"x\"]}", "{\"description\":[]}", "{\"year\":2025}",
+          "{\"instructorId\":true}"
+        })
+      patchCourse(body, "\"3\"").andExpect(status().isBadRequest());
+    verify(repo, never()).saveAndFlush(any());
+    assertThat(course.getName()).isEqualTo("Intro");
+    assertThat(course.getCode()).isEqualTo("CS-101");
+  }
+}
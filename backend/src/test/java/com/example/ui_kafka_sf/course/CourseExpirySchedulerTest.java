@@ -0,0 +1,141 @@
+package com.example.ui_kafka_sf.course;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.core.KafkaTemplate;
+
+class CourseExpirySchedulerTest {
+
+  private record View(String getId, OffsetDateTime getExpired)
+      implements CourseRepository.ExpiryView {}
+
+  private final CourseRepository repo = mock(CourseRepository.class);
+  @SuppressWarnings("unchecked")
+  private final KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+  private final List<Object> events = new CopyOnWriteArrayList<>();
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  /** Ids passed to expireDue, one list per call. */
+  private final List<List<String>> expireCalls = new CopyOnWriteArrayList<>();
+
+  private CourseExpiryScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    var props = new AppProperties();
+    props.getCourseExpiry().setTickMs(10);
+    props.getCourseExpiry().setBatchSize(2);
+    ApplicationEventPublisher publisher = events::add;
+    scheduler = new CourseExpiryScheduler(repo, kafka, props, publisher, meters);
+    when(repo.findOpenExpiringBetween(any(), any())).thenReturn(List.of());
+    when(repo.findOpenExpiredBy(any())).thenReturn(List.of());
+    when(repo.findAllById(anyCollection()))
+        .thenAnswer(
+            inv -> {
+              var out = new ArrayList<Course>();
+              for (var id : inv.<Collection<String>>getArgument(0))
+                out.add(Course.builder().id(id).state(CourseState.EXPIRED).version(1L).build());
+              return out;
+            });
+  }
+
+  /** Flips every id except {@code lostRace}, which another instance already expired. */
+  private void expireAllBut(String lostRace) {
+    when(repo.expireDue(anyCollection(), any()))
+        .thenAnswer(
+            inv -> {
+              var ids = new ArrayList<>(inv.<Collection<String>>getArgument(0));
+              expireCalls.add(List.copyOf(ids));
+              ids.remove(lostRace);
+              return ids;
+            });
+  }
+
+  private void tickUntil(BooleanSupplier done) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 3_000;
+    while (!done.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("not expired in time").isLessThan(deadline);
+      Thread.sleep(10);
+      scheduler.tick();
+    }
+  }
+
+  private double expiredCount() {
+    return meters.get("course.expiry.expired").counter().count();
+  }
+
+  @Test
+  void overdue_courses_are_caught_up_at_start_in_batches() throws Exception {
+    var past = OffsetDateTime.now().minusHours(1);
+    when(repo.findOpenExpiredBy(any()))
+        .thenReturn(List.of(new View("a", past), new View("b", past), new View("c", past)));
+    expireAllBut("c");
+
+    scheduler.start();
+    tickUntil(() -> expiredCount() == 2);
+
+    assertThat(expireCalls).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+    assertThat(expireCalls.stream().flatMap(List::stream)).containsExactlyInAnyOrder("a", "b", "c");
+    verify(kafka).send(eq("course.lifecycle"), eq("a"), any(CourseLifecycleEvent.class));
+    verify(kafka).send(eq("course.lifecycle"), eq("b"), any(CourseLifecycleEvent.class));
+    verify(kafka, never()).send(eq("course.lifecycle"), eq("c"), any());
+    assertThat(events)
+        .extracting(e -> ((CourseChangedEvent) e).id())
+        .containsExactlyInAnyOrder("a", "b");
+  }
+
+  @Test
+  void a_write_reschedules_or_cancels_the_single_course() throws Exception {
+    expireAllBut(null);
+    scheduler.start();
+    var soon = OffsetDateTime.now().plusNanos(50_000_000);
+    scheduler.onCourseChanged(new CourseChangedEvent("moved", dto("moved", soon)));
+    scheduler.onCourseChanged(new CourseChangedEvent("gone", dto("gone", soon)));
+    // deleted before its deadline
+    scheduler.onCourseChanged(new CourseChangedEvent("gone", null));
+
+    tickUntil(() -> expiredCount() == 1);
+    Thread.sleep(100);
+    scheduler.tick();
+
+    assertThat(expireCalls.stream().flatMap(List::stream)).containsExactly("moved");
+  }
+
+  @Test
+  void a_failed_batch_is_retried_on_the_next_tick() throws Exception {
+    var past = OffsetDateTime.now().minusMinutes(5);
+    when(repo.findOpenExpiredBy(any())).thenReturn(List.of(new View("a", past)));
+    when(repo.expireDue(anyCollection(), any()))
+        .thenThrow(new QueryTimeoutException("db slow"))
+        .thenAnswer(inv -> List.copyOf(inv.<Collection<String>>getArgument(0)));
+
+    scheduler.start();
+    tickUntil(() -> expiredCount() == 1);
+
+    verify(kafka).send(eq("course.lifecycle"), anyString(), any(CourseLifecycleEvent.class));
+  }
+
+  private static CourseDto dto(String id, OffsetDateTime expired) {
+    return new CourseDto(
+        id, "code-" + id, "n", null, null, null, expired, true, "i1", CourseState.OPEN, 1L);
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.ui_kafka_sf.course;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CourseReadsTest {
+
+  private final CourseRepository repo = mock(CourseRepository.class);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final CourseReads reads = new CourseReads(repo, new AppProperties(), meters);
+
+  private static Course course(long version) {
+    return Course.builder().id("c1").code("CS-101").name("v" + version).version(version).build();
+  }
+
+  @Test
+  void a_get_after_a_committed_patch_does_not_join_a_load_from_before_it() throws Exception {
+    var readV3 = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    when(repo.findById("c1"))
+        .thenAnswer(
+            inv -> {
+              readV3.countDown();
+              release.await();
+              return Optional.of(course(3));
+            })
+        .thenReturn(Optional.of(course(4)));
+
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      // another student's GET has read version 3 and is still mapping it
+      var slow = pool.submit(() -> reads.byId("c1").value());
+      readV3.await();
+
+      // PATCH commits version 4; the same client's GET follows
+      reads.onCourseChanged(new CourseChangedEvent("c1", CourseController.toDto(course(4))));
+      assertThat(reads.byId("c1").value()).map(CourseDto::version).contains(4L);
+
+      release.countDown();
+      assertThat(slow.get(5, TimeUnit.SECONDS)).map(CourseDto::version).contains(3L);
+    }
+  }
+}
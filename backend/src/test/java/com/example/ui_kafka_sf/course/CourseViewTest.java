@@ -0,0 +1,159 @@
+package com.example.ui_kafka_sf.course;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+
+class CourseViewTest {
+
+  private static final TopicPartition TP = new TopicPartition("course.changes", 0);
+  private static final long MAX_STALENESS_MS = 5_000;
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final Consumer<?, ?> consumer = mock(Consumer.class);
+  private CourseView view;
+  private long offset;
+
+  @BeforeEach
+  void setUp() {
+    view = new CourseView(MAX_STALENESS_MS, meters, now::get);
+  }
+
+  /** Applies one change written at {@code writtenAt}, with {@code lagAfter} records left. */
+  private void consume(String id, String instructorId, long writtenAt, long lagAfter) {
+    consume(id, dto(id, instructorId, 1), null, writtenAt, lagAfter);
+  }
+
+  /** A change as {@code CourseChangePublisher} sends it: {@code dto == null} is a tombstone. */
+  private void consume(String id, CourseDto dto, Long version, long writtenAt, long lagAfter) {
+    when(consumer.currentLag(TP)).thenReturn(OptionalLong.of(lagAfter));
+    var headers = new RecordHeaders();
+    if (version != null)
+      headers.add(
+          CourseChangePublisher.VERSION_HEADER,
+          version.toString().getBytes(StandardCharsets.US_ASCII));
+    view.onChange(
+        new ConsumerRecord<>(
+            TP.topic(),
+            TP.partition(),
+            offset++,
+            writtenAt,
+            TimestampType.CREATE_TIME,
+            0,
+            0,
+            id,
+            dto,
+            headers,
+            Optional.empty()),
+        consumer);
+  }
+
+  private static CourseDto dto(String id, String instructorId, long version) {
+    return new CourseDto(
+        id, "code-" + id, "n", null, null, null, null, false, instructorId, null, version);
+  }
+
+  private void idlePoll() {
+    when(consumer.currentLag(TP)).thenReturn(OptionalLong.of(0));
+    view.onIdle(
+        new ListenerContainerIdleEvent(
+            this, this, 1_000, CourseView.LISTENER_ID + "-0", List.of(TP), consumer, false));
+  }
+
+  private void advance(long ms) {
+    now.addAndGet(ms);
+  }
+
+  @Test
+  void serves_only_after_replaying_the_topic() {
+    assertThat(view.isReady()).isFalse();
+    consume("c1", "i1", now.get() - 60_000, 1);
+    assertThat(view.isReady()).isFalse();
+    consume("c2", "i1", now.get() - 60_000, 0);
+    assertThat(view.isReady()).isTrue();
+    assertThat(view.byInstructor("i1")).hasSize(2);
+  }
+
+  @Test
+  void an_empty_topic_is_ready_after_the_first_idle_poll() {
+    idlePoll();
+    assertThat(view.isReady()).isTrue();
+    assertThat(view.lag()).isZero();
+  }
+
+  @Test
+  void an_idle_topic_stays_fresh() {
+    consume("c1", "i1", now.get(), 0);
+    for (int i = 0; i < 60; i++) {
+      advance(1_000);
+      idlePoll();
+    }
+    assertThat(view.stalenessMillis(now.get())).isZero();
+    assertThat(meters.get("course.view.staleness.seconds").gauge().value()).isZero();
+    assertThat(view.isReady()).isTrue();
+  }
+
+  @Test
+  void a_consumer_working_through_a_backlog_is_stale() {
+    idlePoll();
+    // a burst of writes lands while this instance applies records from 30s ago
+    consume("c1", "i1", now.get() - 30_000, 250);
+    assertThat(view.lag()).isEqualTo(250);
+    assertThat(meters.get("course.view.lag").gauge().value()).isEqualTo(250);
+    assertThat(view.stalenessMillis(now.get())).isEqualTo(30_000);
+    assertThat(view.isReady()).as("falls back to the database").isFalse();
+
+    consume("c2", "i1", now.get() - 100, 0);
+    assertThat(view.isReady()).isTrue();
+  }
+
+  @Test
+  void a_stalled_consumer_stops_serving_until_it_polls_again() {
+    idlePoll();
+    advance(MAX_STALENESS_MS - 1);
+    assertThat(view.isReady()).isTrue();
+    advance(2);
+    assertThat(view.isReady()).isFalse();
+    assertThat(meters.get("course.view.ready").gauge().value()).isZero();
+
+    idlePoll();
+    assertThat(view.isReady()).isTrue();
+  }
+
+  @Test
+  void records_arriving_out_of_order_do_not_overwrite_newer_state() {
+    long t = now.get();
+    // v3 moved the course to i2, but the v2 send reached the partition after it
+    consume("c1", dto("c1", "i2", 3), 3L, t, 0);
+    consume("c1", dto("c1", "i1", 2), 2L, t - 5, 0);
+    assertThat(view.byInstructor("i2")).extracting(CourseDto::version).containsExactly(3L);
+    assertThat(view.byInstructor("i1")).isEmpty();
+
+    // deleted at v3; a late v2 must not bring it back
+    consume("c1", null, 3L, t + 10, 0);
+    consume("c1", dto("c1", "i1", 2), 2L, t - 5, 0);
+    assertThat(view.byInstructor("i1")).isEmpty();
+    assertThat(view.byInstructor("i2")).isEmpty();
+    assertThat(meters.get("course.view.stale").counter().count()).isEqualTo(2);
+
+    // created again under the same id: a new course starting at version 0
+    consume("c1", dto("c1", "i3", 0), 0L, t + 20, 0);
+    assertThat(view.byInstructor("i3")).extracting(CourseDto::id).containsExactly("c1");
+  }
+}
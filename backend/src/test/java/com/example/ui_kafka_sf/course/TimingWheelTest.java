@@ -0,0 +1,62 @@
+package com.example.ui_kafka_sf.course;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+  private static List<String> advance(TimingWheel<String> wheel, long now) {
+    List<String> out = new ArrayList<>();
+    wheel.advance(now, out::add);
+    return out;
+  }
+
+  @Test
+  void fires_after_deadline_never_before() {
+    var wheel = new TimingWheel<String>(1000, 8, 0);
+    wheel.schedule("a", 2_500);
+
+    assertThat(advance(wheel, 2_400)).isEmpty();
+    assertThat(advance(wheel, 3_000)).containsExactly("a");
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  void cascades_far_deadlines_through_upper_levels() {
+    var wheel = new TimingWheel<String>(1000, 8, 0);
+    // 8 slots/level: 8s, 64s and 512s spans -> needs three levels
+    wheel.schedule("near", 5_000);
+    wheel.schedule("mid", 70_000);
+    wheel.schedule("far", 400_000);
+
+    assertThat(advance(wheel, 69_000)).containsExactly("near");
+    assertThat(advance(wheel, 70_999)).isEmpty();
+    assertThat(advance(wheel, 71_000)).containsExactly("mid");
+    assertThat(advance(wheel, 399_999)).isEmpty();
+    assertThat(advance(wheel, 401_000)).containsExactly("far");
+  }
+
+  @Test
+  void cancel_and_reschedule_are_honoured() {
+    var wheel = new TimingWheel<String>(1000, 8, 0);
+    wheel.schedule("a", 3_000);
+    wheel.schedule("b", 3_000);
+    wheel.cancel("a");
+    wheel.schedule("b", 20_000);
+
+    assertThat(advance(wheel, 10_000)).isEmpty();
+    assertThat(advance(wheel, 21_000)).containsExactly("b");
+  }
+
+  @Test
+  void past_deadlines_fire_on_next_advance() {
+    var wheel = new TimingWheel<String>(1000, 8, 10_000);
+    wheel.schedule("late", 1_000);
+    wheel.scheduleIfAbsent("late", 50_000);
+
+    assertThat(advance(wheel, 10_000)).containsExactly("late");
+  }
+}
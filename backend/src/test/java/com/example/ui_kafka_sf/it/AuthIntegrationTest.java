@@ -3,6 +3,8 @@ package com.example.ui_kafka_sf.it;
 import com.example.ui_kafka_sf.auth.dto.LoginReq;
 import com.example.ui_kafka_sf.auth.dto.RegisterReq;
 import com.example.ui_kafka_sf.auth.Role;
+import com.example.ui_kafka_sf.auth.User;
+import com.example.ui_kafka_sf.auth.UserRepository;
 import okhttp3.OkHttpClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.*;
 import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.web.client.DefaultResponseErrorHandler;
@@ -23,9 +26,18 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
 
 @Testcontainers
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -69,8 +81,21 @@ class AuthIntegrationTest {
   @Autowired
   TestRestTemplate rest;
 
+  @Autowired
+  UserRepository users;
+
+  @Autowired
+  PasswordEncoder encoder;
+
   private String url(String p) { return "http://localhost:" + port + p; }
 
+  @BeforeEach
+  void kafkaAcksEverySend() {
+    // token revocations wait for the ack
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+  }
+
   @BeforeEach
   void restTemplateWithOkHttp() {
     OkHttpClient client = new OkHttpClient.Builder()
@@ -122,6 +147,70 @@ class AuthIntegrationTest {
     assertThat(r2.getBody()).containsEntry("error", "user_exists");
   }
 
+  @Test
+  void concurrent_registrations_of_one_username_create_it_once() throws Exception {
+    // no more racers than app.concurrency-limit.min-limit, so none is shed with 429
+    int racers = 4;
+    var start = new CountDownLatch(1);
+    var pool = Executors.newFixedThreadPool(racers);
+    try {
+      var responses = new ArrayList<Future<ResponseEntity<Map>>>();
+      for (int i = 0; i < racers; i++) {
+        var reg = new RegisterReq("erin", "erin_pwd" + i, Role.STUDENT);
+        responses.add(pool.submit(() -> {
+          start.await();
+          return rest.postForEntity(url("/api/auth/register"), reg, Map.class);
+        }));
+      }
+      start.countDown();
+
+      int winner = -1;
+      for (int i = 0; i < racers; i++) {
+        var r = responses.get(i).get(30, TimeUnit.SECONDS);
+        if (r.getStatusCode() == HttpStatus.OK) {
+          assertThat(winner).as("more than one registration succeeded").isEqualTo(-1);
+          winner = i;
+        } else {
+          assertThat(r.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+          assertThat(r.getBody()).containsEntry("error", "user_exists");
+        }
+      }
+      assertThat(winner).isNotNegative();
+      // the losers did not overwrite the winner's password
+      for (int i = 0; i < racers; i++) {
+        var login = rest.postForEntity(url("/api/auth/login"),
+            new LoginReq("erin", "erin_pwd" + i), Map.class);
+        assertThat(login.getStatusCode())
+            .isEqualTo(i == winner ? HttpStatus.OK : HttpStatus.UNAUTHORIZED);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void register_over_a_stale_negative_cache_entry_keeps_the_existing_account() {
+    // a failed login caches "frank does not exist"
+    var miss = rest.postForEntity(url("/api/auth/login"), new LoginReq("frank", "x"), Map.class);
+    assertThat(miss.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    // created behind this instance's cache, e.g. by another instance whose broadcast was lost
+    users.insertIfAbsent(new User("frank", encoder.encode("frank_pwd"), Role.STUDENT));
+
+    var reg = new RegisterReq("frank", "attacker_pwd", Role.ADMIN);
+    var r = rest.postForEntity(url("/api/auth/register"), reg, Map.class);
+    assertThat(r.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(r.getBody()).containsEntry("error", "user_exists");
+
+    // the duplicate evicted the stale entry: the real account logs in, with its own role
+    var login =
+        rest.postForEntity(url("/api/auth/login"), new LoginReq("frank", "frank_pwd"), Map.class);
+    assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(login.getBody()).containsEntry("role", "STUDENT");
+    var takeover = rest.postForEntity(url("/api/auth/login"),
+        new LoginReq("frank", "attacker_pwd"), Map.class);
+    assertThat(takeover.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+  }
+
   @Test
   void login_invalid_password_unauthorized() {
     var reg = new RegisterReq("carol", "carol_pwd", Role.ADMIN);
@@ -132,4 +221,52 @@ class AuthIntegrationTest {
     assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
     assertThat(resp.getBody()).containsEntry("error", "invalid_credentials");
   }
+
+  @Test
+  void password_reset_and_logout_revoke_issued_tokens() {
+    rest.postForEntity(url("/api/auth/register"),
+        new RegisterReq("root", "root_pwd", Role.ADMIN), Map.class);
+    rest.postForEntity(url("/api/auth/register"),
+        new RegisterReq("dave", "dave_pwd", Role.STUDENT), Map.class);
+    var admin = token("root", "root_pwd");
+    var dave = token("dave", "dave_pwd");
+    assertThat(courses(dave)).isEqualTo(HttpStatus.OK);
+
+    // reset by an admin: every token issued so far stops working
+    var reset = rest.exchange(url("/api/admin/users/dave/password"), HttpMethod.PUT,
+        new HttpEntity<>(Map.of("newPassword", "dave_pwd2"), bearer(admin)), Map.class);
+    assertThat(reset.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(courses(dave)).isIn(HttpStatus.UNAUTHORIZED, HttpStatus.FORBIDDEN);
+
+    // a login right after the reset gets a working token
+    var fresh = token("dave", "dave_pwd2");
+    assertThat(courses(fresh)).isEqualTo(HttpStatus.OK);
+
+    // logout revokes only the presented token
+    var other = token("dave", "dave_pwd2");
+    var logout = rest.exchange(url("/api/auth/logout"), HttpMethod.POST,
+        new HttpEntity<>(null, bearer(fresh)), Map.class);
+    assertThat(logout.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    assertThat(courses(fresh)).isIn(HttpStatus.UNAUTHORIZED, HttpStatus.FORBIDDEN);
+    assertThat(courses(other)).isEqualTo(HttpStatus.OK);
+  }
+
+  private String token(String username, String password) {
+    var resp =
+        rest.postForEntity(url("/api/auth/login"), new LoginReq(username, password), Map.class);
+    assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+    return (String) resp.getBody().get("token");
+  }
+
+  private HttpHeaders bearer(String token) {
+    var h = new HttpHeaders();
+    h.setBearerAuth(token);
+    return h;
+  }
+
+  private HttpStatusCode courses(String token) {
+    return rest.exchange(
+            url("/api/course"), HttpMethod.GET, new HttpEntity<>(bearer(token)), String.class)
+        .getStatusCode();
+  }
 }
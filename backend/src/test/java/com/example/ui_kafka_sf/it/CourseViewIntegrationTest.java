@@ -0,0 +1,140 @@
+package com.example.ui_kafka_sf.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ui_kafka_sf.auth.Role;
+import com.example.ui_kafka_sf.auth.dto.LoginReq;
+import com.example.ui_kafka_sf.auth.dto.RegisterReq;
+import com.example.ui_kafka_sf.course.CourseDto;
+import com.example.ui_kafka_sf.course.CourseRepository;
+import com.example.ui_kafka_sf.course.CourseView;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * Consistency check between the Kafka-fed {@link CourseView} and Postgres: after a mix of creates,
+ * updates (including an instructor move), patches and deletes, every instructor listing served by
+ * the view must match {@code CourseRepository.findByInstructorId}.
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CourseViewIntegrationTest {
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16-alpine")
+          .withDatabaseName("testdb")
+          .withUsername("postgres")
+          .withPassword("postgres");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  @DynamicPropertySource
+  static void props(DynamicPropertyRegistry r) {
+    r.add("spring.datasource.url", postgres::getJdbcUrl);
+    r.add("spring.datasource.username", postgres::getUsername);
+    r.add("spring.datasource.password", postgres::getPassword);
+    r.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+    r.add("app.jwt.secret", () -> "0123456789_0123456789_0123456789_01");
+    r.add("app.kafka.enabled", () -> "true");
+  }
+
+  @LocalServerPort int port;
+
+  @Autowired TestRestTemplate rest;
+  @Autowired CourseRepository repo;
+  @Autowired CourseView view;
+
+  private String url(String p) {
+    return "http://localhost:" + port + p;
+  }
+
+  @BeforeEach
+  void restTemplateWithOkHttp() {
+    // OkHttp supports PATCH, unlike the JDK HttpURLConnection default
+    var client = new OkHttpClient.Builder().retryOnConnectionFailure(false).build();
+    rest.getRestTemplate().setRequestFactory(new OkHttp3ClientHttpRequestFactory(client));
+  }
+
+  @Test
+  void view_matches_database_after_mixed_writes() throws Exception {
+    var auth = authHeaders();
+
+    for (int i = 0; i < 6; i++) {
+      var instructor = i % 2 == 0 ? "i1" : "i2";
+      send(HttpMethod.POST, "/api/course", course("c" + i, "code-" + i, instructor), auth);
+    }
+    // move c0 from i1 to i2, patch c1, delete c2
+    send(HttpMethod.PUT, "/api/course/c0", course("c0", "code-0", "i2"), auth);
+    send(HttpMethod.PATCH, "/api/course/c1", Map.of("description", "patched"), auth);
+    send(HttpMethod.DELETE, "/api/course/c2", null, auth);
+
+    long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+    while (!(view.isReady() && consistent("i1", auth) && consistent("i2", auth))) {
+      assertThat(System.nanoTime()).as("view did not converge").isLessThan(deadline);
+      Thread.sleep(200);
+    }
+    assertThat(view.byInstructor("i2").stream().map(CourseDto::id)).contains("c0", "c1");
+    assertThat(view.byInstructor("i1").stream().map(CourseDto::id)).doesNotContain("c0", "c2");
+  }
+
+  // -- helpers
+
+  private boolean consistent(String instructorId, HttpHeaders auth) {
+    Set<String> db =
+        repo.findByInstructorId(instructorId).stream()
+            .map(c -> c.getId() + "@" + c.getVersion())
+            .collect(Collectors.toSet());
+    var resp =
+        rest.exchange(
+            url("/api/course/by_instructor/" + instructorId),
+            HttpMethod.GET,
+            new HttpEntity<>(auth),
+            new ParameterizedTypeReference<List<CourseDto>>() {});
+    Set<String> api =
+        resp.getBody().stream().map(c -> c.id() + "@" + c.version()).collect(Collectors.toSet());
+    return db.equals(api);
+  }
+
+  private static CourseDto course(String id, String code, String instructorId) {
+    return new CourseDto(
+        id, code, "name " + id, "desc", null, "2025", null, false, instructorId, null, null);
+  }
+
+  private void send(HttpMethod method, String path, Object body, HttpHeaders auth) {
+    var resp = rest.exchange(url(path), method, new HttpEntity<>(body, auth), String.class);
+    assertThat(resp.getStatusCode().is2xxSuccessful()).as(method + " " + path).isTrue();
+  }
+
+  private HttpHeaders authHeaders() {
+    rest.postForEntity(
+        url("/api/auth/register"),
+        new RegisterReq("view_it", "view_pwd", Role.INSTRUCTOR),
+        Map.class);
+    var login =
+        rest.postForEntity(url("/api/auth/login"), new LoginReq("view_it", "view_pwd"), Map.class);
+    var h = new HttpHeaders();
+    h.setContentType(MediaType.APPLICATION_JSON);
+    h.setBearerAuth((String) login.getBody().get("token"));
+    return h;
+  }
+}
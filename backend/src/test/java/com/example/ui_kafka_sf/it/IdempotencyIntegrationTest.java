@@ -0,0 +1,129 @@
+package com.example.ui_kafka_sf.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ui_kafka_sf.auth.Role;
+import com.example.ui_kafka_sf.auth.dto.RegisterReq;
+import com.example.ui_kafka_sf.common.idempotency.IdempotencyFilter;
+import com.example.ui_kafka_sf.common.idempotency.IdempotentResponseRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * {@code Idempotency-Key} on Postgres: the native statements of {@link
+ * IdempotentResponseRepository} (reservation, lease takeover, expiry checked by the database
+ * clock, release, purge), and two anonymous registrations that picked the same key.
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class IdempotencyIntegrationTest {
+
+  private static final String HASH = "a".repeat(64);
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16-alpine")
+          .withDatabaseName("testdb")
+          .withUsername("postgres")
+          .withPassword("postgres");
+
+  @DynamicPropertySource
+  static void props(DynamicPropertyRegistry r) {
+    r.add("spring.datasource.url", postgres::getJdbcUrl);
+    r.add("spring.datasource.username", postgres::getUsername);
+    r.add("spring.datasource.password", postgres::getPassword);
+    r.add("spring.kafka.bootstrap-servers", () -> "disabled:9092");
+    r.add(
+        "spring.autoconfigure.exclude",
+        () ->
+            String.join(
+                ",",
+                "org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+                "org.springframework.boot.autoconfigure.kafka.KafkaReactiveAutoConfiguration"));
+    r.add("app.jwt.secret", () -> "0123456789_0123456789_0123456789_01");
+    r.add("app.kafka.enabled", () -> "false");
+  }
+
+  @MockBean KafkaTemplate<String, Object> kafkaTemplate;
+
+  @LocalServerPort int port;
+
+  @Autowired TestRestTemplate rest;
+  @Autowired IdempotentResponseRepository repo;
+
+  @Test
+  void a_key_is_reserved_once_and_replayed_until_it_expires() {
+    var body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+    assertThat(repo.reserve("u k1", "POST", "/api/course", HASH, 30_000, 60)).isTrue();
+    assertThat(repo.reserve("u k1", "POST", "/api/course", HASH, 30_000, 60)).isFalse();
+    var inFlight = repo.find("u k1").orElseThrow();
+    assertThat(inFlight.completed()).isFalse();
+    assertThat(inFlight.matches("POST", "/api/course", HASH)).isTrue();
+    assertThat(inFlight.matches("POST", "/api/course", "b".repeat(64))).isFalse();
+
+    repo.complete("u k1", 201, "Location: /api/course/1\n", body, 60);
+    repo.release("u k1");
+    var done = repo.find("u k1").orElseThrow();
+    assertThat(done.status()).isEqualTo(201);
+    assertThat(done.headers()).isEqualTo("Location: /api/course/1\n");
+    assertThat(done.body()).isEqualTo(body);
+    assertThat(repo.reserve("u k1", "POST", "/api/course", HASH, 30_000, 60)).isFalse();
+
+    // stored with a TTL that has already passed, by the database clock
+    repo.complete("u k1", 201, "", body, -1);
+    assertThat(repo.find("u k1")).isEmpty();
+    assertThat(repo.purgeExpired(1000)).isEqualTo(1);
+    assertThat(repo.findById("u k1")).isEmpty();
+  }
+
+  @Test
+  void an_abandoned_reservation_is_taken_over_and_a_released_one_is_gone() {
+    // the original's lease has already run out
+    assertThat(repo.reserve("u k2", "POST", "/api/course", HASH, -1, 60)).isTrue();
+    assertThat(repo.reserve("u k2", "PUT", "/api/course/1", HASH, 30_000, 60)).isTrue();
+    assertThat(repo.find("u k2").orElseThrow().method()).isEqualTo("PUT");
+
+    repo.release("u k2");
+    assertThat(repo.find("u k2")).isEmpty();
+    assertThat(repo.reserve("u k2", "POST", "/api/course", HASH, 30_000, 60)).isTrue();
+  }
+
+  @Test
+  void anonymous_clients_sharing_a_key_do_not_get_each_others_response() {
+    var erin = register("shared-key", new RegisterReq("erin", "erin_pwd", Role.STUDENT));
+    var retry = register("shared-key", new RegisterReq("erin", "erin_pwd", Role.STUDENT));
+    var frank = register("shared-key", new RegisterReq("frank", "frank_pwd", Role.STUDENT));
+
+    assertThat(erin.getStatusCode().is2xxSuccessful()).isTrue();
+    assertThat(retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    assertThat(retry.getBody()).isEqualTo(erin.getBody());
+    assertThat(frank.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    assertThat(frank.getBody()).containsEntry("error", "idempotency_key_reused");
+  }
+
+  @SuppressWarnings("rawtypes")
+  private ResponseEntity<Map> register(String key, RegisterReq req) {
+    var headers = new HttpHeaders();
+    headers.set(IdempotencyFilter.KEY_HEADER, key);
+    return rest.postForEntity(
+        "http://localhost:" + port + "/api/auth/register",
+        new HttpEntity<>(req, headers),
+        Map.class);
+  }
+}
@@ -0,0 +1,190 @@
+package com.example.ui_kafka_sf.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.KafkaSfException;
+import com.example.ui_kafka_sf.sf.PartialReservationException;
+import com.example.ui_kafka_sf.sf.ShardedIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * {@link ShardedIdempotencyStore} against three Postgres containers: keys land on one shard each
+ * and stay idempotent, a down shard fails only its own keys (also within a batch), and growing the
+ * ring from two to three shards neither loses a reservation nor grants one twice, before or after
+ * the migration.
+ */
+@Testcontainers
+class ShardedIdempotencyIntegrationTest {
+
+  @Container static PostgreSQLContainer<?> a = new PostgreSQLContainer<>("postgres:16-alpine");
+  @Container static PostgreSQLContainer<?> b = new PostgreSQLContainer<>("postgres:16-alpine");
+  @Container static PostgreSQLContainer<?> c = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Test
+  void routes_each_key_to_one_shard_and_reserves_it_once() throws Exception {
+    var keys = keys("route", 300);
+    try (var store = store(List.of("a", "b", "c"), List.of())) {
+      assertThat(store.reserveFirstSends(keys, emails(keys))).containsExactlyInAnyOrder(keys);
+      assertThat(store.reserveFirstSends(keys, emails(keys))).isEmpty();
+      assertThat(store.tryReserveFirstSend("x@y.io", keys[0])).isFalse();
+    }
+    // every shard got a share, and no key is stored twice
+    long total = 0;
+    for (var pg : List.of(a, b, c)) {
+      long n = count(pg, keys);
+      assertThat(n).isPositive();
+      total += n;
+    }
+    assertThat(total).isEqualTo(keys.length);
+  }
+
+  @Test
+  void a_down_shard_fails_only_its_own_keys() throws Exception {
+    var cfg = config(List.of("a", "b"), List.of());
+    var down = new AppProperties.Shard();
+    down.setUrl("jdbc:postgresql://localhost:1/down");
+    down.setAcquireTimeoutMs(250);
+    cfg.getShards().put("down", down);
+    cfg.setRing(List.of("a", "b", "down"));
+
+    try (var store = new ShardedIdempotencyStore(cfg, new SimpleMeterRegistry())) {
+      assertThat(store.status().up()).containsEntry("down", false).containsEntry("a", true);
+      int ok = 0;
+      int unavailable = 0;
+      for (var key : keys("down", 60)) {
+        try {
+          assertThat(store.tryReserveFirstSend("x@y.io", key)).isTrue();
+          ok++;
+        } catch (KafkaSfException e) {
+          assertThat(e.getError()).isEqualTo(Errors.DB_UNAVAILABLE);
+          unavailable++;
+        }
+      }
+      assertThat(ok).isPositive();
+      assertThat(unavailable).isPositive();
+
+      // a batch touching the down shard fails only the keys routed there
+      var batch = keys("down-batch", 30);
+      var partial =
+          catchThrowableOfType(
+              () -> store.reserveFirstSends(batch, emails(batch)),
+              PartialReservationException.class);
+      assertThat(partial.getError()).isEqualTo(Errors.DB_UNAVAILABLE);
+      assertThat(partial.firstSends()).isNotEmpty();
+      assertThat(partial.failures()).isNotEmpty();
+      assertThat(partial.firstSends().size() + partial.failures().size()).isEqualTo(batch.length);
+      assertThat(partial.failures().values())
+          .allSatisfy(e -> assertThat(((KafkaSfException) e).getError())
+              .isEqualTo(Errors.DB_UNAVAILABLE));
+      assertThat(count(a, batch) + count(b, batch)).isEqualTo(partial.firstSends().size());
+    }
+  }
+
+  @Test
+  void resharding_keeps_reservations_before_and_after_migration() throws Exception {
+    var old = keys("reshard-old", 400);
+    try (var twoShards = store(List.of("a", "b"), List.of())) {
+      assertThat(twoShards.reserveFirstSends(old, emails(old))).hasSize(old.length);
+    }
+
+    var fresh = keys("reshard-new", 200);
+    try (var resharding = store(List.of("a", "b", "c"), List.of("a", "b"))) {
+      // keys now owned by c are not there yet, but their previous owner still answers
+      assertThat(resharding.reserveFirstSends(old, emails(old))).isEmpty();
+      assertThat(resharding.reserveFirstSends(fresh, emails(fresh))).hasSize(fresh.length);
+      // an instance still on the old ring sees the fresh keys as taken
+      try (var stale = store(List.of("a", "b"), List.of())) {
+        assertThat(stale.reserveFirstSends(fresh, emails(fresh))).isEmpty();
+      }
+
+      resharding.startMigration();
+      long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+      while (!"done".equals(resharding.status().migration().state())) {
+        assertThat(resharding.status().migration().state()).isNotEqualTo("failed");
+        assertThat(System.nanoTime()).as("migration did not finish").isLessThan(deadline);
+        Thread.sleep(50);
+      }
+      assertThat(resharding.status().migration().copied().get("c")).isPositive();
+    }
+
+    // previous-ring dropped: c alone answers for its keys
+    try (var threeShards = store(List.of("a", "b", "c"), List.of())) {
+      assertThat(threeShards.reserveFirstSends(old, emails(old))).isEmpty();
+      assertThat(threeShards.reserveFirstSends(fresh, emails(fresh))).isEmpty();
+    }
+  }
+
+  // -- helpers
+
+  private static ShardedIdempotencyStore store(List<String> ring, List<String> previousRing) {
+    return new ShardedIdempotencyStore(config(ring, previousRing), new SimpleMeterRegistry());
+  }
+
+  private static AppProperties.SfShards config(List<String> ring, List<String> previousRing) {
+    var cfg = new AppProperties.SfShards();
+    cfg.setEnabled(true);
+    cfg.getShards().put("a", shard(a));
+    cfg.getShards().put("b", shard(b));
+    cfg.getShards().put("c", shard(c));
+    cfg.setRing(ring);
+    cfg.setPreviousRing(previousRing);
+    cfg.setMigrationBatchSize(64);
+    return cfg;
+  }
+
+  private static AppProperties.Shard shard(PostgreSQLContainer<?> pg) {
+    var shard = new AppProperties.Shard();
+    shard.setUrl(pg.getJdbcUrl());
+    shard.setUsername(pg.getUsername());
+    shard.setPassword(pg.getPassword());
+    shard.setPoolSize(4);
+    return shard;
+  }
+
+  /** Hex SHA-256 key hashes, like {@code SfController}'s; each test uses its own prefix. */
+  private static String[] keys(String prefix, int n) {
+    return IntStream.range(0, n).mapToObj(i -> sha256(prefix + "-" + i)).toArray(String[]::new);
+  }
+
+  private static String[] emails(String[] keys) {
+    return Arrays.stream(keys).map(k -> k.substring(0, 8) + "@it.io").toArray(String[]::new);
+  }
+
+  private static String sha256(String s) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** How many of {@code keys} the shard holds. */
+  private static long count(PostgreSQLContainer<?> pg, String[] keys) throws Exception {
+    try (var conn =
+            DriverManager.getConnection(pg.getJdbcUrl(), pg.getUsername(), pg.getPassword());
+        var ps =
+            conn.prepareStatement("select count(*) from sf_idempotency where key_hash = any(?)")) {
+      ps.setArray(1, conn.createArrayOf("varchar", keys));
+      try (var rs = ps.executeQuery()) {
+        rs.next();
+        return rs.getLong(1);
+      }
+    }
+  }
+}
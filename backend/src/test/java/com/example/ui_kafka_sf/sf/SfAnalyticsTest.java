@@ -0,0 +1,93 @@
+package com.example.ui_kafka_sf.sf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.sketch.Hash64;
+import com.example.ui_kafka_sf.common.sketch.TopK;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SfAnalyticsTest {
+
+  private static final long MINUTE = 60_000;
+
+  private final AtomicLong now = new AtomicLong(1_000 * MINUTE);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  // one hour in 12 five-minute buckets
+  private final SfAnalytics analytics =
+      new SfAnalytics(new AppProperties.SfAnalytics(), meters, now::get);
+
+  @Test
+  void counts_outcomes_distinct_emails_and_duplicate_domains() {
+    for (int i = 0; i < 2_000; i++) analytics.record("user" + i + "@good.io", key(i), true);
+    for (int i = 0; i < 300; i++)
+      analytics.record("Bot" + (i % 10) + "@Spam.IO", key(i % 10), false);
+    analytics.record("user1@good.io", key(1), false);
+
+    var s = analytics.snapshot();
+    assertThat(s.queued()).isEqualTo(2_000);
+    assertThat(s.duplicates()).isEqualTo(301);
+    assertThat(s.duplicateRatio()).isCloseTo(301 / 2301.0, withinPercentage(0.1));
+    assertThat(s.distinctEmails()).isCloseTo(2_010, withinPercentage(5));
+    assertThat(s.topDuplicateDomains().get(0)).isEqualTo(new TopK.Entry("spam.io", 300));
+    // key(1) is shared by the spam bot and user1's resubmit
+    assertThat(s.topDuplicateKeys().get(0)).isEqualTo(new TopK.Entry(key(1), 31));
+    assertThat(meters.get("sf.analytics.duplicate.ratio").gauge().value())
+        .isEqualTo(s.duplicateRatio());
+  }
+
+  @Test
+  void old_buckets_leave_the_window() {
+    for (int i = 0; i < 100; i++) analytics.record("early" + i + "@a.io", key(i), i >= 50);
+    now.addAndGet(30 * MINUTE);
+    for (int i = 0; i < 10; i++) analytics.record("late" + i + "@b.io", key(1_000 + i), false);
+
+    assertThat(analytics.snapshot().duplicates()).isEqualTo(60);
+    now.addAndGet(31 * MINUTE);
+    var s = analytics.snapshot();
+    assertThat(s.queued()).isZero();
+    assertThat(s.duplicates()).isEqualTo(10);
+    assertThat(s.distinctEmails()).isEqualTo(10);
+    assertThat(s.topDuplicateDomains()).containsExactly(new TopK.Entry("b.io", 10));
+
+    now.addAndGet(60 * MINUTE);
+    assertThat(analytics.snapshot().topDuplicateDomains()).isEmpty();
+  }
+
+  @Test
+  void concurrent_records_into_a_fresh_bucket_are_not_cleared_away() throws Exception {
+    var threads = new ArrayList<Thread>();
+    for (int t = 0; t < 8; t++)
+      threads.add(
+          Thread.ofPlatform()
+              .start(
+                  () -> {
+                    for (int i = 0; i < 1_000; i++) analytics.record("a@dup.io", key(7), false);
+                  }));
+    for (var t : threads) t.join();
+
+    var s = analytics.snapshot();
+    assertThat(s.duplicates()).isEqualTo(8_000);
+    assertThat(s.topDuplicateDomains()).containsExactly(new TopK.Entry("dup.io", 8_000));
+    assertThat(s.topDuplicateKeys()).containsExactly(new TopK.Entry(key(7), 8_000));
+  }
+
+  @Test
+  void memory_does_not_grow_with_volume() {
+    long before = analytics.memoryBytes();
+    for (int i = 0; i < 200_000; i++) {
+      now.addAndGet(20);
+      analytics.record("u" + i + "@d" + (i % 5_000) + ".io", key(i), i % 3 == 0);
+    }
+    assertThat(analytics.memoryBytes()).isEqualTo(before).isLessThan(1_100_000);
+  }
+
+  /** Stand-in for a SHA-256 hex key hash. */
+  private static String key(int i) {
+    return String.format("%016x", Hash64.mix(i)).repeat(4);
+  }
+}
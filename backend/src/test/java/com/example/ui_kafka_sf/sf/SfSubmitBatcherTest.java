@@ -0,0 +1,154 @@
+package com.example.ui_kafka_sf.sf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.common.Errors;
+import com.example.ui_kafka_sf.common.KafkaSfException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+class SfSubmitBatcherTest {
+
+  private final SfReservations repo = mock(SfReservations.class);
+  private final SfPublisher publisher = mock(SfPublisher.class);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private SfSubmitBatcher batcher;
+
+  /** A long window: batches close by reaching {@code maxBatchSize}, which keeps tests exact. */
+  private SfSubmitBatcher start(int maxBatchSize) {
+    var props = new AppProperties();
+    props.getSfBatch().setWindowMicros(5_000_000);
+    props.getSfBatch().setMaxBatchSize(maxBatchSize);
+    props.getSfBatch().setFlushers(1);
+    batcher = new SfSubmitBatcher(repo, publisher, props, meters);
+    batcher.start();
+    return batcher;
+  }
+
+  @AfterEach
+  void stop() {
+    if (batcher != null) batcher.stop();
+  }
+
+  private static SfEvent event(String email) {
+    return new SfEvent("Ann", email, null);
+  }
+
+  private static List<Boolean> concurrently(List<Callable<Boolean>> calls) throws Exception {
+    try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<Boolean>>();
+      for (var c : calls) futures.add(pool.submit(c));
+      var out = new ArrayList<Boolean>();
+      for (var f : futures) out.add(f.get());
+      return out;
+    }
+  }
+
+  @Test
+  void concurrent_submits_share_one_statement() throws Exception {
+    when(repo.reserveFirstSends(any(), any()))
+        .thenAnswer(inv -> Arrays.asList(inv.<String[]>getArgument(0)));
+    var b = start(8);
+
+    var calls = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < 8; i++) {
+      var email = "u" + i + "@x.io";
+      calls.add(() -> b.submit(event(email), "k-" + email, "t", 0, 0));
+    }
+
+    assertThat(concurrently(calls)).containsOnly(true).hasSize(8);
+    verify(repo, times(1)).reserveFirstSends(any(), any());
+    verify(publisher, times(8)).publish(any(), eq("t"), eq(0L), eq(0L));
+    assertThat(meters.get("sf.batch.size").summary().max()).isEqualTo(8);
+  }
+
+  @Test
+  void only_the_first_of_identical_submits_wins_and_known_keys_are_duplicates() throws Exception {
+    // "a" is new (returned once even though it is in the batch twice), "b" already exists
+    when(repo.reserveFirstSends(any(), any())).thenReturn(List.of("a"));
+    var b = start(3);
+
+    var results =
+        concurrently(
+            List.of(
+                () -> b.submit(event("a@x.io"), "a", "t", 0, 0),
+                () -> b.submit(event("a@x.io"), "a", "t", 0, 0),
+                () -> b.submit(event("b@x.io"), "b", "t", 0, 0)));
+
+    assertThat(results.subList(0, 2)).containsExactlyInAnyOrder(true, false);
+    assertThat(results.get(2)).isFalse();
+    verify(publisher, times(1)).publish(eq(event("a@x.io")), any(), eq(0L), eq(0L));
+  }
+
+  @Test
+  void a_failed_reservation_fails_every_caller_and_publishes_nothing() throws Exception {
+    when(repo.reserveFirstSends(any(), any()))
+        .thenThrow(new CannotGetJdbcConnectionException("pool timeout"));
+    var b = start(2);
+
+    var calls = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < 2; i++) {
+      var email = "u" + i + "@x.io";
+      calls.add(
+          () -> {
+            assertThatThrownBy(() -> b.submit(event(email), email, "t", 0, 0))
+                .isInstanceOf(CannotGetJdbcConnectionException.class);
+            return true;
+          });
+    }
+
+    assertThat(concurrently(calls)).containsOnly(true);
+    verify(publisher, never()).publish(any(), any(), eq(0L), eq(0L));
+  }
+
+  @Test
+  void a_partial_reservation_fails_only_the_callers_of_the_failed_keys() throws Exception {
+    var down = new KafkaSfException(Errors.DB_UNAVAILABLE, "sf shard b is down");
+    when(repo.reserveFirstSends(any(), any()))
+        .thenThrow(new PartialReservationException(List.of("a"), Map.of("b", down)));
+    var b = start(3);
+
+    var results =
+        concurrently(
+            List.of(
+                () -> b.submit(event("a@x.io"), "a", "t", 0, 0),
+                () -> {
+                  assertThatThrownBy(() -> b.submit(event("b@x.io"), "b", "t", 0, 0))
+                      .isSameAs(down);
+                  return null;
+                },
+                () -> b.submit(event("c@x.io"), "c", "t", 0, 0)));
+
+    assertThat(results).containsExactly(true, null, false);
+    verify(publisher, times(1)).publish(any(), any(), eq(0L), eq(0L));
+    verify(publisher).publish(eq(event("a@x.io")), any(), eq(0L), eq(0L));
+  }
+
+  @Test
+  void reserves_on_the_callers_thread_when_not_running() {
+    when(repo.reserveFirstSends(any(), any())).thenReturn(List.of("k"));
+    var props = new AppProperties();
+    batcher = new SfSubmitBatcher(repo, publisher, props, meters);
+
+    assertThat(batcher.submit(event("a@x.io"), "k", "t", 0, 0)).isTrue();
+    verify(publisher).publish(any(), eq("t"), eq(0L), eq(0L));
+  }
+}
@@ -0,0 +1,61 @@
+plugins {
+  id("java")
+  id("io.spring.dependency-management") version "1.1.6"
+  id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+  toolchain { languageVersion.set(JavaLanguageVersion.of(21)) }
+}
+
+repositories { mavenCentral() }
+
+tasks.withType<JavaCompile> { options.encoding = "UTF-8" }
+
+dependencyManagement {
+  imports { mavenBom("org.springframework.boot:spring-boot-dependencies:3.3.4") }
+}
+
+dependencies {
+  // benchmarks live in the backend's packages to reach package-private hot paths
+  jmhImplementation(project(":backend"))
+  jmhImplementation("org.springframework.boot:spring-boot-starter-web")
+  jmhImplementation("org.springframework.boot:spring-boot-starter-security")
+  jmhImplementation("org.springframework.kafka:spring-kafka")
+  jmhImplementation("io.micrometer:micrometer-core")
+  jmhImplementation("org.springframework:spring-test")
+  jmhImplementation("jakarta.persistence:jakarta.persistence-api")
+  jmhImplementation("io.jsonwebtoken:jjwt-api:0.12.6")
+  jmhRuntimeOnly("io.jsonwebtoken:jjwt-impl:0.12.6")
+  jmhRuntimeOnly("io.jsonwebtoken:jjwt-jackson:0.12.6")
+
+  implementation("com.fasterxml.jackson.core:jackson-databind")
+}
+
+// ./gradlew :benchmarks:jmh [-Pjmh.includes=JwtBenchmark]
+jmh {
+  jmhVersion.set("1.37")
+  fork.set(1)
+  warmupIterations.set(3)
+  warmup.set("1s")
+  iterations.set(5)
+  timeOnIteration.set("1s")
+  benchmarkMode.set(listOf("avgt"))
+  timeUnit.set("ns")
+  profilers.set(listOf("gc"))
+  resultFormat.set("JSON")
+  resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+  (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+// ./gradlew :benchmarks:jmhDiff -Pbaseline=baseline.json [-Pcurrent=build/results/jmh/results.json]
+tasks.register<JavaExec>("jmhDiff") {
+  description = "Compares two JMH JSON result files (score and gc.alloc.rate.norm)."
+  group = "verification"
+  classpath = sourceSets.main.get().runtimeClasspath
+  mainClass.set("com.example.ui_kafka_sf.bench.JmhDiff")
+  args(
+    project.findProperty("baseline") ?: "baseline.json",
+    project.findProperty("current")
+      ?: layout.buildDirectory.file("results/jmh/results.json").get().asFile.path)
+}
@@ -0,0 +1,83 @@
+package com.example.ui_kafka_sf.auth;
+
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Token issuance ({@link JwtUtil#issue}) and per-request verification in {@link
+ * SecurityConfig.JwtFilter}. {@link #filterNoToken} is the mock request/filter overhead to subtract
+ * from {@link #filterVerify}.
+ *
+ * <p>{@code revoked} is the number of entries in {@link TokenRevocations}, split between user
+ * watermarks and denied jtis of other users. The revocation check's cost is {@link #filterVerify}
+ * at {@code revoked > 0} minus {@link #filterVerify} at {@code 0}; {@link #revocationCheck}
+ * isolates it.
+ */
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+  @Param({"0", "100000"})
+  public int revoked;
+
+  private JwtUtil jwt;
+  private TokenRevocations revocations;
+  private SecurityConfig.JwtFilter filter;
+  private String bearer;
+  private Claims claims;
+
+  @Setup
+  public void setup() {
+    var props = new AppProperties();
+    props.getJwt().setSecret("0123456789_0123456789_0123456789_01");
+    jwt = new JwtUtil(props);
+    revocations = new TokenRevocations(null, props, new SimpleMeterRegistry());
+    for (int i = 0; i < revoked; i++) {
+      if ((i & 1) == 0) revocations.revokeUser("user-" + i);
+      else revocations.revokeToken("user-" + i, "jti-" + i, null);
+    }
+    filter = new SecurityConfig.JwtFilter(props, revocations);
+    var token = jwt.issue("alice", "INSTRUCTOR").token();
+    bearer = "Bearer " + token;
+    claims = jwt.parse(token);
+  }
+
+  @Benchmark
+  public JwtUtil.Pair issue() {
+    return jwt.issue("alice", "INSTRUCTOR");
+  }
+
+  @Benchmark
+  public Authentication filterVerify() throws Exception {
+    var req = new MockHttpServletRequest("GET", "/api/course");
+    req.addHeader("Authorization", bearer);
+    return runFilter(req);
+  }
+
+  @Benchmark
+  public Authentication filterNoToken() throws Exception {
+    return runFilter(new MockHttpServletRequest("GET", "/api/course"));
+  }
+
+  @Benchmark
+  public boolean revocationCheck() {
+    return revocations.isRevoked(claims.getSubject(), claims.getId(), claims.getIssuedAt());
+  }
+
+  private Authentication runFilter(MockHttpServletRequest req) throws Exception {
+    filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+    var auth = SecurityContextHolder.getContext().getAuthentication();
+    SecurityContextHolder.clearContext();
+    return auth;
+  }
+}
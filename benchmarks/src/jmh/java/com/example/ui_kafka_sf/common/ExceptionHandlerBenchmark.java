@@ -0,0 +1,49 @@
+package com.example.ui_kafka_sf.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Exception-path cost through {@link GlobalExceptionHandler}: construct + throw + catch + map to a
+ * response. {@code stackDepth} shows how much of it is {@code fillInStackTrace} on deep stacks.
+ */
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+
+  @Param({"0", "64"})
+  public int stackDepth;
+
+  private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+  @Benchmark
+  public ResponseEntity<?> kafkaSfException() {
+    try {
+      throwAt(stackDepth, true);
+      return null;
+    } catch (KafkaSfException e) {
+      return handler.handleKafkaSf(e);
+    }
+  }
+
+  @Benchmark
+  public ResponseEntity<?> illegalArgument() {
+    try {
+      throwAt(stackDepth, false);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return handler.handleIllegal(e);
+    }
+  }
+
+  private static void throwAt(int depth, boolean domain) {
+    if (depth > 0) {
+      throwAt(depth - 1, domain);
+      return;
+    }
+    if (domain) throw new KafkaSfException(Errors.PRECONDITION_FAILED, "stale version");
+    throw new IllegalArgumentException("unknown field: foo");
+  }
+}
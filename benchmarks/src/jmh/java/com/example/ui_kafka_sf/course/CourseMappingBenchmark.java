@@ -0,0 +1,52 @@
+package com.example.ui_kafka_sf.course;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Entity → DTO mapping in {@link CourseController}, single and as a listing. */
+@State(Scope.Benchmark)
+public class CourseMappingBenchmark {
+
+  @Param({"100"})
+  public int listSize;
+
+  private Course course;
+  private List<Course> courses;
+
+  @Setup
+  public void setup() {
+    course = course(0);
+    courses = new ArrayList<>(listSize);
+    for (int i = 0; i < listSize; i++) courses.add(course(i));
+  }
+
+  @Benchmark
+  public CourseDto toDto() {
+    return CourseController.toDto(course);
+  }
+
+  @Benchmark
+  public List<CourseDto> toDtoList() {
+    return courses.stream().map(CourseController::toDto).toList();
+  }
+
+  private static Course course(int i) {
+    return Course.builder()
+        .id("course-" + i)
+        .code("CS-" + i)
+        .name("Algorithms " + i)
+        .description("x".repeat(2000))
+        .term(Term.AUTUMN)
+        .year("2025")
+        .expired(OffsetDateTime.parse("2026-01-31T00:00:00Z"))
+        .instructorId("instructor-" + (i % 10))
+        .version(3L)
+        .build();
+  }
+}
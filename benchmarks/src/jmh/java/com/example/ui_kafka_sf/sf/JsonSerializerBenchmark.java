@@ -0,0 +1,41 @@
+package com.example.ui_kafka_sf.sf;
+
+import com.example.ui_kafka_sf.auth.Role;
+import com.example.ui_kafka_sf.auth.dto.UserRegisteredEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Value encoding as done by the producer ({@code KafkaProducerConfig} uses {@link JsonSerializer}),
+ * including the {@code __TypeId__} header it adds to every record.
+ */
+@State(Scope.Benchmark)
+public class JsonSerializerBenchmark {
+
+  private final JsonSerializer<Object> serializer = new JsonSerializer<>();
+
+  private final SfEvent sfEvent =
+      new SfEvent("Jane Doe", "jane.doe@example.com", "Please call me back about the spring term.");
+
+  private final UserRegisteredEvent userRegistered =
+      new UserRegisteredEvent("alice", Role.INSTRUCTOR, 1_700_000_000_000L);
+
+  @Benchmark
+  public byte[] sfEvent() {
+    return serializer.serialize("sf.events", new RecordHeaders(), sfEvent);
+  }
+
+  @Benchmark
+  public byte[] userRegisteredEvent() {
+    return serializer.serialize("sf.events", new RecordHeaders(), userRegistered);
+  }
+
+  @TearDown
+  public void close() {
+    serializer.close();
+  }
+}
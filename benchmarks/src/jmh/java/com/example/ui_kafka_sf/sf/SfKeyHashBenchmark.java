@@ -0,0 +1,25 @@
+package com.example.ui_kafka_sf.sf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Cost of {@link SfController#keyHash}: string concat + SHA-256 + hex encoding per submit. */
+@State(Scope.Benchmark)
+public class SfKeyHashBenchmark {
+
+  private final SfEvent event =
+      new SfEvent("Jane Doe", "jane.doe@example.com", "Please call me back about the spring term.");
+
+  private final SfEvent sparse = new SfEvent("Jane Doe", "jane.doe@example.com", null);
+
+  @Benchmark
+  public String keyHash() {
+    return SfController.keyHash(event);
+  }
+
+  @Benchmark
+  public String keyHashNullMessage() {
+    return SfController.keyHash(sparse);
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.ui_kafka_sf.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints a side-by-side diff of two JMH JSON result files: score (ns/op) and normalized
+ * allocation (B/op from the {@code gc} profiler), with relative change.
+ *
+ * <p>Usage: {@code JmhDiff <baseline.json> <current.json>}
+ */
+public final class JmhDiff {
+
+  private record Row(double score, double allocNorm) {}
+
+  private JmhDiff() {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      System.err.println("usage: JmhDiff <baseline.json> <current.json>");
+      System.exit(2);
+    }
+    var baseline = read(new File(args[0]));
+    var current = read(new File(args[1]));
+
+    System.out.printf(
+        "%-70s %12s %12s %8s %10s %10s%n",
+        "benchmark", "base ns/op", "curr ns/op", "diff%", "base B/op", "curr B/op");
+    for (var e : current.entrySet()) {
+      var b = baseline.get(e.getKey());
+      var c = e.getValue();
+      System.out.printf(
+          "%-70s %12s %12.2f %8s %10s %10.1f%n",
+          e.getKey(),
+          b == null ? "-" : String.format("%.2f", b.score()),
+          c.score(),
+          b == null ? "new" : String.format("%+.1f", (c.score() - b.score()) / b.score() * 100),
+          b == null ? "-" : String.format("%.1f", b.allocNorm()),
+          c.allocNorm());
+    }
+  }
+
+  private static Map<String, Row> read(File f) throws Exception {
+    var rows = new LinkedHashMap<String, Row>();
+    for (JsonNode run : new ObjectMapper().readTree(f)) {
+      var key = new StringBuilder(run.path("benchmark").asText());
+      run.path("params").fields().forEachRemaining(p -> key.append(' ').append(p.getKey())
+          .append('=').append(p.getValue().asText()));
+      var secondary = run.path("secondaryMetrics");
+      var alloc = secondary.has("gc.alloc.rate.norm")
+          ? secondary.path("gc.alloc.rate.norm")
+          : secondary.path("\u00b7gc.alloc.rate.norm");
+      rows.put(
+          key.toString(),
+          new Row(run.path("primaryMetric").path("score").asDouble(),
+              alloc.path("score").asDouble(Double.NaN)));
+    }
+    return rows;
+  }
+}
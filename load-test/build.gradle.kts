@@ -0,0 +1,40 @@
+plugins {
+  id("java")
+  id("io.spring.dependency-management") version "1.1.6"
+}
+
+java {
+  toolchain { languageVersion.set(JavaLanguageVersion.of(21)) }
+}
+
+repositories { mavenCentral() }
+
+tasks.withType<JavaCompile> { options.encoding = "UTF-8" }
+
+dependencyManagement {
+  imports { mavenBom("org.springframework.boot:spring-boot-dependencies:3.3.4") }
+}
+
+dependencies {
+  implementation(project(":backend"))
+  implementation("org.springframework.boot:spring-boot")
+  implementation("com.fasterxml.jackson.core:jackson-databind")
+  implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+  implementation("org.testcontainers:postgresql:1.20.3")
+  implementation("org.testcontainers:redpanda:1.20.3")
+}
+
+// Open-model load test with regression gates (needs Docker unless -Pload.target is set):
+//   ./gradlew :load-test:loadTest [-Pload.rate=300 -Pload.duration=60 -Pload.updateBaseline=true]
+// Every -Pload.* project property is passed through as a system property.
+tasks.register<JavaExec>("loadTest") {
+  description = "Drives the backend at a fixed arrival rate and fails on p99/throughput regressions."
+  group = "verification"
+  classpath = sourceSets.main.get().runtimeClasspath
+  mainClass.set("com.example.ui_kafka_sf.loadtest.LoadTestMain")
+  workingDir = projectDir
+  jvmArgs("-XX:+UseZGC")
+  project.properties.filterKeys { it.startsWith("load.") }
+    .forEach { (k, v) -> systemProperty(k, v.toString()) }
+  outputs.upToDateWhen { false }
+}
@@ -0,0 +1,78 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/** Thin JSON-over-HTTP helper shared by scenarios and the generator. */
+final class Client {
+
+  static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  final String base;
+  final HttpClient http;
+  private final ObjectMapper json = new ObjectMapper();
+
+  Client(String base) {
+    this.base = base;
+    this.http =
+        HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+  }
+
+  HttpRequest get(String path, String token) {
+    return builder(path, token).GET().build();
+  }
+
+  HttpRequest post(String path, String token, Object body) {
+    return builder(path, token)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(bytes(body)))
+        .build();
+  }
+
+  HttpRequest patch(String path, String token, Object body) {
+    return builder(path, token)
+        .header("Content-Type", "application/merge-patch+json")
+        .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(bytes(body)))
+        .build();
+  }
+
+  /** Synchronous call used during preparation; fails fast on unexpected statuses. */
+  Map<?, ?> call(HttpRequest req, int... ok) throws Exception {
+    var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+    for (int s : ok) {
+      if (resp.statusCode() == s) {
+        return resp.body().isBlank() ? Map.of() : json.readValue(resp.body(), Map.class);
+      }
+    }
+    throw new IllegalStateException(req.method() + " " + req.uri() + " -> " + resp.statusCode());
+  }
+
+  String login(String username, String password) throws Exception {
+    var body =
+        call(post("/api/auth/login", null, Map.of("username", username, "password", password)), 200);
+    return (String) body.get("token");
+  }
+
+  private HttpRequest.Builder builder(String path, String token) {
+    var b = HttpRequest.newBuilder(URI.create(base + path)).timeout(REQUEST_TIMEOUT);
+    if (token != null) b.header("Authorization", "Bearer " + token);
+    return b;
+  }
+
+  private byte[] bytes(Object body) {
+    try {
+      return json.writeValueAsBytes(body);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/** Per-endpoint latency histogram (microseconds) and outcome counters; thread-safe. */
+final class EndpointStats {
+
+  final String endpoint;
+  final Histogram latencyMicros = new ConcurrentHistogram(3);
+  final AtomicLong ok = new AtomicLong();
+  final AtomicLong errors = new AtomicLong();
+
+  /** 429 responses: shed by the server's concurrency limiter; not in the latency histogram. */
+  final AtomicLong shed = new AtomicLong();
+
+  /** Arrivals not issued because {@code load.maxInFlight} was reached (client-side overload). */
+  final AtomicLong dropped = new AtomicLong();
+
+  EndpointStats(String endpoint) {
+    this.endpoint = endpoint;
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load-test settings, read from {@code load.*} system properties (the Gradle task forwards
+ * {@code -Pload.*}).
+ *
+ * @param target base URL of an already running backend; {@code null} starts one in-process
+ *     against Testcontainers Postgres + Redpanda
+ * @param profile Spring profile for the in-process backend (e.g. {@code virtual-threads})
+ * @param scenario request mix to run (see {@link Scenarios})
+ * @param rate offered load in requests/second (open model: independent of response times)
+ * @param rateSteps when non-empty, the scenario is run once per rate (each with its own warm-up and
+ *     duration) and judged by {@link StepRun} instead of the baseline
+ * @param mix relative weights per operation; the default depends on the scenario
+ * @param duplicateRatio share of {@code /api/sf/submit} calls that repeat an earlier payload
+ * @param goodputFloor in step mode, every step after the goodput peak must keep at least this
+ *     share of the peak
+ */
+record LoadConfig(
+    String target,
+    String profile,
+    String scenario,
+    double rate,
+    List<Double> rateSteps,
+    Duration warmup,
+    Duration duration,
+    Map<String, Integer> mix,
+    double duplicateRatio,
+    int users,
+    int courses,
+    int maxInFlight,
+    long seed,
+    double p99Tolerance,
+    double throughputTolerance,
+    double maxErrorRatio,
+    double goodputFloor,
+    Path baseline,
+    boolean updateBaseline,
+    Path reportDir) {
+
+  static LoadConfig fromSystemProperties() {
+    var scenario = System.getProperty("load.scenario", "mixed");
+    boolean overload = scenario.equals("overload");
+    return new LoadConfig(
+        System.getProperty("load.target"),
+        System.getProperty("load.profile"),
+        scenario,
+        Double.parseDouble(System.getProperty("load.rate", "200")),
+        parseSteps(System.getProperty("load.rateSteps", overload ? "100,200,400,800,1600" : "")),
+        Duration.ofSeconds(Long.getLong("load.warmup", overload ? 5 : 15)),
+        Duration.ofSeconds(Long.getLong("load.duration", overload ? 20 : 60)),
+        parseMix(
+            System.getProperty(
+                "load.mix",
+                overload
+                    ? "register=10,courseWrite=30,sfSubmit=60"
+                    : "register=5,login=15,courseRead=40,courseWrite=10,sfSubmit=30")),
+        Double.parseDouble(System.getProperty("load.duplicateRatio", "0.3")),
+        Integer.getInteger("load.users", 50),
+        Integer.getInteger("load.courses", 200),
+        Integer.getInteger("load.maxInFlight", 5_000),
+        Long.getLong("load.seed", 42),
+        Double.parseDouble(System.getProperty("load.p99Tolerance", "0.20")),
+        Double.parseDouble(System.getProperty("load.throughputTolerance", "0.10")),
+        Double.parseDouble(System.getProperty("load.maxErrorRatio", "0.01")),
+        Double.parseDouble(System.getProperty("load.goodputFloor", "0.8")),
+        Path.of(System.getProperty("load.baseline", "baseline.json")),
+        Boolean.getBoolean("load.updateBaseline"),
+        Path.of(System.getProperty("load.reportDir", "build/reports/load-test")));
+  }
+
+  static List<Double> parseSteps(String spec) {
+    if (spec.isBlank()) return List.of();
+    return Arrays.stream(spec.split(",")).map(String::trim).map(Double::parseDouble).toList();
+  }
+
+  static Map<String, Integer> parseMix(String spec) {
+    var mix = new LinkedHashMap<String, Integer>();
+    for (var part : spec.split(",")) {
+      var kv = part.trim().split("=");
+      if (kv.length != 2) throw new IllegalArgumentException("bad load.mix entry: " + part);
+      mix.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+    }
+    return mix;
+  }
+}
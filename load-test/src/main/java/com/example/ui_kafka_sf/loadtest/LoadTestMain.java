@@ -0,0 +1,103 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import com.example.ui_kafka_sf.UiKafkaSfApplication;
+import java.util.HashMap;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.redpanda.RedpandaContainer;
+
+/**
+ * Entry point of {@code ./gradlew :load-test:loadTest}.
+ *
+ * <p>Unless {@code load.target} points at a running backend, starts Postgres and Redpanda with
+ * Testcontainers and boots the backend in-process on a random port. Then prepares the scenario,
+ * drives it with {@link OpenLoopGenerator}, writes reports to {@code load.reportDir} and exits
+ * non-zero when {@link RegressionGate} finds a regression (failing the Gradle build). With {@code
+ * load.rateSteps} (default for the {@code overload} scenario) the steps are run by {@link StepRun}
+ * instead.
+ *
+ * <p>The in-process backend shares CPU with the generator; for absolute numbers point {@code
+ * load.target} at a separately deployed instance.
+ */
+public final class LoadTestMain {
+
+  private LoadTestMain() {}
+
+  public static void main(String[] args) throws Exception {
+    var cfg = LoadConfig.fromSystemProperties();
+    PostgreSQLContainer<?> postgres = null;
+    RedpandaContainer redpanda = null;
+    ConfigurableApplicationContext app = null;
+    int exit;
+    try {
+      var base = cfg.target();
+      if (base == null) {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        redpanda = new RedpandaContainer("docker.redpanda.com/redpandadata/redpanda:v24.2.10");
+        postgres.start();
+        redpanda.start();
+        app = startBackend(cfg, postgres, redpanda);
+        base = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+      }
+
+      var client = new Client(base);
+      var scenario = Scenarios.create(cfg);
+      scenario.prepare(client);
+
+      List<String> violations;
+      if (!cfg.rateSteps().isEmpty()) {
+        violations = StepRun.run(cfg, client, scenario);
+        violations.forEach(v -> System.err.println("OVERLOAD " + v));
+      } else {
+        System.out.printf(
+            "load: scenario=%s rate=%.0f/s warmup=%ds duration=%ds target=%s%n",
+            cfg.scenario(),
+            cfg.rate(),
+            cfg.warmup().toSeconds(),
+            cfg.duration().toSeconds(),
+            base);
+
+        var stats =
+            new OpenLoopGenerator(client, cfg.maxInFlight())
+                .run(scenario, cfg.rate(), cfg.warmup(), cfg.duration());
+        var summary = Report.summarize(cfg, stats);
+        Report.write(cfg.reportDir(), summary, stats);
+        Report.print(summary);
+
+        violations = RegressionGate.check(cfg, summary);
+        violations.forEach(v -> System.err.println("REGRESSION " + v));
+      }
+      exit = violations.isEmpty() ? 0 : 1;
+    } finally {
+      if (app != null) app.close();
+      if (redpanda != null) redpanda.stop();
+      if (postgres != null) postgres.stop();
+    }
+    System.exit(exit);
+  }
+
+  private static ConfigurableApplicationContext startBackend(
+      LoadConfig cfg, PostgreSQLContainer<?> postgres, RedpandaContainer redpanda) {
+    var props = new HashMap<String, Object>();
+    props.put("server.port", "0");
+    props.put("spring.datasource.url", postgres.getJdbcUrl());
+    props.put("spring.datasource.username", postgres.getUsername());
+    props.put("spring.datasource.password", postgres.getPassword());
+    props.put("spring.kafka.bootstrap-servers", redpanda.getBootstrapServers());
+    props.put("app.jwt.secret", "0123456789_0123456789_0123456789_01");
+    props.put("logging.level.org.springframework.security", "INFO");
+    // -Pload.backend.<key>=<value> overrides backend settings, e.g. to turn the limiter off
+    System.getProperties()
+        .stringPropertyNames()
+        .forEach(
+            k -> {
+              if (k.startsWith("load.backend."))
+                props.put(k.substring("load.backend.".length()), System.getProperty(k));
+            });
+    var builder = new SpringApplicationBuilder(UiKafkaSfApplication.class).properties(props);
+    if (cfg.profile() != null) builder.profiles(cfg.profile());
+    return builder.run();
+  }
+}
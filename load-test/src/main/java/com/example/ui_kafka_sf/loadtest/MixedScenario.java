@@ -0,0 +1,147 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted mix of registration, login, authenticated course reads/writes and SF submits.
+ *
+ * <ul>
+ *   <li>{@code register} — a fresh username per call.
+ *   <li>{@code login} — one of {@code load.users} pre-registered users.
+ *   <li>{@code courseRead} / {@code courseWrite} — {@code GET} / {@code PATCH} of one of {@code
+ *       load.courses} seeded courses; a 409 from a racing PATCH counts as success.
+ *   <li>{@code sfSubmit} — unique payload, or with probability {@code load.duplicateRatio} a repeat
+ *       of an earlier one (exercises the {@code duplicate_ignored} path).
+ * </ul>
+ */
+final class MixedScenario implements Scenario {
+
+  private static final String PASSWORD = "load_pwd";
+
+  private final LoadConfig cfg;
+  private final SplittableRandom rnd;
+  private final String runId;
+  private final List<String> ops = new ArrayList<>();
+  private final List<Integer> cumulative = new ArrayList<>();
+  private final List<String> tokens = new ArrayList<>();
+  private final List<String> courseIds = new ArrayList<>();
+  private final List<Map<String, String>> submitted = new ArrayList<>();
+  private int totalWeight;
+  private Client client;
+
+  MixedScenario(LoadConfig cfg) {
+    this.cfg = cfg;
+    this.rnd = new SplittableRandom(cfg.seed());
+    this.runId = Long.toString(System.currentTimeMillis(), 36);
+    cfg.mix()
+        .forEach(
+            (op, w) -> {
+              if (w <= 0) return;
+              totalWeight += w;
+              ops.add(op);
+              cumulative.add(totalWeight);
+            });
+    if (totalWeight == 0) throw new IllegalArgumentException("load.mix has no positive weight");
+  }
+
+  @Override
+  public void prepare(Client client) throws Exception {
+    this.client = client;
+    for (int i = 0; i < cfg.users(); i++) {
+      var username = "lt-" + runId + "-user-" + i;
+      client.call(
+          client.post(
+              "/api/auth/register",
+              null,
+              Map.of("username", username, "password", PASSWORD, "role", "INSTRUCTOR")),
+          200);
+      tokens.add(client.login(username, PASSWORD));
+    }
+    for (int i = 0; i < cfg.courses(); i++) {
+      var body =
+          client.call(
+              client.post(
+                  "/api/course",
+                  token(),
+                  Map.of(
+                      "code", "lt-" + runId + "-" + i,
+                      "name", "Load course " + i,
+                      "description", "x".repeat(1000),
+                      "instructorId", "lt-" + runId + "-user-" + (i % cfg.users()))),
+              201);
+      courseIds.add((String) body.get("id"));
+    }
+  }
+
+  @Override
+  public Operation next(long seq) {
+    var op = pick();
+    return switch (op) {
+      case "register" ->
+          Operation.expect200(
+              "auth.register",
+              client.post(
+                  "/api/auth/register",
+                  null,
+                  Map.of(
+                      "username", "lt-" + runId + "-reg-" + seq,
+                      "password", PASSWORD,
+                      "role", "STUDENT")));
+      case "login" -> {
+        int u = rnd.nextInt(cfg.users());
+        yield Operation.expect200(
+            "auth.login",
+            client.post(
+                "/api/auth/login",
+                null,
+                Map.of("username", "lt-" + runId + "-user-" + u, "password", PASSWORD)));
+      }
+      case "courseRead" ->
+          Operation.expect200("course.read", client.get("/api/course/" + course(), token()));
+      case "courseWrite" ->
+          new Operation(
+              "course.write",
+              client.patch("/api/course/" + course(), token(), Map.of("year", "20" + (seq % 100))),
+              Set.of(200, 409));
+      case "sfSubmit" ->
+          Operation.expect200(
+              "sf.submit", client.post("/api/sf/submit", token(), sfPayload(seq)));
+      default -> throw new IllegalArgumentException("unknown operation in load.mix: " + op);
+    };
+  }
+
+  // -- helpers
+
+  private String pick() {
+    int r = rnd.nextInt(totalWeight);
+    for (int i = 0; i < cumulative.size(); i++) if (r < cumulative.get(i)) return ops.get(i);
+    return ops.get(ops.size() - 1);
+  }
+
+  private String token() {
+    return tokens.get(rnd.nextInt(tokens.size()));
+  }
+
+  private String course() {
+    return courseIds.get(rnd.nextInt(courseIds.size()));
+  }
+
+  private Map<String, String> sfPayload(long seq) {
+    if (!submitted.isEmpty() && rnd.nextDouble() < cfg.duplicateRatio()) {
+      return submitted.get(rnd.nextInt(submitted.size()));
+    }
+    var payload =
+        Map.of(
+            "fullName", "Load User",
+            "email", "lt-" + runId + "-" + seq + "@load.test",
+            "message", "hello");
+    // bounded pool of earlier payloads to duplicate from
+    if (submitted.size() < 10_000) submitted.add(payload);
+    else submitted.set(rnd.nextInt(submitted.size()), payload);
+    return payload;
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: arrivals follow a fixed schedule ({@code rate} per second) that does
+ * not slow down when the server does.
+ *
+ * <p>Latency is measured from each request's <i>intended</i> start time on that schedule, not from
+ * when it was actually sent. If the server (or this process) stalls, the queued-up arrivals are
+ * charged for the stall — the correction for coordinated omission that closed-loop clients lack.
+ *
+ * <p>Each arrival runs on its own virtual thread; {@code maxInFlight} bounds memory if the target
+ * stops responding, and arrivals beyond it are counted as {@link EndpointStats#dropped}. Unless
+ * the operation expects it, a 429 is counted as {@link EndpointStats#shed} and kept out of the
+ * latency histogram, so fast rejections do not flatter the percentiles.
+ */
+final class OpenLoopGenerator {
+
+  private final Client client;
+  private final int maxInFlight;
+  private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+  OpenLoopGenerator(Client client, int maxInFlight) {
+    this.client = client;
+    this.maxInFlight = maxInFlight;
+  }
+
+  Map<String, EndpointStats> run(Scenario scenario, double rate, Duration warmup, Duration duration)
+      throws InterruptedException {
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    long start = System.nanoTime();
+    long measureFrom = start + warmup.toNanos();
+    long end = measureFrom + duration.toNanos();
+    var inFlight = new Semaphore(maxInFlight);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long seq = 0; ; seq++) {
+        final long intended = start + seq * intervalNanos;
+        if (intended >= end) break;
+        waitUntil(intended);
+
+        var op = scenario.next(seq);
+        var s = stats.computeIfAbsent(op.endpoint(), EndpointStats::new);
+        boolean measured = intended >= measureFrom;
+        if (!inFlight.tryAcquire()) {
+          if (measured) s.dropped.incrementAndGet();
+          continue;
+        }
+        executor.execute(
+            () -> {
+              int status;
+              try {
+                status =
+                    client.http.send(op.request(), HttpResponse.BodyHandlers.discarding())
+                        .statusCode();
+              } catch (Exception e) {
+                status = -1;
+              } finally {
+                inFlight.release();
+              }
+              if (!measured) return;
+              if (status == 429 && !op.isOk(status)) {
+                s.shed.incrementAndGet();
+                return;
+              }
+              s.latencyMicros.recordValue((System.nanoTime() - intended) / 1_000);
+              (op.isOk(status) ? s.ok : s.errors).incrementAndGet();
+            });
+      }
+    } // close() waits for in-flight requests
+    return stats;
+  }
+
+  private static void waitUntil(long deadlineNanos) {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+      if (remaining > 200_000) LockSupport.parkNanos(remaining - 100_000);
+      else Thread.onSpinWait();
+    }
+  }
+}
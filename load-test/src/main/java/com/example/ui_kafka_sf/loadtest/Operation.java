@@ -0,0 +1,19 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Set;
+
+/**
+ * One request to issue, the endpoint name its latency is recorded under, and the statuses that
+ * count as success (e.g. 409 is a legitimate outcome of a concurrent PATCH).
+ */
+record Operation(String endpoint, HttpRequest request, Set<Integer> okStatuses) {
+
+  static Operation expect200(String endpoint, HttpRequest request) {
+    return new Operation(endpoint, request, Set.of(200));
+  }
+
+  boolean isOk(int status) {
+    return okStatuses.contains(status);
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares a run against the stored baseline summary.
+ *
+ * <p>An endpoint regresses when its p99 exceeds the baseline by more than {@code
+ * load.p99Tolerance}, its throughput falls short by more than {@code load.throughputTolerance}, or
+ * its error ratio (errors + shed + dropped) exceeds {@code load.maxErrorRatio}. Endpoints absent from the
+ * baseline are only checked for errors. With no baseline file (or {@code load.updateBaseline}) the
+ * current summary is stored as the new baseline.
+ */
+final class RegressionGate {
+
+  private RegressionGate() {}
+
+  /** Returns human-readable violations; empty means the gate passed. */
+  static List<String> check(LoadConfig cfg, Report.Summary current) throws Exception {
+    var violations = new ArrayList<String>();
+    current
+        .endpoints()
+        .forEach(
+            (name, e) -> {
+              if (e.errorRatio() > cfg.maxErrorRatio()) {
+                violations.add(
+                    String.format(
+                        "%s: error ratio %.3f > %.3f", name, e.errorRatio(), cfg.maxErrorRatio()));
+              }
+            });
+
+    if (cfg.updateBaseline() || !Files.exists(cfg.baseline())) {
+      Report.JSON.writeValue(cfg.baseline().toFile(), current);
+      System.out.println("baseline written to " + cfg.baseline().toAbsolutePath());
+      return violations;
+    }
+
+    var baseline = Report.JSON.readValue(cfg.baseline().toFile(), Report.Summary.class);
+    if (baseline.rate() != current.rate() || !baseline.scenario().equals(current.scenario())) {
+      violations.add(
+          "baseline was recorded with scenario="
+              + baseline.scenario()
+              + " rate="
+              + baseline.rate()
+              + "; rerun with the same settings or -Pload.updateBaseline=true");
+      return violations;
+    }
+    baseline
+        .endpoints()
+        .forEach(
+            (name, base) -> {
+              var cur = current.endpoints().get(name);
+              if (cur == null) {
+                violations.add(name + ": missing from this run");
+                return;
+              }
+              double p99Limit = base.p99Ms() * (1 + cfg.p99Tolerance());
+              if (cur.p99Ms() > p99Limit) {
+                violations.add(
+                    String.format(
+                        "%s: p99 %.2f ms > %.2f ms (baseline %.2f ms +%.0f%%)",
+                        name, cur.p99Ms(), p99Limit, base.p99Ms(), cfg.p99Tolerance() * 100));
+              }
+              double tputLimit = base.throughput() * (1 - cfg.throughputTolerance());
+              if (cur.throughput() < tputLimit) {
+                violations.add(
+                    String.format(
+                        "%s: throughput %.1f/s < %.1f/s (baseline %.1f/s -%.0f%%)",
+                        name,
+                        cur.throughput(),
+                        tputLimit,
+                        base.throughput(),
+                        cfg.throughputTolerance() * 100));
+              }
+            });
+    return violations;
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes one HdrHistogram percentile distribution ({@code <endpoint>.hgrm}, milliseconds) per
+ * endpoint plus {@code summary.json}, which is also the baseline format used by {@link
+ * RegressionGate}.
+ */
+final class Report {
+
+  /** Per-endpoint summary; latencies in milliseconds, throughput in successful requests/s. */
+  record EndpointSummary(
+      long ok,
+      long errors,
+      long shed,
+      long dropped,
+      double throughput,
+      double p50Ms,
+      double p90Ms,
+      double p99Ms,
+      double p999Ms,
+      double maxMs) {
+
+    double errorRatio() {
+      long total = ok + errors + shed + dropped;
+      return total == 0 ? 0 : (errors + shed + dropped) / (double) total;
+    }
+  }
+
+  record Summary(
+      String scenario, double rate, long durationSec, Map<String, EndpointSummary> endpoints) {}
+
+  static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private Report() {}
+
+  static Summary summarize(LoadConfig cfg, Map<String, EndpointStats> stats) {
+    return summarize(cfg, cfg.rate(), stats);
+  }
+
+  static Summary summarize(LoadConfig cfg, double rate, Map<String, EndpointStats> stats) {
+    var endpoints = new TreeMap<String, EndpointSummary>();
+    double seconds = cfg.duration().toMillis() / 1000.0;
+    stats.forEach(
+        (name, s) -> {
+          var h = s.latencyMicros;
+          endpoints.put(
+              name,
+              new EndpointSummary(
+                  s.ok.get(),
+                  s.errors.get(),
+                  s.shed.get(),
+                  s.dropped.get(),
+                  s.ok.get() / seconds,
+                  h.getValueAtPercentile(50) / 1000.0,
+                  h.getValueAtPercentile(90) / 1000.0,
+                  h.getValueAtPercentile(99) / 1000.0,
+                  h.getValueAtPercentile(99.9) / 1000.0,
+                  h.getMaxValue() / 1000.0));
+        });
+    return new Summary(cfg.scenario(), rate, cfg.duration().toSeconds(), endpoints);
+  }
+
+  static void write(Path dir, Summary summary, Map<String, EndpointStats> stats) throws Exception {
+    Files.createDirectories(dir);
+    for (var s : stats.values()) {
+      try (var out = new PrintStream(Files.newOutputStream(dir.resolve(s.endpoint + ".hgrm")))) {
+        s.latencyMicros.outputPercentileDistribution(out, 1000.0);
+      }
+    }
+    JSON.writeValue(dir.resolve("summary.json").toFile(), summary);
+  }
+
+  static void print(Summary summary) {
+    System.out.printf(
+        "%-15s %9s %7s %7s %7s %10s %9s %9s %9s %9s%n",
+        "endpoint",
+        "ok",
+        "errors",
+        "shed",
+        "dropped",
+        "req/s",
+        "p50 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms");
+    summary
+        .endpoints()
+        .forEach(
+            (name, e) ->
+                System.out.printf(
+                    "%-15s %9d %7d %7d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    name,
+                    e.ok(),
+                    e.errors(),
+                    e.shed(),
+                    e.dropped(),
+                    e.throughput(),
+                    e.p50Ms(),
+                    e.p99Ms(),
+                    e.p999Ms(),
+                    e.maxMs()));
+  }
+}
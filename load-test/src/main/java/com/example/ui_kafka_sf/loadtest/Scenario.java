@@ -0,0 +1,15 @@
+package com.example.ui_kafka_sf.loadtest;
+
+/**
+ * Produces the request stream of a load test.
+ *
+ * <p>{@link #prepare} runs once before load starts (seeding users, courses, tokens); {@link
+ * #next} is called from the single generator thread for every arrival, so implementations need
+ * not be thread-safe.
+ */
+interface Scenario {
+
+  void prepare(Client client) throws Exception;
+
+  Operation next(long seq);
+}
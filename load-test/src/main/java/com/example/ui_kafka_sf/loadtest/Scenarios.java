@@ -0,0 +1,15 @@
+package com.example.ui_kafka_sf.loadtest;
+
+/** Registry of scenarios selectable with {@code load.scenario}. */
+final class Scenarios {
+
+  private Scenarios() {}
+
+  static Scenario create(LoadConfig cfg) {
+    return switch (cfg.scenario()) {
+      // same operations; "overload" only differs in its write-heavy default mix and rate steps
+      case "mixed", "overload" -> new MixedScenario(cfg);
+      default -> throw new IllegalArgumentException("unknown load.scenario: " + cfg.scenario());
+    };
+  }
+}
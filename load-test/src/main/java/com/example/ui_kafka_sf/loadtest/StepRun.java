@@ -0,0 +1,77 @@
+package com.example.ui_kafka_sf.loadtest;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the scenario at each of {@code load.rateSteps} in turn, to show behaviour past saturation.
+ *
+ * <p>Per step it reports offered load, goodput (successful responses/s), shed (429/s), errors/s and
+ * the p99 of non-shed responses, and writes {@code steps.json}. The run fails when any step after
+ * the goodput peak falls below {@code load.goodputFloor} of the peak — i.e. when overload makes the
+ * service do less useful work instead of shedding the excess.
+ */
+final class StepRun {
+
+  record Step(
+      double offered, double goodput, double shedPerSec, double errorsPerSec, double p99Ms) {}
+
+  private StepRun() {}
+
+  /** Returns human-readable violations; empty means goodput held. */
+  static List<String> run(LoadConfig cfg, Client client, Scenario scenario) throws Exception {
+    double seconds = cfg.duration().toMillis() / 1000.0;
+    var steps = new ArrayList<Step>();
+    for (double rate : cfg.rateSteps()) {
+      System.out.printf("load: step rate=%.0f/s%n", rate);
+      var stats =
+          new OpenLoopGenerator(client, cfg.maxInFlight())
+              .run(scenario, rate, cfg.warmup(), cfg.duration());
+      var summary = Report.summarize(cfg, rate, stats);
+      Report.write(cfg.reportDir().resolve("rate-" + (long) rate), summary, stats);
+
+      long ok = 0;
+      long shed = 0;
+      long errors = 0;
+      double p99 = 0;
+      for (var e : summary.endpoints().values()) {
+        ok += e.ok();
+        shed += e.shed();
+        errors += e.errors() + e.dropped();
+        p99 = Math.max(p99, e.p99Ms());
+      }
+      steps.add(new Step(rate, ok / seconds, shed / seconds, errors / seconds, p99));
+    }
+
+    System.out.printf(
+        "%10s %10s %10s %10s %12s%n", "offered/s", "goodput/s", "shed/s", "errors/s", "max p99 ms");
+    steps.forEach(
+        s ->
+            System.out.printf(
+                "%10.0f %10.1f %10.1f %10.1f %12.2f%n",
+                s.offered(), s.goodput(), s.shedPerSec(), s.errorsPerSec(), s.p99Ms()));
+    Files.createDirectories(cfg.reportDir());
+    Report.JSON.writeValue(cfg.reportDir().resolve("steps.json").toFile(), steps);
+
+    var violations = new ArrayList<String>();
+    int peak = 0;
+    for (int i = 1; i < steps.size(); i++)
+      if (steps.get(i).goodput() > steps.get(peak).goodput()) peak = i;
+    double floor = steps.isEmpty() ? 0 : steps.get(peak).goodput() * cfg.goodputFloor();
+    for (int i = peak + 1; i < steps.size(); i++) {
+      var s = steps.get(i);
+      if (s.goodput() < floor) {
+        violations.add(
+            String.format(
+                "goodput %.1f/s at %.0f/s offered < %.0f%% of peak %.1f/s (at %.0f/s)",
+                s.goodput(),
+                s.offered(),
+                cfg.goodputFloor() * 100,
+                steps.get(peak).goodput(),
+                steps.get(peak).offered()));
+      }
+    }
+    return violations;
+  }
+}
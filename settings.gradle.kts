@@ -1,5 +1,7 @@
 
 rootProject.name = "ui_kafka_sf"
 include("backend")
+include("benchmarks")
+include("load-test")
 
 include("sf-service")
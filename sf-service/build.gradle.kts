@@ -0,0 +1,76 @@
+plugins {
+  id("java")
+  id("application")
+  id("io.spring.dependency-management") version "1.1.6"
+}
+
+java {
+  toolchain { languageVersion.set(JavaLanguageVersion.of(21)) }
+}
+
+repositories { mavenCentral() }
+
+tasks.withType<JavaCompile> { options.encoding = "UTF-8" }
+
+dependencyManagement {
+  imports { mavenBom("org.springframework.boot:spring-boot-dependencies:3.3.4") }
+}
+
+// No Spring at runtime: Netty for HTTP, plain JDBC + Hikari, the Kafka client and jjwt.
+dependencies {
+  implementation("io.netty:netty-codec-http")
+  implementation("com.fasterxml.jackson.core:jackson-databind")
+  implementation("org.apache.kafka:kafka-clients")
+  implementation("com.zaxxer:HikariCP")
+  runtimeOnly("org.postgresql:postgresql:42.7.4")
+  implementation("io.jsonwebtoken:jjwt-api:0.12.6")
+  runtimeOnly("io.jsonwebtoken:jjwt-impl:0.12.6")
+  runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.12.6")
+  implementation("org.slf4j:slf4j-api")
+  runtimeOnly("ch.qos.logback:logback-classic")
+
+  // parity tests call the backend's package-private SfController.keyHash and its JwtUtil
+  testImplementation(project(":backend"))
+  testImplementation("org.springframework.kafka:spring-kafka")
+  testImplementation("org.springframework.boot:spring-boot-starter-test")
+  testImplementation("org.testcontainers:junit-jupiter:1.20.3")
+  testImplementation("org.testcontainers:postgresql:1.20.3")
+  testImplementation("org.testcontainers:kafka:1.20.3")
+  testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// ./gradlew :sf-service:run   (DB_URL, KAFKA_BOOTSTRAP, JWT_SECRET as for the backend)
+application {
+  mainClass.set("com.example.ui_kafka_sf.sfservice.SfServiceMain")
+  applicationDefaultJvmArgs = listOf("-XX:+UseSerialGC", "-Xmx128m", "-Xss512k")
+}
+
+tasks.test {
+  useJUnitPlatform { excludeTags("benchmark") }
+}
+
+// Side-by-side with the monolith (needs Docker), excluded from `test`:
+//   ./gradlew :sf-service:ingestBenchmark [-Dbench.clients=64 -Dbench.seconds=20]
+tasks.register<Test>("ingestBenchmark") {
+  description = "Compares RSS, startup time and submit throughput of sf-service and the backend."
+  group = "verification"
+  testClassesDirs = sourceSets.test.get().output.classesDirs
+  classpath = sourceSets.test.get().runtimeClasspath
+  useJUnitPlatform { includeTags("benchmark") }
+  filter { includeTestsMatching("*IngestBenchmark") }
+  val bootJar = project(":backend").tasks.named<Jar>("bootJar")
+  dependsOn(bootJar, tasks.jar)
+  doFirst {
+    systemProperty("bench.backend.jar", bootJar.get().archiveFile.get().asFile.path)
+    systemProperty(
+      "bench.sfService.classpath",
+      (files(tasks.jar.get().archiveFile) + sourceSets.main.get().runtimeClasspath).asPath)
+    systemProperty(
+      "bench.java",
+      javaToolchains.launcherFor(java.toolchain).get().executablePath.asFile.path)
+  }
+  System.getProperties().filterKeys { it.toString().startsWith("bench.") }
+    .forEach { (k, v) -> systemProperty(k.toString(), v) }
+  testLogging { showStandardStreams = true }
+  outputs.upToDateWhen { false }
+}
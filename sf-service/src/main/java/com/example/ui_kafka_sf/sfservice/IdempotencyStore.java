@@ -0,0 +1,72 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import javax.sql.DataSource;
+
+/**
+ * The backend's {@code SfIdempotencyRepository.tryReserveFirstSend} as one statement: the insert
+ * either creates the {@code sf_idempotency} row (first send) or hits the primary key and does
+ * nothing (duplicate). No transaction, no exception on the duplicate path.
+ */
+final class IdempotencyStore {
+
+  static final String RESERVE =
+      "insert into sf_idempotency (key_hash, email, created_at) values (?, ?, ?)"
+          + " on conflict (key_hash) do nothing";
+
+  /** Same columns and types Hibernate derives from the backend's {@code SfIdempotencyEntity}. */
+  static final String SCHEMA =
+      "create table if not exists sf_idempotency ("
+          + "key_hash varchar(128) not null primary key,"
+          + " email varchar(320) not null,"
+          + " created_at timestamp(6) with time zone not null)";
+
+  /** Where the backend reserves SF keys; see its {@code SfReservationHome}. */
+  static final String HOME = "select home from sf_reservation_home where id = 1";
+
+  /** Postgres {@code undefined_table}: no backend has recorded a home yet. */
+  private static final String UNDEFINED_TABLE = "42P01";
+
+  private final DataSource dataSource;
+
+  IdempotencyStore(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  void createSchemaIfMissing() throws SQLException {
+    try (var c = dataSource.getConnection();
+        var s = c.createStatement()) {
+      s.execute(SCHEMA);
+    }
+  }
+
+  /**
+   * Fails unless the backend reserves SF keys on this database. With {@code app.sf-shards} the keys
+   * live on other instances this service does not know, so it would grant every key a second time.
+   */
+  void requireReservationsOnPrimary() throws SQLException {
+    try (var c = dataSource.getConnection();
+        var s = c.createStatement();
+        var rs = s.executeQuery(HOME)) {
+      if (rs.next() && !"primary".equals(rs.getString(1)))
+        throw new IllegalStateException(
+            "the backend reserves sf keys on " + rs.getString(1) + " (app.sf-shards.enabled);"
+                + " sf-service only reserves on the primary database and cannot run next to it");
+    } catch (SQLException e) {
+      if (!UNDEFINED_TABLE.equals(e.getSQLState())) throw e;
+    }
+  }
+
+  /** {@code true} if this call reserved {@code keyHash}, {@code false} if it already existed. */
+  boolean tryReserveFirstSend(String email, String keyHash) throws SQLException {
+    try (var c = dataSource.getConnection();
+        var ps = c.prepareStatement(RESERVE)) {
+      ps.setString(1, keyHash);
+      ps.setString(2, email);
+      ps.setTimestamp(3, Timestamp.from(Instant.now()));
+      return ps.executeUpdate() == 1;
+    }
+  }
+}
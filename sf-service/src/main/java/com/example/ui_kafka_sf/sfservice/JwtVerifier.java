@@ -0,0 +1,64 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Accepts exactly the tokens the backend's {@code JwtFilter} authenticates: HS-signed with the
+ * UTF-8 bytes of {@code JWT_SECRET} (as issued by {@code JwtUtil}), unexpired, with a subject and
+ * a {@code role} claim (or a non-empty {@code roles} list), and not revoked.
+ */
+final class JwtVerifier {
+
+  /** Revoked tokens; the backend's {@code TokenRevocations} check. */
+  interface Revocations {
+    Revocations NONE = (username, jti, issuedAt) -> false;
+
+    boolean isRevoked(String username, String jti, Date issuedAt);
+  }
+
+  private final JwtParser parser;
+  private final Revocations revocations;
+
+  JwtVerifier(String secret, Revocations revocations) {
+    var key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    this.parser = Jwts.parser().verifyWith(key).build();
+    this.revocations = revocations;
+  }
+
+  /** {@code authorization} is the raw header value; {@code false} for anything unusable. */
+  boolean authenticated(String authorization) {
+    if (authorization == null || !authorization.startsWith("Bearer ")) return false;
+    try {
+      Claims claims = parser.parseSignedClaims(authorization.substring(7)).getPayload();
+      return hasText(claims.getSubject())
+          && hasText(role(claims))
+          && !revocations.isRevoked(claims.getSubject(), claims.getId(), issuedAt(claims));
+    } catch (Exception invalid) {
+      return false;
+    }
+  }
+
+  /** {@code JwtUtil}'s millisecond {@code iat_ms}, or {@code iat} for tokens without it. */
+  private static Date issuedAt(Claims claims) {
+    if (claims.get("iat_ms") instanceof Number ms) return new Date(ms.longValue());
+    return claims.getIssuedAt();
+  }
+
+  private static String role(Claims claims) {
+    if (claims.get("role") instanceof String s) return s;
+    if (claims.get("roles") instanceof List<?> list
+        && !list.isEmpty()
+        && list.get(0) instanceof String s0) return s0;
+    return null;
+  }
+
+  private static boolean hasText(String s) {
+    return s != null && !s.isBlank();
+  }
+}
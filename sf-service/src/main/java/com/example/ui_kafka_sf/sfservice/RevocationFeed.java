@@ -0,0 +1,171 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The backend's token revocations ({@code TokenRevocations}), replayed from the same compacted
+ * topic so a token revoked there is refused here too.
+ *
+ * <p>One daemon thread owns the consumer: it assigns every partition, replays from the beginning
+ * and then follows the topic. The maps and the check are the backend's: per-user "issued before"
+ * watermarks and a {@code jti} denylist, two lock-free lookups per request. Entries are dropped
+ * once they have expired.
+ */
+final class RevocationFeed implements JwtVerifier.Revocations, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(RevocationFeed.class);
+  private static final long PRUNE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  /** The backend's {@code TokenRevokedEvent}. */
+  record Revoked(
+      String username,
+      String jti,
+      long issuedBeforeEpochSecond,
+      long expiresAtEpochSecond,
+      long issuedBeforeEpochMilli) {
+
+    /** Records written before millisecond watermarks only carry the second. */
+    long watermarkMillis() {
+      return issuedBeforeEpochMilli > 0 ? issuedBeforeEpochMilli : issuedBeforeEpochSecond * 1000;
+    }
+  }
+
+  /** {@code issuedBefore} in epoch milliseconds, {@code until} in epoch seconds. */
+  private record Watermark(long issuedBefore, long until) {}
+
+  private final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+  private final Map<String, Long> denied = new ConcurrentHashMap<>();
+  private final Consumer<String, byte[]> consumer;
+  private final String topic;
+  private final ObjectMapper json;
+  private final CountDownLatch replayed = new CountDownLatch(1);
+  private final Thread poller;
+
+  private volatile boolean running = true;
+
+  RevocationFeed(Consumer<String, byte[]> consumer, String topic, ObjectMapper json) {
+    this.consumer = consumer;
+    this.topic = topic;
+    this.json = json;
+    this.poller = Thread.ofPlatform().name("sf-revocations").daemon().start(this::run);
+  }
+
+  @Override
+  public boolean isRevoked(String username, String jti, Date issuedAt) {
+    var watermark = username == null ? null : watermarks.get(username);
+    if (watermark != null
+        && (issuedAt == null || issuedAt.getTime() < watermark.issuedBefore())) return true;
+    return jti != null && denied.containsKey(jti);
+  }
+
+  /** Waits until the topic has been replayed up to the end offsets seen at startup. */
+  boolean awaitReplay(Duration timeout) throws InterruptedException {
+    return replayed.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  void apply(Revoked r) {
+    long now = System.currentTimeMillis() / 1000;
+    if (r == null || r.expiresAtEpochSecond() <= now) return;
+    if (r.jti() != null) denied.merge(r.jti(), r.expiresAtEpochSecond(), Math::max);
+    else if (r.username() != null)
+      watermarks.merge(
+          r.username(),
+          new Watermark(r.watermarkMillis(), r.expiresAtEpochSecond()),
+          (a, b) -> a.issuedBefore() >= b.issuedBefore() ? a : b);
+  }
+
+  private void run() {
+    Map<TopicPartition, Long> replayTo = null;
+    long lastPrune = System.nanoTime();
+    try {
+      while (running) {
+        try {
+          replayTo = step(replayTo);
+        } catch (WakeupException e) {
+          throw e;
+        } catch (KafkaException e) {
+          log.warn("token revocation feed: {}, retrying", e.toString());
+          Thread.sleep(1_000);
+        }
+        if (System.nanoTime() - lastPrune > PRUNE_INTERVAL_NANOS) {
+          prune();
+          lastPrune = System.nanoTime();
+        }
+      }
+    } catch (WakeupException | InterruptedException closing) {
+      // close()
+    } catch (RuntimeException e) {
+      log.error("token revocation feed stopped", e);
+    } finally {
+      consumer.close(Duration.ofSeconds(5));
+    }
+  }
+
+  /** One poll; returns the offsets still to replay up to, {@code null} once caught up. */
+  private Map<TopicPartition, Long> step(Map<TopicPartition, Long> replayTo)
+      throws InterruptedException {
+    if (consumer.assignment().isEmpty()) {
+      var partitions =
+          consumer.partitionsFor(topic, Duration.ofSeconds(5)).stream()
+              .map(p -> new TopicPartition(p.topic(), p.partition()))
+              .toList();
+      if (partitions.isEmpty()) {
+        // not created yet: nothing to replay, look again in a second
+        replayed.countDown();
+        Thread.sleep(1_000);
+        return replayTo;
+      }
+      consumer.assign(partitions);
+      consumer.seekToBeginning(partitions);
+      replayTo = consumer.endOffsets(partitions);
+    }
+    for (var rec : consumer.poll(Duration.ofMillis(500))) {
+      if (rec.value() == null) continue;
+      try {
+        apply(json.readValue(rec.value(), Revoked.class));
+      } catch (Exception e) {
+        log.warn("unreadable token revocation at offset {}", rec.offset(), e);
+      }
+    }
+    if (replayTo != null && caughtUp(replayTo)) {
+      replayed.countDown();
+      return null;
+    }
+    return replayTo;
+  }
+
+  private boolean caughtUp(Map<TopicPartition, Long> replayTo) {
+    for (var e : replayTo.entrySet())
+      if (consumer.position(e.getKey()) < e.getValue()) return false;
+    return true;
+  }
+
+  private void prune() {
+    long now = System.currentTimeMillis() / 1000;
+    watermarks.values().removeIf(w -> w.until() <= now);
+    denied.values().removeIf(exp -> exp <= now);
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    consumer.wakeup();
+    try {
+      poller.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
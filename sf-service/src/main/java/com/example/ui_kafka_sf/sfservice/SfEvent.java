@@ -0,0 +1,32 @@
+package com.example.ui_kafka_sf.sfservice;
+
+/**
+ * Wire shape of an SF submission, identical to the backend's {@code
+ * com.example.ui_kafka_sf.sf.SfEvent} (same JSON members, same order).
+ */
+record SfEvent(String fullName, String email, String message) {
+
+  /**
+   * {@code __TypeId__} header value the backend's {@code JsonSerializer} writes; consumers resolve
+   * the payload type from it.
+   */
+  static final String TYPE_ID = "com.example.ui_kafka_sf.sf.SfEvent";
+
+  /** Same rule as {@code @NotBlank} on the backend's record. */
+  boolean isValid() {
+    return notBlank(fullName) && notBlank(email);
+  }
+
+  /** Stable idempotency key: SHA-256 of {@code email|fullName|message} ({@code null} → ""). */
+  String keyHash() {
+    return Sha256.hex(email + "|" + nullToEmpty(fullName) + "|" + nullToEmpty(message));
+  }
+
+  private static boolean notBlank(String s) {
+    return s != null && !s.isBlank();
+  }
+
+  private static String nullToEmpty(String s) {
+    return s == null ? "" : s;
+  }
+}
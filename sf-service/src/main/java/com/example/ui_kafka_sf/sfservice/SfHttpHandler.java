@@ -0,0 +1,118 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.flow.FlowControlHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+
+/**
+ * Routes {@code POST /api/sf/submit} and {@code GET /health}.
+ *
+ * <p>The event loop only copies what the request needs and hands it to {@code workers} (virtual
+ * threads), since the reservation blocks on JDBC. Reads on the connection are paused until the
+ * response is written, so pipelined requests are answered in order. Pausing reads alone is not
+ * enough: the codec decodes every request already in the buffer, so a {@link FlowControlHandler}
+ * holds those back and releases one per read (see {@link #install}).
+ */
+final class SfHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+  static final String SUBMIT = "/api/sf/submit";
+  static final String HEALTH = "/health";
+
+  private static final byte[] UP = "{\"status\":\"UP\"}".getBytes(StandardCharsets.US_ASCII);
+
+  private final SubmitService service;
+  private final Executor workers;
+
+  SfHttpHandler(SubmitService service, Executor workers) {
+    this.service = service;
+    this.workers = workers;
+  }
+
+  /** The HTTP pipeline of one connection, ending in an {@code SfHttpHandler}. */
+  static void install(ChannelPipeline pipeline, SubmitService service, Executor workers) {
+    pipeline
+        .addLast(new HttpServerCodec())
+        .addLast(new HttpServerKeepAliveHandler())
+        .addLast(new HttpObjectAggregator(64 * 1024))
+        .addLast(new FlowControlHandler())
+        .addLast(new SfHttpHandler(service, workers));
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest req) {
+    boolean keepAlive = HttpUtil.isKeepAlive(req);
+    var path = new QueryStringDecoder(req.uri()).path();
+    var trace = req.headers().get(SfPublisher.TRACE_ID);
+
+    if (HEALTH.equals(path) && HttpMethod.GET.equals(req.method())) {
+      write(ctx, keepAlive, new SubmitService.Response(200, SubmitService.traceId(trace), UP));
+      return;
+    }
+    if (!SUBMIT.equals(path)) {
+      write(ctx, keepAlive, new SubmitService.Response(404, SubmitService.traceId(trace), null));
+      return;
+    }
+    if (!HttpMethod.POST.equals(req.method())) {
+      write(ctx, keepAlive, new SubmitService.Response(405, SubmitService.traceId(trace), null));
+      return;
+    }
+
+    var authorization = req.headers().get(HttpHeaderNames.AUTHORIZATION);
+    var body = ByteBufUtil.getBytes(req.content());
+    ctx.channel().config().setAutoRead(false);
+    workers.execute(
+        () -> {
+          SubmitService.Response response;
+          try {
+            response = service.submit(authorization, trace, body);
+          } catch (RuntimeException e) {
+            response =
+                new SubmitService.Response(
+                    500,
+                    SubmitService.traceId(trace),
+                    "{\"error\":\"unknown_error\"}".getBytes(StandardCharsets.US_ASCII));
+          }
+          write(ctx, keepAlive, response);
+          ctx.channel().config().setAutoRead(true);
+        });
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    ctx.close();
+  }
+
+  private static void write(
+      ChannelHandlerContext ctx, boolean keepAlive, SubmitService.Response r) {
+    var body = r.body() == null ? new byte[0] : r.body();
+    var response =
+        new DefaultFullHttpResponse(
+            HttpVersion.HTTP_1_1,
+            HttpResponseStatus.valueOf(r.status()),
+            Unpooled.wrappedBuffer(body));
+    var headers = response.headers();
+    headers.set(SfPublisher.TRACE_ID, r.traceId());
+    if (body.length > 0)
+      headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+    HttpUtil.setContentLength(response, body.length);
+    HttpUtil.setKeepAlive(response, keepAlive);
+    ctx.writeAndFlush(response);
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes accepted submissions exactly as the backend does: keyed by email, JSON value, {@code
+ * __TypeId__}, {@code X-Trace-Id} and {@code X-Accepted-At} headers. Best-effort and asynchronous:
+ * a broker problem is logged, never turned into an HTTP error.
+ */
+final class SfPublisher {
+
+  private static final Logger log = LoggerFactory.getLogger(SfPublisher.class);
+
+  static final String TYPE_ID_HEADER = "__TypeId__";
+  static final String TRACE_ID = "X-Trace-Id";
+  static final String ACCEPTED_AT = "X-Accepted-At";
+
+  private final Producer<String, byte[]> producer;
+  private final String topic;
+  private final ObjectMapper json;
+
+  SfPublisher(Producer<String, byte[]> producer, String topic, ObjectMapper json) {
+    this.producer = producer;
+    this.topic = topic;
+    this.json = json;
+  }
+
+  void publish(SfEvent event, String traceId, long acceptedAt) {
+    try {
+      var record =
+          new ProducerRecord<String, byte[]>(topic, event.email(), json.writeValueAsBytes(event));
+      record.headers().add(TYPE_ID_HEADER, SfEvent.TYPE_ID.getBytes(StandardCharsets.UTF_8));
+      record.headers().add(TRACE_ID, traceId.getBytes(StandardCharsets.UTF_8));
+      record
+          .headers()
+          .add(ACCEPTED_AT, Long.toString(acceptedAt).getBytes(StandardCharsets.US_ASCII));
+      producer.send(
+          record,
+          (meta, ex) -> {
+            if (ex != null) log.warn("sf publish failed trace={}: {}", traceId, ex.toString());
+          });
+    } catch (Exception e) {
+      log.warn("sf publish failed trace={}: {}", traceId, e.toString());
+    }
+  }
+}
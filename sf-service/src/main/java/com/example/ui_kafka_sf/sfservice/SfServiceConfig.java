@@ -0,0 +1,53 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Settings of the standalone ingest service, read from the same environment variables as the
+ * backend's {@code application.yml} so both can be pointed at one database, broker and JWT secret.
+ *
+ * @param port HTTP port ({@code SF_SERVICE_PORT}, default 8090)
+ * @param dbPoolSize JDBC connections ({@code DB_POOL_SIZE}); also caps concurrent reservations
+ * @param dbAcquireTimeoutMs pool wait before answering 503 ({@code DB_POOL_ACQUIRE_TIMEOUT_MS})
+ * @param initSchema creates {@code sf_idempotency} if missing ({@code SF_SERVICE_INIT_SCHEMA})
+ * @param revocationTopic the backend's token revocation topic ({@code TOKEN_REVOCATION_TOPIC})
+ */
+public record SfServiceConfig(
+    int port,
+    String dbUrl,
+    String dbUser,
+    String dbPassword,
+    int dbPoolSize,
+    long dbAcquireTimeoutMs,
+    boolean initSchema,
+    String kafkaBootstrap,
+    String topic,
+    String jwtSecret,
+    String revocationTopic) {
+
+  public static SfServiceConfig fromEnvironment() {
+    return from(System.getenv());
+  }
+
+  static SfServiceConfig from(Map<String, String> env) {
+    UnaryOperator<String> get = env::get;
+    return new SfServiceConfig(
+        Integer.parseInt(or(get, "SF_SERVICE_PORT", "8090")),
+        or(get, "DB_URL", "jdbc:postgresql://localhost:5432/uikafkasf"),
+        or(get, "DB_USER", "postgres"),
+        or(get, "DB_PASSWORD", "postgres"),
+        Integer.parseInt(or(get, "DB_POOL_SIZE", "10")),
+        Long.parseLong(or(get, "DB_POOL_ACQUIRE_TIMEOUT_MS", "2000")),
+        Boolean.parseBoolean(or(get, "SF_SERVICE_INIT_SCHEMA", "true")),
+        or(get, "KAFKA_BOOTSTRAP", "localhost:19092"),
+        or(get, "SF_TOPIC", "sf.events"),
+        or(get, "JWT_SECRET", "dev-secret-change-me"),
+        or(get, "TOKEN_REVOCATION_TOPIC", "auth.revocations"));
+  }
+
+  private static String or(UnaryOperator<String> get, String key, String fallback) {
+    var v = get.apply(key);
+    return v == null || v.isBlank() ? fallback : v;
+  }
+}
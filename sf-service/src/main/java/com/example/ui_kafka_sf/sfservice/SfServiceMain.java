@@ -0,0 +1,154 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Standalone SF ingest process: {@code POST /api/sf/submit} with the backend's semantics, without
+ * Spring, JPA or the rest of the monolith.
+ *
+ * <p>Netty serves HTTP on a single event loop; submissions run on virtual threads and are bounded
+ * by the Hikari pool ({@code DB_POOL_SIZE}), whose acquire timeout turns overload into 503s.
+ *
+ * <p>Refuses to start while the backend reserves SF keys on shards ({@code app.sf-shards}): both
+ * would see the same submission as new and publish it twice.
+ */
+public final class SfServiceMain implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(SfServiceMain.class);
+
+  private final HikariDataSource dataSource;
+  private final Producer<String, byte[]> producer;
+  private final RevocationFeed revocations;
+  private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+  private final NioEventLoopGroup boss = new NioEventLoopGroup(1);
+  private final NioEventLoopGroup loop = new NioEventLoopGroup(1);
+  private final int port;
+
+  private SfServiceMain(SfServiceConfig cfg) throws Exception {
+    var json = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.dataSource = dataSource(cfg);
+    var store = new IdempotencyStore(dataSource);
+    try {
+      store.requireReservationsOnPrimary();
+    } catch (Exception e) {
+      dataSource.close();
+      throw e;
+    }
+    this.producer = producer(cfg);
+    this.revocations = new RevocationFeed(revocationConsumer(cfg), cfg.revocationTopic(), json);
+    if (!revocations.awaitReplay(Duration.ofSeconds(10)))
+      log.warn("token revocations not replayed after 10 s, serving anyway");
+    if (cfg.initSchema()) store.createSchemaIfMissing();
+    var service =
+        new SubmitService(
+            new JwtVerifier(cfg.jwtSecret(), revocations),
+            store,
+            new SfPublisher(producer, cfg.topic(), json),
+            json);
+
+    var channel =
+        new ServerBootstrap()
+            .group(boss, loop)
+            .channel(NioServerSocketChannel.class)
+            .option(ChannelOption.SO_BACKLOG, 1024)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(
+                new ChannelInitializer<SocketChannel>() {
+                  @Override
+                  protected void initChannel(SocketChannel ch) {
+                    SfHttpHandler.install(ch.pipeline(), service, workers);
+                  }
+                })
+            .bind(cfg.port())
+            .sync()
+            .channel();
+    this.port = ((InetSocketAddress) channel.localAddress()).getPort();
+  }
+
+  /** Starts the service; {@code port} 0 picks a free one (see {@link #port()}). */
+  public static SfServiceMain start(SfServiceConfig cfg) throws Exception {
+    return new SfServiceMain(cfg);
+  }
+
+  public int port() {
+    return port;
+  }
+
+  public static void main(String[] args) throws Exception {
+    long t0 = System.nanoTime();
+    var service = start(SfServiceConfig.fromEnvironment());
+    Runtime.getRuntime().addShutdownHook(new Thread(service::close, "sf-service-shutdown"));
+    log.info(
+        "sf-service listening on {} after {} ms",
+        service.port(),
+        Duration.ofNanos(System.nanoTime() - t0).toMillis());
+  }
+
+  @Override
+  public void close() {
+    boss.shutdownGracefully().syncUninterruptibly();
+    loop.shutdownGracefully().syncUninterruptibly();
+    workers.close();
+    revocations.close();
+    producer.close(Duration.ofSeconds(5));
+    dataSource.close();
+  }
+
+  private static HikariDataSource dataSource(SfServiceConfig cfg) {
+    var hikari = new HikariConfig();
+    hikari.setJdbcUrl(cfg.dbUrl());
+    hikari.setUsername(cfg.dbUser());
+    hikari.setPassword(cfg.dbPassword());
+    hikari.setMaximumPoolSize(cfg.dbPoolSize());
+    hikari.setConnectionTimeout(cfg.dbAcquireTimeoutMs());
+    hikari.setPoolName("sf-service");
+    return new HikariDataSource(hikari);
+  }
+
+  private static Producer<String, byte[]> producer(SfServiceConfig cfg) {
+    return new KafkaProducer<>(
+        Map.<String, Object>of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, cfg.kafkaBootstrap(),
+            ProducerConfig.ACKS_CONFIG, "all",
+            ProducerConfig.CLIENT_ID_CONFIG, "sf-service"),
+        new StringSerializer(),
+        new ByteArraySerializer());
+  }
+
+  // partitions are assigned, not subscribed: no group, nothing committed
+  private static Consumer<String, byte[]> revocationConsumer(SfServiceConfig cfg) {
+    return new KafkaConsumer<>(
+        Map.<String, Object>of(
+            ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, cfg.kafkaBootstrap(),
+            ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+            ConsumerConfig.CLIENT_ID_CONFIG, "sf-service-revocations"),
+        new StringDeserializer(),
+        new ByteArrayDeserializer());
+  }
+}
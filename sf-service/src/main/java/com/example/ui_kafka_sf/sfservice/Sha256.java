@@ -0,0 +1,31 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/** Lower-case hex SHA-256 of a UTF-8 string; one cloned digest per call, no provider lookup. */
+final class Sha256 {
+
+  private static final MessageDigest PROTOTYPE;
+
+  static {
+    try {
+      PROTOTYPE = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private Sha256() {}
+
+  static String hex(String s) {
+    try {
+      var md = (MessageDigest) PROTOTYPE.clone();
+      return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
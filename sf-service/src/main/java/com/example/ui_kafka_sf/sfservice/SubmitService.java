@@ -0,0 +1,93 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLTransientConnectionException;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code POST /api/sf/submit}, independent of the HTTP stack. Status codes and bodies match the
+ * backend's {@code SfController} behind its security chain and {@code GlobalExceptionHandler}:
+ *
+ * <ul>
+ *   <li>no or invalid token → 403, empty body;
+ *   <li>unreadable JSON → 500 {@code {"error":"unknown_error"}};
+ *   <li>blank {@code fullName}/{@code email} → 400 {@code {"error":"validation_failed"}};
+ *   <li>pool wait timed out → 503 {@code {"error":"db_unavailable"}};
+ *   <li>otherwise 200 {@code {"status":"queued"}} or {@code {"status":"duplicate_ignored"}}.
+ * </ul>
+ *
+ * Every response echoes {@code X-Trace-Id} (the caller's, or a new UUID). Runs on a worker thread:
+ * the reservation blocks on JDBC.
+ */
+final class SubmitService {
+
+  private static final Logger log = LoggerFactory.getLogger(SubmitService.class);
+
+  /** A finished HTTP answer; {@code body} is JSON or empty. */
+  record Response(int status, String traceId, byte[] body) {}
+
+  private static final byte[] QUEUED = ascii("{\"status\":\"queued\"}");
+  private static final byte[] DUPLICATE = ascii("{\"status\":\"duplicate_ignored\"}");
+  private static final byte[] VALIDATION_FAILED = ascii("{\"error\":\"validation_failed\"}");
+  private static final byte[] DB_UNAVAILABLE = ascii("{\"error\":\"db_unavailable\"}");
+  private static final byte[] UNKNOWN_ERROR = ascii("{\"error\":\"unknown_error\"}");
+  private static final byte[] EMPTY = new byte[0];
+
+  private final JwtVerifier jwt;
+  private final IdempotencyStore store;
+  private final SfPublisher publisher;
+  private final ObjectMapper json;
+
+  SubmitService(JwtVerifier jwt, IdempotencyStore store, SfPublisher publisher, ObjectMapper json) {
+    this.jwt = jwt;
+    this.store = store;
+    this.publisher = publisher;
+    this.json = json;
+  }
+
+  /** The client's trace id if it is 1–64 visible ASCII characters (as the backend), else new. */
+  static String traceId(String header) {
+    if (header == null || header.isEmpty() || header.length() > 64)
+      return UUID.randomUUID().toString();
+    for (int i = 0; i < header.length(); i++) {
+      char c = header.charAt(i);
+      if (c < 0x21 || c > 0x7e) return UUID.randomUUID().toString();
+    }
+    return header;
+  }
+
+  Response submit(String authorization, String traceHeader, byte[] body) {
+    long acceptedAt = System.currentTimeMillis();
+    var trace = traceId(traceHeader);
+    if (!jwt.authenticated(authorization)) return new Response(403, trace, EMPTY);
+
+    SfEvent event;
+    try {
+      event = json.readValue(body, SfEvent.class);
+    } catch (Exception unreadable) {
+      return new Response(500, trace, UNKNOWN_ERROR);
+    }
+    if (event == null || !event.isValid()) return new Response(400, trace, VALIDATION_FAILED);
+
+    boolean firstTime;
+    try {
+      firstTime = store.tryReserveFirstSend(event.email(), event.keyHash());
+    } catch (SQLTransientConnectionException poolTimeout) {
+      return new Response(503, trace, DB_UNAVAILABLE);
+    } catch (Exception e) {
+      log.warn("sf reservation failed trace={}: {}", trace, e.toString());
+      return new Response(500, trace, UNKNOWN_ERROR);
+    }
+    if (!firstTime) return new Response(200, trace, DUPLICATE);
+
+    publisher.publish(event, trace, acceptedAt);
+    return new Response(200, trace, QUEUED);
+  }
+
+  private static byte[] ascii(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.ui_kafka_sf.sf;
+
+/** Exposes the backend's package-private SF key derivation to the sf-service parity tests. */
+public final class BackendSf {
+
+  private BackendSf() {}
+
+  public static String keyHash(String fullName, String email, String message) {
+    return SfController.keyHash(new SfEvent(fullName, email, message));
+  }
+
+  public static SfEvent event(String fullName, String email, String message) {
+    return new SfEvent(fullName, email, message);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.sf.SfReservationHome;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** sf-service refuses to run next to a backend that reserves SF keys on shards. */
+class IdempotencyStoreTest {
+
+  private final DataSource dataSource = mock(DataSource.class);
+  private final Statement statement = mock(Statement.class);
+  private final ResultSet rs = mock(ResultSet.class);
+  private final IdempotencyStore store = new IdempotencyStore(dataSource);
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    var connection = mock(Connection.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(IdempotencyStore.HOME)).thenReturn(rs);
+  }
+
+  private void home(String home) throws SQLException {
+    when(rs.next()).thenReturn(true);
+    when(rs.getString(1)).thenReturn(home);
+  }
+
+  @Test
+  void a_sharded_backend_stops_startup() throws SQLException {
+    home(SfReservationHome.SHARDS);
+    assertThatThrownBy(store::requireReservationsOnPrimary)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("app.sf-shards.enabled");
+  }
+
+  @Test
+  void a_backend_on_the_primary_database_is_fine() throws SQLException {
+    home(SfReservationHome.PRIMARY);
+    assertThatCode(store::requireReservationsOnPrimary).doesNotThrowAnyException();
+  }
+
+  @Test
+  void no_recorded_home_is_fine_but_other_errors_are_not() throws SQLException {
+    when(statement.executeQuery(IdempotencyStore.HOME))
+        .thenThrow(new SQLException("relation does not exist", "42P01"))
+        .thenThrow(new SQLException("connection refused", "08001"));
+    assertThatCode(store::requireReservationsOnPrimary).doesNotThrowAnyException();
+    assertThatThrownBy(store::requireReservationsOnPrimary).isInstanceOf(SQLException.class);
+  }
+}
@@ -0,0 +1,281 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * sf-service next to the monolith, both launched as separate JVMs against the same Postgres and
+ * Kafka containers:
+ *
+ * <ul>
+ *   <li>startup — launch until the first 200 from {@code /health} (sf-service) or {@code
+ *       /actuator/health/readiness} (backend);
+ *   <li>RSS — {@code VmRSS} from {@code /proc/<pid>/status} when ready, and the peak ({@code
+ *       VmHWM}) after the load;
+ *   <li>throughput — {@code bench.clients} (32) closed-loop clients posting unique {@code POST
+ *       /api/sf/submit} payloads for {@code bench.seconds} (15) after {@code bench.warmupSeconds}
+ *       (5); requests/sec, p50, p99 and non-2xx count.
+ * </ul>
+ *
+ * The JWT is minted with the backend's {@code JwtUtil} from the shared secret. Results are printed
+ * and written to {@code build/reports/ingest-benchmark.txt}; Linux only (RSS is read from {@code
+ * /proc}).
+ *
+ * <p>Run with {@code ./gradlew :sf-service:ingestBenchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class IngestBenchmark {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Container static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+  private static final String SECRET = "0123456789_0123456789_0123456789_01";
+  private static final int CLIENTS = Integer.getInteger("bench.clients", 32);
+  private static final int SECONDS = Integer.getInteger("bench.seconds", 15);
+  private static final int WARMUP_SECONDS = Integer.getInteger("bench.warmupSeconds", 5);
+  private static final Duration READY_TIMEOUT = Duration.ofSeconds(120);
+
+  private static final HttpClient HTTP =
+      HttpClient.newBuilder()
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .connectTimeout(Duration.ofSeconds(1))
+          .build();
+
+  record Result(
+      String mode,
+      double startupMs,
+      long readyRssKb,
+      long peakRssKb,
+      double rps,
+      double p50Ms,
+      double p99Ms,
+      long errors) {}
+
+  @Test
+  void compare_sf_service_and_backend() throws Exception {
+    var java = System.getProperty("bench.java", "java");
+    var work = Files.createTempDirectory("ingest-bench");
+    var props = new AppProperties();
+    props.getJwt().setSecret(SECRET);
+    var token = new JwtUtil(props).issue("ingest-bench", "STUDENT").token();
+
+    int backendPort = freePort();
+    var backend =
+        List.of(
+            java,
+            "-jar",
+            System.getProperty("bench.backend.jar"),
+            "--server.port=" + backendPort,
+            "--spring.datasource.url=" + postgres.getJdbcUrl(),
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            "--spring.kafka.bootstrap-servers=" + kafka.getBootstrapServers(),
+            "--app.jwt.secret=" + SECRET);
+    int sfPort = freePort();
+    var sfService =
+        List.of(
+            java,
+            "-XX:+UseSerialGC",
+            "-Xmx128m",
+            "-Xss512k",
+            "-cp",
+            System.getProperty("bench.sfService.classpath"),
+            SfServiceMain.class.getName());
+    var sfEnv =
+        Map.of(
+            "SF_SERVICE_PORT", String.valueOf(sfPort),
+            "DB_URL", postgres.getJdbcUrl(),
+            "DB_USER", postgres.getUsername(),
+            "DB_PASSWORD", postgres.getPassword(),
+            "KAFKA_BOOTSTRAP", kafka.getBootstrapServers(),
+            "JWT_SECRET", SECRET);
+
+    var results = new ArrayList<Result>();
+    // the backend first: its ddl-auto creates sf_idempotency the way the monolith expects it
+    results.add(
+        run(
+            "backend",
+            backend,
+            Map.of(),
+            "http://localhost:" + backendPort,
+            "/actuator/health/readiness",
+            token,
+            work));
+    results.add(
+        run("sf-service", sfService, sfEnv, "http://localhost:" + sfPort, "/health", token, work));
+
+    var report = new StringBuilder();
+    report
+        .append("clients=")
+        .append(CLIENTS)
+        .append(" seconds=")
+        .append(SECONDS)
+        .append('\n');
+    for (var r : results)
+      report.append(
+          String.format(
+              "%-10s startup %6.0f ms  rss ready %4d MB  peak %4d MB  %8.0f req/s"
+                  + "  p50 %6.2f ms  p99 %7.2f ms  non-2xx %d%n",
+              r.mode(),
+              r.startupMs(),
+              r.readyRssKb() / 1024,
+              r.peakRssKb() / 1024,
+              r.rps(),
+              r.p50Ms(),
+              r.p99Ms(),
+              r.errors()));
+
+    System.out.print(report);
+    var out = Path.of("build", "reports", "ingest-benchmark.txt");
+    Files.createDirectories(out.getParent());
+    Files.writeString(out, report);
+  }
+
+  private Result run(
+      String mode,
+      List<String> command,
+      Map<String, String> env,
+      String base,
+      String readyPath,
+      String token,
+      Path work)
+      throws Exception {
+    var log = work.resolve(mode + ".log");
+    var pb = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile());
+    pb.environment().putAll(env);
+    long t0 = System.nanoTime();
+    var process = pb.start();
+    try {
+      awaitReady(process, base + readyPath, t0, log);
+      double startupMs = (System.nanoTime() - t0) / 1e6;
+      long readyRss = procStatusKb(process.pid(), "VmRSS");
+
+      drive(base, token, mode + "-warmup", WARMUP_SECONDS);
+      var load = drive(base, token, mode, SECONDS);
+      var latencies = load.latencies();
+      return new Result(
+          mode,
+          startupMs,
+          readyRss,
+          procStatusKb(process.pid(), "VmHWM"),
+          latencies.length / (double) SECONDS,
+          percentileMs(latencies, 0.50),
+          percentileMs(latencies, 0.99),
+          load.errors());
+    } finally {
+      process.destroy();
+      if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly();
+    }
+  }
+
+  record Load(long[] latencies, long errors) {}
+
+  /** Closed loop: every client sends its next unique submit as soon as the previous one returns. */
+  private static Load drive(String base, String token, String run, int seconds) throws Exception {
+    var stop = new AtomicBoolean();
+    var errors = new AtomicLong();
+    var perClient = new ArrayList<List<Long>>();
+    var clients = new ArrayList<Thread>();
+    for (int c = 0; c < CLIENTS; c++) {
+      var mine = new ArrayList<Long>();
+      perClient.add(mine);
+      int client = c;
+      clients.add(
+          Thread.ofVirtual()
+              .start(
+                  () -> {
+                    for (long i = 0; !stop.get(); i++) {
+                      var body =
+                          "{\"fullName\":\"Ingest Bench\",\"email\":\""
+                              + run
+                              + "-"
+                              + client
+                              + "-"
+                              + i
+                              + "@bench.io\"}";
+                      var request =
+                          HttpRequest.newBuilder(URI.create(base + "/api/sf/submit"))
+                              .header("Content-Type", "application/json")
+                              .header("Authorization", "Bearer " + token)
+                              .POST(HttpRequest.BodyPublishers.ofString(body))
+                              .build();
+                      long sent = System.nanoTime();
+                      try {
+                        var resp = HTTP.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (resp.statusCode() / 100 != 2) errors.incrementAndGet();
+                      } catch (Exception e) {
+                        errors.incrementAndGet();
+                      }
+                      mine.add(System.nanoTime() - sent);
+                    }
+                  }));
+    }
+    Thread.sleep(Duration.ofSeconds(seconds));
+    stop.set(true);
+    for (var t : clients) t.join();
+
+    var latencies =
+        perClient.stream().flatMapToLong(l -> l.stream().mapToLong(Long::longValue)).toArray();
+    Arrays.sort(latencies);
+    return new Load(latencies.length == 0 ? new long[] {0} : latencies, errors.get());
+  }
+
+  private static void awaitReady(Process process, String url, long t0, Path log)
+      throws Exception {
+    var ready = HttpRequest.newBuilder(URI.create(url)).build();
+    while (System.nanoTime() - t0 < READY_TIMEOUT.toNanos()) {
+      if (!process.isAlive()) throw new IllegalStateException("exited, see " + log);
+      try {
+        if (HTTP.send(ready, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+      } catch (ConnectException notListeningYet) {
+        // keep polling
+      }
+      Thread.sleep(5);
+    }
+    throw new IllegalStateException("not ready within " + READY_TIMEOUT + ", see " + log);
+  }
+
+  /** A {@code kB} field of {@code /proc/<pid>/status}, e.g. {@code VmRSS}. */
+  private static long procStatusKb(long pid, String field) throws Exception {
+    for (var line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status")))
+      if (line.startsWith(field + ":"))
+        return Long.parseLong(line.substring(field.length() + 1).replace("kB", "").trim());
+    return -1;
+  }
+
+  private static int freePort() throws Exception {
+    try (var socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static double percentileMs(long[] sorted, double q) {
+    return sorted[(int) Math.max(0, Math.ceil(q * sorted.length) - 1)] / 1e6;
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.auth.dto.TokenRevokedEvent;
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/** The backend's revocation records, as its {@code KafkaTemplate} writes them, refuse tokens. */
+class RevocationFeedTest {
+
+  private static final String SECRET = "0123456789_0123456789_0123456789_01";
+  private static final TopicPartition TP = new TopicPartition("auth.revocations", 0);
+
+  private final ObjectMapper json =
+      new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private final MockConsumer<String, byte[]> consumer =
+      new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+  @Test
+  void replays_the_topic_before_serving_and_refuses_revoked_tokens() throws Exception {
+    var props = new AppProperties();
+    props.getJwt().setSecret(SECRET);
+    var jwt = new JwtUtil(props);
+    var alice = jwt.issue("alice", "STUDENT").token();
+    // what TokenRevocations.revokeUser writes when revoking right after alice's login
+    long aliceWatermark = JwtUtil.issuedAt(jwt.parse(alice)).getTime() + 1;
+    while (System.currentTimeMillis() < aliceWatermark) Thread.onSpinWait();
+    var aliceAgain = "Bearer " + jwt.issue("alice", "STUDENT").token();
+    var bob = jwt.issue("bob", "STUDENT").token();
+    var bobOther = "Bearer " + jwt.issue("bob", "STUDENT").token();
+    var bobJti = jwt.parse(bob).getId();
+
+    long now = System.currentTimeMillis() / 1000;
+    consumer.updatePartitions(
+        TP.topic(), List.of(new PartitionInfo(TP.topic(), 0, null, null, null)));
+    consumer.updateBeginningOffsets(Map.of(TP, 0L));
+    consumer.updateEndOffsets(Map.of(TP, 3L));
+    consumer.schedulePollTask(
+        () -> {
+          consumer.addRecord(record(
+                  0,
+                  new TokenRevokedEvent(
+                      "alice", null, now + 1, now + 7200, aliceWatermark)));
+          consumer.addRecord(record(1, new TokenRevokedEvent("bob", bobJti, 0, now + 7200)));
+          // expired before it was replayed
+          consumer.addRecord(record(2, new TokenRevokedEvent("carol", null, now + 1, now - 1)));
+        });
+
+    try (var feed = new RevocationFeed(consumer, TP.topic(), json)) {
+      assertThat(feed.awaitReplay(Duration.ofSeconds(5))).isTrue();
+      var verifier = new JwtVerifier(SECRET, feed);
+      assertThat(verifier.authenticated("Bearer " + alice)).isFalse();
+      assertThat(verifier.authenticated(aliceAgain)).as("logged in again").isTrue();
+      assertThat(verifier.authenticated("Bearer " + bob)).isFalse();
+      assertThat(verifier.authenticated(bobOther)).isTrue();
+      assertThat(verifier.authenticated("Bearer " + jwt.issue("carol", "STUDENT").token()))
+          .isTrue();
+    }
+  }
+
+  private ConsumerRecord<String, byte[]> record(long offset, TokenRevokedEvent evt) {
+    var headers = new RecordHeaders();
+    byte[] value;
+    try (var spring = new JsonSerializer<>()) {
+      value = spring.serialize(TP.topic(), headers, evt);
+    }
+    return new ConsumerRecord<>(
+        TP.topic(),
+        TP.partition(),
+        offset,
+        System.currentTimeMillis(),
+        TimestampType.CREATE_TIME,
+        -1,
+        -1,
+        evt.username(),
+        value,
+        headers,
+        Optional.empty());
+  }
+}
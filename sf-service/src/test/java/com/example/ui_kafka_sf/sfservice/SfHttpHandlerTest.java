@@ -0,0 +1,61 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class SfHttpHandlerTest {
+
+  @Test
+  void pipelined_requests_are_answered_in_order() {
+    var service = mock(SubmitService.class);
+    when(service.submit(any(), any(), any()))
+        .thenAnswer(inv -> new SubmitService.Response(200, inv.getArgument(1), null));
+    var workers = new ArrayDeque<Runnable>();
+    var server = new EmbeddedChannel();
+    SfHttpHandler.install(server.pipeline(), service, workers::add);
+
+    // both requests arrive in one read
+    server.writeInbound(
+        Unpooled.copiedBuffer(submit("t-1") + submit("t-2"), StandardCharsets.US_ASCII));
+
+    // the second is held back until the first is answered, so finishing order cannot matter
+    assertThat(workers).hasSize(1);
+    workers.poll().run();
+    assertThat(workers).hasSize(1);
+    workers.poll().run();
+
+    var written = new StringBuilder();
+    ByteBuf out;
+    while ((out = server.readOutbound()) != null) {
+      written.append(out.toString(StandardCharsets.US_ASCII));
+      out.release();
+    }
+    assertThat(
+            Pattern.compile(SfPublisher.TRACE_ID + ": (\\S+)", Pattern.CASE_INSENSITIVE)
+                .matcher(written)
+                .results()
+                .map(m -> m.group(1)))
+        .containsExactly("t-1", "t-2");
+  }
+
+  private static String submit(String traceId) {
+    var body = "{\"fullName\":\"Ann\",\"email\":\"ann@x.io\"}";
+    return "POST " + SfHttpHandler.SUBMIT + " HTTP/1.1\r\n"
+        + "Host: sf\r\n"
+        + SfPublisher.TRACE_ID + ": " + traceId + "\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: " + body.length() + "\r\n"
+        + "\r\n"
+        + body;
+  }
+}
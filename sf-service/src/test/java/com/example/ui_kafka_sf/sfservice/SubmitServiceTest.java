@@ -0,0 +1,133 @@
+package com.example.ui_kafka_sf.sfservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.ui_kafka_sf.auth.AppProperties;
+import com.example.ui_kafka_sf.auth.util.JwtUtil;
+import com.example.ui_kafka_sf.sf.BackendSf;
+import com.example.ui_kafka_sf.sf.SfHeaders;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/** sf-service must be indistinguishable from the backend's {@code SfController}. */
+class SubmitServiceTest {
+
+  private static final String SECRET = "0123456789_0123456789_0123456789_01";
+
+  private final ObjectMapper json =
+      new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private final MockProducer<String, byte[]> producer =
+      new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+  private final IdempotencyStore store = mock(IdempotencyStore.class);
+  private final Set<String> revokedUsers = ConcurrentHashMap.newKeySet();
+  private SubmitService service;
+  private String bearer;
+
+  @BeforeEach
+  void setUp() {
+    service =
+        new SubmitService(
+            new JwtVerifier(SECRET, (username, jti, iat) -> revokedUsers.contains(username)),
+            store,
+            new SfPublisher(producer, "sf.events", json),
+            json);
+    var props = new AppProperties();
+    props.getJwt().setSecret(SECRET);
+    bearer = "Bearer " + new JwtUtil(props).issue("alice", "STUDENT").token();
+  }
+
+  @Test
+  void key_hash_matches_backend() {
+    assertThat(new SfEvent("Ann Lee", "ann@x.io", null).keyHash())
+        .isEqualTo(BackendSf.keyHash("Ann Lee", "ann@x.io", null));
+    assertThat(new SfEvent("Zoë", "z@x.io", "héllo | world").keyHash())
+        .isEqualTo(BackendSf.keyHash("Zoë", "z@x.io", "héllo | world"));
+  }
+
+  @Test
+  void first_submit_publishes_the_backend_record() throws Exception {
+    when(store.tryReserveFirstSend("ann@x.io", BackendSf.keyHash("Ann", "ann@x.io", "hi")))
+        .thenReturn(true);
+
+    var r = service.submit(bearer, "trace-1", body("Ann", "ann@x.io", "hi"));
+
+    assertThat(r.status()).isEqualTo(200);
+    assertThat(r.traceId()).isEqualTo("trace-1");
+    assertThat(new String(r.body(), StandardCharsets.UTF_8)).isEqualTo("{\"status\":\"queued\"}");
+
+    var sent = producer.history();
+    assertThat(sent).hasSize(1);
+    var record = sent.get(0);
+    var springHeaders = new RecordHeaders();
+    byte[] springValue;
+    try (var spring = new JsonSerializer<>()) {
+      springValue =
+          spring.serialize("sf.events", springHeaders, BackendSf.event("Ann", "ann@x.io", "hi"));
+    }
+    assertThat(record.key()).isEqualTo("ann@x.io");
+    assertThat(record.value()).isEqualTo(springValue);
+    assertThat(record.headers().lastHeader("__TypeId__").value())
+        .isEqualTo(springHeaders.lastHeader("__TypeId__").value());
+    assertThat(record.headers().lastHeader("X-Trace-Id").value()).isEqualTo("trace-1".getBytes());
+    assertThat(record.headers().lastHeader("X-Accepted-At")).isNotNull();
+  }
+
+  @Test
+  void duplicates_invalid_input_and_auth_failures_answer_like_the_backend() throws Exception {
+    when(store.tryReserveFirstSend(anyString(), anyString())).thenReturn(false);
+
+    var duplicate = service.submit(bearer, null, body("Ann", "ann@x.io", null));
+    assertThat(duplicate.status()).isEqualTo(200);
+    assertThat(new String(duplicate.body(), StandardCharsets.UTF_8))
+        .isEqualTo("{\"status\":\"duplicate_ignored\"}");
+    assertThat(duplicate.traceId()).isNotBlank();
+    assertThat(producer.history()).isEmpty();
+
+    assertThat(service.submit(null, null, body("Ann", "ann@x.io", null)).status()).isEqualTo(403);
+    assertThat(service.submit(bearer + "x", null, body("Ann", "a@x.io", null)).status())
+        .isEqualTo(403);
+    assertThat(service.submit(bearer, null, body(" ", "ann@x.io", null)).status()).isEqualTo(400);
+    assertThat(service.submit(bearer, null, "{not json".getBytes()).status()).isEqualTo(500);
+
+    when(store.tryReserveFirstSend(anyString(), anyString()))
+        .thenThrow(new SQLTransientConnectionException("pool timeout"));
+    var unavailable = service.submit(bearer, null, body("Bo", "bo@x.io", null));
+    assertThat(unavailable.status()).isEqualTo(503);
+    assertThat(new String(unavailable.body(), StandardCharsets.UTF_8))
+        .isEqualTo("{\"error\":\"db_unavailable\"}");
+
+    revokedUsers.add("alice");
+    assertThat(service.submit(bearer, null, body("Bo", "bo@x.io", null)).status()).isEqualTo(403);
+  }
+
+  @Test
+  void only_short_visible_ascii_trace_ids_are_kept_like_the_backend() {
+    for (var header :
+        new String[] {"trace-1", "x".repeat(64), "x".repeat(65), "", " ", "a b", "a\r\nb", "é"}) {
+      boolean kept = SubmitService.traceId(header).equals(header);
+      assertThat(kept).as(header).isEqualTo(SfHeaders.validTraceId(header));
+      assertThat(SfHeaders.traceIdOrNew(header).equals(header)).as(header).isEqualTo(kept);
+    }
+    assertThat(SfHeaders.validTraceId("x".repeat(64))).isTrue();
+    assertThat(SfHeaders.validTraceId("x".repeat(65))).isFalse();
+    assertThat(SfHeaders.validTraceId("a\r\nb")).isFalse();
+  }
+
+  private byte[] body(String fullName, String email, String message) throws Exception {
+    return json.writeValueAsBytes(new SfEvent(fullName, email, message));
+  }
+}